@@ -0,0 +1,86 @@
+/**
+ * @file BenchACP.java
+ * @brief Benchmarks des étapes de l'ACP : statistiques, décomposition, projection et reconstruction.
+ */
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.acp.ResultatACP;
+import model.acp.ResultatMoyCov;
+import model.patch.MatricePatchs;
+import model.patch.ResultatVecteur;
+import service.acp.ProcesseurACP;
+import service.acp.Troncature;
+import service.patch.GestionnairePatchs;
+
+/**
+ * @class BenchACP
+ * @brief Mesure chaque méthode de ProcesseurACP à partir des résultats de l'étape précédente, calculés une fois.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchACP {
+
+	/**
+	 * @class Etat
+	 * @brief Entrées de chaque étape de l'ACP.
+	 */
+	@State(Scope.Benchmark)
+	public static class Etat extends EtatPatchs {
+
+		public ProcesseurACP processeur = new ProcesseurACP();
+		public MatricePatchs patchs;
+		public ResultatMoyCov moyCov;
+		public ResultatACP base;
+		public ResultatVecteur coefficients;
+
+		@Override
+		protected void preparer() {
+			patchs = new GestionnairePatchs().extraireMatricePatchs(xB, taillePatch);
+			moyCov = processeur.moyCov(patchs);
+			base = processeur.acp(moyCov);
+			coefficients = processeur.proj(base.getVecteursPropres(), patchs, base.getVecteurMoyen());
+		}
+	}
+
+	@Benchmark
+	public ResultatMoyCov moyCov(Etat etat) {
+		return etat.processeur.moyCov(etat.patchs);
+	}
+
+	@Benchmark
+	public ResultatACP acp(Etat etat) {
+		return etat.processeur.acp(etat.moyCov);
+	}
+
+	@Benchmark
+	public ResultatACP acpTronquee(Etat etat) {
+		return etat.processeur.acp(etat.moyCov, Troncature.bruit(EtatImage.SIGMA));
+	}
+
+	@Benchmark
+	public ResultatVecteur proj(Etat etat) {
+		return etat.processeur.proj(etat.base.getVecteursPropres(), etat.patchs, etat.base.getVecteurMoyen());
+	}
+
+	@Benchmark
+	public ResultatVecteur reconstructionDepuisCoefficients(Etat etat) {
+		return etat.processeur.reconstructionDepuisCoefficients(etat.coefficients, etat.base.getVecteursPropres(),
+				etat.base.getVecteurMoyen());
+	}
+}
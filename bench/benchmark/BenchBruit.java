@@ -0,0 +1,36 @@
+/**
+ * @file BenchBruit.java
+ * @brief Benchmark de l'ajout de bruit gaussien.
+ */
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.base.Img;
+import service.bruit.BruiteurImage;
+
+/**
+ * @class BenchBruit
+ * @brief Mesure BruiteurImage.noising sur l'image de référence.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchBruit {
+
+	@Benchmark
+	public Img noising(EtatImage etat) {
+		return BruiteurImage.noising(etat.x0, EtatImage.SIGMA);
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * @file BenchClustering.java
+ * @brief Benchmark du partitionnement des patchs par k-means.
+ */
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.base.Vecteur;
+import model.cluster.ResultatKMeans;
+import service.cluster.Clustering;
+import service.cluster.MoteurKMeans;
+import service.cluster.MoteurKMeansMiniBatch;
+import service.cluster.TauxApprentissage;
+import service.patch.GestionnairePatchs;
+
+/**
+ * @class BenchClustering
+ * @brief Mesure le k-means sur les patchs de l'image : par la liste de vecteurs (Clustering.kmeansClustering),
+ * directement sur la matrice contiguë des patchs (MoteurKMeans) et par mini-lots (MoteurKMeansMiniBatch), à graine
+ * fixe. Les mini-lots sont mesurés avec chaque calendrier du taux d'apprentissage.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchClustering {
+
+	/**
+	 * @class Etat
+	 * @brief Patchs vectorisés de l'image, extraits une fois.
+	 */
+	@State(Scope.Benchmark)
+	public static class Etat extends EtatPatchs {
+
+		//Nombre de clusters
+		@Param({ "4", "16" })
+		public int nbClusters;
+
+		public List<Vecteur> vecteurs;
+		//Patchs stockés ligne par ligne
+		public double[] points;
+		public int nbPoints;
+		public int dimension;
+
+		@Override
+		protected void preparer() {
+			GestionnairePatchs gestionnaire = new GestionnairePatchs();
+			vecteurs = gestionnaire.vectorPatchs(gestionnaire.extractPatchs(xB, taillePatch)).getVecteurs();
+			dimension = vecteurs.get(0).taille();
+			nbPoints = vecteurs.size();
+			points = new double[nbPoints * dimension];
+			for (int i = 0; i < nbPoints; i++) {
+				System.arraycopy(vecteurs.get(i).getValeurs(), 0, points, i * dimension, dimension);
+			}
+		}
+	}
+
+	/**
+	 * @class EtatMiniLots
+	 * @brief Ajoute le calendrier du taux d'apprentissage aux paramètres du k-means par mini-lots.
+	 */
+	@State(Scope.Benchmark)
+	public static class EtatMiniLots extends Etat {
+
+		//Calendrier du taux : 1/n par centre, décroissant (0,5 divisé par deux après 20 mini-lots) ou constant (0,05)
+		@Param({ "parCentre", "decroissant", "constant" })
+		public String calendrier;
+
+		public TauxApprentissage taux;
+
+		@Override
+		protected void preparer() {
+			super.preparer();
+			taux = switch (calendrier) {
+			case "decroissant" -> TauxApprentissage.decroissant(0.5, 20);
+			case "constant" -> TauxApprentissage.constant(0.05);
+			default -> TauxApprentissage.parCentre();
+			};
+		}
+	}
+
+	@Benchmark
+	public int[] kmeansClustering(Etat etat) {
+		return Clustering.kmeansClustering(etat.vecteurs, etat.nbClusters);
+	}
+
+	@Benchmark
+	public ResultatKMeans partitionner(Etat etat) {
+		MoteurKMeans moteur = new MoteurKMeans();
+		moteur.setGraine(1);
+		return moteur.partitionner(etat.points, etat.nbPoints, etat.dimension, etat.nbClusters);
+	}
+
+	@Benchmark
+	public ResultatKMeans partitionnerMiniLots(EtatMiniLots etat) {
+		MoteurKMeansMiniBatch moteur = new MoteurKMeansMiniBatch();
+		moteur.setGraine(1);
+		moteur.setTaux(etat.taux);
+		return moteur.partitionner(etat.points, etat.nbPoints, etat.dimension, etat.nbClusters);
+	}
+}
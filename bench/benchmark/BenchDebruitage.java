@@ -0,0 +1,76 @@
+/**
+ * @file BenchDebruitage.java
+ * @brief Benchmarks de bout en bout du débruitage, en mode global, local et par clusters.
+ */
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.base.Img;
+import service.debruitage.DebruiteurImage;
+
+/**
+ * @class BenchDebruitage
+ * @brief Mesure DebruiteurImage.imageDen (VisuShrink, seuillage dur) sur l'image bruitée.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchDebruitage {
+
+	/**
+	 * @class EtatLocal
+	 * @brief Ajoute la taille des fenêtres aux paramètres du mode local.
+	 */
+	@State(Scope.Benchmark)
+	public static class EtatLocal extends EtatPatchs {
+
+		//Taille des fenêtres du mode local
+		@Param({ "150", "250" })
+		public int tailleFenetre;
+	}
+
+	/**
+	 * @class EtatClusters
+	 * @brief Ajoute le nombre de clusters aux paramètres du mode par clusters.
+	 */
+	@State(Scope.Benchmark)
+	public static class EtatClusters extends EtatPatchs {
+
+		//Nombre de clusters du k-means
+		@Param({ "4", "8", "16" })
+		public int nbClusters;
+	}
+
+	@Benchmark
+	public Img imageDenGlobal(EtatPatchs etat) {
+		return new DebruiteurImage().imageDen(etat.xB, "VisuShrink", "Dur", EtatImage.SIGMA, etat.taillePatch, 0,
+				false);
+	}
+
+	@Benchmark
+	public Img imageDenLocal(EtatLocal etat) {
+		return new DebruiteurImage().imageDen(etat.xB, "VisuShrink", "Dur", EtatImage.SIGMA, etat.taillePatch,
+				etat.tailleFenetre, true);
+	}
+
+	@Benchmark
+	public Img imageDenClusters(EtatClusters etat) {
+		return new DebruiteurImage().imageDenClusters(etat.xB, "VisuShrink", "Dur", EtatImage.SIGMA, etat.taillePatch,
+				etat.nbClusters);
+	}
+}
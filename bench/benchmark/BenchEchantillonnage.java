@@ -0,0 +1,141 @@
+/**
+ * @file BenchEchantillonnage.java
+ * @brief Estimation de la covariance sur un échantillon de patchs : temps (JMH), erreur de la base et PSNR.
+ */
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mesure.Journal;
+import model.acp.ResultatACP;
+import model.acp.ResultatMoyCov;
+import model.base.Img;
+import model.patch.MatricePatchs;
+import service.acp.Echantillonnage;
+import service.acp.ProcesseurACP;
+import service.bruit.BruiteurImage;
+import service.debruitage.DebruiteurImage;
+import service.evaluation.EvaluationQualite;
+import service.patch.GestionnairePatchs;
+
+/**
+ * @class BenchEchantillonnage
+ * @brief Mesure ProcesseurACP.moyCov sur tous les patchs et sur un échantillon. Lancée directement (méthode main),
+ * la classe compare, pour chaque manière de tirer les patchs et chaque fraction, l'erreur de la base estimée par
+ * ProcesseurACP.erreurBase, l'erreur réelle (écart à la base de tous les patchs) et le PSNR du débruitage global.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchEchantillonnage {
+
+	//Fractions comparées par la méthode main
+	private static final double[] FRACTIONS = { 0.02, 0.05, 0.1, 0.25, 0.5 };
+
+	/**
+	 * @class EtatEchantillonnage
+	 * @brief Ajoute la manière de tirer les patchs et la fraction tirée aux paramètres des patchs.
+	 */
+	@State(Scope.Benchmark)
+	public static class EtatEchantillonnage extends EtatPatchs {
+
+		//Manière de tirer les patchs
+		@Param({ "uniforme", "stratifie", "variance" })
+		public String type;
+
+		//Fraction des patchs tirés
+		@Param({ "0.1" })
+		public double fraction;
+
+		public MatricePatchs patchs;
+		public Echantillonnage echantillonnage;
+
+		@Override
+		protected void preparer() {
+			patchs = new GestionnairePatchs().extraireMatricePatchs(xB, taillePatch);
+			echantillonnage = Echantillonnage.depuisNom(type, fraction);
+		}
+	}
+
+	@Benchmark
+	public ResultatMoyCov moyCovComplet(EtatEchantillonnage etat) {
+		return new ProcesseurACP().moyCov(etat.patchs);
+	}
+
+	@Benchmark
+	public ResultatMoyCov moyCovEchantillon(EtatEchantillonnage etat) {
+		return new ProcesseurACP().moyCov(etat.patchs, etat.echantillonnage);
+	}
+
+	/**
+	 * @brief Compare les échantillonnages sur chaque image d'un dossier (data/x0 par défaut), en mode global avec
+	 * des patchs de 7 et de 17, VisuShrink et seuillage dur.
+	 * @author Paul
+	 * @param args Dossier des images (facultatif).
+	 * @throws IOException Si une image ne peut pas être lue.
+	 */
+	public static void main(String[] args) throws IOException {
+		String dossier = args.length > 0 ? args[0] : System.getProperty("denoize.donnees", "data/x0");
+		String[] images = { "lena_gray.png", "crocodilo_gray.jpg", "nyancat_gray.png", "moto_gray.jpeg" };
+		String[] types = { "uniforme", "stratifie", "variance" };
+		EvaluationQualite evaluation = new EvaluationQualite();
+		ProcesseurACP processeur = new ProcesseurACP();
+		GestionnairePatchs gestionnaire = new GestionnairePatchs();
+		Journal.setNiveau(Journal.Niveau.SILENCIEUX);
+
+		System.out.println("image,patch,type,fraction,erreur_estimee,erreur_reelle,psnr_complet,"
+				+ "psnr_echantillon,temps_complet_ms,temps_echantillon_ms");
+		for (String nom : images) {
+			File fichier = new File(dossier, nom);
+			if (!fichier.isFile()) {
+				continue;
+			}
+			Img x0 = new Img(fichier.getPath());
+			Img xB = BruiteurImage.noising(x0, EtatImage.SIGMA);
+			for (int taillePatch : new int[] { 7, 17 }) {
+				MatricePatchs patchs = gestionnaire.extraireMatricePatchs(xB, taillePatch);
+				long debut = System.nanoTime();
+				ResultatACP baseComplete = processeur.acp(processeur.moyCov(patchs));
+				long dureeComplete = System.nanoTime() - debut;
+				double psnrComplet = evaluation.psnr(x0,
+						new DebruiteurImage().imageDen(xB, "VisuShrink", "Dur", EtatImage.SIGMA, taillePatch, 0, false));
+
+				for (String type : types) {
+					for (double fraction : FRACTIONS) {
+						Echantillonnage echantillonnage = Echantillonnage.depuisNom(type, fraction);
+						debut = System.nanoTime();
+						ResultatACP base = processeur.acp(processeur.moyCov(patchs, echantillonnage));
+						long duree = System.nanoTime() - debut;
+						double estimee = processeur.erreurBase(patchs, echantillonnage, EtatImage.SIGMA);
+						double reelle = ProcesseurACP.ecartBases(base, baseComplete, EtatImage.SIGMA);
+
+						DebruiteurImage debruiteur = new DebruiteurImage();
+						debruiteur.setEchantillonnage(echantillonnage);
+						double psnr = evaluation.psnr(x0,
+								debruiteur.imageDen(xB, "VisuShrink", "Dur", EtatImage.SIGMA, taillePatch, 0, false));
+						System.out.println(String.format(Locale.ROOT, "%s,%d,%s,%.2f,%.4f,%.4f,%.4f,%.4f,%.1f,%.1f",
+								nom, taillePatch, type, fraction, estimee, reelle, psnrComplet, psnr,
+								dureeComplete / 1e6, duree / 1e6));
+					}
+				}
+			}
+		}
+	}
+}
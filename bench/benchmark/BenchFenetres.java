@@ -0,0 +1,61 @@
+/**
+ * @file BenchFenetres.java
+ * @brief Benchmark du découpage de l'image en fenêtres.
+ */
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.patch.Fenetre;
+import model.patch.ParametresFenetre;
+import service.patch.GestionnairePatchs;
+
+/**
+ * @class BenchFenetres
+ * @brief Mesure GestionnairePatchs.decoupageImage pour différentes tailles de fenêtre.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchFenetres {
+
+	/**
+	 * @class Etat
+	 * @brief Paramètres de découpage calculés une fois par taille de fenêtre.
+	 */
+	@State(Scope.Benchmark)
+	public static class Etat extends EtatImage {
+
+		//Taille des fenêtres du mode local
+		@Param({ "150", "250" })
+		public int tailleFenetre;
+
+		public GestionnairePatchs gestionnaire = new GestionnairePatchs();
+		public ParametresFenetre parametres;
+
+		@Override
+		protected void preparer() {
+			parametres = ParametresFenetre.calculerParametresFenetre(xB.getLargeur(), xB.getHauteur(), tailleFenetre);
+		}
+	}
+
+	@Benchmark
+	public List<Fenetre> decoupageImage(Etat etat) {
+		return etat.gestionnaire.decoupageImage(etat.xB, etat.parametres);
+	}
+}
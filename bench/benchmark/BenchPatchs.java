@@ -0,0 +1,72 @@
+/**
+ * @file BenchPatchs.java
+ * @brief Benchmarks de l'extraction, de la vectorisation et de la reconstruction des patchs.
+ */
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.base.Img;
+import model.patch.MatricePatchs;
+import model.patch.ResultatPatch;
+import model.patch.ResultatVecteur;
+import service.patch.GestionnairePatchs;
+
+/**
+ * @class BenchPatchs
+ * @brief Mesure les opérations de GestionnairePatchs sur le premier canal de l'image bruitée.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchPatchs {
+
+	/**
+	 * @class Etat
+	 * @brief Patchs extraits une fois pour les benchmarks de vectorisation et de reconstruction.
+	 */
+	@State(Scope.Benchmark)
+	public static class Etat extends EtatPatchs {
+
+		public GestionnairePatchs gestionnaire = new GestionnairePatchs();
+		public ResultatPatch patchs;
+
+		@Override
+		protected void preparer() {
+			patchs = gestionnaire.extractPatchs(xB, taillePatch);
+		}
+	}
+
+	@Benchmark
+	public ResultatPatch extractPatchs(Etat etat) {
+		return etat.gestionnaire.extractPatchs(etat.xB, etat.taillePatch);
+	}
+
+	@Benchmark
+	public MatricePatchs extraireMatricePatchs(Etat etat) {
+		return etat.gestionnaire.extraireMatricePatchs(etat.xB, etat.taillePatch);
+	}
+
+	@Benchmark
+	public ResultatVecteur vectorPatchs(Etat etat) {
+		return etat.gestionnaire.vectorPatchs(etat.patchs);
+	}
+
+	@Benchmark
+	public Img reconstructionPatchs(Etat etat) {
+		return etat.gestionnaire.reconstructionPatchs(etat.patchs, etat.xB.getHauteur(), etat.xB.getLargeur(), etat.xB);
+	}
+}
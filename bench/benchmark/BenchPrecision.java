@@ -0,0 +1,153 @@
+/**
+ * @file BenchPrecision.java
+ * @brief Comparaison du débruitage en double et en simple précision : temps (JMH) et écart de PSNR sur data/x0.
+ */
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mesure.Journal;
+import model.base.Img;
+import service.acp.EntraineurBases;
+import service.bruit.BruiteurImage;
+import service.debruitage.DebruiteurImage;
+import service.evaluation.EvaluationQualite;
+
+/**
+ * @class BenchPrecision
+ * @brief Mesure DebruiteurImage.imageDen (VisuShrink, seuillage dur) en double et en float. Lancée directement
+ * (méthode main), la classe débruite chaque image de data/x0 dans les deux précisions, à partir de la même image
+ * bruitée, et affiche le PSNR de chacune et leur écart.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchPrecision {
+
+	/**
+	 * @class EtatPrecision
+	 * @brief Ajoute la précision de calcul et la taille des fenêtres du mode local aux paramètres des patchs.
+	 */
+	@State(Scope.Benchmark)
+	public static class EtatPrecision extends EtatPatchs {
+
+		//Précision de la projection, du seuillage et de la reconstruction
+		@Param({ "double", "float32" })
+		public String precision;
+
+		//Taille des fenêtres du mode local
+		@Param({ "250" })
+		public int tailleFenetre;
+
+		/**
+		 * @brief Crée un débruiteur dans la précision du benchmark.
+		 * @author Paul
+		 * @return Débruiteur configuré.
+		 */
+		DebruiteurImage debruiteur() {
+			DebruiteurImage debruiteur = new DebruiteurImage();
+			debruiteur.setSimplePrecision(precision.equals("float32"));
+			return debruiteur;
+		}
+	}
+
+	@Benchmark
+	public Img imageDenGlobal(EtatPrecision etat) {
+		return etat.debruiteur().imageDen(etat.xB, "VisuShrink", "Dur", EtatImage.SIGMA, etat.taillePatch, 0, false);
+	}
+
+	@Benchmark
+	public Img imageDenLocal(EtatPrecision etat) {
+		return etat.debruiteur().imageDen(etat.xB, "VisuShrink", "Dur", EtatImage.SIGMA, etat.taillePatch,
+				etat.tailleFenetre, true);
+	}
+
+	/**
+	 * @brief Compare les deux précisions sur chaque image d'un dossier (data/x0 par défaut), en mode global
+	 * (patchs 17) et local (patchs 7, fenêtres 250), pour VisuShrink et BayesShrink en seuillage dur.
+	 * @author Paul
+	 * @param args Dossier des images (facultatif).
+	 * @throws IOException Si le dossier est vide ou si une image ne peut pas être lue.
+	 */
+	public static void main(String[] args) throws IOException {
+		String dossier = args.length > 0 ? args[0] : System.getProperty("denoize.donnees", "data/x0");
+		String[] typesSeuil = { "VisuShrink", "BayesShrink" };
+		String[] fonctions = { "Dur", "Dur" };
+		EvaluationQualite evaluation = new EvaluationQualite();
+		Journal.setNiveau(Journal.Niveau.SILENCIEUX);
+
+		System.out.println("image,mode,shrink,psnr_double,psnr_float32,ecart_psnr,pixels_differents,"
+				+ "temps_double_ms,temps_float32_ms");
+		double ecartMax = 0;
+		List<String> images = EntraineurBases.listerImages(dossier);
+		for (String chemin : images) {
+			Img x0 = new Img(chemin);
+			Img xB = BruiteurImage.noising(x0, EtatImage.SIGMA);
+			for (boolean modeLocal : new boolean[] { false, true }) {
+				int taillePatch = modeLocal ? 7 : 17;
+				int tailleFenetre = Math.min(250, Math.min(xB.getHauteur(), xB.getLargeur()));
+
+				Img[][] resultats = new Img[2][];
+				long[] durees = new long[2];
+				for (int p = 0; p < 2; p++) {
+					DebruiteurImage debruiteur = new DebruiteurImage();
+					debruiteur.setSimplePrecision(p == 1);
+					long debut = System.nanoTime();
+					resultats[p] = debruiteur.imageDen(xB, typesSeuil, fonctions, EtatImage.SIGMA, taillePatch,
+							tailleFenetre, modeLocal);
+					durees[p] = System.nanoTime() - debut;
+				}
+
+				for (int v = 0; v < typesSeuil.length; v++) {
+					double psnrDouble = evaluation.psnr(x0, resultats[0][v]);
+					double psnrSimple = evaluation.psnr(x0, resultats[1][v]);
+					ecartMax = Math.max(ecartMax, Math.abs(psnrSimple - psnrDouble));
+					System.out.println(String.format(Locale.ROOT, "%s,%s,%s,%.4f,%.4f,%+.4f,%d,%.0f,%.0f",
+							new File(chemin).getName(), modeLocal ? "local" : "global", typesSeuil[v], psnrDouble,
+							psnrSimple, psnrSimple - psnrDouble, pixelsDifferents(resultats[0][v], resultats[1][v]),
+							durees[0] / 1e6, durees[1] / 1e6));
+				}
+			}
+		}
+		System.out.println(String.format(Locale.ROOT, "# écart de PSNR maximal : %.4f dB", ecartMax));
+	}
+
+	/**
+	 * @brief Compte les échantillons qui diffèrent entre deux images de mêmes dimensions.
+	 * @author Paul
+	 * @param a Première image.
+	 * @param b Seconde image.
+	 * @return Nombre d'échantillons différents, tous canaux confondus.
+	 */
+	private static long pixelsDifferents(Img a, Img b) {
+		long differents = 0;
+		for (int k = 0; k < a.getNbCanaux(); k++) {
+			double[] canalA = a.getCanal(k);
+			double[] canalB = b.getCanal(k);
+			for (int i = 0; i < canalA.length; i++) {
+				if (canalA[i] != canalB[i]) {
+					differents++;
+				}
+			}
+		}
+		return differents;
+	}
+}
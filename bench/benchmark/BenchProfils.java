@@ -0,0 +1,142 @@
+/**
+ * @file BenchProfils.java
+ * @brief Coût et qualité des profils de débruitage (rapide, équilibré, qualité) : temps (JMH) et PSNR sur data/x0.
+ */
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mesure.Journal;
+import model.base.Img;
+import service.acp.EntraineurBases;
+import service.bruit.BruiteurImage;
+import service.debruitage.DebruiteurImage;
+import service.debruitage.ProfilDebruitage;
+import service.evaluation.EvaluationQualite;
+
+/**
+ * @class BenchProfils
+ * @brief Mesure DebruiteurImage.imageDen (VisuShrink, seuillage dur) avec chaque profil de débruitage. Lancée
+ * directement (méthode main), la classe débruite chaque image de data/x0 avec chaque profil, en mode global et
+ * local, et affiche le temps et le PSNR obtenus, puis leur moyenne par mode et par profil.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchProfils {
+
+	/**
+	 * @class EtatProfil
+	 * @brief Ajoute le profil de débruitage et la taille des fenêtres du mode local aux paramètres des patchs.
+	 */
+	@State(Scope.Benchmark)
+	public static class EtatProfil extends EtatPatchs {
+
+		//Nom anglais du profil
+		@Param({ "fast", "balanced", "quality" })
+		public String profil;
+
+		//Taille des fenêtres du mode local
+		@Param({ "250" })
+		public int tailleFenetre;
+
+		/**
+		 * @brief Crée un débruiteur réglé selon le profil du benchmark.
+		 * @author Paul
+		 * @return Débruiteur configuré.
+		 */
+		DebruiteurImage debruiteur() {
+			DebruiteurImage debruiteur = new DebruiteurImage();
+			debruiteur.setProfil(ProfilDebruitage.depuisNom(profil), taillePatch, EtatImage.SIGMA);
+			return debruiteur;
+		}
+	}
+
+	@Benchmark
+	public Img imageDenGlobal(EtatProfil etat) {
+		return etat.debruiteur().imageDen(etat.xB, "VisuShrink", "Dur", EtatImage.SIGMA, etat.taillePatch, 0, false);
+	}
+
+	@Benchmark
+	public Img imageDenLocal(EtatProfil etat) {
+		return etat.debruiteur().imageDen(etat.xB, "VisuShrink", "Dur", EtatImage.SIGMA, etat.taillePatch,
+				etat.tailleFenetre, true);
+	}
+
+	/**
+	 * @brief Compare les profils sur chaque image d'un dossier (data/x0 par défaut), en mode global (patchs 17) et
+	 * local (patchs 7, fenêtres 250), pour VisuShrink et BayesShrink en seuillage dur. Chaque configuration est
+	 * d'abord exécutée une fois à blanc, pour que la compilation à la volée ne pèse pas sur le premier profil.
+	 * @author Paul
+	 * @param args Dossier des images (facultatif).
+	 * @throws IOException Si le dossier est vide ou si une image ne peut pas être lue.
+	 */
+	public static void main(String[] args) throws IOException {
+		String dossier = args.length > 0 ? args[0] : System.getProperty("denoize.donnees", "data/x0");
+		String[] typesSeuil = { "VisuShrink", "BayesShrink" };
+		String[] fonctions = { "Dur", "Dur" };
+		ProfilDebruitage[] profils = ProfilDebruitage.values();
+		EvaluationQualite evaluation = new EvaluationQualite();
+		Journal.setNiveau(Journal.Niveau.SILENCIEUX);
+
+		//Sommes par mode (global, local) et par profil : temps, PSNR VisuShrink, PSNR BayesShrink
+		double[][][] sommes = new double[2][profils.length][3];
+		System.out.println("image,mode,profil,pas,psnr_visushrink,psnr_bayesshrink,temps_ms");
+		List<String> images = EntraineurBases.listerImages(dossier);
+		for (String chemin : images) {
+			Img x0 = new Img(chemin);
+			Img xB = BruiteurImage.noising(x0, EtatImage.SIGMA);
+			for (int mode = 0; mode < 2; mode++) {
+				boolean modeLocal = mode == 1;
+				int taillePatch = modeLocal ? 7 : 17;
+				int tailleFenetre = Math.min(250, Math.min(xB.getHauteur(), xB.getLargeur()));
+				new DebruiteurImage().imageDen(xB, typesSeuil, fonctions, EtatImage.SIGMA, taillePatch, tailleFenetre,
+						modeLocal);
+
+				for (int p = 0; p < profils.length; p++) {
+					DebruiteurImage debruiteur = new DebruiteurImage();
+					debruiteur.setProfil(profils[p], taillePatch, EtatImage.SIGMA);
+					long debut = System.nanoTime();
+					Img[] resultats = debruiteur.imageDen(xB, typesSeuil, fonctions, EtatImage.SIGMA, taillePatch,
+							tailleFenetre, modeLocal);
+					double duree = (System.nanoTime() - debut) / 1e6;
+					double psnrVisu = evaluation.psnr(x0, resultats[0]);
+					double psnrBayes = evaluation.psnr(x0, resultats[1]);
+					sommes[mode][p][0] += duree;
+					sommes[mode][p][1] += psnrVisu;
+					sommes[mode][p][2] += psnrBayes;
+					System.out.println(String.format(Locale.ROOT, "%s,%s,%s,%d,%.4f,%.4f,%.0f",
+							new File(chemin).getName(), modeLocal ? "local" : "global",
+							profils[p].getNomAnglais(), profils[p].pas(taillePatch), psnrVisu, psnrBayes, duree));
+				}
+			}
+		}
+
+		for (int mode = 0; mode < 2; mode++) {
+			for (int p = 0; p < profils.length; p++) {
+				System.out.println(String.format(Locale.ROOT, "# %s %s : %.0f ms, %.2f dB (VisuShrink), %.2f dB "
+						+ "(BayesShrink) en moyenne", mode == 1 ? "local" : "global", profils[p].getNomAnglais(),
+						sommes[mode][p][0] / images.size(), sommes[mode][p][1] / images.size(),
+						sommes[mode][p][2] / images.size()));
+			}
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * @file BenchSeuillage.java
+ * @brief Benchmark du seuillage des coefficients projetés.
+ */
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.acp.ResultatACP;
+import model.patch.MatricePatchs;
+import model.patch.ResultatVecteur;
+import service.acp.ProcesseurACP;
+import service.patch.GestionnairePatchs;
+import service.seuillage.ProcesseurSeuillage;
+
+/**
+ * @class BenchSeuillage
+ * @brief Mesure ProcesseurSeuillage.seuillage pour chaque type de seuil et chaque fonction de seuillage.
+ * @author Paul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BenchSeuillage {
+
+	/**
+	 * @class Etat
+	 * @brief Coefficients projetés calculés une fois.
+	 */
+	@State(Scope.Benchmark)
+	public static class Etat extends EtatPatchs {
+
+		//Type de seuil
+		@Param({ "VisuShrink", "BayesShrink" })
+		public String typeSeuil;
+
+		//Fonction de seuillage
+		@Param({ "Dur", "Doux" })
+		public String fonctionSeuillage;
+
+		public ProcesseurSeuillage processeur = new ProcesseurSeuillage();
+		public ResultatACP base;
+		public ResultatVecteur coefficients;
+
+		@Override
+		protected void preparer() {
+			ProcesseurACP processeurACP = new ProcesseurACP();
+			MatricePatchs patchs = new GestionnairePatchs().extraireMatricePatchs(xB, taillePatch);
+			base = processeurACP.acp(processeurACP.moyCov(patchs));
+			coefficients = processeurACP.proj(base.getVecteursPropres(), patchs, base.getVecteurMoyen());
+		}
+	}
+
+	@Benchmark
+	public ResultatVecteur seuillage(Etat etat) {
+		return etat.processeur.seuillage(etat.coefficients, etat.typeSeuil, etat.fonctionSeuillage, EtatImage.SIGMA,
+				etat.xB, etat.base.getVecteursPropres());
+	}
+}
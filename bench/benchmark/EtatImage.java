@@ -0,0 +1,59 @@
+/**
+ * @file EtatImage.java
+ * @brief État commun des benchmarks : image de référence lue dans data/x0, puis bruitée.
+ */
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import model.base.Img;
+import service.bruit.BruiteurImage;
+
+/**
+ * @class EtatImage
+ * @brief Charge une image du dossier data/x0 (ou du dossier donné par la propriété denoize.donnees) et en prépare
+ * une version bruitée, partagée par toutes les itérations d'un benchmark.
+ * @author Paul
+ */
+@State(Scope.Benchmark)
+public class EtatImage {
+
+	//Écart-type du bruit ajouté aux images
+	public static final double SIGMA = 20;
+
+	//Nom de l'image, relatif au dossier des images de référence
+	@Param({ "lena_gray.png", "crocodilo_gray.png" })
+	public String image;
+
+	//Image de référence
+	public Img x0;
+	//Image bruitée
+	public Img xB;
+
+	/**
+	 * @brief Charge et bruite l'image du benchmark, puis prépare les entrées propres au benchmark.
+	 * @author Paul
+	 * @throws IOException Si l'image ne peut pas être lue.
+	 */
+	@Setup(Level.Trial)
+	public void initialiser() throws IOException {
+		File fichier = new File(System.getProperty("denoize.donnees", "data/x0"), image);
+		x0 = new Img(fichier.getPath());
+		xB = BruiteurImage.noising(x0, SIGMA);
+		preparer();
+	}
+
+	/**
+	 * @brief Prépare les entrées d'un benchmark à partir de l'image bruitée (rien par défaut).
+	 * @author Paul
+	 */
+	protected void preparer() {
+	}
+}
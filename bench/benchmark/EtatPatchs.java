@@ -0,0 +1,22 @@
+/**
+ * @file EtatPatchs.java
+ * @brief État des benchmarks paramétrés par l'image et par la taille des patchs.
+ */
+package benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * @class EtatPatchs
+ * @brief Ajoute la taille des patchs aux paramètres de l'image.
+ * @author Paul
+ */
+@State(Scope.Benchmark)
+public class EtatPatchs extends EtatImage {
+
+	//Taille des patchs
+	@Param({ "7", "17" })
+	public int taillePatch;
+}
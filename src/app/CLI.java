@@ -7,30 +7,894 @@ package app;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import mesure.Journal;
+import mesure.Mesures;
 import model.base.Img;
+import model.qualite.ResultatQualite;
+import service.acp.BibliothequeBases;
+import service.acp.Echantillonnage;
+import service.acp.EntraineurBases;
+import service.acp.ProcesseurACP;
 import service.bruit.BruiteurImage;
+import service.cache.CacheResultats;
+import service.cluster.MoteurKMeansMiniBatch;
+import service.cluster.TauxApprentissage;
 import service.debruitage.DebruiteurImage;
+import service.debruitage.DebruiteurParBandes;
+import service.debruitage.ProfilDebruitage;
 import service.evaluation.EvaluationQualite;
+import service.patch.GestionnairePatchs;
+
+/**
+ * @class Application
+ * @brief Classe principale pour le traitement d'images bruitées et leur débruitage.
+ * @author Paul & Emma
+ */
+public class CLI {
+
+	private final static int TAILLE_FENETRE_DEFAUT = 250;
+	private final static int TAILLE_FENETRE_MIN = 50;
+	private final static int TAILLE_FENETRE_MAX = 1000;
+	private final static int NB_CLUSTERS_DEFAUT = 8;
+	private final static String BASES_DEFAUT = "data/bases.dzb";
+	
+	/**
+	 * @brief Méthode principale qui traite la commande en ligne.
+	 * @author Paul
+	 * @param args Arguments de la ligne de commande
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length > 0 && args[0].equals("train")) {
+			traiterCommandeEntrainement(Arrays.copyOfRange(args, 1, args.length));
+		} else if (args.length > 0 && args[0].equals("batch")) {
+			traiterCommandeLot(Arrays.copyOfRange(args, 1, args.length));
+		} else if (args.length > 0 && args[0].equals("tiled")) {
+			traiterCommandeTuilee(Arrays.copyOfRange(args, 1, args.length));
+		} else {
+			traiterArgumentsCommande(args);
+		}
+	}
+
+	/**
+	 * @brief Traite la commande « train » : apprentissage d'une bibliothèque de bases d'ACP sur un corpus.
+	 * @author Paul
+	 * @param args Arguments de la commande (sans le mot-clé « train »)
+	 */
+	private static void traiterCommandeEntrainement(String[] args) {
+		// Paramètres par défaut
+		String corpus = "data/x0";
+		String sortie = BASES_DEFAUT;
+		int[] taillesPatch = { 5, 7, 9, 17, 21, 23 };
+		double[] sigmas = {};
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--corpus", "-c" -> {
+				if (i + 1 < args.length)
+					corpus = args[++i];
+				else {
+					System.err.println("Erreur: Dossier manquant pour --corpus");
+					afficherAide();
+					return;
+				}
+			}
+			case "--output", "-o" -> {
+				if (i + 1 < args.length)
+					sortie = args[++i];
+				else {
+					System.err.println("Erreur: Fichier manquant pour --output");
+					afficherAide();
+					return;
+				}
+			}
+			case "--patch-sizes", "-p" -> {
+				taillesPatch = lireTaillesPatch(i + 1 < args.length ? args[++i] : null);
+				if (taillesPatch == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--sigmas", "-sig" -> {
+				sigmas = lireSigmas(i + 1 < args.length ? args[++i] : null);
+				if (sigmas == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--help", "-h" -> {
+				afficherAide();
+				return;
+			}
+			default -> {
+				System.err.println("Option non reconnue: " + args[i]);
+				afficherAide();
+				return;
+			}
+			}
+		}
+
+		try {
+			System.out.println("=== Apprentissage des bases d'ACP sur " + corpus + " ===");
+			List<String> images = EntraineurBases.listerImages(corpus);
+			System.out.println(images.size() + " images, tailles de patch " + Arrays.toString(taillesPatch)
+					+ (sigmas.length == 0 ? ", sans bruit" : ", sigmas " + Arrays.toString(sigmas)));
+
+			EntraineurBases entraineur = new EntraineurBases(new GestionnairePatchs(), new ProcesseurACP());
+			BibliothequeBases bibliotheque = entraineur.entrainer(images, taillesPatch, sigmas);
+			bibliotheque.sauvegarder(sortie);
+			System.out.println("✅ " + bibliotheque.taille() + " bases sauvegardées dans " + sortie);
+		} catch (IOException e) {
+			System.err.println("Erreur lors de l'apprentissage: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @brief Traite la commande « batch » : débruitage de toutes les images d'un dossier pour une grille de
+	 * paramètres, dans une seule JVM.
+	 * @author Paul
+	 * @param args Arguments de la commande (sans le mot-clé « batch »)
+	 */
+	private static void traiterCommandeLot(String[] args) {
+		// Paramètres par défaut (grille de exemples.sh)
+		String entree = "data/x0";
+		String sortie = "data/xR/results";
+		String[] methodes = { "local", "global" };
+		String[] seuillages = { "hard", "soft" };
+		String[] shrinks = { "v", "b" };
+		int[] taillesPatch = { 5, 7, 9 };
+		double[] sigmas = { 10, 20, 30 };
+		int tailleFenetre = TAILLE_FENETRE_DEFAUT;
+		int nbThreads = Runtime.getRuntime().availableProcessors();
+		boolean sauverImages = false;
+		boolean simplePrecision = false;
+		int nbClusters = NB_CLUSTERS_DEFAUT;
+		// Les messages du débruiteur sont masqués pendant le lot, sauf niveau demandé explicitement
+		Journal.Niveau niveau = Journal.Niveau.SILENCIEUX;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--input", "-in" -> {
+				if (i + 1 < args.length)
+					entree = args[++i];
+				else {
+					System.err.println("Erreur: Dossier manquant pour --input");
+					afficherAide();
+					return;
+				}
+			}
+			case "--output", "-o" -> {
+				if (i + 1 < args.length)
+					sortie = args[++i];
+				else {
+					System.err.println("Erreur: Dossier manquant pour --output");
+					afficherAide();
+					return;
+				}
+			}
+			case "--methods", "-m" -> {
+				methodes = lireChoix(i + 1 < args.length ? args[++i] : null, "--methods", "local", "global", "clusters");
+				if (methodes == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--thresholds", "-t" -> {
+				seuillages = lireChoix(i + 1 < args.length ? args[++i] : null, "--thresholds", "hard", "soft");
+				if (seuillages == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--shrinks", "-s" -> {
+				shrinks = lireChoix(i + 1 < args.length ? args[++i] : null, "--shrinks", "v", "b");
+				if (shrinks == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--patch-sizes", "-p" -> {
+				taillesPatch = lireTaillesPatch(i + 1 < args.length ? args[++i] : null);
+				if (taillesPatch == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--sigmas", "-sig" -> {
+				sigmas = lireSigmas(i + 1 < args.length ? args[++i] : null);
+				if (sigmas == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--fenetre-size", "-f" -> {
+				if (i + 1 < args.length) {
+					try {
+						tailleFenetre = Integer.parseInt(args[++i]);
+						if (tailleFenetre < TAILLE_FENETRE_MIN || tailleFenetre > TAILLE_FENETRE_MAX) {
+							System.err.println("Erreur: La taille de fenêtre doit être comprise entre "
+									+ TAILLE_FENETRE_MIN + " et " + TAILLE_FENETRE_MAX);
+							afficherAide();
+							return;
+						}
+					} catch (NumberFormatException e) {
+						System.err.println("Erreur: Taille de fenêtre non valide: " + args[i]);
+						afficherAide();
+						return;
+					}
+				} else {
+					System.err.println("Erreur: Taille de fenêtre manquante pour --fenetre-size");
+					afficherAide();
+					return;
+				}
+			}
+			case "--threads", "-j" -> {
+				if (i + 1 < args.length) {
+					try {
+						nbThreads = Integer.parseInt(args[++i]);
+						if (nbThreads < 1) {
+							System.err.println("Erreur: Le nombre de threads doit être au moins 1");
+							afficherAide();
+							return;
+						}
+					} catch (NumberFormatException e) {
+						System.err.println("Erreur: Nombre de threads non valide: " + args[i]);
+						afficherAide();
+						return;
+					}
+				} else {
+					System.err.println("Erreur: Nombre de threads manquant pour --threads");
+					afficherAide();
+					return;
+				}
+			}
+			case "--clusters", "-k" -> {
+				nbClusters = lireNbClusters(i + 1 < args.length ? args[++i] : null);
+				if (nbClusters < 1) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--save-images" -> sauverImages = true;
+			case "--float32" -> simplePrecision = true;
+			case "--log-level" -> {
+				if (i + 1 < args.length) {
+					try {
+						niveau = Journal.Niveau.depuisNom(args[++i]);
+					} catch (IllegalArgumentException e) {
+						System.err.println("Erreur: Niveau de journal non valide (silencieux, info ou debug): " + args[i]);
+						afficherAide();
+						return;
+					}
+				} else {
+					System.err.println("Erreur: Niveau manquant pour --log-level");
+					afficherAide();
+					return;
+				}
+			}
+			case "--help", "-h" -> {
+				afficherAide();
+				return;
+			}
+			default -> {
+				System.err.println("Option non reconnue: " + args[i]);
+				afficherAide();
+				return;
+			}
+			}
+		}
+
+		Journal.setNiveau(niveau);
+		try {
+			new TraitementLot(entree, sortie, methodes, seuillages, shrinks, taillesPatch, sigmas, tailleFenetre,
+					nbThreads, sauverImages, simplePrecision, nbClusters).executer();
+		} catch (IOException e) {
+			System.err.println("Erreur lors du traitement par lot: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @brief Traite la commande « tiled » : débruitage local d'une image déjà bruitée, de fichier à fichier, sans
+	 * jamais la charger entièrement en mémoire.
+	 * @author Paul
+	 * @param args Arguments de la commande (sans le mot-clé « tiled »)
+	 */
+	private static void traiterCommandeTuilee(String[] args) {
+		// Paramètres par défaut
+		String entree = null;
+		String sortie = null;
+		String thresholdType = "Dur";
+		String shrinkType = "VisuShrink";
+		double sigma = 20.0;
+		int taillePatch = 7;
+		int tailleFenetre = TAILLE_FENETRE_DEFAUT;
+		String cheminBases = null;
+		int nbThreads = Runtime.getRuntime().availableProcessors();
+		boolean simplePrecision = false;
+		double fractionEchantillon = 1.0;
+		String modeEchantillon = "uniforme";
+		// Options --sample et --sample-mode données (--sample-mode n'a de sens qu'avec --sample)
+		boolean echantillonDonne = false;
+		boolean modeEchantillonDonne = false;
+		ProfilDebruitage profil = ProfilDebruitage.EQUILIBRE;
+		int pas = 0;
+		double recouvrementFenetres = Double.NaN;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--input", "-in" -> {
+				if (i + 1 < args.length)
+					entree = args[++i];
+				else {
+					System.err.println("Erreur: Fichier manquant pour --input");
+					afficherAide();
+					return;
+				}
+			}
+			case "--output", "-o" -> {
+				if (i + 1 < args.length)
+					sortie = args[++i];
+				else {
+					System.err.println("Erreur: Fichier manquant pour --output");
+					afficherAide();
+					return;
+				}
+			}
+			case "--threshold", "-t" -> {
+				String[] choix = lireChoix(i + 1 < args.length ? args[++i] : null, "--threshold", "hard", "soft");
+				if (choix == null || choix.length != 1) {
+					if (choix != null)
+						System.err.println("Erreur: Une seule valeur attendue pour --threshold");
+					afficherAide();
+					return;
+				}
+				thresholdType = choix[0].equals("soft") ? "Doux" : "Dur";
+			}
+			case "--shrink", "-s" -> {
+				String[] choix = lireChoix(i + 1 < args.length ? args[++i] : null, "--shrink", "v", "b");
+				if (choix == null || choix.length != 1) {
+					if (choix != null)
+						System.err.println("Erreur: Une seule valeur attendue pour --shrink");
+					afficherAide();
+					return;
+				}
+				shrinkType = choix[0].equals("b") ? "BayesShrink" : "VisuShrink";
+			}
+			case "--sigma", "-sig" -> {
+				double[] valeurs = lireSigmas(i + 1 < args.length ? args[++i] : null);
+				if (valeurs == null || valeurs.length != 1) {
+					if (valeurs != null)
+						System.err.println("Erreur: Une seule valeur attendue pour --sigma");
+					afficherAide();
+					return;
+				}
+				sigma = valeurs[0];
+			}
+			case "--patch-size", "-p" -> {
+				int[] valeurs = lireTaillesPatch(i + 1 < args.length ? args[++i] : null);
+				if (valeurs == null || valeurs.length != 1) {
+					if (valeurs != null)
+						System.err.println("Erreur: Une seule valeur attendue pour --patch-size");
+					afficherAide();
+					return;
+				}
+				taillePatch = valeurs[0];
+			}
+			case "--fenetre-size", "-f" -> {
+				if (i + 1 < args.length) {
+					try {
+						tailleFenetre = Integer.parseInt(args[++i]);
+						if (tailleFenetre < TAILLE_FENETRE_MIN || tailleFenetre > TAILLE_FENETRE_MAX) {
+							System.err.println("Erreur: La taille de fenêtre doit être comprise entre "
+									+ TAILLE_FENETRE_MIN + " et " + TAILLE_FENETRE_MAX);
+							afficherAide();
+							return;
+						}
+					} catch (NumberFormatException e) {
+						System.err.println("Erreur: Taille de fenêtre non valide: " + args[i]);
+						afficherAide();
+						return;
+					}
+				} else {
+					System.err.println("Erreur: Taille de fenêtre manquante pour --fenetre-size");
+					afficherAide();
+					return;
+				}
+			}
+			case "--bases", "-b" -> {
+				if (i + 1 < args.length)
+					cheminBases = args[++i];
+				else {
+					System.err.println("Erreur: Fichier de bases manquant pour --bases");
+					afficherAide();
+					return;
+				}
+			}
+			case "--threads", "-j" -> {
+				if (i + 1 < args.length) {
+					try {
+						nbThreads = Integer.parseInt(args[++i]);
+						if (nbThreads < 1) {
+							System.err.println("Erreur: Le nombre de threads doit être au moins 1");
+							afficherAide();
+							return;
+						}
+					} catch (NumberFormatException e) {
+						System.err.println("Erreur: Nombre de threads non valide: " + args[i]);
+						afficherAide();
+						return;
+					}
+				} else {
+					System.err.println("Erreur: Nombre de threads manquant pour --threads");
+					afficherAide();
+					return;
+				}
+			}
+			case "--log-level" -> {
+				if (i + 1 < args.length) {
+					try {
+						Journal.setNiveau(Journal.Niveau.depuisNom(args[++i]));
+					} catch (IllegalArgumentException e) {
+						System.err.println("Erreur: Niveau de journal non valide (silencieux, info ou debug): " + args[i]);
+						afficherAide();
+						return;
+					}
+				} else {
+					System.err.println("Erreur: Niveau manquant pour --log-level");
+					afficherAide();
+					return;
+				}
+			}
+			case "--quiet", "-q" -> Journal.setNiveau(Journal.Niveau.SILENCIEUX);
+			case "--sample" -> {
+				fractionEchantillon = lireFraction(i + 1 < args.length ? args[++i] : null);
+				if (Double.isNaN(fractionEchantillon)) {
+					afficherAide();
+					return;
+				}
+				echantillonDonne = true;
+			}
+			case "--sample-mode" -> {
+				modeEchantillon = lireModeEchantillon(i + 1 < args.length ? args[++i] : null);
+				if (modeEchantillon == null) {
+					afficherAide();
+					return;
+				}
+				modeEchantillonDonne = true;
+			}
+			case "--preset" -> {
+				profil = lireProfil(i + 1 < args.length ? args[++i] : null);
+				if (profil == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--stride" -> {
+				pas = lirePas(i + 1 < args.length ? args[++i] : null);
+				if (pas == 0) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--window-overlap" -> {
+				recouvrementFenetres = lireRecouvrement(i + 1 < args.length ? args[++i] : null);
+				if (Double.isNaN(recouvrementFenetres)) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--float32" -> simplePrecision = true;
+			case "--help", "-h" -> {
+				afficherAide();
+				return;
+			}
+			default -> {
+				System.err.println("Option non reconnue: " + args[i]);
+				afficherAide();
+				return;
+			}
+			}
+		}
+
+		if (entree == null || sortie == null) {
+			System.err.println("Erreur: Les options --input et --output sont obligatoires");
+			afficherAide();
+			return;
+		}
+		if (modeEchantillonDonne && !echantillonDonne) {
+			System.err.println("Erreur: --sample-mode exige --sample");
+			afficherAide();
+			return;
+		}
+		Echantillonnage echantillonnage = creerEchantillonnage(modeEchantillon, fractionEchantillon);
+		if (echantillonnage == null && fractionEchantillon < 1) {
+			afficherAide();
+			return;
+		}
+		if (pas > taillePatch) {
+			System.err.println("Erreur: Le pas (--stride) ne peut pas dépasser la taille des patchs");
+			afficherAide();
+			return;
+		}
+		int pasEffectif = pas > 0 ? pas : profil.pas(taillePatch);
+		if (Double.isNaN(recouvrementFenetres)) {
+			recouvrementFenetres = profil.getRecouvrementFenetres();
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(nbThreads);
+		try {
+			long debut = System.nanoTime();
+			DebruiteurParBandes debruiteur = new DebruiteurParBandes(pool);
+			debruiteur.setSimplePrecision(simplePrecision);
+			debruiteur.setEchantillonnage(echantillonnage);
+			debruiteur.setProfil(profil, taillePatch, sigma);
+			debruiteur.setPas(pasEffectif);
+			debruiteur.setRecouvrementFenetres(recouvrementFenetres);
+			if (cheminBases != null) {
+				debruiteur.setBibliotheque(BibliothequeBases.charger(cheminBases));
+				Journal.info("Bases pré-calculées chargées: " + cheminBases);
+			}
+			debruiteur.debruiter(Path.of(entree), Path.of(sortie), shrinkType, thresholdType, sigma, taillePatch,
+					tailleFenetre);
+			Journal.info(String.format(Locale.ROOT, "Image débruitée sauvegardée en %.1f s: %s",
+					(System.nanoTime() - debut) / 1e9, sortie));
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Erreur lors du débruitage tuilé: " + e.getMessage());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * @brief Lit une liste de tailles de patch séparées par des virgules.
+	 * @author Paul
+	 * @param liste Texte de la liste, ou null si l'option n'a pas de valeur.
+	 * @return Tailles lues, ou null (après un message d'erreur) si la liste est absente ou invalide.
+	 */
+	private static int[] lireTaillesPatch(String liste) {
+		if (liste == null) {
+			System.err.println("Erreur: Liste de tailles manquante pour --patch-sizes");
+			return null;
+		}
+		try {
+			String[] valeurs = liste.split(",");
+			int[] tailles = new int[valeurs.length];
+			for (int k = 0; k < valeurs.length; k++) {
+				tailles[k] = Integer.parseInt(valeurs[k].trim());
+				if (tailles[k] <= 0 || tailles[k] % 2 == 0) {
+					System.err.println("Erreur: Taille du patch doit être un entier impair positif");
+					return null;
+				}
+			}
+			return tailles;
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Liste de tailles de patch non valide: " + liste);
+			return null;
+		}
+	}
+
+	/**
+	 * @brief Lit une liste d'écarts-types du bruit séparés par des virgules.
+	 * @author Paul
+	 * @param liste Texte de la liste, ou null si l'option n'a pas de valeur.
+	 * @return Écarts-types lus, ou null (après un message d'erreur) si la liste est absente ou invalide.
+	 */
+	private static double[] lireSigmas(String liste) {
+		if (liste == null) {
+			System.err.println("Erreur: Liste de sigmas manquante pour --sigmas");
+			return null;
+		}
+		try {
+			String[] valeurs = liste.split(",");
+			double[] sigmas = new double[valeurs.length];
+			for (int k = 0; k < valeurs.length; k++) {
+				sigmas[k] = Double.parseDouble(valeurs[k].trim());
+				if (sigmas[k] <= 0) {
+					System.err.println("Erreur: Sigma doit être supérieur à 0");
+					return null;
+				}
+			}
+			return sigmas;
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Liste de sigmas non valide: " + liste);
+			return null;
+		}
+	}
+
+	/**
+	 * @brief Lit une liste de valeurs séparées par des virgules, chacune devant appartenir aux choix autorisés.
+	 * @author Paul
+	 * @param liste   Texte de la liste, ou null si l'option n'a pas de valeur.
+	 * @param option  Nom de l'option (pour les messages d'erreur).
+	 * @param choix   Valeurs autorisées.
+	 * @return Valeurs lues, ou null (après un message d'erreur) si la liste est absente ou invalide.
+	 */
+	private static String[] lireChoix(String liste, String option, String... choix) {
+		if (liste == null) {
+			System.err.println("Erreur: Liste manquante pour " + option);
+			return null;
+		}
+		String[] valeurs = liste.split(",");
+		for (int k = 0; k < valeurs.length; k++) {
+			valeurs[k] = valeurs[k].trim().toLowerCase();
+			if (!Arrays.asList(choix).contains(valeurs[k])) {
+				System.err.println("Erreur: Valeur non valide pour " + option + ": " + valeurs[k] + " (valeurs possibles: "
+						+ String.join(", ", choix) + ")");
+				return null;
+			}
+		}
+		return valeurs;
+	}
+
+	/**
+	 * @brief Lit le nombre de clusters du mode par clusters.
+	 * @author Paul
+	 * @param valeur Texte du nombre, ou null si l'option n'a pas de valeur.
+	 * @return Nombre de clusters, ou 0 (après un message d'erreur) s'il est absent ou invalide.
+	 */
+	private static int lireNbClusters(String valeur) {
+		if (valeur == null) {
+			System.err.println("Erreur: Nombre de clusters manquant pour --clusters");
+			return 0;
+		}
+		try {
+			int nbClusters = Integer.parseInt(valeur);
+			if (nbClusters < 1) {
+				System.err.println("Erreur: Le nombre de clusters doit être au moins 1");
+				return 0;
+			}
+			return nbClusters;
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Nombre de clusters non valide: " + valeur);
+			return 0;
+		}
+	}
+
+	/**
+	 * @brief Lit la fraction des patchs servant à estimer la covariance.
+	 * @author Paul
+	 * @param valeur Texte de la fraction, ou null si l'option n'a pas de valeur.
+	 * @return Fraction dans ]0, 1], ou NaN (après un message d'erreur) si elle est absente ou invalide.
+	 */
+	private static double lireFraction(String valeur) {
+		if (valeur == null) {
+			System.err.println("Erreur: Fraction manquante pour --sample");
+			return Double.NaN;
+		}
+		try {
+			double fraction = Double.parseDouble(valeur);
+			if (!(fraction > 0 && fraction <= 1)) {
+				System.err.println("Erreur: La fraction échantillonnée doit être dans ]0, 1]");
+				return Double.NaN;
+			}
+			return fraction;
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Fraction non valide: " + valeur);
+			return Double.NaN;
+		}
+	}
 
-/**
- * @class Application
- * @brief Classe principale pour le traitement d'images bruitées et leur débruitage.
- * @author Paul & Emma
- */
-public class CLI {
+	/**
+	 * @brief Vérifie la manière de tirer les patchs de l'option --sample-mode.
+	 * @author Paul
+	 * @param mode Nom du mode (uniforme, stratifie ou variance), ou null si l'option n'a pas de valeur.
+	 * @return Nom du mode, ou null (après un message d'erreur) s'il est absent ou inconnu.
+	 */
+	private static String lireModeEchantillon(String mode) {
+		if (mode == null) {
+			System.err.println("Erreur: Mode manquant pour --sample-mode");
+			return null;
+		}
+		try {
+			Echantillonnage.depuisNom(mode, 1);
+			return mode;
+		} catch (IllegalArgumentException e) {
+			System.err.println("Erreur: " + e.getMessage());
+			return null;
+		}
+	}
 
-	private final static int TAILLE_FENETRE_DEFAUT = 250;
-	private final static int TAILLE_FENETRE_MIN = 50;
-	private final static int TAILLE_FENETRE_MAX = 1000;
-	
 	/**
-	 * @brief Méthode principale qui traite la commande en ligne.
+	 * @brief Construit le critère d'échantillonnage des options --sample et --sample-mode.
 	 * @author Paul
-	 * @param args Arguments de la ligne de commande
-	 * @throws IOException
+	 * @param mode     Manière de tirer les patchs (uniforme, stratifie ou variance).
+	 * @param fraction Fraction des patchs tirés.
+	 * @return Critère d'échantillonnage, ou null si tous les patchs sont utilisés ou (après un message d'erreur)
+	 * si le mode est inconnu.
 	 */
-	public static void main(String[] args) throws IOException {
-		traiterArgumentsCommande(args);
+	private static Echantillonnage creerEchantillonnage(String mode, double fraction) {
+		if (fraction >= 1) {
+			return null;
+		}
+		try {
+			return Echantillonnage.depuisNom(mode, fraction);
+		} catch (IllegalArgumentException e) {
+			System.err.println("Erreur: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @brief Retrouve le profil de débruitage de l'option --preset.
+	 * @author Paul
+	 * @param nom Nom du profil (fast, balanced ou quality), ou null si l'option n'a pas de valeur.
+	 * @return Profil correspondant, ou null (après un message d'erreur) s'il est absent ou inconnu.
+	 */
+	private static ProfilDebruitage lireProfil(String nom) {
+		if (nom == null) {
+			System.err.println("Erreur: Profil manquant pour --preset");
+			return null;
+		}
+		try {
+			return ProfilDebruitage.depuisNom(nom);
+		} catch (IllegalArgumentException e) {
+			System.err.println("Erreur: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @brief Lit le pas entre deux patchs voisins.
+	 * @author Paul
+	 * @param valeur Texte du pas, ou null si l'option n'a pas de valeur.
+	 * @return Pas en pixels, ou 0 (après un message d'erreur) s'il est absent ou invalide.
+	 */
+	private static int lirePas(String valeur) {
+		if (valeur == null) {
+			System.err.println("Erreur: Pas manquant pour --stride");
+			return 0;
+		}
+		try {
+			int pas = Integer.parseInt(valeur);
+			if (pas < 1) {
+				System.err.println("Erreur: Le pas entre deux patchs doit être au moins 1");
+				return 0;
+			}
+			return pas;
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Pas non valide: " + valeur);
+			return 0;
+		}
+	}
+
+	/**
+	 * @brief Lit le recouvrement minimal de deux fenêtres voisines du mode local.
+	 * @author Paul
+	 * @param valeur Texte du recouvrement, ou null si l'option n'a pas de valeur.
+	 * @return Fraction dans [0, 1[, ou NaN (après un message d'erreur) si elle est absente ou invalide.
+	 */
+	private static double lireRecouvrement(String valeur) {
+		if (valeur == null) {
+			System.err.println("Erreur: Fraction manquante pour --window-overlap");
+			return Double.NaN;
+		}
+		try {
+			double recouvrement = Double.parseDouble(valeur);
+			if (!(recouvrement >= 0 && recouvrement < 1)) {
+				System.err.println("Erreur: Le recouvrement des fenêtres doit être dans [0, 1[");
+				return Double.NaN;
+			}
+			return recouvrement;
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Recouvrement non valide: " + valeur);
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * @brief Lit le nombre de patchs par mini-lot du k-means par mini-lots.
+	 * @author Paul
+	 * @param valeur Texte du nombre, ou null si l'option n'a pas de valeur.
+	 * @return Taille des mini-lots, ou 0 (après un message d'erreur) si elle est absente ou invalide.
+	 */
+	private static int lireTailleLot(String valeur) {
+		if (valeur == null) {
+			System.err.println("Erreur: Taille manquante pour --batch-size");
+			return 0;
+		}
+		try {
+			int tailleLot = Integer.parseInt(valeur);
+			if (tailleLot < 1) {
+				System.err.println("Erreur: La taille des mini-lots doit être au moins 1");
+				return 0;
+			}
+			return tailleLot;
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Taille de mini-lot non valide: " + valeur);
+			return 0;
+		}
+	}
+
+	/**
+	 * @brief Lit le calendrier du taux d'apprentissage du k-means par mini-lots : un taux seul est constant, un
+	 * taux suivi de « :demi-vie » décroît avec le numéro du mini-lot.
+	 * @author Paul
+	 * @param valeur Texte du taux (η ou η:demi-vie), ou null si l'option n'a pas de valeur.
+	 * @return Calendrier du taux, ou null (après un message d'erreur) s'il est absent ou invalide.
+	 */
+	private static TauxApprentissage lireTauxApprentissage(String valeur) {
+		if (valeur == null) {
+			System.err.println("Erreur: Taux manquant pour --learning-rate");
+			return null;
+		}
+		try {
+			int separateur = valeur.indexOf(':');
+			if (separateur < 0) {
+				return TauxApprentissage.constant(Double.parseDouble(valeur));
+			}
+			return TauxApprentissage.decroissant(Double.parseDouble(valeur.substring(0, separateur)),
+					Double.parseDouble(valeur.substring(separateur + 1)));
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Taux d'apprentissage non valide: " + valeur);
+			return null;
+		} catch (IllegalArgumentException e) {
+			System.err.println("Erreur: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @brief Lit la tolérance d'arrêt du k-means par mini-lots.
+	 * @author Paul
+	 * @param valeur Texte de la tolérance, ou null si l'option n'a pas de valeur.
+	 * @return Déplacement maximal des centres (positif), ou NaN (après un message d'erreur) s'il est absent ou
+	 * invalide.
+	 */
+	private static double lireToleranceMiniLots(String valeur) {
+		if (valeur == null) {
+			System.err.println("Erreur: Tolérance manquante pour --batch-tolerance");
+			return Double.NaN;
+		}
+		try {
+			double tolerance = Double.parseDouble(valeur);
+			if (!(tolerance >= 0)) {
+				System.err.println("Erreur: La tolérance des mini-lots doit être positive");
+				return Double.NaN;
+			}
+			return tolerance;
+		} catch (NumberFormatException e) {
+			System.err.println("Erreur: Tolérance non valide: " + valeur);
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * @brief Estime l'erreur de la base calculée sur un échantillon de patchs (ProcesseurACP.erreurBase), sur le
+	 * premier canal : sur toute l'image, ou sur une fenêtre centrale en mode local, chaque fenêtre ayant sa base.
+	 * @author Paul
+	 * @param xB              Image bruitée.
+	 * @param echantillonnage Critère d'échantillonnage.
+	 * @param sigma           Écart-type du bruit.
+	 * @param taillePatch     Taille des patchs.
+	 * @param pas             Pas entre deux patchs voisins.
+	 * @param tailleFenetre   Taille des fenêtres du mode local, ou 0 pour toute l'image.
+	 * @return Erreur estimée de la base, entre 0 et 1.
+	 */
+	private static double estimerErreurBase(Img xB, Echantillonnage echantillonnage, double sigma, int taillePatch,
+			int pas, int tailleFenetre) {
+		Img plan = new Img(new double[][] { xB.getCanal(0) }, xB.getHauteur(), xB.getLargeur());
+		if (tailleFenetre > 0 && tailleFenetre < Math.max(xB.getHauteur(), xB.getLargeur())) {
+			int hauteur = Math.min(tailleFenetre, xB.getHauteur());
+			int largeur = Math.min(tailleFenetre, xB.getLargeur());
+			int haut = (xB.getHauteur() - hauteur) / 2;
+			int gauche = (xB.getLargeur() - largeur) / 2;
+			double[] fenetre = new double[hauteur * largeur];
+			for (int i = 0; i < hauteur; i++) {
+				System.arraycopy(xB.getCanal(0), (haut + i) * xB.getLargeur() + gauche, fenetre, i * largeur, largeur);
+			}
+			plan = new Img(new double[][] { fenetre }, hauteur, largeur);
+		}
+		return new ProcesseurACP().erreurBase(
+				new GestionnairePatchs().extraireMatricePatchsParPas(plan, taillePatch, pas), echantillonnage, sigma);
 	}
 
 	/**
@@ -39,12 +903,24 @@ public class CLI {
 	 * @author Emma
 	 * @param x0 Image originale (référence)
 	 * @param xR Image reconstruite ou débruitée
+	 * @return MSE et PSNR de l'image débruitée
 	 */
-	public static void afficherResultat(Img x0, Img xR) {
+	public static ResultatQualite afficherResultat(Img x0, Img xR) {
 		// Évaluation
 		EvaluationQualite eval = new EvaluationQualite();
-		double mse = eval.mse(x0, xR);
-		double psnr = eval.psnr(x0, xR);
+		ResultatQualite qualite = new ResultatQualite(eval.mse(x0, xR), eval.psnr(x0, xR));
+		afficherQualite(qualite);
+		return qualite;
+	}
+
+	/**
+	 * @brief Affiche les métriques de qualité d'une image débruitée.
+	 * @author Emma
+	 * @param qualite MSE et PSNR de l'image débruitée
+	 */
+	private static void afficherQualite(ResultatQualite qualite) {
+		double mse = qualite.getMSE();
+		double psnr = qualite.getPSNR();
 
 		System.out.println("\n📊 ÉVALUATION DE LA QUALITÉ 📊");
 		System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
@@ -73,11 +949,32 @@ public class CLI {
 		// Paramètres par défaut
 		String imageName = null;
 		boolean isGlobal = false;
+		// Nombre de clusters du mode par clusters, 0 pour les modes local et global
+		int nbClusters = 0;
 		String thresholdType = "Dur";
 		String shrinkType = "VisuShrink";
 		double sigma = 20.0;
 		int taillePatch = 7;
 		int tailleFenetre = TAILLE_FENETRE_DEFAUT;
+		String cheminBases = null;
+		String cheminRapport = null;
+		String dossierCache = CacheResultats.DOSSIER_DEFAUT;
+		long tailleCacheMo = CacheResultats.TAILLE_MAX_DEFAUT / (1024 * 1024);
+		boolean sansCache = false;
+		boolean simplePrecision = false;
+		double fractionEchantillon = 1.0;
+		String modeEchantillon = "uniforme";
+		// Options --sample et --sample-mode données (--sample-mode n'a de sens qu'avec --sample)
+		boolean echantillonDonne = false;
+		boolean modeEchantillonDonne = false;
+		ProfilDebruitage profil = ProfilDebruitage.EQUILIBRE;
+		int pas = 0;
+		double recouvrementFenetres = Double.NaN;
+		// Réglages du k-means par mini-lots (mode par clusters sur les grandes images)
+		int tailleLot = MoteurKMeansMiniBatch.TAILLE_LOT_DEFAUT;
+		TauxApprentissage tauxMiniLots = TauxApprentissage.parCentre();
+		double toleranceMiniLots = MoteurKMeansMiniBatch.TOLERANCE_DEFAUT;
+		boolean reglagesMiniLots = false;
 
 		// Traitement des arguments
 		for (int i = 0; i < args.length; i++) {
@@ -93,9 +990,18 @@ public class CLI {
 			}
 			case "--global", "-g" -> {
 				isGlobal = true;
+				nbClusters = 0;
 			}
 			case "--local", "-l" -> {
 				isGlobal = false;
+				nbClusters = 0;
+			}
+			case "--clusters", "-k" -> {
+				nbClusters = lireNbClusters(i + 1 < args.length ? args[++i] : null);
+				if (nbClusters < 1) {
+					afficherAide();
+					return;
+				}
 			}
 			case "--threshold", "-t" -> {
 				if (i + 1 < args.length) {
@@ -194,6 +1100,132 @@ public class CLI {
 					return;
 				}
 			}
+			case "--bases", "-b" -> {
+				if (i + 1 < args.length)
+					cheminBases = args[++i];
+				else {
+					System.err.println("Erreur: Fichier de bases manquant pour --bases");
+					afficherAide();
+					return;
+				}
+			}
+			case "--report", "-r" -> {
+				if (i + 1 < args.length)
+					cheminRapport = args[++i];
+				else {
+					System.err.println("Erreur: Fichier manquant pour --report");
+					afficherAide();
+					return;
+				}
+			}
+			case "--log-level" -> {
+				if (i + 1 < args.length) {
+					try {
+						Journal.setNiveau(Journal.Niveau.depuisNom(args[++i]));
+					} catch (IllegalArgumentException e) {
+						System.err.println("Erreur: Niveau de journal non valide (silencieux, info ou debug): " + args[i]);
+						afficherAide();
+						return;
+					}
+				} else {
+					System.err.println("Erreur: Niveau manquant pour --log-level");
+					afficherAide();
+					return;
+				}
+			}
+			case "--quiet", "-q" -> Journal.setNiveau(Journal.Niveau.SILENCIEUX);
+			case "--cache-dir" -> {
+				if (i + 1 < args.length)
+					dossierCache = args[++i];
+				else {
+					System.err.println("Erreur: Dossier manquant pour --cache-dir");
+					afficherAide();
+					return;
+				}
+			}
+			case "--cache-size" -> {
+				if (i + 1 < args.length) {
+					try {
+						tailleCacheMo = Long.parseLong(args[++i]);
+						if (tailleCacheMo < 0) {
+							System.err.println("Erreur: La taille du cache doit être positive");
+							afficherAide();
+							return;
+						}
+					} catch (NumberFormatException e) {
+						System.err.println("Erreur: Taille de cache non valide: " + args[i]);
+						afficherAide();
+						return;
+					}
+				} else {
+					System.err.println("Erreur: Taille manquante pour --cache-size");
+					afficherAide();
+					return;
+				}
+			}
+			case "--no-cache" -> sansCache = true;
+			case "--float32" -> simplePrecision = true;
+			case "--sample" -> {
+				fractionEchantillon = lireFraction(i + 1 < args.length ? args[++i] : null);
+				if (Double.isNaN(fractionEchantillon)) {
+					afficherAide();
+					return;
+				}
+				echantillonDonne = true;
+			}
+			case "--sample-mode" -> {
+				modeEchantillon = lireModeEchantillon(i + 1 < args.length ? args[++i] : null);
+				if (modeEchantillon == null) {
+					afficherAide();
+					return;
+				}
+				modeEchantillonDonne = true;
+			}
+			case "--preset" -> {
+				profil = lireProfil(i + 1 < args.length ? args[++i] : null);
+				if (profil == null) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--stride" -> {
+				pas = lirePas(i + 1 < args.length ? args[++i] : null);
+				if (pas == 0) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--window-overlap" -> {
+				recouvrementFenetres = lireRecouvrement(i + 1 < args.length ? args[++i] : null);
+				if (Double.isNaN(recouvrementFenetres)) {
+					afficherAide();
+					return;
+				}
+			}
+			case "--batch-size" -> {
+				tailleLot = lireTailleLot(i + 1 < args.length ? args[++i] : null);
+				if (tailleLot == 0) {
+					afficherAide();
+					return;
+				}
+				reglagesMiniLots = true;
+			}
+			case "--learning-rate" -> {
+				tauxMiniLots = lireTauxApprentissage(i + 1 < args.length ? args[++i] : null);
+				if (tauxMiniLots == null) {
+					afficherAide();
+					return;
+				}
+				reglagesMiniLots = true;
+			}
+			case "--batch-tolerance" -> {
+				toleranceMiniLots = lireToleranceMiniLots(i + 1 < args.length ? args[++i] : null);
+				if (Double.isNaN(toleranceMiniLots)) {
+					afficherAide();
+					return;
+				}
+				reglagesMiniLots = true;
+			}
 			
 			case "--help", "-h" -> {
 				afficherAide();
@@ -213,6 +1245,30 @@ public class CLI {
 			afficherAide();
 			return;
 		}
+		if (modeEchantillonDonne && !echantillonDonne) {
+			System.err.println("Erreur: --sample-mode exige --sample");
+			afficherAide();
+			return;
+		}
+		Echantillonnage echantillonnage = creerEchantillonnage(modeEchantillon, fractionEchantillon);
+		if (echantillonnage == null && fractionEchantillon < 1) {
+			afficherAide();
+			return;
+		}
+		if (pas > taillePatch) {
+			System.err.println("Erreur: Le pas (--stride) ne peut pas dépasser la taille des patchs");
+			afficherAide();
+			return;
+		}
+		int pasEffectif = pas > 0 ? pas : profil.pas(taillePatch);
+		if (Double.isNaN(recouvrementFenetres)) {
+			recouvrementFenetres = profil.getRecouvrementFenetres();
+		}
+		if (reglagesMiniLots && nbClusters == 0) {
+			System.err.println("Erreur: --batch-size, --learning-rate et --batch-tolerance s'appliquent au mode --clusters");
+			afficherAide();
+			return;
+		}
 
 		// Vérification que l'image existe dans le dossier x0
 		String inputPath = "data/x0/" + imageName;
@@ -225,34 +1281,17 @@ public class CLI {
 
 		// Exécuter le processus complet (bruitage + débruitage)
 		try {
-			System.out.println("=== Traitement de l'image " + imageName + " ===");
+			Journal.info("=== Traitement de l'image " + imageName + " ===");
+			Mesures mesures = cheminRapport != null ? new Mesures() : Mesures.INACTIVES;
 
 			// Chargement de l'image originale
+			Mesures.Chrono chrono = mesures.demarrer("chargement");
 			Img x0 = new Img(inputPath);
-			System.out.println("Image originale chargée: " + inputPath);
-
-			// Bruitage
-			System.out.println("Application du bruit (sigma = " + sigma + ")...");
-			new BruiteurImage();
-			Img xB = BruiteurImage.noising(x0, sigma);
+			chrono.arreter((long) x0.getHauteur() * x0.getLargeur() * x0.getNbCanaux());
+			Journal.info("Image originale chargée: " + inputPath);
 
-			String bruitedImagePath = "data/xB/" + imageName;
-			xB.saveImg(bruitedImagePath, x0.isEstRGB());
-			System.out.println("Image bruitée sauvegardée: " + bruitedImagePath);
-
-			// Débruitage
-			System.out.println("Débruitage en cours...");
-			String methodeTexte = isGlobal ? "Globale" : "Locale";
-			System.out.println(
-					"Paramètres: méthode " + methodeTexte + ", seuil " + (thresholdType.equals("Dur") ? "Hard" : "Soft")
-							+ ", " + (shrinkType.equals("VisuShrink") ? "VisuShrink" : "BayesShrink")
-							+ ", taille patch: " + taillePatch);
-
-			DebruiteurImage debruiteur = new DebruiteurImage();
-			Img xR = debruiteur.imageDen(xB, shrinkType, thresholdType, sigma, taillePatch, tailleFenetre, !isGlobal);
-
-			// Sauvegarde de l'image débruitée
-			String methodName = isGlobal ? "global" : "local";
+			String methodName = nbClusters > 0 ? "clusters" : isGlobal ? "global" : "local";
+			boolean avecFenetres = nbClusters == 0 && !isGlobal;
 			String threshold = thresholdType.equals("Dur") ? "hard" : "soft";
 			String shrink = shrinkType.equals("VisuShrink") ? "v" : "b";
 
@@ -261,13 +1300,143 @@ public class CLI {
 			String baseName = (dotIndex != -1) ? imageName.substring(0, dotIndex) : imageName;
 			String extension = (dotIndex != -1) ? imageName.substring(dotIndex) : ".png";
 
+			String bruitedImagePath = "data/xB/" + imageName;
 			String outputImagePath = "data/xR/" + baseName + "_" + methodName + "_" + threshold + "_" + shrink
 					+ extension;
-			xR.saveImg(outputImagePath, x0.isEstRGB());
-			System.out.println("Image débruitée sauvegardée: " + outputImagePath);
 
-			// Évaluation
-			afficherResultat(x0, xR);
+			// Recherche d'un résultat déjà calculé pour ces pixels et ces paramètres
+			CacheResultats cache = null;
+			String cle = null;
+			CacheResultats.Entree entree = null;
+			if (!sansCache) {
+				chrono = mesures.demarrer("cache");
+				cache = new CacheResultats(Path.of(dossierCache), tailleCacheMo * 1024 * 1024);
+				cle = CacheResultats.cle(new Img[] { x0 }, "entree=originale", "mode=" + methodName,
+						"patch_size=" + taillePatch, "fenetre_size=" + (avecFenetres ? tailleFenetre : 0), "sigma=" + sigma,
+						"clusters=" + nbClusters,
+						"shrink=" + shrinkType, "threshold=" + thresholdType,
+						"precision=" + (simplePrecision ? "float32" : "double"),
+						"echantillonnage=" + (echantillonnage == null ? "" : echantillonnage),
+						"profil=" + profil.getNomAnglais(), "pas=" + pasEffectif,
+						"recouvrement_fenetres=" + (avecFenetres ? recouvrementFenetres : ""),
+						"mini_lots=" + (nbClusters > 0 ? tailleLot + ";" + tauxMiniLots + ";" + toleranceMiniLots : ""),
+						"bases=" + (cheminBases == null ? "" : CacheResultats.empreinteFichier(Path.of(cheminBases))));
+				entree = cache.trouver(cle);
+				chrono.arreter(1);
+			}
+
+			ResultatQualite qualite;
+			Double erreurBase = null;
+			if (entree != null) {
+				Journal.info("Résultat trouvé dans le cache: " + dossierCache + "/" + cle);
+				chrono = mesures.demarrer("ecriture", "cache");
+				restaurer(entree.getFichier("xB"), Path.of(bruitedImagePath));
+				restaurer(entree.getFichier("xR"), Path.of(outputImagePath));
+				chrono.arreter(2);
+				Journal.info("Image bruitée: " + bruitedImagePath);
+				Journal.info("Image débruitée: " + outputImagePath);
+
+				qualite = entree.getQualite();
+				afficherQualite(qualite);
+			} else {
+				// Bruitage
+				Journal.info("Application du bruit (sigma = " + sigma + ")...");
+				chrono = mesures.demarrer("bruitage");
+				Img xB = BruiteurImage.noising(x0, sigma);
+				chrono.arreter((long) xB.getHauteur() * xB.getLargeur() * xB.getNbCanaux());
+
+				chrono = mesures.demarrer("ecriture", "xB");
+				xB.saveImg(bruitedImagePath, x0.isEstRGB());
+				chrono.arreter(1);
+				Journal.info("Image bruitée sauvegardée: " + bruitedImagePath);
+
+				// Débruitage
+				Journal.info("Débruitage en cours...");
+				String methodeTexte = nbClusters > 0 ? "par clusters (" + nbClusters + ")"
+						: isGlobal ? "Globale" : "Locale";
+				Journal.info("Paramètres: méthode " + methodeTexte + ", seuil "
+						+ (thresholdType.equals("Dur") ? "Hard" : "Soft") + ", "
+						+ (shrinkType.equals("VisuShrink") ? "VisuShrink" : "BayesShrink") + ", taille patch: "
+						+ taillePatch + ", pas: " + pasEffectif + ", profil: " + profil.getNomAnglais());
+
+				DebruiteurImage debruiteur = new DebruiteurImage();
+				debruiteur.setMesures(mesures);
+				debruiteur.setSimplePrecision(simplePrecision);
+				debruiteur.setProfil(profil, taillePatch, sigma);
+				debruiteur.setPas(pasEffectif);
+				debruiteur.setRecouvrementFenetres(recouvrementFenetres);
+				debruiteur.setTailleLotMiniLots(tailleLot);
+				debruiteur.setTauxMiniLots(tauxMiniLots);
+				debruiteur.setToleranceMiniLots(toleranceMiniLots);
+				if (echantillonnage != null) {
+					debruiteur.setEchantillonnage(echantillonnage);
+					chrono = mesures.demarrer("erreur_base");
+					erreurBase = estimerErreurBase(xB, echantillonnage, sigma, taillePatch, pasEffectif,
+							avecFenetres ? tailleFenetre : 0);
+					chrono.arreter(1);
+					Journal.info(String.format(Locale.ROOT,
+							"Covariance estimée sur %s des patchs (%s), erreur estimée de la base: %.4f",
+							(fractionEchantillon * 100) + " %", modeEchantillon, erreurBase));
+				}
+				if (cheminBases != null) {
+					debruiteur.setBibliotheque(BibliothequeBases.charger(cheminBases));
+					Journal.info("Bases pré-calculées chargées: " + cheminBases);
+				}
+				Img xR = nbClusters > 0
+						? debruiteur.imageDenClusters(xB, shrinkType, thresholdType, sigma, taillePatch, nbClusters)
+						: debruiteur.imageDen(xB, shrinkType, thresholdType, sigma, taillePatch, tailleFenetre,
+								!isGlobal);
+
+				// Sauvegarde de l'image débruitée
+				chrono = mesures.demarrer("ecriture", "xR");
+				xR.saveImg(outputImagePath, x0.isEstRGB());
+				chrono.arreter(1);
+				Journal.info("Image débruitée sauvegardée: " + outputImagePath);
+
+				// Évaluation
+				chrono = mesures.demarrer("evaluation");
+				qualite = afficherResultat(x0, xR);
+				chrono.arreter((long) x0.getHauteur() * x0.getLargeur() * x0.getNbCanaux());
+
+				// Conservation du résultat pour les exécutions suivantes
+				if (cache != null) {
+					try {
+						cache.enregistrerFichiers(cle, qualite,
+								Map.of("xB", Path.of(bruitedImagePath), "xR", Path.of(outputImagePath)));
+					} catch (IOException e) {
+						System.err.println("Avertissement: résultat non enregistré dans le cache: " + e.getMessage());
+					}
+				}
+			}
+
+			// Rapport des mesures
+			if (cheminRapport != null) {
+				mesures.ajouterInformation("image", imageName);
+				mesures.ajouterInformation("hauteur", x0.getHauteur());
+				mesures.ajouterInformation("largeur", x0.getLargeur());
+				mesures.ajouterInformation("canaux", x0.getNbCanaux());
+				mesures.ajouterInformation("methode", methodName);
+				mesures.ajouterInformation("threshold", threshold);
+				mesures.ajouterInformation("shrink", shrink);
+				mesures.ajouterInformation("sigma", sigma);
+				mesures.ajouterInformation("patch_size", taillePatch);
+				mesures.ajouterInformation("profil", profil.getNomAnglais());
+				mesures.ajouterInformation("pas", pasEffectif);
+				mesures.ajouterInformation("recouvrement_fenetres",
+						avecFenetres && recouvrementFenetres >= 0 ? recouvrementFenetres : null);
+				mesures.ajouterInformation("precision", simplePrecision ? "float32" : "double");
+				mesures.ajouterInformation("echantillonnage",
+						echantillonnage == null ? null : modeEchantillon + ":" + fractionEchantillon);
+				mesures.ajouterInformation("erreur_base", erreurBase);
+				mesures.ajouterInformation("fenetre_size", avecFenetres ? tailleFenetre : null);
+				mesures.ajouterInformation("clusters", nbClusters > 0 ? nbClusters : null);
+				mesures.ajouterInformation("threads", ForkJoinPool.getCommonPoolParallelism());
+				mesures.ajouterInformation("mse", qualite.getMSE());
+				mesures.ajouterInformation("psnr", qualite.getPSNR());
+				mesures.ajouterInformation("cache", entree != null);
+				mesures.ecrireJson(cheminRapport);
+				Journal.info("Rapport des mesures sauvegardé: " + cheminRapport);
+			}
 
 		} catch (Exception e) {
 			System.err.println("Erreur lors du traitement: " + e.getMessage());
@@ -275,6 +1444,20 @@ public class CLI {
 		}
 	}
 
+	/**
+	 * @brief Copie une image du cache vers son emplacement de sortie, sauf si le fichier existant est identique.
+	 * @author Paul
+	 * @param source Fichier de l'entrée du cache (ignoré si null).
+	 * @param cible  Emplacement de sortie.
+	 * @throws IOException Si la copie échoue.
+	 */
+	private static void restaurer(Path source, Path cible) throws IOException {
+		if (source == null || (Files.exists(cible) && Files.mismatch(source, cible) == -1)) {
+			return;
+		}
+		Files.copy(source, cible, StandardCopyOption.REPLACE_EXISTING);
+	}
+
 	/**
 	 * @brief Affiche un message d'aide pour l'utilisation en ligne de commande.
 	 * @author Paul
@@ -291,6 +1474,8 @@ public class CLI {
 		System.out
 				.println("  --global, -g              Utilise la méthode de débruitage globale           [Facultatif]");
 		System.out.println("  --local, -l               Utilise la méthode de débruitage locale            [Défaut]");
+		System.out.println(
+				"  --clusters, -k <n>        ACP par cluster : k-means des patchs, une base par cluster [Facultatif]");
 		System.out.println(
 				"  --threshold, -t <type>    Type de seuillage: 'hard' ou 'soft'                [Défaut: 'hard']");
 		System.out.println(
@@ -302,12 +1487,111 @@ public class CLI {
 				.println("  --patch-size, -p <taille> Taille des patchs (entier impair)                  [Défaut: 7]");
 		System.out
 		.println("  --fenetre-size, -f <taille> Taille des fenêtres (mode local)                  [Défaut: 250]");
+		System.out.println(
+				"  --bases, -b <fichier>     Bibliothèque de bases pré-calculées (commande train) [Facultatif]");
+		System.out.println(
+				"  --report, -r <fichier>    Rapport JSON des mesures par étape et par fenêtre  [Facultatif]");
+		System.out.println(
+				"  --log-level <niveau>      Niveau du journal: silencieux, info ou debug       [Défaut: info]");
+		System.out.println(
+				"  --quiet, -q               Équivalent à --log-level silencieux                [Facultatif]");
+		System.out.println(
+				"  --cache-dir <dossier>     Dossier du cache des résultats                     [Défaut: "
+						+ CacheResultats.DOSSIER_DEFAUT + "]");
+		System.out.println(
+				"  --cache-size <Mo>         Taille maximale du cache (éviction LRU)            [Défaut: "
+						+ CacheResultats.TAILLE_MAX_DEFAUT / (1024 * 1024) + "]");
+		System.out.println(
+				"  --no-cache                Recalcule sans lire ni écrire le cache             [Facultatif]");
+		System.out.println(
+				"  --float32                 Projection, seuillage et reconstruction en float   [Défaut: double]");
+		System.out.println(
+				"  --sample <fraction>       Covariance estimée sur une fraction des patchs     [Défaut: 1]");
+		System.out.println(
+				"  --sample-mode <mode>      Tirage des patchs: uniforme, stratifie ou variance [Défaut: uniforme]");
+		System.out.println(
+				"  --preset <profil>         Profil: fast, balanced ou quality                  [Défaut: balanced]");
+		System.out.println(
+				"  --stride <pas>            Pas entre deux patchs (1 à la taille des patchs)   [Défaut: selon le profil]");
+		System.out.println(
+				"  --window-overlap <frac>   Recouvrement minimal des fenêtres, dans [0, 1[     [Défaut: selon le profil]");
+		System.out.println(
+				"  --batch-size <n>          Patchs par mini-lot du k-means (grandes images)    [Défaut: "
+						+ MoteurKMeansMiniBatch.TAILLE_LOT_DEFAUT + "]");
+		System.out.println(
+				"  --learning-rate <taux>    Taux du k-means par mini-lots: η ou η:demi-vie     [Défaut: 1/n par centre]");
+		System.out.println(
+				"  --batch-tolerance <d>     Déplacement des centres arrêtant les mini-lots     [Défaut: "
+						+ MoteurKMeansMiniBatch.TOLERANCE_DEFAUT + "]");
 		System.out.println("  --help, -h                Affiche cette aide");
 		System.out.println();
+		System.out.println("Apprentissage des bases: java -jar denoize.jar train [options]");
+		System.out.println(
+				"  --corpus, -c <dossier>    Dossier des images d'apprentissage                 [Défaut: data/x0]");
+		System.out.println(
+				"  --patch-sizes, -p <liste> Tailles de patch, séparées par des virgules        [Défaut: 5,7,9,17,21,23]");
+		System.out.println(
+				"  --sigmas, -sig <liste>    Niveaux de bruit (une base par niveau)             [Défaut: aucun]");
+		System.out.println(
+				"  --output, -o <fichier>    Fichier de sortie                                  [Défaut: " + BASES_DEFAUT + "]");
+		System.out.println();
+		System.out.println("Traitement par lot: java -jar denoize.jar batch [options]");
+		System.out.println(
+				"  --input, -in <dossier>    Dossier des images originales                      [Défaut: data/x0]");
+		System.out.println(
+				"  --output, -o <dossier>    Dossier du fichier resultats.csv                   [Défaut: data/xR/results]");
+		System.out.println(
+				"  --methods, -m <liste>     Méthodes: local, global, clusters                  [Défaut: local,global]");
+		System.out.println(
+				"  --clusters, -k <n>        Nombre de clusters de la méthode clusters          [Défaut: "
+						+ NB_CLUSTERS_DEFAUT + "]");
+		System.out.println(
+				"  --thresholds, -t <liste>  Seuillages: hard, soft                             [Défaut: hard,soft]");
+		System.out.println(
+				"  --shrinks, -s <liste>     Seuils adaptatifs: v, b                            [Défaut: v,b]");
+		System.out.println(
+				"  --patch-sizes, -p <liste> Tailles de patch                                   [Défaut: 5,7,9]");
+		System.out.println(
+				"  --sigmas, -sig <liste>    Écarts-types du bruit                              [Défaut: 10,20,30]");
+		System.out.println(
+				"  --fenetre-size, -f <taille> Taille des fenêtres (mode local)                  [Défaut: 250]");
+		System.out.println(
+				"  --threads, -j <n>         Nombre de threads                                  [Défaut: nombre de cœurs]");
+		System.out.println(
+				"  --save-images             Enregistre chaque image débruitée dans le dossier de sortie");
+		System.out.println(
+				"  --float32                 Débruitage en simple précision                     [Défaut: double]");
+		System.out.println(
+				"  --log-level <niveau>      Niveau du journal (info: progression du lot)       [Défaut: silencieux]");
+		System.out.println();
+		System.out.println("Débruitage local tuilé (images plus grandes que la mémoire): java -jar denoize.jar tiled [options]");
+		System.out.println(
+				"  --input, -in <fichier>    Image déjà bruitée                                 [Obligatoire]");
+		System.out.println(
+				"  --output, -o <fichier>    Image débruitée (PNG), écrite ligne par ligne      [Obligatoire]");
+		System.out.println(
+				"  -t, -s, -sig, -p, -f, -b  Mêmes options que le débruitage d'une image");
+		System.out.println(
+				"  --sample, --sample-mode   Mêmes options que le débruitage d'une image");
+		System.out.println(
+				"  --preset, --stride, --window-overlap  Mêmes options que le débruitage d'une image");
+		System.out.println(
+				"  --float32                 Débruitage en simple précision                     [Défaut: double]");
+		System.out.println(
+				"  --threads, -j <n>         Nombre de threads                                  [Défaut: nombre de cœurs]");
+		System.out.println();
 		System.out.println("Exemples:");
 		System.out.println("  java -jar denoize.jar -i lena_gray.png");
 		System.out.println("  java -jar denoize.jar -i lena_gray.png -g -t soft");
 		System.out.println("  java -jar denoize.jar -i lena_gray.png -sig 30 -p 9 -s b");
+		System.out.println("  java -jar denoize.jar -i lena_gray.png -k 8 -s b");
+		System.out.println("  java -jar denoize.jar -i lena_gray.png -g -p 17 --sample 0.1 --sample-mode stratifie");
+		System.out.println("  java -jar denoize.jar -i lena_gray.png --preset fast");
+		System.out.println("  java -jar denoize.jar train -p 7,21 -sig 20");
+		System.out.println("  java -jar denoize.jar -i lena_gray.png -g -p 21 -b " + BASES_DEFAUT);
+		System.out.println("  java -jar denoize.jar -i lena_gray.png -q -r data/rapport.json");
+		System.out.println("  java -jar denoize.jar batch -m global -p 17,21 -sig 20 -j 4");
+		System.out.println("  java -jar denoize.jar tiled -in scan_bruite.tif -o scan_debruite.png -sig 15");
 		System.out.println();
 		System.out.println("Sans arguments, le mode console interactif sera lancé.");
 	}
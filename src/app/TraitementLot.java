@@ -0,0 +1,305 @@
+/**
+ * @file TraitementLot.java
+ * @brief Traitement par lot : débruitage de toutes les images d'un dossier pour une grille de paramètres, dans une
+ * seule JVM.
+ */
+
+package app;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import mesure.Journal;
+import model.base.Img;
+import service.acp.EntraineurBases;
+import service.bruit.BruiteurImage;
+import service.debruitage.DebruiteurImage;
+import service.evaluation.EvaluationQualite;
+
+/**
+ * @class TraitementLot
+ * @brief Parcourt les images d'un dossier une par une et débruite chacune selon un graphe d'étapes partagées :
+ * image → image bruitée (une par sigma) → analyse (une par méthode × taille de patch × sigma : découpage, patchs,
+ * covariance, décomposition, projection) → variantes (seuillage × shrink : seuillage et reconstruction seuls).
+ * Chaque nœud est une tâche du pool borné, partagé avec le débruiteur, et n'est calculé qu'une fois. Une ligne de
+ * resultats.csv est écrite par combinaison, dans l'ordre de la grille ; une image illisible ou un bruitage ou
+ * débruitage en échec donne des lignes à N/A sans interrompre le lot.
+ * @author Paul
+ */
+class TraitementLot {
+
+	//En-tête du fichier de résultats (mêmes colonnes que exemples.sh)
+	static final String ENTETE = "image,method,threshold,shrink,patch_size,sigma,mse,psnr";
+	//Nom du fichier de résultats
+	static final String FICHIER_RESULTATS = "resultats.csv";
+
+	//Dossier des images originales
+	private final String dossierEntree;
+	//Dossier recevant resultats.csv (et les images débruitées)
+	private final String dossierSortie;
+	//Grille des paramètres
+	private final String[] methodes;
+	private final String[] seuillages;
+	private final String[] shrinks;
+	private final int[] taillesPatch;
+	private final double[] sigmas;
+	//Taille des fenêtres du mode local
+	private final int tailleFenetre;
+	//Nombre de threads du pool
+	private final int nbThreads;
+	//Vrai pour enregistrer chaque image débruitée
+	private final boolean sauverImages;
+	//Vrai pour débruiter en simple précision
+	private final boolean simplePrecision;
+	//Nombre de clusters de la méthode "clusters"
+	private final int nbClusters;
+
+	/**
+	 * @brief Constructeur du traitement par lot.
+	 * @author Paul
+	 * @param dossierEntree Dossier des images originales.
+	 * @param dossierSortie Dossier recevant resultats.csv.
+	 * @param methodes      Méthodes ("local", "global", "clusters").
+	 * @param seuillages    Fonctions de seuillage ("hard", "soft").
+	 * @param shrinks       Seuils adaptatifs ("v", "b").
+	 * @param taillesPatch  Tailles de patch.
+	 * @param sigmas        Écarts-types du bruit.
+	 * @param tailleFenetre Taille des fenêtres du mode local.
+	 * @param nbThreads     Nombre de threads du pool.
+	 * @param sauverImages  Vrai pour enregistrer chaque image débruitée dans le dossier de sortie.
+	 * @param simplePrecision Vrai pour projeter, seuiller et reconstruire en float.
+	 * @param nbClusters    Nombre de clusters de la méthode "clusters".
+	 */
+	TraitementLot(String dossierEntree, String dossierSortie, String[] methodes, String[] seuillages, String[] shrinks,
+			int[] taillesPatch, double[] sigmas, int tailleFenetre, int nbThreads, boolean sauverImages,
+			boolean simplePrecision, int nbClusters) {
+		this.dossierEntree = dossierEntree;
+		this.dossierSortie = dossierSortie;
+		this.methodes = methodes;
+		this.seuillages = seuillages;
+		this.shrinks = shrinks;
+		this.taillesPatch = taillesPatch;
+		this.sigmas = sigmas;
+		this.tailleFenetre = tailleFenetre;
+		this.nbThreads = nbThreads;
+		this.sauverImages = sauverImages;
+		this.simplePrecision = simplePrecision;
+		this.nbClusters = nbClusters;
+	}
+
+	/**
+	 * @brief Exécute le lot et écrit resultats.csv au fur et à mesure.
+	 * @author Paul
+	 * @return Chemin du fichier de résultats.
+	 * @throws IOException Si le dossier d'entrée est vide ou si le fichier de résultats ne peut pas être écrit.
+	 */
+	Path executer() throws IOException {
+		List<String> images = EntraineurBases.listerImages(dossierEntree);
+		Path sortie = Path.of(dossierSortie);
+		Files.createDirectories(sortie);
+		Path fichierResultats = sortie.resolve(FICHIER_RESULTATS);
+
+		int parImage = methodes.length * seuillages.length * shrinks.length * taillesPatch.length * sigmas.length;
+		if (Journal.isInfo()) {
+			Journal.info("🔍 Traitement par lot de " + images.size() + " images × " + parImage + " combinaisons sur "
+					+ nbThreads + " threads");
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(nbThreads);
+		long debut = System.nanoTime();
+		try (BufferedWriter csv = Files.newBufferedWriter(fichierResultats, StandardCharsets.UTF_8)) {
+			csv.write(ENTETE);
+			csv.newLine();
+
+			for (int n = 0; n < images.size(); n++) {
+				String chemin = images.get(n);
+				String nomImage = new File(chemin).getName();
+				if (Journal.isInfo()) {
+					Journal.info("🖼️  [" + (n + 1) + "/" + images.size() + "] " + nomImage);
+				}
+
+				// Une image illisible donne des lignes N/A sans interrompre le lot
+				Img x0 = lire(chemin, nomImage);
+				List<ForkJoinTask<String[]>> groupes = new ArrayList<>();
+				if (x0 != null) {
+					// Une image bruitée par niveau de bruit, partagée par toutes les combinaisons
+					List<ForkJoinTask<Img>> bruitees = new ArrayList<>();
+					for (double sigma : sigmas) {
+						bruitees.add(pool.submit(() -> BruiteurImage.noising(x0, sigma)));
+					}
+
+					// Un groupe par méthode × taille de patch × sigma, dont l'analyse est partagée par ses variantes
+					for (String methode : methodes) {
+						for (int taillePatch : taillesPatch) {
+							for (int s = 0; s < sigmas.length; s++) {
+								ForkJoinTask<Img> xB = bruitees.get(s);
+								double sigma = sigmas[s];
+								groupes.add(pool.submit(
+										() -> traiterGroupe(nomImage, x0, xB, methode, taillePatch, sigma, pool)));
+							}
+						}
+					}
+				}
+
+				// Lignes écrites dans l'ordre de la grille, quel que soit l'ordre de fin des tâches
+				for (int m = 0; m < methodes.length; m++) {
+					for (int t = 0; t < seuillages.length; t++) {
+						for (int r = 0; r < shrinks.length; r++) {
+							for (int p = 0; p < taillesPatch.length; p++) {
+								for (int s = 0; s < sigmas.length; s++) {
+									String[] lignes = x0 == null
+											? lignesEchec(prefixes(nomImage, methodes[m], taillesPatch[p], sigmas[s]))
+											: groupes.get((m * taillesPatch.length + p) * sigmas.length + s).join();
+									csv.write(lignes[t * shrinks.length + r]);
+									csv.newLine();
+								}
+							}
+						}
+					}
+				}
+				csv.flush();
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		if (Journal.isInfo()) {
+			Journal.info(String.format(Locale.ROOT, "🎉 Lot terminé en %.1f s : %s",
+					(System.nanoTime() - debut) / 1e9, fichierResultats));
+		}
+		return fichierResultats;
+	}
+
+	/**
+	 * @brief Lit une image du lot.
+	 * @author Paul
+	 * @param chemin   Chemin du fichier.
+	 * @param nomImage Nom du fichier, pour le message d'erreur.
+	 * @return Image lue, ou null si le fichier est illisible (l'erreur est affichée).
+	 */
+	private static Img lire(String chemin, String nomImage) {
+		try {
+			return new Img(chemin);
+		} catch (Exception e) {
+			System.err.println("❌ " + nomImage + " : lecture impossible (" + e.getMessage() + ")");
+			return null;
+		}
+	}
+
+	/**
+	 * @brief Débruite une image pour une méthode, une taille de patch et un sigma, et pour toutes les variantes
+	 * seuillage × shrink à partir d'une seule analyse, puis retourne les lignes CSV correspondantes.
+	 * @author Paul
+	 * @param nomImage    Nom du fichier de l'image.
+	 * @param x0          Image originale.
+	 * @param xB          Tâche produisant l'image bruitée.
+	 * @param methode     "local", "global" ou "clusters".
+	 * @param taillePatch Taille des patchs.
+	 * @param sigma       Écart-type du bruit.
+	 * @param pool        Pool partagé avec le débruiteur.
+	 * @return Lignes CSV, indicées par seuillage × nombre de shrinks + shrink (MSE et PSNR à N/A si le bruitage ou
+	 * le débruitage échoue).
+	 */
+	private String[] traiterGroupe(String nomImage, Img x0, ForkJoinTask<Img> xB, String methode, int taillePatch,
+			double sigma, ForkJoinPool pool) {
+		String[] prefixes = prefixes(nomImage, methode, taillePatch, sigma);
+		int nbVariantes = prefixes.length;
+		String[] typesSeuil = new String[nbVariantes];
+		String[] fonctions = new String[nbVariantes];
+		for (int t = 0; t < seuillages.length; t++) {
+			for (int r = 0; r < shrinks.length; r++) {
+				int v = t * shrinks.length + r;
+				typesSeuil[v] = shrinks[r].equals("b") ? "BayesShrink" : "VisuShrink";
+				fonctions[v] = seuillages[t].equals("soft") ? "Doux" : "Dur";
+			}
+		}
+
+		String[] lignes = new String[nbVariantes];
+		try {
+			DebruiteurImage debruiteur = new DebruiteurImage(pool);
+			debruiteur.setSimplePrecision(simplePrecision);
+			Img[] xRs = methode.equals("clusters")
+					? debruiteur.imageDenClusters(xB.join(), typesSeuil, fonctions, sigma, taillePatch, nbClusters)
+					: debruiteur.imageDen(xB.join(), typesSeuil, fonctions, sigma, taillePatch, tailleFenetre,
+							methode.equals("local"));
+
+			EvaluationQualite evaluation = new EvaluationQualite();
+			for (int v = 0; v < nbVariantes; v++) {
+				Img xR = xRs[v];
+				if (sauverImages) {
+					int point = nomImage.lastIndexOf('.');
+					String base = point != -1 ? nomImage.substring(0, point) : nomImage;
+					String extension = point != -1 ? nomImage.substring(point) : ".png";
+					xR.saveImg(Path.of(dossierSortie, base + "_" + methode + "_" + seuillages[v / shrinks.length]
+							+ "_" + shrinks[v % shrinks.length] + "_p" + taillePatch + "_s" + formater(sigma)
+							+ extension).toString(), x0.isEstRGB());
+				}
+				lignes[v] = prefixes[v]
+						+ String.format(Locale.ROOT, "%.4f,%.4f", evaluation.mse(x0, xR), evaluation.psnr(x0, xR));
+			}
+		} catch (Exception e) {
+			System.err.println("❌ " + nomImage + " (" + methode + ", p=" + taillePatch + ", sigma=" + formater(sigma)
+					+ ") : " + e.getMessage());
+			String[] echecs = lignesEchec(prefixes);
+			for (int v = 0; v < nbVariantes; v++) {
+				if (lignes[v] == null) {
+					lignes[v] = echecs[v];
+				}
+			}
+		}
+		return lignes;
+	}
+
+	/**
+	 * @brief Construit le début des lignes CSV d'un groupe (image, méthode, seuillage, shrink, patch, sigma).
+	 * @author Paul
+	 * @param nomImage    Nom du fichier de l'image.
+	 * @param methode     "local", "global" ou "clusters".
+	 * @param taillePatch Taille des patchs.
+	 * @param sigma       Écart-type du bruit.
+	 * @return Préfixes, indicés par seuillage × nombre de shrinks + shrink.
+	 */
+	private String[] prefixes(String nomImage, String methode, int taillePatch, double sigma) {
+		String[] prefixes = new String[seuillages.length * shrinks.length];
+		for (int t = 0; t < seuillages.length; t++) {
+			for (int r = 0; r < shrinks.length; r++) {
+				prefixes[t * shrinks.length + r] = nomImage + "," + methode + "," + seuillages[t] + "," + shrinks[r]
+						+ "," + taillePatch + "," + formater(sigma) + ",";
+			}
+		}
+		return prefixes;
+	}
+
+	/**
+	 * @brief Construit les lignes CSV d'un groupe dont le traitement a échoué.
+	 * @author Paul
+	 * @param prefixes Début de chaque ligne.
+	 * @return Lignes avec MSE et PSNR à N/A.
+	 */
+	private static String[] lignesEchec(String[] prefixes) {
+		String[] lignes = new String[prefixes.length];
+		for (int v = 0; v < prefixes.length; v++) {
+			lignes[v] = prefixes[v] + "N/A,N/A";
+		}
+		return lignes;
+	}
+
+	/**
+	 * @brief Écrit un réel sans décimale superflue (20 plutôt que 20.0).
+	 * @author Paul
+	 * @param valeur Valeur à écrire.
+	 * @return Texte de la valeur.
+	 */
+	private static String formater(double valeur) {
+		return valeur == Math.rint(valeur) ? String.valueOf((long) valeur) : String.valueOf(valeur);
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * @file Journal.java
+ * @brief Journal console du débruitage, filtré par niveau.
+ */
+
+package mesure;
+
+/**
+ * @class Journal
+ * @brief Affiche les messages de progression seulement si le niveau courant le permet. Un message désactivé ne coûte
+ * qu'une comparaison ; les messages construits par concaténation sont à protéger par isInfo() ou isDebug().
+ * @author Paul
+ */
+public final class Journal {
+
+    /**
+     * @enum Niveau
+     * @brief Niveaux du journal, du plus discret au plus bavard.
+     */
+    public enum Niveau {
+        //Aucun message de progression
+        SILENCIEUX,
+        //Étapes principales du traitement
+        INFO,
+        //Détails internes (format des images, fenêtres...)
+        DEBUG;
+
+        /**
+         * @brief Retrouve un niveau à partir de son nom (sans tenir compte de la casse).
+         * @author Paul
+         * @param nom "silencieux", "info" ou "debug".
+         * @return Niveau correspondant.
+         * @throws IllegalArgumentException Si le nom n'est pas reconnu.
+         */
+        public static Niveau depuisNom(String nom) {
+            for (Niveau niveau : values()) {
+                if (niveau.name().equalsIgnoreCase(nom)) {
+                    return niveau;
+                }
+            }
+            throw new IllegalArgumentException("Niveau de journal non reconnu : " + nom);
+        }
+    }
+
+    //Niveau courant, partagé par toute l'application
+    private static volatile Niveau niveau = Niveau.INFO;
+
+    private Journal() {
+    }
+
+    /**
+     * @brief Définit le niveau du journal.
+     * @author Paul
+     * @param nouveauNiveau Niveau à appliquer.
+     */
+    public static void setNiveau(Niveau nouveauNiveau) {
+        niveau = nouveauNiveau;
+    }
+
+    /**
+     * @brief Retourne le niveau courant du journal.
+     * @author Paul
+     * @return Niveau courant.
+     */
+    public static Niveau getNiveau() {
+        return niveau;
+    }
+
+    /**
+     * @brief Indique si les messages de niveau INFO sont affichés.
+     * @author Paul
+     * @return Vrai si le niveau courant est INFO ou DEBUG.
+     */
+    public static boolean isInfo() {
+        return niveau.compareTo(Niveau.INFO) >= 0;
+    }
+
+    /**
+     * @brief Indique si les messages de niveau DEBUG sont affichés.
+     * @author Paul
+     * @return Vrai si le niveau courant est DEBUG.
+     */
+    public static boolean isDebug() {
+        return niveau == Niveau.DEBUG;
+    }
+
+    /**
+     * @brief Affiche un message de progression.
+     * @author Paul
+     * @param message Message à afficher.
+     */
+    public static void info(String message) {
+        if (isInfo()) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * @brief Affiche un message de détail.
+     * @author Paul
+     * @param message Message à afficher.
+     */
+    public static void debug(String message) {
+        if (isDebug()) {
+            System.out.println("DEBUG: " + message);
+        }
+    }
+}
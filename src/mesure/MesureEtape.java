@@ -0,0 +1,128 @@
+/**
+ * @file MesureEtape.java
+ * @brief Mesure d'une étape du traitement : temps écoulé, temps CPU, mémoire allouée et nombre d'éléments traités.
+ */
+
+package mesure;
+
+/**
+ * @class MesureEtape
+ * @brief Enregistrement immuable d'une étape mesurée. Le temps CPU et la mémoire allouée sont ceux du thread qui a
+ * exécuté l'étape.
+ * @author Paul
+ */
+public class MesureEtape {
+
+    //Nom de l'étape
+    private final String nom;
+    //Précision sur l'étape (fenêtre, canal...), ou null
+    private final String detail;
+    //Nom du thread ayant exécuté l'étape
+    private final String thread;
+    //Début de l'étape, relatif au début des mesures (ns)
+    private final long debut;
+    //Temps écoulé (ns)
+    private final long duree;
+    //Temps CPU du thread (ns), -1 si non disponible
+    private final long tempsCPU;
+    //Mémoire allouée par le thread (octets), -1 si non disponible
+    private final long octetsAlloues;
+    //Nombre d'éléments traités (patchs, fenêtres, pixels...)
+    private final long nbElements;
+
+    /**
+     * @brief Constructeur d'une mesure d'étape.
+     * @author Paul
+     * @param nom           Nom de l'étape.
+     * @param detail        Précision sur l'étape, ou null.
+     * @param thread        Nom du thread ayant exécuté l'étape.
+     * @param debut         Début de l'étape, relatif au début des mesures (ns).
+     * @param duree         Temps écoulé (ns).
+     * @param tempsCPU      Temps CPU du thread (ns), -1 si non disponible.
+     * @param octetsAlloues Mémoire allouée par le thread (octets), -1 si non disponible.
+     * @param nbElements    Nombre d'éléments traités.
+     */
+    public MesureEtape(String nom, String detail, String thread, long debut, long duree, long tempsCPU,
+            long octetsAlloues, long nbElements) {
+        this.nom = nom;
+        this.detail = detail;
+        this.thread = thread;
+        this.debut = debut;
+        this.duree = duree;
+        this.tempsCPU = tempsCPU;
+        this.octetsAlloues = octetsAlloues;
+        this.nbElements = nbElements;
+    }
+
+    /**
+     * @brief Retourne le nom de l'étape.
+     * @author Paul
+     * @return Nom de l'étape.
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * @brief Retourne la précision sur l'étape (fenêtre, canal...).
+     * @author Paul
+     * @return Précision, ou null.
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * @brief Retourne le nom du thread ayant exécuté l'étape.
+     * @author Paul
+     * @return Nom du thread.
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * @brief Retourne le début de l'étape, relatif au début des mesures.
+     * @author Paul
+     * @return Début en nanosecondes.
+     */
+    public long getDebut() {
+        return debut;
+    }
+
+    /**
+     * @brief Retourne le temps écoulé pendant l'étape.
+     * @author Paul
+     * @return Durée en nanosecondes.
+     */
+    public long getDuree() {
+        return duree;
+    }
+
+    /**
+     * @brief Retourne le temps CPU consommé par le thread pendant l'étape.
+     * @author Paul
+     * @return Temps CPU en nanosecondes, -1 si non disponible.
+     */
+    public long getTempsCPU() {
+        return tempsCPU;
+    }
+
+    /**
+     * @brief Retourne la mémoire allouée par le thread pendant l'étape.
+     * @author Paul
+     * @return Nombre d'octets, -1 si non disponible.
+     */
+    public long getOctetsAlloues() {
+        return octetsAlloues;
+    }
+
+    /**
+     * @brief Retourne le nombre d'éléments traités par l'étape.
+     * @author Paul
+     * @return Nombre d'éléments.
+     */
+    public long getNbElements() {
+        return nbElements;
+    }
+}
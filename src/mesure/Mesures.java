@@ -0,0 +1,321 @@
+/**
+ * @file Mesures.java
+ * @brief Collecte des mesures par étape (temps écoulé, temps CPU, mémoire allouée, éléments traités) et rapport JSON.
+ */
+
+package mesure;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * @class Mesures
+ * @brief Enregistre les étapes du débruitage, éventuellement depuis plusieurs threads. Le temps CPU et la mémoire
+ * allouée sont lus par ThreadMXBean sur le thread qui exécute l'étape. L'instance INACTIVES n'enregistre rien.
+ * @author Paul
+ */
+public final class Mesures {
+
+    /**
+     * @class Chrono
+     * @brief Mesure en cours d'une étape, démarrée par Mesures.demarrer et close par arreter.
+     */
+    public static final class Chrono {
+
+        //Mesures destinataires (null : chrono inactif)
+        private final Mesures mesures;
+        private final String nom;
+        private final String detail;
+        private final long debut;
+        private final long debutCPU;
+        private final long debutAlloue;
+
+        private Chrono(Mesures mesures, String nom, String detail) {
+            this.mesures = mesures;
+            this.nom = nom;
+            this.detail = detail;
+            if (mesures == null) {
+                this.debut = 0;
+                this.debutCPU = 0;
+                this.debutAlloue = 0;
+            } else {
+                this.debutCPU = tempsCPU();
+                this.debutAlloue = octetsAlloues();
+                this.debut = System.nanoTime();
+            }
+        }
+
+        /**
+         * @brief Termine la mesure et l'enregistre.
+         * @author Paul
+         * @param nbElements Nombre d'éléments traités par l'étape.
+         */
+        public void arreter(long nbElements) {
+            if (mesures == null) {
+                return;
+            }
+            long fin = System.nanoTime();
+            long finCPU = tempsCPU();
+            long finAlloue = octetsAlloues();
+            mesures.etapes.add(new MesureEtape(nom, detail, Thread.currentThread().getName(), debut - mesures.origine,
+                    fin - debut, debutCPU < 0 || finCPU < 0 ? -1 : finCPU - debutCPU,
+                    debutAlloue < 0 || finAlloue < 0 ? -1 : finAlloue - debutAlloue, nbElements));
+        }
+    }
+
+    //Instance partagée qui n'enregistre rien
+    public static final Mesures INACTIVES = new Mesures(false);
+
+    //Chrono renvoyé par les mesures inactives
+    private static final Chrono CHRONO_INACTIF = new Chrono(null, null, null);
+
+    //Accès aux compteurs par thread de la JVM
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    //Compteurs d'allocation de HotSpot, null s'ils ne sont pas disponibles
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = initialiserAllocations();
+
+    //Vrai si les étapes sont enregistrées
+    private final boolean actif;
+    //Instant de création, origine des dates de début des étapes
+    private final long origine;
+    //Étapes enregistrées, dans l'ordre de fin
+    private final ConcurrentLinkedQueue<MesureEtape> etapes = new ConcurrentLinkedQueue<>();
+    //Informations générales du rapport (image, paramètres, résultats)
+    private final Map<String, Object> informations = new LinkedHashMap<>();
+
+    /**
+     * @brief Constructeur de mesures actives.
+     * @author Paul
+     */
+    public Mesures() {
+        this(true);
+    }
+
+    private Mesures(boolean actif) {
+        this.actif = actif;
+        this.origine = System.nanoTime();
+        if (actif && THREADS.isThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    /**
+     * @brief Démarre la mesure d'une étape sur le thread courant.
+     * @author Paul
+     * @param nom Nom de l'étape.
+     * @return Chrono à arrêter en fin d'étape.
+     */
+    public Chrono demarrer(String nom) {
+        return demarrer(nom, null);
+    }
+
+    /**
+     * @brief Démarre la mesure d'une étape sur le thread courant.
+     * @author Paul
+     * @param nom    Nom de l'étape.
+     * @param detail Précision sur l'étape (fenêtre, canal...), ou null.
+     * @return Chrono à arrêter en fin d'étape.
+     */
+    public Chrono demarrer(String nom, String detail) {
+        return actif ? new Chrono(this, nom, detail) : CHRONO_INACTIF;
+    }
+
+    /**
+     * @brief Ajoute une information générale au rapport (ignorée si les mesures sont inactives).
+     * @author Paul
+     * @param cle    Nom de l'information.
+     * @param valeur Valeur (nombre, booléen ou texte).
+     */
+    public synchronized void ajouterInformation(String cle, Object valeur) {
+        if (actif) {
+            informations.put(cle, valeur);
+        }
+    }
+
+    /**
+     * @brief Indique si les mesures sont enregistrées.
+     * @author Paul
+     * @return Vrai si les mesures sont actives.
+     */
+    public boolean isActif() {
+        return actif;
+    }
+
+    /**
+     * @brief Retourne les étapes enregistrées, dans l'ordre de fin.
+     * @author Paul
+     * @return Copie de la liste des étapes.
+     */
+    public List<MesureEtape> getEtapes() {
+        return new ArrayList<>(etapes);
+    }
+
+    /**
+     * @brief Construit le rapport JSON : informations générales, totaux par nom d'étape, puis détail des étapes.
+     * @author Paul
+     * @return Rapport au format JSON.
+     */
+    public synchronized String versJson() {
+        List<MesureEtape> liste = getEtapes();
+        liste.sort((a, b) -> Long.compare(a.getDebut(), b.getDebut()));
+
+        StringBuilder json = new StringBuilder("{\n  \"informations\": {");
+        boolean premier = true;
+        for (Map.Entry<String, Object> info : informations.entrySet()) {
+            json.append(premier ? "\n" : ",\n").append("    ").append(chaine(info.getKey())).append(": ")
+                    .append(valeur(info.getValue()));
+            premier = false;
+        }
+        json.append(premier ? "},\n" : "\n  },\n");
+
+        // Totaux par nom d'étape, dans l'ordre de première apparition
+        Map<String, long[]> totaux = new LinkedHashMap<>();
+        for (MesureEtape etape : liste) {
+            long[] total = totaux.computeIfAbsent(etape.getNom(), nom -> new long[5]);
+            total[0]++;
+            total[1] += etape.getDuree();
+            total[2] += Math.max(0, etape.getTempsCPU());
+            total[3] += Math.max(0, etape.getOctetsAlloues());
+            total[4] += etape.getNbElements();
+        }
+        json.append("  \"totaux\": [");
+        premier = true;
+        for (Map.Entry<String, long[]> total : totaux.entrySet()) {
+            long[] t = total.getValue();
+            json.append(premier ? "\n" : ",\n").append("    {\"etape\": ").append(chaine(total.getKey()))
+                    .append(", \"occurrences\": ").append(t[0]).append(", \"duree_ms\": ").append(ms(t[1]))
+                    .append(", \"cpu_ms\": ").append(ms(t[2])).append(", \"octets_alloues\": ").append(t[3])
+                    .append(", \"elements\": ").append(t[4]).append('}');
+            premier = false;
+        }
+        json.append(premier ? "],\n" : "\n  ],\n");
+
+        json.append("  \"etapes\": [");
+        premier = true;
+        for (MesureEtape etape : liste) {
+            json.append(premier ? "\n" : ",\n").append("    {\"etape\": ").append(chaine(etape.getNom()))
+                    .append(", \"detail\": ").append(etape.getDetail() == null ? "null" : chaine(etape.getDetail()))
+                    .append(", \"thread\": ").append(chaine(etape.getThread())).append(", \"debut_ms\": ")
+                    .append(ms(etape.getDebut())).append(", \"duree_ms\": ").append(ms(etape.getDuree()))
+                    .append(", \"cpu_ms\": ").append(etape.getTempsCPU() < 0 ? "null" : ms(etape.getTempsCPU()))
+                    .append(", \"octets_alloues\": ")
+                    .append(etape.getOctetsAlloues() < 0 ? "null" : String.valueOf(etape.getOctetsAlloues()))
+                    .append(", \"elements\": ").append(etape.getNbElements()).append('}');
+            premier = false;
+        }
+        json.append(premier ? "]\n}\n" : "\n  ]\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * @brief Écrit le rapport JSON dans un fichier.
+     * @author Paul
+     * @param chemin Chemin du fichier de sortie.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public void ecrireJson(String chemin) throws IOException {
+        Path fichier = Path.of(chemin);
+        if (fichier.getParent() != null) {
+            Files.createDirectories(fichier.getParent());
+        }
+        Files.writeString(fichier, versJson(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @brief Retourne le temps CPU du thread courant.
+     * @author Paul
+     * @return Temps CPU en nanosecondes, -1 si non disponible.
+     */
+    private static long tempsCPU() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * @brief Retourne le nombre d'octets alloués depuis son démarrage par le thread courant.
+     * @author Paul
+     * @return Nombre d'octets, -1 si non disponible.
+     */
+    private static long octetsAlloues() {
+        return ALLOCATIONS == null ? -1 : ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @brief Active la mesure des allocations par thread si la JVM la propose.
+     * @author Paul
+     * @return Interface étendue de HotSpot, ou null si elle n'est pas disponible.
+     */
+    private static com.sun.management.ThreadMXBean initialiserAllocations() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            hotspot.setThreadAllocatedMemoryEnabled(true);
+            return hotspot;
+        }
+        return null;
+    }
+
+    /**
+     * @brief Convertit une durée en millisecondes (trois décimales).
+     * @author Paul
+     * @param nanosecondes Durée en nanosecondes.
+     * @return Texte de la durée en millisecondes.
+     */
+    private static String ms(long nanosecondes) {
+        return String.format(Locale.ROOT, "%.3f", nanosecondes / 1e6);
+    }
+
+    /**
+     * @brief Convertit une valeur en JSON.
+     * @author Paul
+     * @param valeur Nombre, booléen, texte ou null.
+     * @return Valeur au format JSON.
+     */
+    private static String valeur(Object valeur) {
+        if (valeur == null) {
+            return "null";
+        }
+        if (valeur instanceof Double d) {
+            return d.isNaN() || d.isInfinite() ? "null" : String.format(Locale.ROOT, "%.6f", d);
+        }
+        if (valeur instanceof Number || valeur instanceof Boolean) {
+            return valeur.toString();
+        }
+        return chaine(valeur.toString());
+    }
+
+    /**
+     * @brief Échappe une chaîne de caractères au format JSON.
+     * @author Paul
+     * @param texte Texte à échapper.
+     * @return Texte entre guillemets.
+     */
+    private static String chaine(String texte) {
+        StringBuilder sb = new StringBuilder(texte.length() + 2).append('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            switch (c) {
+            case '"' -> sb.append("\\\"");
+            case '\\' -> sb.append("\\\\");
+            case '\n' -> sb.append("\\n");
+            case '\r' -> sb.append("\\r");
+            case '\t' -> sb.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -36,6 +36,16 @@ public class ResultatMoyCov {
         this.vc = vc;
     }
 
+    /**
+     * @brief Constructeur du résultat moyen-covariance sans vecteurs centrés matérialisés.
+     * @author Paul
+     * @param mV Le vecteur moyen calculé.
+     * @param gamma La matrice de covariance calculée.
+     */
+    public ResultatMoyCov(Vecteur mV, Matrice gamma) {
+        this(mV, gamma, null);
+    }
+
     /**
      * @brief Accède au vecteur moyen.
      * @author Emma
@@ -57,7 +67,7 @@ public class ResultatMoyCov {
     /**
      * @brief Accède aux résultats liés au centrage des vecteurs.
      * @author Emma
-     * @return L'objet contenant les vecteurs centrés et leurs résultats associés.
+     * @return L'objet contenant les vecteurs centrés et leurs résultats associés, ou null s'ils n'ont pas été matérialisés.
      */
     public ResultatVecteur getVecteursCenters() {
         return vc;
@@ -0,0 +1,174 @@
+/**
+ * @file EcrivainPNG.java
+ * @brief Écriture d'une image PNG ligne par ligne, sans jamais conserver l'image entière en mémoire.
+ */
+
+package model.base;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * @class EcrivainPNG
+ * @brief Encode une image 8 bits (niveaux de gris ou RGB) au format PNG à mesure que ses lignes sont fournies,
+ * de haut en bas : chaque ligne est compressée puis écrite dans des blocs IDAT de taille fixe.
+ * @author Paul
+ */
+public class EcrivainPNG implements AutoCloseable {
+
+	//Signature d'un fichier PNG
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	//Taille des blocs IDAT écrits dans le fichier
+	private static final int TAILLE_BLOC = 1 << 16;
+
+	//Fichier de sortie
+	private final DataOutputStream fichier;
+	//Flux compressé des lignes filtrées, découpé en blocs IDAT
+	private final DeflaterOutputStream donnees;
+	//Dimensions et type de l'image
+	private final int largeur;
+	private final int hauteur;
+	private final boolean estRGB;
+	//Ligne filtrée en cours d'écriture (octet de filtre, puis échantillons)
+	private final byte[] ligne;
+	//Nombre de lignes déjà écrites
+	private int lignesEcrites;
+
+	/**
+	 * @brief Ouvre le fichier et écrit l'en-tête de l'image.
+	 * @author Paul
+	 * @param chemin  Fichier PNG à créer.
+	 * @param largeur Largeur de l'image.
+	 * @param hauteur Hauteur de l'image.
+	 * @param estRGB  true pour une image RGB, false pour une image en niveaux de gris.
+	 * @throws IOException Si le fichier ne peut pas être créé.
+	 */
+	public EcrivainPNG(Path chemin, int largeur, int hauteur, boolean estRGB) throws IOException {
+		this.largeur = largeur;
+		this.hauteur = hauteur;
+		this.estRGB = estRGB;
+		this.ligne = new byte[1 + largeur * (estRGB ? 3 : 1)];
+		this.fichier = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(chemin)));
+
+		fichier.write(SIGNATURE);
+		ByteArrayOutputStream entete = new ByteArrayOutputStream();
+		DataOutputStream champs = new DataOutputStream(entete);
+		champs.writeInt(largeur);
+		champs.writeInt(hauteur);
+		champs.writeByte(8); // 8 bits par échantillon
+		champs.writeByte(estRGB ? 2 : 0); // RGB ou niveaux de gris
+		champs.writeByte(0); // compression deflate
+		champs.writeByte(0); // filtrage adaptatif standard
+		champs.writeByte(0); // sans entrelacement
+		ecrireBloc("IHDR", entete.toByteArray(), entete.size());
+
+		this.donnees = new DeflaterOutputStream(new OutputStream() {
+			private final byte[] tampon = new byte[TAILLE_BLOC];
+			private int taille;
+
+			@Override
+			public void write(int octet) throws IOException {
+				write(new byte[] { (byte) octet }, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] octets, int debut, int longueur) throws IOException {
+				while (longueur > 0) {
+					int copie = Math.min(longueur, TAILLE_BLOC - taille);
+					System.arraycopy(octets, debut, tampon, taille, copie);
+					taille += copie;
+					debut += copie;
+					longueur -= copie;
+					if (taille == TAILLE_BLOC) {
+						flush();
+					}
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				if (taille > 0) {
+					ecrireBloc("IDAT", tampon, taille);
+					taille = 0;
+				}
+			}
+
+			@Override
+			public void close() throws IOException {
+				flush();
+			}
+		});
+	}
+
+	/**
+	 * @brief Écrit la ligne suivante de l'image ; chaque valeur est arrondie et bornée à [0, 255].
+	 * @author Paul
+	 * @param canaux Plans des canaux (1 en niveaux de gris, 3 en RGB) contenant la ligne.
+	 * @param debut  Indice du premier pixel de la ligne dans chaque plan.
+	 * @throws IOException Si l'écriture échoue.
+	 * @throws IllegalStateException Si toutes les lignes ont déjà été écrites.
+	 */
+	public void ecrireLigne(double[][] canaux, int debut) throws IOException {
+		if (lignesEcrites == hauteur) {
+			throw new IllegalStateException("Toutes les lignes de l'image ont déjà été écrites");
+		}
+		int nbCanaux = estRGB ? 3 : 1;
+		// Filtre « Sub » : chaque échantillon est codé par sa différence avec celui du pixel précédent
+		ligne[0] = 1;
+		for (int j = 0; j < largeur; j++) {
+			for (int k = 0; k < nbCanaux; k++) {
+				int valeur = (int) Math.min(255, Math.max(0, Math.round(canaux[k][debut + j])));
+				int precedent = j > 0 ? (int) Math.min(255, Math.max(0, Math.round(canaux[k][debut + j - 1]))) : 0;
+				ligne[1 + j * nbCanaux + k] = (byte) (valeur - precedent);
+			}
+		}
+		donnees.write(ligne);
+		lignesEcrites++;
+	}
+
+	/**
+	 * @brief Termine le flux compressé et ferme le fichier.
+	 * @author Paul
+	 * @throws IOException Si l'écriture échoue ou si des lignes n'ont pas été écrites.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			// Termine le flux compressé et écrit le dernier bloc IDAT
+			donnees.close();
+			ecrireBloc("IEND", new byte[0], 0);
+		} finally {
+			fichier.close();
+		}
+		if (lignesEcrites != hauteur) {
+			throw new IOException("Image incomplète : " + lignesEcrites + " lignes écrites sur " + hauteur);
+		}
+	}
+
+	/**
+	 * @brief Écrit un bloc PNG : longueur, type, données et CRC du type et des données.
+	 * @author Paul
+	 * @param type     Type du bloc (4 caractères).
+	 * @param octets   Données du bloc.
+	 * @param longueur Nombre d'octets de données.
+	 * @throws IOException Si l'écriture échoue.
+	 */
+	private void ecrireBloc(String type, byte[] octets, int longueur) throws IOException {
+		byte[] nom = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+		crc.update(nom);
+		crc.update(octets, 0, longueur);
+		fichier.writeInt(longueur);
+		fichier.write(nom);
+		fichier.write(octets, 0, longueur);
+		fichier.writeInt((int) crc.getValue());
+	}
+}
@@ -7,14 +7,21 @@ package model.base;
 
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
 import javax.imageio.ImageIO;
 
+import mesure.Journal;
+
 /**
  * @class Img
  * @author Paul & Alexis
- * @brief Représentation d'une image en niveaux de gris sous forme de matrice de pixels.
+ * @brief Représentation d'une image (niveaux de gris ou RGB) sous forme de plans de canaux contigus.
  */
 public class Img {
 
@@ -24,8 +31,8 @@ public class Img {
 	private int largeur;
 	// Hauteur de l'image (nombre de lignes de pixels)
 	private int hauteur;
-	// Matrice des pixels de l'image
-	private Pixel[][] pixels;
+	// Plans contigus des canaux (un tableau par canal, stockage ligne par ligne : indice i * largeur + j)
+	private double[][] canaux;
 
 	/**
 	 * @brief Constructeur à partir d'un fichier image.
@@ -34,45 +41,67 @@ public class Img {
 	 * @throws IOException En cas d'erreur de lecture du fichier.
 	 */
 	public Img(String filename) throws IOException {
-		 File file = new File(filename);
-		    
-	    // Vérifier existant dans x0
-	    if (!file.exists()) {
-	        throw new IOException("Le fichier n'existe pas : " + file.getAbsolutePath());
-	    }
-		    
-		BufferedImage image = ImageIO.read(file);
-		
-	    if (image == null) {
-	        throw new IOException("Impossible de lire l'image. Format non pris en charge ou fichier corrompu : " + filename);
-	    }
-	    
+		this(lireFichier(filename));
+	}
+
+	/**
+	 * @brief Constructeur à partir d'une image décodée (image entière ou région lue par un ImageReader), avec la
+	 * même détection du type et la même conversion des pixels que le chargement d'un fichier.
+	 * @author Paul
+	 * @param image Image décodée.
+	 */
+	public Img(BufferedImage image) {
 		this.hauteur = image.getHeight();
 		this.largeur = image.getWidth();
-		this.pixels = new Pixel[hauteur][largeur];
 
 		 // Détection intelligente du type d'image
 	    ColorModel colorModel = image.getColorModel();
 	    int numComponents = colorModel.getNumComponents();
 	    boolean hasAlpha = colorModel.hasAlpha();
 	    
-	    System.out.println("DEBUG: Type d'image détecté - " + getImageTypeString(image.getType()));
-	    System.out.println("DEBUG: Nombre de composantes: " + numComponents + (hasAlpha ? " (avec alpha)" : ""));
+	    if (Journal.isDebug()) {
+	        Journal.debug("Type d'image détecté - " + getImageTypeString(image.getType()));
+	        Journal.debug("Nombre de composantes: " + numComponents + (hasAlpha ? " (avec alpha)" : ""));
+	    }
 	    
 	    // Déterminer si l'image doit être traitée comme RGB ou niveaux de gris
 	    this.estRGB = determinerSiRGB(image, colorModel, numComponents);
+	    this.canaux = new double[estRGB ? 3 : 1][hauteur * largeur];
 	   
 	    
 	    if (this.estRGB) {
-	        System.out.println("DEBUG: Traitement en mode RGB");
+	        Journal.debug("Traitement en mode RGB");
 	        chargerImageRGB(image);
 	    } else {
-	        System.out.println("DEBUG: Traitement en mode niveaux de gris");
+	        Journal.debug("Traitement en mode niveaux de gris");
 	        chargerImageGrayscale(image);
 	    }
 	    
 	}
 
+	/**
+	 * @brief Décode un fichier image.
+	 * @author Paul & Alexis
+	 * @param filename Chemin du fichier image à charger.
+	 * @return Image décodée.
+	 * @throws IOException Si le fichier n'existe pas ou si son format n'est pas pris en charge.
+	 */
+	private static BufferedImage lireFichier(String filename) throws IOException {
+		File file = new File(filename);
+
+		// Vérifier existant dans x0
+		if (!file.exists()) {
+			throw new IOException("Le fichier n'existe pas : " + file.getAbsolutePath());
+		}
+
+		BufferedImage image = ImageIO.read(file);
+
+		if (image == null) {
+			throw new IOException("Impossible de lire l'image. Format non pris en charge ou fichier corrompu : " + filename);
+		}
+		return image;
+	}
+
 	/**
 	 * @brief Constructeur à partir d'une matrice de pixels.
 	 * @author Paul & Alexis
@@ -82,15 +111,52 @@ public class Img {
 		this.estRGB = estRGB;
 		this.hauteur = generatedPixels.length;
 		this.largeur = generatedPixels[0].length;
-		this.pixels = new Pixel[hauteur][largeur];
+		this.canaux = new double[estRGB ? 3 : 1][hauteur * largeur];
 
 		for (int i = 0; i < this.hauteur; i++) {
 			for (int j = 0; j < this.largeur; j++) {
-				this.pixels[i][j] = generatedPixels[i][j];
+				Pixel px = generatedPixels[i][j];
+				for (int k = 0; k < this.canaux.length; k++) {
+					this.canaux[k][i * largeur + j] = px.getValeur(k);
+				}
 			}
 		}
 	}
 
+	/**
+	 * @brief Constructeur d'une image vide (tous les canaux à 0).
+	 * @author Paul
+	 * @param hauteur Nombre de lignes de pixels.
+	 * @param largeur Nombre de colonnes de pixels.
+	 * @param estRGB true pour une image à trois canaux, false pour un seul canal.
+	 */
+	public Img(int hauteur, int largeur, boolean estRGB) {
+		this(new double[estRGB ? 3 : 1][hauteur * largeur], hauteur, largeur);
+	}
+
+	/**
+	 * @brief Constructeur à partir de plans de canaux déjà remplis (aucune copie).
+	 * @author Paul
+	 * @param canaux Plans des canaux, stockés ligne par ligne (1 plan en niveaux de gris, 3 en RGB).
+	 * @param hauteur Nombre de lignes de pixels.
+	 * @param largeur Nombre de colonnes de pixels.
+	 * @throws IllegalArgumentException Si le nombre de canaux ou la taille d'un plan est incohérent.
+	 */
+	public Img(double[][] canaux, int hauteur, int largeur) {
+		if (canaux.length != 1 && canaux.length != 3) {
+			throw new IllegalArgumentException("Nombre de canaux non pris en charge : " + canaux.length);
+		}
+		for (double[] canal : canaux) {
+			if (canal.length != hauteur * largeur) {
+				throw new IllegalArgumentException("La taille d'un canal ne correspond pas aux dimensions " + largeur + "×" + hauteur);
+			}
+		}
+		this.estRGB = canaux.length == 3;
+		this.hauteur = hauteur;
+		this.largeur = largeur;
+		this.canaux = canaux;
+	}
+
 	/**
 	 * @brief Récupère la hauteur de l'image.
 	 * @author Alexis
@@ -109,13 +175,73 @@ public class Img {
 		return this.largeur;
 	}
 
+	/**
+	 * @brief Récupère le nombre de canaux de l'image.
+	 * @author Paul
+	 * @return 3 pour une image RGB, 1 pour une image en niveaux de gris.
+	 */
+	public int getNbCanaux() {
+		return this.canaux.length;
+	}
+
+	/**
+	 * @brief Récupère le plan d'un canal (accès direct, sans copie).
+	 * @author Paul
+	 * @param k Indice du canal (0 en niveaux de gris, 0/1/2 pour R/G/B).
+	 * @return Tableau des valeurs du canal, indexé par i * largeur + j.
+	 */
+	public double[] getCanal(int k) {
+		return this.canaux[k];
+	}
+
+	/**
+	 * @brief Récupère la valeur d'un canal aux coordonnées (x, y).
+	 * @author Paul
+	 * @param x Ligne du pixel.
+	 * @param y Colonne du pixel.
+	 * @param k Indice du canal.
+	 * @return La valeur du canal.
+	 */
+	public double getValeur(int x, int y, int k) {
+		return this.canaux[k][x * largeur + y];
+	}
+
+	/**
+	 * @brief Récupère la valeur du premier canal aux coordonnées (x, y).
+	 * @author Paul
+	 * @param x Ligne du pixel.
+	 * @param y Colonne du pixel.
+	 * @return La valeur du pixel (niveau de gris ou composante rouge).
+	 */
+	public double getValeur(int x, int y) {
+		return this.canaux[0][x * largeur + y];
+	}
+
+	/**
+	 * @brief Modifie la valeur d'un canal aux coordonnées (x, y).
+	 * @author Paul
+	 * @param x      Ligne du pixel.
+	 * @param y      Colonne du pixel.
+	 * @param k      Indice du canal.
+	 * @param valeur Nouvelle valeur du canal.
+	 */
+	public void setValeur(int x, int y, int k, double valeur) {
+		this.canaux[k][x * largeur + y] = valeur;
+	}
+
 	/**
 	 * @brief Récupère la matrice de pixels.
 	 * @author Alexis
-	 * @return Tableau 2D des pixels de l'image.
+	 * @return Tableau 2D des pixels de l'image (copie construite à partir des plans de canaux).
 	 */
 	public Pixel[][] getPixels() {
-		return this.pixels;
+		Pixel[][] pixels = new Pixel[hauteur][largeur];
+		for (int i = 0; i < this.hauteur; i++) {
+			for (int j = 0; j < this.largeur; j++) {
+				pixels[i][j] = getPixel(i, j);
+			}
+		}
+		return pixels;
 	}
 
 	/**
@@ -123,10 +249,14 @@ public class Img {
 	 * @author Alexis
 	 * @param x Ligne du pixel.
 	 * @param y Colonne du pixel.
-	 * @return Le pixel correspondant.
+	 * @return Le pixel correspondant (copie détachée : le modifier ne modifie pas l'image).
 	 */
 	public Pixel getPixel(int x, int y) {
-		return this.pixels[x][y];
+		int index = x * largeur + y;
+		if (this.estRGB) {
+			return new Pixel(canaux[0][index], canaux[1][index], canaux[2][index]);
+		}
+		return new Pixel(canaux[0][index]);
 	}
 
 	/**
@@ -137,7 +267,7 @@ public class Img {
 	 * @param valeur Nouvelle valeur à affecter au pixel.
 	 */
 	public void setPixel(int x, int y, double valeur) {
-		this.pixels[x][y].setValeur(valeur);
+		this.canaux[0][x * largeur + y] = valeur;
 	}
 
 	/**
@@ -146,7 +276,11 @@ public class Img {
 	 * @return Une copie de l'image actuelle.
 	 */
 	public Img clone() {
-		return new Img(this.getPixels(), this.estRGB);
+		double[][] copie = new double[canaux.length][];
+		for (int k = 0; k < canaux.length; k++) {
+			copie[k] = canaux[k].clone();
+		}
+		return new Img(copie, this.hauteur, this.largeur);
 	}
 
 	/**
@@ -156,36 +290,35 @@ public class Img {
 	 * @throws IOException En cas d'erreur d'écriture du fichier.
 	 */
 	public void saveImg(String filename, boolean estRGB) throws IOException {
-
+		BufferedImage image;
 		if (estRGB) {
-			BufferedImage image = new BufferedImage(this.largeur, this.hauteur, BufferedImage.TYPE_INT_RGB);
-
-			for (int i = 0; i < this.hauteur; i++) {
-				for (int j = 0; j < this.largeur; j++) {
-					double[] rgb = this.getPixel(i, j).getValeurs();
-					image.getRaster().setSample(j, i, 0, Math.max(0, Math.min(Math.round(rgb[0]), 255)));
-					image.getRaster().setSample(j, i, 1, Math.max(0, Math.min(Math.round(rgb[1]), 255)));
-					image.getRaster().setSample(j, i, 2, Math.max(0, Math.min(Math.round(rgb[2]), 255)));
-				}
+			// Raster entier compact : un int 0x00RRGGBB par pixel, rempli directement
+			image = new BufferedImage(this.largeur, this.hauteur, BufferedImage.TYPE_INT_RGB);
+			int[] donnees = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+			for (int index = 0; index < donnees.length; index++) {
+				donnees[index] = (octet(canaux[0][index]) << 16) | (octet(canaux[1][index]) << 8) | octet(canaux[2][index]);
 			}
-
-			String format = filename.substring(filename.lastIndexOf('.') + 1);
-			ImageIO.write(image, format, new File(filename));
-
 		} else {
-			BufferedImage image = new BufferedImage(this.largeur, this.hauteur, BufferedImage.TYPE_BYTE_GRAY);
-
-			for (int i = 0; i < this.hauteur; i++) {
-				for (int j = 0; j < this.largeur; j++) {
-					int pixelValue = (int) Math.min(255, Math.max(0, Math.round(this.getPixel(i, j).getValeur())));
-					image.getRaster().setSample(j, i, 0, pixelValue);
-				}
+			// Raster entier compact : un octet par pixel, rempli directement
+			image = new BufferedImage(this.largeur, this.hauteur, BufferedImage.TYPE_BYTE_GRAY);
+			byte[] donnees = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+			for (int index = 0; index < donnees.length; index++) {
+				donnees[index] = (byte) octet(canaux[0][index]);
 			}
-
-			String format = filename.substring(filename.lastIndexOf('.') + 1);
-			ImageIO.write(image, format, new File(filename));
 		}
 
+		String format = filename.substring(filename.lastIndexOf('.') + 1);
+		ImageIO.write(image, format, new File(filename));
+	}
+
+	/**
+	 * @brief Convertit une valeur de canal en échantillon 8 bits (arrondi puis borné à [0, 255]).
+	 * @author Paul
+	 * @param valeur Valeur du canal.
+	 * @return Échantillon entre 0 et 255.
+	 */
+	private static int octet(double valeur) {
+		return (int) Math.max(0, Math.min(Math.round(valeur), 255));
 	}
 
 	/**
@@ -198,11 +331,57 @@ public class Img {
 	}
 	
 	/**
-	 * @brief Charge les pixels d'une image RGB dans une matrice de pixels.
+	 * @brief Charge les pixels d'une image RGB dans les trois plans de canaux. Les types courants (INT_RGB, INT_ARGB,
+	 * 3BYTE_BGR, 4BYTE_ABGR) sont lus directement dans leur tampon de données ; les autres passent par getRGB pixel
+	 * par pixel.
 	 * @author Paul
 	 * @param image L'image RGB à charger, sous forme de BufferedImage.
 	 */
 	private void chargerImageRGB(BufferedImage image) {
+		WritableRaster raster = image.getRaster();
+		switch (image.getType()) {
+		case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB -> {
+			// Un int 0xAARRGGBB par pixel : c'est déjà la valeur retournée par getRGB
+			SinglePixelPackedSampleModel modele = (SinglePixelPackedSampleModel) raster.getSampleModel();
+			DataBufferInt tampon = (DataBufferInt) raster.getDataBuffer();
+			int[] donnees = tampon.getData();
+			for (int i = 0; i < hauteur; i++) {
+				int position = tampon.getOffset() + modele.getOffset(-raster.getSampleModelTranslateX(),
+						i - raster.getSampleModelTranslateY());
+				int index = i * largeur;
+				for (int j = 0; j < largeur; j++, index++) {
+					int rgb = donnees[position + j];
+					canaux[0][index] = (rgb >> 16) & 0xFF;
+					canaux[1][index] = (rgb >> 8) & 0xFF;
+					canaux[2][index] = rgb & 0xFF;
+				}
+			}
+			return;
+		}
+		case BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR -> {
+			// Échantillons entrelacés sur un octet, lus à leur décalage de bande (R, G, B)
+			ComponentSampleModel modele = (ComponentSampleModel) raster.getSampleModel();
+			DataBufferByte tampon = (DataBufferByte) raster.getDataBuffer();
+			byte[] donnees = tampon.getData();
+			int[] decalages = modele.getBandOffsets();
+			int pas = modele.getPixelStride();
+			for (int i = 0; i < hauteur; i++) {
+				// Début du pixel (0, i), avant décalage de bande
+				int position = tampon.getOffset() + (i - raster.getSampleModelTranslateY()) * modele.getScanlineStride()
+						- raster.getSampleModelTranslateX() * pas;
+				int index = i * largeur;
+				for (int j = 0; j < largeur; j++, index++, position += pas) {
+					canaux[0][index] = donnees[position + decalages[0]] & 0xFF;
+					canaux[1][index] = donnees[position + decalages[1]] & 0xFF;
+					canaux[2][index] = donnees[position + decalages[2]] & 0xFF;
+				}
+			}
+			return;
+		}
+		default -> {
+		}
+		}
+
 	    for (int i = 0; i < hauteur; i++) {
 	        for (int j = 0; j < largeur; j++) {
 	            int rgb = image.getRGB(j, i);
@@ -212,33 +391,67 @@ public class Img {
 	            int g = (rgb >> 8) & 0xFF;
 	            int b = rgb & 0xFF;
 	            
-	            pixels[i][j] = new Pixel(r, g, b);
+	            int index = i * largeur + j;
+	            canaux[0][index] = r;
+	            canaux[1][index] = g;
+	            canaux[2][index] = b;
 	        }
 	    }
 	}
 
 	/**
-	 * @brief Charge une image en niveaux de gris dans une matrice de pixels.
+	 * @brief Charge une image en niveaux de gris dans le plan du canal unique. Une image BYTE_GRAY est lue directement
+	 * dans son tampon de données, au travers d'une table des 256 niveaux calculée par le modèle de couleur de l'image
+	 * (même conversion que getRGB) ; les autres types passent par getRGB pixel par pixel.
 	 * @author Paul
 	 * @param image L'image couleur à convertir et charger, sous forme de BufferedImage.
 	 */
 	private void chargerImageGrayscale(BufferedImage image) {
+		if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+			ColorModel modeleCouleur = image.getColorModel();
+			double[] niveaux = new double[256];
+			for (int v = 0; v < 256; v++) {
+				niveaux[v] = luminance(modeleCouleur.getRGB(new byte[] { (byte) v }));
+			}
+
+			WritableRaster raster = image.getRaster();
+			ComponentSampleModel modele = (ComponentSampleModel) raster.getSampleModel();
+			DataBufferByte tampon = (DataBufferByte) raster.getDataBuffer();
+			byte[] donnees = tampon.getData();
+			int pas = modele.getPixelStride();
+			for (int i = 0; i < hauteur; i++) {
+				int position = tampon.getOffset() + modele.getOffset(-raster.getSampleModelTranslateX(),
+						i - raster.getSampleModelTranslateY(), 0);
+				int index = i * largeur;
+				for (int j = 0; j < largeur; j++, index++, position += pas) {
+					canaux[0][index] = niveaux[donnees[position] & 0xFF];
+				}
+			}
+			return;
+		}
+
 	    for (int i = 0; i < hauteur; i++) {
 	        for (int j = 0; j < largeur; j++) {
-	            int rgb = image.getRGB(j, i);
-	            
-	            // Convertir en niveaux de gris en utilisant la luminance
-	            int r = (rgb >> 16) & 0xFF;
-	            int g = (rgb >> 8) & 0xFF;
-	            int b = rgb & 0xFF;
-	            
-	            // Formule de luminance standard : 0.299*R + 0.587*G + 0.114*B
-	            double gray = 0.299 * r + 0.587 * g + 0.114 * b;
-	            
-	            pixels[i][j] = new Pixel(gray);
+	            canaux[0][i * largeur + j] = luminance(image.getRGB(j, i));
 	        }
 	    }
 	}
+
+	/**
+	 * @brief Convertit un pixel RGB en niveau de gris.
+	 * @author Paul
+	 * @param rgb Pixel au format 0xAARRGGBB.
+	 * @return Luminance du pixel.
+	 */
+	private static double luminance(int rgb) {
+		// Convertir en niveaux de gris en utilisant la luminance
+		int r = (rgb >> 16) & 0xFF;
+		int g = (rgb >> 8) & 0xFF;
+		int b = rgb & 0xFF;
+
+		// Formule de luminance standard : 0.299*R + 0.587*G + 0.114*B
+		return 0.299 * r + 0.587 * g + 0.114 * b;
+	}
 	
 	/**
 	 * @brief Détermine si une image est en couleur RGB ou en niveaux de gris.
@@ -151,6 +151,19 @@ public class Matrice {
         }
     }
 
+    /**
+     * @brief Copie la matrice dans un tableau contigu stocké ligne par ligne.
+     * @author Paul
+     * @return Tableau de taille lignes × colonnes.
+     */
+    public double[] versTableau() {
+        double[] tableau = new double[lignes * colonnes];
+        for (int i = 0; i < lignes; i++) {
+            System.arraycopy(valeurs[i], 0, tableau, i * colonnes, colonnes);
+        }
+        return tableau;
+    }
+
     /**
      * @brief Transpose la matrice.
      * @author Emma
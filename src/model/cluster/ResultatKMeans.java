@@ -0,0 +1,123 @@
+/**
+ * @file ResultatKMeans.java
+ * @brief Classe représentant le résultat d'un partitionnement par k-means.
+ */
+
+package model.cluster;
+
+/**
+ * @class ResultatKMeans
+ * @brief Contient les étiquettes des points, les centres des clusters et quelques statistiques de convergence.
+ * @author Paul
+ */
+public class ResultatKMeans {
+
+    //Numéro du cluster de chaque point
+    private final int[] etiquettes;
+    //Centres des clusters (nbClusters × dimension, ligne par ligne)
+    private final double[] centres;
+    //Nombre de points de chaque cluster
+    private final int[] effectifs;
+    //Dimension des points
+    private final int dimension;
+    //Nombre d'itérations effectuées
+    private final int nbIterations;
+    //Vrai si les étiquettes se sont stabilisées avant le nombre maximal d'itérations
+    private final boolean converge;
+    //Nombre de distances point-centre effectivement calculées
+    private final long nbDistances;
+
+    /**
+     * @brief Constructeur du résultat du k-means.
+     * @author Paul
+     * @param etiquettes   Numéro du cluster de chaque point.
+     * @param centres      Centres des clusters (nbClusters × dimension, ligne par ligne).
+     * @param effectifs    Nombre de points de chaque cluster.
+     * @param dimension    Dimension des points.
+     * @param nbIterations Nombre d'itérations effectuées.
+     * @param converge     Vrai si les étiquettes se sont stabilisées.
+     * @param nbDistances  Nombre de distances point-centre calculées.
+     */
+    public ResultatKMeans(int[] etiquettes, double[] centres, int[] effectifs, int dimension, int nbIterations,
+            boolean converge, long nbDistances) {
+        this.etiquettes = etiquettes;
+        this.centres = centres;
+        this.effectifs = effectifs;
+        this.dimension = dimension;
+        this.nbIterations = nbIterations;
+        this.converge = converge;
+        this.nbDistances = nbDistances;
+    }
+
+    /**
+     * @brief Accède aux étiquettes des points.
+     * @author Paul
+     * @return Numéro du cluster de chaque point, entre 0 et nbClusters − 1.
+     */
+    public int[] getEtiquettes() {
+        return etiquettes;
+    }
+
+    /**
+     * @brief Accède aux centres des clusters.
+     * @author Paul
+     * @return Centres (nbClusters × dimension, ligne par ligne).
+     */
+    public double[] getCentres() {
+        return centres;
+    }
+
+    /**
+     * @brief Accède au nombre de points de chaque cluster.
+     * @author Paul
+     * @return Effectif de chaque cluster.
+     */
+    public int[] getEffectifs() {
+        return effectifs;
+    }
+
+    /**
+     * @brief Retourne le nombre de clusters.
+     * @author Paul
+     * @return Nombre de clusters.
+     */
+    public int getNbClusters() {
+        return effectifs.length;
+    }
+
+    /**
+     * @brief Retourne la dimension des points.
+     * @author Paul
+     * @return Dimension.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @brief Retourne le nombre d'itérations effectuées.
+     * @author Paul
+     * @return Nombre d'itérations.
+     */
+    public int getNbIterations() {
+        return nbIterations;
+    }
+
+    /**
+     * @brief Indique si les étiquettes se sont stabilisées avant le nombre maximal d'itérations.
+     * @author Paul
+     * @return Vrai en cas de convergence.
+     */
+    public boolean isConverge() {
+        return converge;
+    }
+
+    /**
+     * @brief Retourne le nombre de distances point-centre calculées (les autres ont été évitées par les bornes).
+     * @author Paul
+     * @return Nombre de distances calculées.
+     */
+    public long getNbDistances() {
+        return nbDistances;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * @file MatricePatchs.java
+ * @brief Classe représentant la matrice M×s² des patchs d'une image, sous forme de vue sur le plan de l'image.
+ */
+
+package model.patch;
+
+/**
+ * @class MatricePatchs
+ * @brief Vue « im2col » sur le plan d'un canal : chaque ligne de la matrice est un patch s×s lu directement dans
+ * l'image à partir de sa position, sans copie préalable des données.
+ * @author Paul
+ */
+public class MatricePatchs {
+
+    //Plan du canal de l'image source (stockage ligne par ligne)
+    private double[] source;
+    //Largeur de l'image source
+    private int largeurSource;
+    //Taille des patchs (côté s)
+    private int taille;
+    //Ligne (coordonnée i) du coin supérieur gauche de chaque patch
+    private int[] lignes;
+    //Colonne (coordonnée j) du coin supérieur gauche de chaque patch
+    private int[] colonnes;
+
+    /**
+     * @brief Constructeur de la vue sur les patchs.
+     * @author Paul
+     * @param source Plan du canal de l'image source.
+     * @param largeurSource Largeur de l'image source.
+     * @param taille Taille des patchs.
+     * @param lignes Coordonnées i des patchs.
+     * @param colonnes Coordonnées j des patchs.
+     * @throws IllegalArgumentException Si les tableaux de positions n'ont pas la même longueur.
+     */
+    public MatricePatchs(double[] source, int largeurSource, int taille, int[] lignes, int[] colonnes) {
+        if (lignes.length != colonnes.length) {
+            throw new IllegalArgumentException("Les tableaux de positions n'ont pas la même longueur");
+        }
+        this.source = source;
+        this.largeurSource = largeurSource;
+        this.taille = taille;
+        this.lignes = lignes;
+        this.colonnes = colonnes;
+    }
+
+    /**
+     * @brief Retourne le nombre de patchs (nombre de lignes M de la matrice).
+     * @author Paul
+     * @return Nombre de patchs.
+     */
+    public int getNbPatchs() {
+        return lignes.length;
+    }
+
+    /**
+     * @brief Retourne la taille des patchs.
+     * @author Paul
+     * @return Côté s des patchs.
+     */
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * @brief Retourne la dimension d'un patch vectorisé (nombre de colonnes s² de la matrice).
+     * @author Paul
+     * @return s².
+     */
+    public int getDimension() {
+        return taille * taille;
+    }
+
+    /**
+     * @brief Retourne la coordonnée i du patch k.
+     * @author Paul
+     * @param k Indice du patch.
+     * @return Ligne du coin supérieur gauche du patch.
+     */
+    public int getLigne(int k) {
+        return lignes[k];
+    }
+
+    /**
+     * @brief Retourne la coordonnée j du patch k.
+     * @author Paul
+     * @param k Indice du patch.
+     * @return Colonne du coin supérieur gauche du patch.
+     */
+    public int getColonne(int k) {
+        return colonnes[k];
+    }
+
+    /**
+     * @brief Retourne le plan de l'image sur lequel porte la vue.
+     * @author Paul
+     * @return Plan du canal source.
+     */
+    public double[] getSource() {
+        return source;
+    }
+
+    /**
+     * @brief Retourne la largeur de l'image sur laquelle porte la vue.
+     * @author Paul
+     * @return Largeur de l'image source.
+     */
+    public int getLargeurSource() {
+        return largeurSource;
+    }
+
+    /**
+     * @brief Copie le patch k (vectorisé ligne par ligne) dans un tableau destination.
+     * @author Paul
+     * @param k Indice du patch.
+     * @param dest Tableau destination.
+     * @param offset Position d'écriture dans le tableau destination.
+     */
+    public void copierPatch(int k, double[] dest, int offset) {
+        int depart = lignes[k] * largeurSource + colonnes[k];
+        for (int x = 0; x < taille; x++) {
+            System.arraycopy(source, depart + x * largeurSource, dest, offset + x * taille, taille);
+        }
+    }
+
+    /**
+     * @brief Copie le patch k (vectorisé ligne par ligne) dans un tableau destination en simple précision.
+     * @author Paul
+     * @param k Indice du patch.
+     * @param dest Tableau destination.
+     * @param offset Position d'écriture dans le tableau destination.
+     */
+    public void copierPatch(int k, float[] dest, int offset) {
+        int depart = lignes[k] * largeurSource + colonnes[k];
+        for (int x = 0; x < taille; x++) {
+            int ligne = depart + x * largeurSource;
+            int cible = offset + x * taille;
+            for (int y = 0; y < taille; y++) {
+                dest[cible + y] = (float) source[ligne + y];
+            }
+        }
+    }
+
+    /**
+     * @brief Matérialise la matrice M×s² dans un tableau contigu (une ligne par patch).
+     * @author Paul
+     * @return Tableau de taille M·s².
+     */
+    public double[] versTableau() {
+        int s2 = getDimension();
+        double[] donnees = new double[getNbPatchs() * s2];
+        for (int k = 0; k < getNbPatchs(); k++) {
+            copierPatch(k, donnees, k * s2);
+        }
+        return donnees;
+    }
+}
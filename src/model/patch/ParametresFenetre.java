@@ -5,6 +5,8 @@
 
 package model.patch;
 
+import java.util.Arrays;
+
 /**
  * @class ParametresFenetre
  * @brief Contient les paramètres calculés pour le découpage d'une image en fenêtres régulières.
@@ -103,4 +105,98 @@ public class ParametresFenetre {
 
         return params;
     }
+
+    /**
+     * @brief Calcule les paramètres du découpage en imposant le recouvrement minimal de deux fenêtres voisines :
+     * sur chaque axe, le nombre de fenêtres est le plus petit qui couvre l'image avec ce recouvrement, et le
+     * chevauchement est réparti entre elles.
+     * @author Paul
+     * @param largeurImage  Largeur de l'image à découper.
+     * @param hauteurImage  Hauteur de l'image à découper.
+     * @param tailleFenetre Taille des fenêtres.
+     * @param recouvrement  Fraction de la fenêtre partagée par deux fenêtres voisines, dans [0, 1[.
+     * @return Un objet ParametresFenetre contenant tous les paramètres calculés.
+     * @throws IllegalArgumentException Si le recouvrement n'est pas dans [0, 1[.
+     */
+    public static ParametresFenetre calculerParametresFenetre(int largeurImage, int hauteurImage, int tailleFenetre,
+            double recouvrement) {
+        if (!(recouvrement >= 0 && recouvrement < 1)) {
+            throw new IllegalArgumentException("Le recouvrement des fenêtres doit être dans [0, 1[");
+        }
+        ParametresFenetre params = new ParametresFenetre();
+
+        params.nombreFenetresX = nombreFenetres(largeurImage, tailleFenetre, recouvrement);
+        params.nombreFenetresY = nombreFenetres(hauteurImage, tailleFenetre, recouvrement);
+
+        params.chevauchementCombineX = params.nombreFenetresX * tailleFenetre - largeurImage;
+        params.chevauchementCombineY = params.nombreFenetresY * tailleFenetre - hauteurImage;
+        params.tailleFenetreCalculee = tailleFenetre;
+        params.nombreFenetresTotal = params.nombreFenetresX * params.nombreFenetresY;
+
+        return params;
+    }
+
+    /**
+     * @brief Calcule le nombre de fenêtres couvrant un axe avec un recouvrement minimal.
+     * @author Paul
+     * @param dimension     Dimension de l'image sur l'axe.
+     * @param tailleFenetre Taille des fenêtres.
+     * @param recouvrement  Fraction de la fenêtre partagée par deux fenêtres voisines.
+     * @return Nombre de fenêtres sur l'axe (au moins 2, comme pour le découpage par défaut).
+     */
+    private static int nombreFenetres(int dimension, int tailleFenetre, double recouvrement) {
+        double avance = tailleFenetre * (1 - recouvrement);
+        return Math.max(2, (int) Math.ceil((dimension - tailleFenetre) / avance) + 1);
+    }
+
+    /**
+     * @brief Calcule les positions horizontales des fenêtres (colonnes de leur coin supérieur gauche).
+     * @author Paul
+     * @param largeurImage Largeur de l'image découpée.
+     * @return Positions des fenêtres qui tiennent dans l'image, dans l'ordre du découpage.
+     */
+    public int[] positionsX(int largeurImage) {
+        return positions(largeurImage, nombreFenetresX, chevauchementCombineX);
+    }
+
+    /**
+     * @brief Calcule les positions verticales des fenêtres (lignes de leur coin supérieur gauche).
+     * @author Paul
+     * @param hauteurImage Hauteur de l'image découpée.
+     * @return Positions des fenêtres qui tiennent dans l'image, dans l'ordre du découpage.
+     */
+    public int[] positionsY(int hauteurImage) {
+        return positions(hauteurImage, nombreFenetresY, chevauchementCombineY);
+    }
+
+    /**
+     * @brief Calcule les positions des fenêtres le long d'un axe : la dernière fenêtre est alignée sur le bord de
+     * l'image, les autres sont réparties avec un chevauchement constant.
+     * @author Paul
+     * @param dimension            Dimension de l'image sur l'axe.
+     * @param nombreFenetres       Nombre de fenêtres sur l'axe.
+     * @param chevauchementCombine Chevauchement total sur l'axe.
+     * @return Positions des fenêtres qui tiennent dans l'image.
+     */
+    private int[] positions(int dimension, int nombreFenetres, int chevauchementCombine) {
+        int chevauchement = (int) Math.ceil((double) chevauchementCombine / (nombreFenetres - 1));
+        int dernierePosition = dimension - tailleFenetreCalculee;
+
+        int[] positions = new int[nombreFenetres];
+        int nbPositions = 0;
+        for (int index = 0, chevauchementAcc = 0; index < nombreFenetres; index++, chevauchementAcc += chevauchement) {
+            int position = (index + 1 == nombreFenetres) ? dernierePosition
+                    : (tailleFenetreCalculee * index + 1) - chevauchementAcc;
+
+            // Sécurité sur les bornes
+            if (position < 0) {
+                position = 0;
+            }
+            if (position + tailleFenetreCalculee > dimension) {
+                continue;
+            }
+            positions[nbPositions++] = position;
+        }
+        return Arrays.copyOf(positions, nbPositions);
+    }
 }
@@ -14,9 +14,9 @@ import model.base.Pixel;
  */
 public class Patch {
 
-    //Tableau de pixels représentant le patch
-    private Pixel[][] pixels;
-    //Taille du patch 
+    //Valeurs du patch, stockées ligne par ligne (indice x * taille + y)
+    private double[] valeurs;
+    //Taille du patch
     private int taille;
 
     /**
@@ -26,18 +26,60 @@ public class Patch {
      */
     public Patch(Pixel[][] pixels) {
         this.taille = pixels.length;
-        this.pixels = pixels;
+        this.valeurs = new double[taille * taille];
+        for (int x = 0; x < taille; x++) {
+            for (int y = 0; y < taille; y++) {
+                this.valeurs[x * taille + y] = pixels[x][y].getValeur();
+            }
+        }
+    }
+
+    /**
+     * @brief Constructeur à partir d'un tableau de valeurs contigu (aucune copie).
+     * @author Paul
+     * @param valeurs Valeurs du patch stockées ligne par ligne.
+     * @param taille Taille du patch.
+     */
+    public Patch(double[] valeurs, int taille) {
+        this.taille = taille;
+        this.valeurs = valeurs;
     }
 
     /**
      * @brief Récupère les pixels du patch.
      * @author Emma
-     * @return Un tableau 2D de pixels.
+     * @return Un tableau 2D de pixels (copie construite à partir des valeurs).
      */
     public Pixel[][] getPixels() {
+        Pixel[][] pixels = new Pixel[taille][taille];
+        for (int x = 0; x < taille; x++) {
+            for (int y = 0; y < taille; y++) {
+                pixels[x][y] = new Pixel(valeurs[x * taille + y]);
+            }
+        }
         return pixels;
     }
 
+    /**
+     * @brief Récupère les valeurs du patch (accès direct, sans copie).
+     * @author Paul
+     * @return Tableau des valeurs stockées ligne par ligne.
+     */
+    public double[] getValeurs() {
+        return valeurs;
+    }
+
+    /**
+     * @brief Récupère la valeur d'un pixel du patch.
+     * @author Paul
+     * @param x Ligne dans le patch.
+     * @param y Colonne dans le patch.
+     * @return La valeur du pixel.
+     */
+    public double getValeur(int x, int y) {
+        return valeurs[x * taille + y];
+    }
+
     /**
      * @brief Récupère la taille du patch.
      * @author Emma
@@ -0,0 +1,169 @@
+/**
+ * @file AccumulateurMoyCov.java
+ * @brief Accumulateur en flux du vecteur moyen et de la matrice de covariance d'un ensemble de vecteurs.
+ */
+
+package service.acp;
+
+import model.acp.ResultatMoyCov;
+import model.base.Matrice;
+import model.base.Vecteur;
+import model.patch.MatricePatchs;
+
+/**
+ * @class AccumulateurMoyCov
+ * @brief Maintient le nombre d'observations, la moyenne et la somme des produits centrés (M2) d'un ensemble de
+ * vecteurs de dimension s². La mémoire utilisée est en O(s²), quel que soit le nombre de vecteurs. Deux
+ * accumulateurs se combinent par la formule de Chan, ce qui permet des accumulations partielles en parallèle.
+ * @author Paul
+ */
+public class AccumulateurMoyCov {
+
+    //Dimension des vecteurs
+    private int dimension;
+    //Nombre de vecteurs accumulés
+    private long n;
+    //Moyenne courante
+    private double[] moyenne;
+    //Somme des produits des écarts à la moyenne (triangle supérieur compact de la matrice s²×s² symétrique)
+    private double[] m2;
+    //Tampon des écarts, réutilisé d'une mise à jour à l'autre
+    private double[] delta;
+
+    /**
+     * @brief Constructeur d'un accumulateur vide.
+     * @author Paul
+     * @param dimension Dimension des vecteurs accumulés.
+     */
+    public AccumulateurMoyCov(int dimension) {
+        this.dimension = dimension;
+        this.n = 0;
+        this.moyenne = new double[dimension];
+        this.m2 = new double[NoyauCovariance.tailleCompacte(dimension)];
+        this.delta = new double[dimension];
+    }
+
+    /**
+     * @brief Constructeur interne d'un accumulateur pour un nombre d'observations donné.
+     * @author Paul
+     * @param dimension Dimension des vecteurs.
+     * @param n         Nombre d'observations.
+     */
+    private AccumulateurMoyCov(int dimension, long n) {
+        this(dimension);
+        this.n = n;
+    }
+
+    /**
+     * @brief Ajoute un vecteur (mise à jour de Welford).
+     * @author Paul
+     * @param x Vecteur de dimension s².
+     */
+    public void ajouter(double[] x) {
+        n++;
+        for (int j = 0; j < dimension; j++) {
+            delta[j] = x[j] - moyenne[j];
+            moyenne[j] += delta[j] / n;
+        }
+        for (int i = 0; i < dimension; i++) {
+            double ecartI = x[i] - moyenne[i];
+            int base = NoyauCovariance.debutLigne(i, dimension) - i;
+            for (int j = i; j < dimension; j++) {
+                m2[base + j] += ecartI * delta[j];
+            }
+        }
+    }
+
+    /**
+     * @brief Ajoute un bloc de patchs : moyenne et produits centrés du bloc sont calculés en deux passes sur le bloc,
+     * puis combinés avec l'état courant.
+     * @author Paul
+     * @param patchs Vue sur les patchs.
+     * @param debut  Premier patch du bloc (inclus).
+     * @param fin    Dernier patch du bloc (exclu).
+     * @param tampon Tampon de travail d'au moins (fin - debut) × s² valeurs.
+     */
+    public void ajouterBloc(MatricePatchs patchs, int debut, int fin, double[] tampon) {
+        int nbBloc = fin - debut;
+        if (nbBloc <= 0) {
+            return;
+        }
+
+        // Lecture du bloc et moyenne du bloc
+        AccumulateurMoyCov bloc = new AccumulateurMoyCov(dimension, nbBloc);
+        for (int k = 0; k < nbBloc; k++) {
+            patchs.copierPatch(debut + k, tampon, k * dimension);
+            for (int j = 0; j < dimension; j++) {
+                bloc.moyenne[j] += tampon[k * dimension + j];
+            }
+        }
+        for (int j = 0; j < dimension; j++) {
+            bloc.moyenne[j] /= nbBloc;
+        }
+
+        // Centrage du bloc puis produits des vecteurs centrés (triangle supérieur, par tuiles)
+        for (int k = 0; k < nbBloc; k++) {
+            int offset = k * dimension;
+            for (int j = 0; j < dimension; j++) {
+                tampon[offset + j] -= bloc.moyenne[j];
+            }
+        }
+        NoyauCovariance.ajouterProduitSymetrique(tampon, nbBloc, dimension, bloc.m2);
+
+        fusionner(bloc);
+    }
+
+    /**
+     * @brief Combine un autre accumulateur dans celui-ci (formule de Chan).
+     * @author Paul
+     * @param autre Accumulateur à combiner (non modifié).
+     * @throws IllegalArgumentException Si les dimensions diffèrent.
+     */
+    public void fusionner(AccumulateurMoyCov autre) {
+        if (autre.dimension != dimension) {
+            throw new IllegalArgumentException("Les accumulateurs n'ont pas la même dimension");
+        }
+        if (autre.n == 0) {
+            return;
+        }
+        if (n == 0) {
+            n = autre.n;
+            System.arraycopy(autre.moyenne, 0, moyenne, 0, dimension);
+            System.arraycopy(autre.m2, 0, m2, 0, m2.length);
+            return;
+        }
+
+        long total = n + autre.n;
+        double poids = (double) n * autre.n / total;
+        for (int j = 0; j < dimension; j++) {
+            delta[j] = autre.moyenne[j] - moyenne[j];
+        }
+        for (int index = 0; index < m2.length; index++) {
+            m2[index] += autre.m2[index];
+        }
+        NoyauCovariance.ajouterProduitExterieur(delta, delta, poids, dimension, m2);
+        for (int j = 0; j < dimension; j++) {
+            moyenne[j] += delta[j] * autre.n / total;
+        }
+        n = total;
+    }
+
+    /**
+     * @brief Retourne le nombre de vecteurs accumulés.
+     * @author Paul
+     * @return Nombre de vecteurs.
+     */
+    public long getNombre() {
+        return n;
+    }
+
+    /**
+     * @brief Construit le résultat : vecteur moyen et covariance normalisée par le nombre de vecteurs.
+     * @author Paul
+     * @return Un objet ResultatMoyCov (sans vecteurs centrés).
+     */
+    public ResultatMoyCov versResultat() {
+        double[][] cov = NoyauCovariance.deplier(m2, dimension, 1.0 / n);
+        return new ResultatMoyCov(new Vecteur(moyenne.clone()), new Matrice(cov));
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * @file BibliothequeBases.java
+ * @brief Bibliothèque de bases d'ACP pré-calculées, indexées par taille de patch et niveau de bruit.
+ */
+
+package service.acp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.acp.ResultatACP;
+import model.base.Matrice;
+import model.base.Vecteur;
+
+/**
+ * @class BibliothequeBases
+ * @brief Ensemble de bases d'ACP (valeurs propres, vecteurs propres, vecteur moyen) apprises sur un corpus.
+ * Une base est associée à une taille de patch et, optionnellement, à un niveau de bruit σ (NaN : tous niveaux).
+ * Le fichier binaire contient l'en-tête « DZPB », la version du format, puis chaque base.
+ * @author Paul
+ */
+public class BibliothequeBases {
+
+    //Signature des fichiers de bases
+    private static final int SIGNATURE = 0x445A5042; // "DZPB"
+    //Version du format binaire
+    private static final int VERSION = 1;
+    //Écart maximal entre deux niveaux de bruit considérés comme identiques
+    private static final double TOLERANCE_SIGMA = 1e-9;
+
+    //Taille de patch de chaque base
+    private List<Integer> taillesPatch;
+    //Niveau de bruit de chaque base (NaN : base valable pour tous les niveaux)
+    private List<Double> sigmas;
+    //Bases d'ACP
+    private List<ResultatACP> bases;
+
+    /**
+     * @brief Constructeur d'une bibliothèque vide.
+     * @author Paul
+     */
+    public BibliothequeBases() {
+        this.taillesPatch = new ArrayList<>();
+        this.sigmas = new ArrayList<>();
+        this.bases = new ArrayList<>();
+    }
+
+    /**
+     * @brief Ajoute (ou remplace) la base associée à une taille de patch et un niveau de bruit.
+     * @author Paul
+     * @param taillePatch Taille des patchs.
+     * @param sigma       Niveau de bruit, ou NaN pour une base valable quel que soit le bruit.
+     * @param base        Base d'ACP.
+     */
+    public void ajouter(int taillePatch, double sigma, ResultatACP base) {
+        int index = indexExact(taillePatch, sigma);
+        if (index >= 0) {
+            bases.set(index, base);
+        } else {
+            taillesPatch.add(taillePatch);
+            sigmas.add(sigma);
+            bases.add(base);
+        }
+    }
+
+    /**
+     * @brief Recherche la base adaptée à une taille de patch et un niveau de bruit : base apprise pour ce niveau
+     * exact, sinon base valable pour tous les niveaux.
+     * @author Paul
+     * @param taillePatch Taille des patchs.
+     * @param sigma       Niveau de bruit de l'image à débruiter.
+     * @return Base trouvée, ou null si aucune ne convient.
+     */
+    public ResultatACP trouver(int taillePatch, double sigma) {
+        int index = indexExact(taillePatch, sigma);
+        if (index < 0) {
+            index = indexExact(taillePatch, Double.NaN);
+        }
+        return index >= 0 ? bases.get(index) : null;
+    }
+
+    /**
+     * @brief Retourne le nombre de bases de la bibliothèque.
+     * @author Paul
+     * @return Nombre de bases.
+     */
+    public int taille() {
+        return bases.size();
+    }
+
+    /**
+     * @brief Recherche l'indice d'une base par taille de patch et niveau de bruit exact.
+     * @author Paul
+     * @param taillePatch Taille des patchs.
+     * @param sigma       Niveau de bruit (NaN pour la base tous niveaux).
+     * @return Indice de la base, ou -1.
+     */
+    private int indexExact(int taillePatch, double sigma) {
+        for (int i = 0; i < bases.size(); i++) {
+            double s = sigmas.get(i);
+            boolean memeSigma = Double.isNaN(sigma) ? Double.isNaN(s) : Math.abs(s - sigma) <= TOLERANCE_SIGMA;
+            if (taillesPatch.get(i) == taillePatch && memeSigma) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @brief Enregistre la bibliothèque dans un fichier binaire.
+     * @author Paul
+     * @param chemin Chemin du fichier.
+     * @throws IOException En cas d'erreur d'écriture.
+     */
+    public void sauvegarder(String chemin) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(chemin)))) {
+            out.writeInt(SIGNATURE);
+            out.writeInt(VERSION);
+            out.writeInt(bases.size());
+            for (int b = 0; b < bases.size(); b++) {
+                ResultatACP base = bases.get(b);
+                Matrice u = base.getVecteursPropres();
+                int s2 = u.getNbLignes();
+                int k = u.getNbColonnes();
+
+                out.writeInt(taillesPatch.get(b));
+                out.writeDouble(sigmas.get(b));
+                out.writeInt(s2);
+                out.writeInt(k);
+                for (int j = 0; j < s2; j++) {
+                    out.writeDouble(base.getVecteurMoyen().getValeur(j));
+                }
+                for (int c = 0; c < k; c++) {
+                    out.writeDouble(base.getValeursPropres()[c]);
+                }
+                for (int j = 0; j < s2; j++) {
+                    for (int c = 0; c < k; c++) {
+                        out.writeDouble(u.getValeur(j, c));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Charge une bibliothèque depuis un fichier binaire.
+     * @author Paul
+     * @param chemin Chemin du fichier.
+     * @return Bibliothèque chargée.
+     * @throws IOException Si le fichier est illisible ou n'est pas un fichier de bases valide.
+     */
+    public static BibliothequeBases charger(String chemin) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(chemin)))) {
+            if (in.readInt() != SIGNATURE) {
+                throw new IOException("Le fichier " + chemin + " n'est pas une bibliothèque de bases");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Version de bibliothèque de bases non supportée : " + version);
+            }
+
+            BibliothequeBases bibliotheque = new BibliothequeBases();
+            int nbBases = in.readInt();
+            for (int b = 0; b < nbBases; b++) {
+                int taillePatch = in.readInt();
+                double sigma = in.readDouble();
+                int s2 = in.readInt();
+                int k = in.readInt();
+                if (s2 != taillePatch * taillePatch || k < 1 || k > s2) {
+                    throw new IOException("Base corrompue pour la taille de patch " + taillePatch);
+                }
+
+                double[] moyenne = new double[s2];
+                for (int j = 0; j < s2; j++) {
+                    moyenne[j] = in.readDouble();
+                }
+                double[] valeurs = new double[k];
+                for (int c = 0; c < k; c++) {
+                    valeurs[c] = in.readDouble();
+                }
+                double[][] u = new double[s2][k];
+                for (int j = 0; j < s2; j++) {
+                    for (int c = 0; c < k; c++) {
+                        u[j][c] = in.readDouble();
+                    }
+                }
+                bibliotheque.ajouter(taillePatch, sigma, new ResultatACP(valeurs, new Matrice(u), new Vecteur(moyenne)));
+            }
+            return bibliotheque;
+        }
+    }
+}
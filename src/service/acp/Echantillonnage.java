@@ -0,0 +1,394 @@
+/**
+ * @file Echantillonnage.java
+ * @brief Critère d'échantillonnage des patchs utilisés pour estimer la moyenne et la covariance.
+ */
+
+package service.acp;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.patch.MatricePatchs;
+
+/**
+ * @class Echantillonnage
+ * @brief Indique quelle fraction des patchs sert à estimer la moyenne et la covariance, et comment ils sont tirés :
+ * uniformément, par strates (une grille de cellules couvrant l'image, chaque cellule fournissant sa part de
+ * patchs), ou avec une probabilité croissant avec la variance du patch (les patchs texturés, qui portent
+ * l'essentiel de la covariance, sont tirés plus souvent et pondérés en conséquence). La base obtenue projette et
+ * reconstruit ensuite tous les patchs.
+ * @author Paul
+ */
+public class Echantillonnage {
+
+    /**
+     * @enum Type
+     * @brief Manière de tirer les patchs.
+     */
+    public enum Type {
+        UNIFORME, STRATIFIE, VARIANCE
+    }
+
+    //Graine utilisée si aucune n'est précisée : deux exécutions tirent les mêmes patchs
+    public static final long GRAINE_DEFAUT = 42L;
+    //Nombre minimal de patchs tirés, en multiple de la dimension (covariance de rang plein)
+    static final int FACTEUR_TAILLE_MIN = 4;
+
+    //Manière de tirer les patchs
+    private final Type type;
+    //Fraction des patchs tirés, dans ]0, 1]
+    private final double fraction;
+    //Graine du générateur aléatoire
+    private final long graine;
+
+    private Echantillonnage(Type type, double fraction, long graine) {
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("La fraction échantillonnée doit être dans ]0, 1]");
+        }
+        this.type = type;
+        this.fraction = fraction;
+        this.graine = graine;
+    }
+
+    /**
+     * @brief Tire les patchs uniformément, sans remise.
+     * @author Paul
+     * @param fraction Fraction des patchs tirés, dans ]0, 1].
+     * @return Critère d'échantillonnage.
+     * @throws IllegalArgumentException Si la fraction n'est pas dans ]0, 1].
+     */
+    public static Echantillonnage uniforme(double fraction) {
+        return new Echantillonnage(Type.UNIFORME, fraction, GRAINE_DEFAUT);
+    }
+
+    /**
+     * @brief Découpe l'image en une grille de cellules et tire dans chaque cellule la même fraction de ses patchs.
+     * @author Paul
+     * @param fraction Fraction des patchs tirés, dans ]0, 1].
+     * @return Critère d'échantillonnage.
+     * @throws IllegalArgumentException Si la fraction n'est pas dans ]0, 1].
+     */
+    public static Echantillonnage stratifie(double fraction) {
+        return new Echantillonnage(Type.STRATIFIE, fraction, GRAINE_DEFAUT);
+    }
+
+    /**
+     * @brief Tire les patchs (avec remise) avec une probabilité moitié uniforme, moitié proportionnelle à leur
+     * variance ; chaque tirage est pondéré par l'inverse de sa probabilité, ce qui garde la moyenne et la
+     * covariance estimées sans biais.
+     * @author Paul
+     * @param fraction Nombre de tirages, en fraction du nombre de patchs, dans ]0, 1].
+     * @return Critère d'échantillonnage.
+     * @throws IllegalArgumentException Si la fraction n'est pas dans ]0, 1].
+     */
+    public static Echantillonnage variance(double fraction) {
+        return new Echantillonnage(Type.VARIANCE, fraction, GRAINE_DEFAUT);
+    }
+
+    /**
+     * @brief Construit un critère d'échantillonnage à partir de son nom.
+     * @author Paul
+     * @param nom      "uniforme", "stratifie" ou "variance" (les noms anglais "uniform", "stratified" sont aussi
+     *                 acceptés).
+     * @param fraction Fraction des patchs tirés, dans ]0, 1].
+     * @return Critère d'échantillonnage.
+     * @throws IllegalArgumentException Si le nom est inconnu ou si la fraction n'est pas dans ]0, 1].
+     */
+    public static Echantillonnage depuisNom(String nom, double fraction) {
+        switch (nom.toLowerCase()) {
+            case "uniforme":
+            case "uniform":
+                return uniforme(fraction);
+            case "stratifie":
+            case "stratified":
+                return stratifie(fraction);
+            case "variance":
+                return variance(fraction);
+            default:
+                throw new IllegalArgumentException("Échantillonnage inconnu: " + nom
+                        + " (valeurs possibles: uniforme, stratifie, variance)");
+        }
+    }
+
+    /**
+     * @brief Retourne le même critère avec une autre graine.
+     * @author Paul
+     * @param graine Graine du générateur aléatoire.
+     * @return Critère d'échantillonnage.
+     */
+    public Echantillonnage avecGraine(long graine) {
+        return new Echantillonnage(type, fraction, graine);
+    }
+
+    /**
+     * @brief Retourne le même critère avec une autre fraction.
+     * @author Paul
+     * @param fraction Fraction des patchs tirés, dans ]0, 1].
+     * @return Critère d'échantillonnage.
+     */
+    Echantillonnage avecFraction(double fraction) {
+        return new Echantillonnage(type, fraction, graine);
+    }
+
+    /**
+     * @brief Retourne la manière de tirer les patchs.
+     * @author Paul
+     * @return Type d'échantillonnage.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @brief Retourne la fraction des patchs tirés.
+     * @author Paul
+     * @return Fraction, dans ]0, 1].
+     */
+    public double getFraction() {
+        return fraction;
+    }
+
+    /**
+     * @brief Retourne la graine du générateur aléatoire.
+     * @author Paul
+     * @return Graine.
+     */
+    public long getGraine() {
+        return graine;
+    }
+
+    /**
+     * @brief Calcule le nombre de patchs à tirer : la fraction demandée, sans descendre sous quelques fois la
+     * dimension (ni dépasser le nombre de patchs).
+     * @author Paul
+     * @param nbPatchs  Nombre total de patchs.
+     * @param dimension Dimension des patchs.
+     * @return Nombre de patchs à tirer.
+     */
+    int taille(int nbPatchs, int dimension) {
+        long demandee = Math.max(1, Math.round(fraction * nbPatchs));
+        return (int) Math.min(nbPatchs, Math.max(demandee, (long) FACTEUR_TAILLE_MIN * dimension));
+    }
+
+    /**
+     * @brief Tire un échantillon de patchs.
+     * @author Paul
+     * @param patchs Vue sur tous les patchs.
+     * @return Patchs tirés (vue sur la même image) et, pour l'échantillonnage par variance, poids de chaque tirage.
+     */
+    Echantillon tirer(MatricePatchs patchs) {
+        return tirer(patchs, new Random(graine));
+    }
+
+    /**
+     * @brief Tire un échantillon de patchs avec un générateur donné.
+     * @author Paul
+     * @param patchs    Vue sur tous les patchs.
+     * @param aleatoire Générateur aléatoire.
+     * @return Patchs tirés et poids éventuels.
+     */
+    Echantillon tirer(MatricePatchs patchs, Random aleatoire) {
+        int nbPatchs = patchs.getNbPatchs();
+        int taille = taille(nbPatchs, patchs.getDimension());
+        switch (type) {
+            case UNIFORME:
+                return new Echantillon(vue(patchs, tirerSansRemise(nbPatchs, taille, aleatoire)), null);
+            case STRATIFIE:
+                return new Echantillon(vue(patchs, tirerParStrates(patchs, taille, aleatoire)), null);
+            default:
+                return tirerParVariance(patchs, taille, aleatoire);
+        }
+    }
+
+    /**
+     * @brief Tire des indices distincts uniformément (mélange de Fisher-Yates partiel), rendus dans l'ordre
+     * croissant pour lire l'image dans l'ordre.
+     * @author Paul
+     * @param nbPatchs  Nombre total de patchs.
+     * @param taille    Nombre d'indices tirés.
+     * @param aleatoire Générateur aléatoire.
+     * @return Indices tirés, triés.
+     */
+    private static int[] tirerSansRemise(int nbPatchs, int taille, Random aleatoire) {
+        int[] indices = new int[nbPatchs];
+        for (int k = 0; k < nbPatchs; k++) {
+            indices[k] = k;
+        }
+        for (int k = 0; k < taille; k++) {
+            int autre = k + aleatoire.nextInt(nbPatchs - k);
+            int temp = indices[k];
+            indices[k] = indices[autre];
+            indices[autre] = temp;
+        }
+        int[] tires = Arrays.copyOf(indices, taille);
+        Arrays.sort(tires);
+        return tires;
+    }
+
+    /**
+     * @brief Tire les patchs cellule par cellule : l'image est couverte par une grille d'environ « taille »
+     * cellules carrées, et chaque cellule fournit sa part de patchs (arrondie au hasard pour que le total soit
+     * respecté en moyenne), tirés sans remise.
+     * @author Paul
+     * @param patchs    Vue sur tous les patchs.
+     * @param taille    Nombre de patchs à tirer.
+     * @param aleatoire Générateur aléatoire.
+     * @return Indices tirés, triés.
+     */
+    private static int[] tirerParStrates(MatricePatchs patchs, int taille, Random aleatoire) {
+        int nbPatchs = patchs.getNbPatchs();
+        int hauteur = 0;
+        int largeur = 0;
+        for (int k = 0; k < nbPatchs; k++) {
+            hauteur = Math.max(hauteur, patchs.getLigne(k) + 1);
+            largeur = Math.max(largeur, patchs.getColonne(k) + 1);
+        }
+        // Cellules carrées, environ une par patch tiré
+        int cote = Math.max(1, (int) Math.sqrt((double) hauteur * largeur / taille));
+        int cellulesX = (largeur + cote - 1) / cote;
+        int nbCellules = ((hauteur + cote - 1) / cote) * cellulesX;
+
+        // Tri des patchs par cellule (tri par dénombrement, l'ordre des patchs est conservé dans chaque cellule)
+        int[] debuts = new int[nbCellules + 1];
+        int[] cellules = new int[nbPatchs];
+        for (int k = 0; k < nbPatchs; k++) {
+            cellules[k] = (patchs.getLigne(k) / cote) * cellulesX + patchs.getColonne(k) / cote;
+            debuts[cellules[k] + 1]++;
+        }
+        for (int c = 0; c < nbCellules; c++) {
+            debuts[c + 1] += debuts[c];
+        }
+        int[] parCellule = new int[nbPatchs];
+        int[] remplis = Arrays.copyOf(debuts, nbCellules);
+        for (int k = 0; k < nbPatchs; k++) {
+            parCellule[remplis[cellules[k]]++] = k;
+        }
+
+        // Même fraction dans chaque cellule
+        double part = (double) taille / nbPatchs;
+        int[] tires = new int[nbPatchs];
+        int nbTires = 0;
+        for (int c = 0; c < nbCellules; c++) {
+            int effectif = debuts[c + 1] - debuts[c];
+            double attendu = part * effectif;
+            int nombre = (int) attendu + (aleatoire.nextDouble() < attendu - (int) attendu ? 1 : 0);
+            for (int k = 0; k < nombre; k++) {
+                int autre = debuts[c] + k + aleatoire.nextInt(effectif - k);
+                int temp = parCellule[debuts[c] + k];
+                parCellule[debuts[c] + k] = parCellule[autre];
+                parCellule[autre] = temp;
+                tires[nbTires++] = parCellule[debuts[c] + k];
+            }
+        }
+        if (nbTires == 0) {
+            tires[nbTires++] = aleatoire.nextInt(nbPatchs);
+        }
+        int[] resultat = Arrays.copyOf(tires, nbTires);
+        Arrays.sort(resultat);
+        return resultat;
+    }
+
+    /**
+     * @brief Tire des patchs avec remise, avec la probabilité q = ½ / M + ½ · v / Σv (v : variance des pixels du
+     * patch), et pondère chaque tirage par 1 / (M · q). La part uniforme borne les poids (au plus 2) et garantit
+     * que les zones plates restent représentées.
+     * @author Paul
+     * @param patchs    Vue sur tous les patchs.
+     * @param taille    Nombre de tirages.
+     * @param aleatoire Générateur aléatoire.
+     * @return Patchs tirés (triés, un même patch pouvant apparaître plusieurs fois) et poids de chaque tirage.
+     */
+    private static Echantillon tirerParVariance(MatricePatchs patchs, int taille, Random aleatoire) {
+        int nbPatchs = patchs.getNbPatchs();
+        int dimension = patchs.getDimension();
+
+        // Variance des pixels de chaque patch
+        double[] cumul = new double[nbPatchs];
+        double[] patch = new double[dimension];
+        double total = 0;
+        for (int k = 0; k < nbPatchs; k++) {
+            patchs.copierPatch(k, patch, 0);
+            double somme = 0;
+            double somme2 = 0;
+            for (double valeur : patch) {
+                somme += valeur;
+                somme2 += valeur * valeur;
+            }
+            double variance = Math.max(0, somme2 / dimension - (somme / dimension) * (somme / dimension));
+            cumul[k] = variance;
+            total += variance;
+        }
+
+        // Probabilités de tirage cumulées
+        double[] probabilites = new double[nbPatchs];
+        double somme = 0;
+        for (int k = 0; k < nbPatchs; k++) {
+            probabilites[k] = total > 0 ? 0.5 / nbPatchs + 0.5 * cumul[k] / total : 1.0 / nbPatchs;
+            somme += probabilites[k];
+            cumul[k] = somme;
+        }
+
+        int[] tires = new int[taille];
+        for (int t = 0; t < taille; t++) {
+            int k = Arrays.binarySearch(cumul, aleatoire.nextDouble() * somme);
+            tires[t] = Math.min(nbPatchs - 1, k >= 0 ? k : -k - 1);
+        }
+        Arrays.sort(tires);
+        double[] poids = new double[taille];
+        for (int t = 0; t < taille; t++) {
+            poids[t] = 1.0 / (nbPatchs * probabilites[tires[t]]);
+        }
+        return new Echantillon(vue(patchs, tires), poids);
+    }
+
+    /**
+     * @brief Construit la vue sur un sous-ensemble de patchs.
+     * @author Paul
+     * @param patchs  Vue sur tous les patchs.
+     * @param indices Indices des patchs retenus.
+     * @return Vue sur les patchs retenus, lus dans la même image.
+     */
+    static MatricePatchs vue(MatricePatchs patchs, int[] indices) {
+        int[] lignes = new int[indices.length];
+        int[] colonnes = new int[indices.length];
+        for (int k = 0; k < indices.length; k++) {
+            lignes[k] = patchs.getLigne(indices[k]);
+            colonnes[k] = patchs.getColonne(indices[k]);
+        }
+        return new MatricePatchs(patchs.getSource(), patchs.getLargeurSource(), patchs.getTaille(), lignes,
+                colonnes);
+    }
+
+    @Override
+    public String toString() {
+        String nom;
+        switch (type) {
+            case UNIFORME:
+                nom = "uniforme";
+                break;
+            case STRATIFIE:
+                nom = "stratifie";
+                break;
+            default:
+                nom = "variance";
+        }
+        return nom + ":" + fraction + ":" + graine;
+    }
+
+    /**
+     * @class Echantillon
+     * @brief Patchs tirés et, si les tirages ne sont pas équiprobables, poids de chacun.
+     */
+    static final class Echantillon {
+
+        //Vue sur les patchs tirés
+        final MatricePatchs patchs;
+        //Poids de chaque tirage, ou null si tous les tirages ont le même poids
+        final double[] poids;
+
+        Echantillon(MatricePatchs patchs, double[] poids) {
+            this.patchs = patchs;
+            this.poids = poids;
+        }
+    }
+}
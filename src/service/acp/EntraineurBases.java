@@ -0,0 +1,130 @@
+/**
+ * @file EntraineurBases.java
+ * @brief Apprentissage de bases d'ACP sur un corpus d'images.
+ */
+
+package service.acp;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mesure.Journal;
+import model.base.Img;
+import service.bruit.BruiteurImage;
+import service.patch.GestionnairePatchs;
+
+/**
+ * @class EntraineurBases
+ * @brief Accumule les statistiques des patchs de toutes les images d'un corpus (tous canaux confondus) puis
+ * calcule une base d'ACP par taille de patch et, si demandé, par niveau de bruit (le corpus est alors bruité
+ * avant l'accumulation).
+ * @author Paul
+ */
+public class EntraineurBases {
+
+    //Extensions des images prises en compte dans le corpus
+    private static final String[] EXTENSIONS = { ".png", ".jpg", ".jpeg", ".bmp", ".gif" };
+
+    //Gestionnaire fournissant la vue sur les patchs
+    private GestionnairePatchs gestionnairePatchs;
+    //Processeur d'ACP
+    private ProcesseurACP processeurACP;
+
+    /**
+     * @brief Constructeur de l'entraîneur.
+     * @author Paul
+     * @param gestionnairePatchs Gestionnaire des patchs.
+     * @param processeurACP      Processeur d'ACP.
+     */
+    public EntraineurBases(GestionnairePatchs gestionnairePatchs, ProcesseurACP processeurACP) {
+        this.gestionnairePatchs = gestionnairePatchs;
+        this.processeurACP = processeurACP;
+    }
+
+    /**
+     * @brief Liste les images d'un dossier, par ordre alphabétique.
+     * @author Paul
+     * @param dossier Dossier du corpus.
+     * @return Chemins des images.
+     * @throws IOException Si le dossier n'existe pas ou ne contient aucune image.
+     */
+    public static List<String> listerImages(String dossier) throws IOException {
+        File[] fichiers = new File(dossier).listFiles();
+        if (fichiers == null) {
+            throw new IOException("Le dossier " + dossier + " n'existe pas");
+        }
+        Arrays.sort(fichiers);
+        List<String> images = new ArrayList<>();
+        for (File f : fichiers) {
+            String nom = f.getName().toLowerCase();
+            for (String ext : EXTENSIONS) {
+                if (f.isFile() && nom.endsWith(ext)) {
+                    images.add(f.getPath());
+                    break;
+                }
+            }
+        }
+        if (images.isEmpty()) {
+            throw new IOException("Aucune image trouvée dans " + dossier);
+        }
+        return images;
+    }
+
+    /**
+     * @brief Apprend les bases d'ACP sur un corpus.
+     * @author Paul
+     * @param images       Chemins des images du corpus.
+     * @param taillesPatch Tailles de patch pour lesquelles apprendre une base.
+     * @param sigmas       Niveaux de bruit (une base par niveau) ; vide pour une base unique apprise sur les
+     *                     images non bruitées, valable quel que soit le bruit.
+     * @return Bibliothèque contenant une base par couple (taille de patch, niveau de bruit).
+     * @throws IOException En cas d'erreur de lecture d'une image.
+     */
+    public BibliothequeBases entrainer(List<String> images, int[] taillesPatch, double[] sigmas) throws IOException {
+        double[] niveaux = sigmas.length == 0 ? new double[] { Double.NaN } : sigmas;
+
+        // Un accumulateur par couple (niveau de bruit, taille de patch) : mémoire en O(s²) par base
+        AccumulateurMoyCov[][] accumulateurs = new AccumulateurMoyCov[niveaux.length][taillesPatch.length];
+        for (int n = 0; n < niveaux.length; n++) {
+            for (int t = 0; t < taillesPatch.length; t++) {
+                accumulateurs[n][t] = new AccumulateurMoyCov(taillesPatch[t] * taillesPatch[t]);
+            }
+        }
+
+        for (String chemin : images) {
+            if (Journal.isInfo()) {
+                Journal.info("⏳ Apprentissage sur " + chemin + "...");
+            }
+            Img x0 = new Img(chemin);
+            for (int n = 0; n < niveaux.length; n++) {
+                Img x = Double.isNaN(niveaux[n]) ? x0 : BruiteurImage.noising(x0, niveaux[n]);
+                for (int k = 0; k < x.getNbCanaux(); k++) {
+                    Img canal = new Img(new double[][] { x.getCanal(k) }, x.getHauteur(), x.getLargeur());
+                    for (int t = 0; t < taillesPatch.length; t++) {
+                        if (taillesPatch[t] > x.getHauteur() || taillesPatch[t] > x.getLargeur()) {
+                            continue;
+                        }
+                        accumulateurs[n][t].fusionner(
+                                processeurACP.accumuler(gestionnairePatchs.extraireMatricePatchs(canal, taillesPatch[t])));
+                    }
+                }
+            }
+        }
+
+        BibliothequeBases bibliotheque = new BibliothequeBases();
+        for (int n = 0; n < niveaux.length; n++) {
+            for (int t = 0; t < taillesPatch.length; t++) {
+                if (accumulateurs[n][t].getNombre() == 0) {
+                    System.err.println("Aucun patch de taille " + taillesPatch[t] + " dans le corpus");
+                    continue;
+                }
+                bibliotheque.ajouter(taillesPatch[t], niveaux[n],
+                        processeurACP.acp(accumulateurs[n][t].versResultat()));
+            }
+        }
+        return bibliotheque;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * @file NoyauCovariance.java
+ * @brief Noyau de mise à jour symétrique de rang k (C += XᵀX) sur le triangle supérieur stocké de façon compacte.
+ */
+
+package service.acp;
+
+/**
+ * @class NoyauCovariance
+ * @brief Calcule uniquement le triangle supérieur de la matrice des produits XᵀX, par tuiles tenant en cache, et le
+ * stocke ligne par ligne sous forme compacte (n(n+1)/2 valeurs).
+ * @author Paul
+ */
+public final class NoyauCovariance {
+
+    //Côté des tuiles de la matrice résultat (une tuile 64×64 occupe 32 Ko)
+    static final int TAILLE_TUILE = 64;
+    //Nombre de lignes de X parcourues par tuile (256 × 64 valeurs = 128 Ko)
+    static final int LIGNES_TUILE = 256;
+
+    private NoyauCovariance() {
+    }
+
+    /**
+     * @brief Retourne la taille du stockage compact du triangle supérieur d'une matrice n×n.
+     * @author Paul
+     * @param n Dimension de la matrice.
+     * @return n(n+1)/2.
+     */
+    public static int tailleCompacte(int n) {
+        return n * (n + 1) / 2;
+    }
+
+    /**
+     * @brief Retourne la position de la première valeur de la ligne i dans le stockage compact (élément (i, i)).
+     * @author Paul
+     * @param i Indice de ligne.
+     * @param n Dimension de la matrice.
+     * @return Position de l'élément diagonal (i, i).
+     */
+    public static int debutLigne(int i, int n) {
+        return i * n - i * (i - 1) / 2;
+    }
+
+    /**
+     * @brief Retourne la position de l'élément (i, j) dans le stockage compact, quel que soit l'ordre de i et j.
+     * @author Paul
+     * @param i Indice de ligne.
+     * @param j Indice de colonne.
+     * @param n Dimension de la matrice.
+     * @return Position de l'élément dans le tableau compact.
+     */
+    public static int index(int i, int j, int n) {
+        return i <= j ? debutLigne(i, n) + (j - i) : debutLigne(j, n) + (i - j);
+    }
+
+    /**
+     * @brief Ajoute XᵀX au triangle supérieur compact de C, X étant stockée ligne par ligne.
+     * @author Paul
+     * @param x        Matrice X (nbLignes × n, ligne par ligne).
+     * @param nbLignes Nombre de lignes de X utilisées.
+     * @param n        Nombre de colonnes de X (dimension de C).
+     * @param c        Triangle supérieur compact de C, mis à jour en place.
+     */
+    public static void ajouterProduitSymetrique(double[] x, int nbLignes, int n, double[] c) {
+        for (int k0 = 0; k0 < nbLignes; k0 += LIGNES_TUILE) {
+            int k1 = Math.min(nbLignes, k0 + LIGNES_TUILE);
+            for (int i0 = 0; i0 < n; i0 += TAILLE_TUILE) {
+                int i1 = Math.min(n, i0 + TAILLE_TUILE);
+                // Seules les tuiles sur ou au-dessus de la diagonale sont calculées
+                for (int j0 = i0; j0 < n; j0 += TAILLE_TUILE) {
+                    int j1 = Math.min(n, j0 + TAILLE_TUILE);
+                    for (int i = i0; i < i1; i++) {
+                        int jDebut = Math.max(i, j0);
+                        int base = debutLigne(i, n) - i;
+                        int k = k0;
+                        // Quatre lignes de X par passage : chaque valeur de C n'est relue qu'une fois sur quatre
+                        for (; k + 3 < k1; k += 4) {
+                            int l0 = k * n;
+                            int l1 = l0 + n;
+                            int l2 = l1 + n;
+                            int l3 = l2 + n;
+                            double x0 = x[l0 + i];
+                            double x1 = x[l1 + i];
+                            double x2 = x[l2 + i];
+                            double x3 = x[l3 + i];
+                            for (int j = jDebut; j < j1; j++) {
+                                c[base + j] += x0 * x[l0 + j] + x1 * x[l1 + j] + x2 * x[l2 + j] + x3 * x[l3 + j];
+                            }
+                        }
+                        for (; k < k1; k++) {
+                            int ligne = k * n;
+                            double xi = x[ligne + i];
+                            for (int j = jDebut; j < j1; j++) {
+                                c[base + j] += xi * x[ligne + j];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Ajoute le produit extérieur poids·a·bᵀ au triangle supérieur compact de C.
+     * @author Paul
+     * @param a     Premier vecteur.
+     * @param b     Second vecteur.
+     * @param poids Coefficient multiplicateur.
+     * @param n     Dimension.
+     * @param c     Triangle supérieur compact de C, mis à jour en place.
+     */
+    public static void ajouterProduitExterieur(double[] a, double[] b, double poids, int n, double[] c) {
+        for (int i = 0; i < n; i++) {
+            double ai = a[i] * poids;
+            int base = debutLigne(i, n) - i;
+            for (int j = i; j < n; j++) {
+                c[base + j] += ai * b[j];
+            }
+        }
+    }
+
+    /**
+     * @brief Reconstruit la matrice symétrique complète à partir du triangle supérieur compact.
+     * @author Paul
+     * @param c       Triangle supérieur compact.
+     * @param n       Dimension.
+     * @param facteur Coefficient appliqué à chaque valeur.
+     * @return Matrice n×n symétrique.
+     */
+    public static double[][] deplier(double[] c, int n, double facteur) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            int base = debutLigne(i, n) - i;
+            for (int j = i; j < n; j++) {
+                double v = c[base + j] * facteur;
+                m[i][j] = v;
+                m[j][i] = v;
+            }
+        }
+        return m;
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * @file NoyauGEMM.java
+ * @brief Noyau de produit matriciel dense (C += A·B et C += A·Bᵀ) sur des tableaux contigus stockés ligne par ligne,
+ * en double ou en simple précision.
+ */
+
+package service.acp;
+
+/**
+ * @class NoyauGEMM
+ * @brief Produits matriciels par blocs de registres 4×4 et par tuiles tenant en cache, utilisés pour la projection
+ * des patchs sur la base de l'ACP et pour leur reconstruction.
+ * @details Chaque élément de C est accumulé dans l'ordre croissant de l'indice de sommation, à partir de sa valeur
+ * initiale : le résultat est identique, au bit près, à celui d'une boucle naïve.
+ * @author Paul
+ */
+public final class NoyauGEMM {
+
+    //Nombre de colonnes de B traitées par tuile pour C += A·B (4 Ko de chaque ligne de B)
+    static final int COLONNES_TUILE = 512;
+    //Profondeur des tuiles de sommation pour C += A·B (128 lignes de B par tuile)
+    static final int PROFONDEUR_TUILE = 128;
+    //Nombre de lignes de B traitées par tuile pour C += A·Bᵀ
+    static final int LIGNES_TUILE = 64;
+
+    private NoyauGEMM() {
+    }
+
+    /**
+     * @brief Ajoute A·B à C.
+     * @author Paul
+     * @param a Matrice A (m × k, ligne par ligne).
+     * @param m Nombre de lignes de A et de C.
+     * @param k Nombre de colonnes de A et de lignes de B.
+     * @param b Matrice B (k × n, ligne par ligne).
+     * @param n Nombre de colonnes de B et de C.
+     * @param c Matrice C (m × n, ligne par ligne), mise à jour en place.
+     */
+    public static void multiplier(double[] a, int m, int k, double[] b, int n, double[] c) {
+        for (int j0 = 0; j0 < n; j0 += COLONNES_TUILE) {
+            int j1 = Math.min(n, j0 + COLONNES_TUILE);
+            for (int p0 = 0; p0 < k; p0 += PROFONDEUR_TUILE) {
+                int p1 = Math.min(k, p0 + PROFONDEUR_TUILE);
+                int i = 0;
+                for (; i + 3 < m; i += 4) {
+                    int a0 = i * k, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+                    int c0 = i * n, c1 = c0 + n, c2 = c1 + n, c3 = c2 + n;
+                    int j = j0;
+                    // Bloc de registres : 4 lignes de A × 4 colonnes de B
+                    for (; j + 3 < j1; j += 4) {
+                        double s00 = c[c0 + j], s01 = c[c0 + j + 1], s02 = c[c0 + j + 2], s03 = c[c0 + j + 3];
+                        double s10 = c[c1 + j], s11 = c[c1 + j + 1], s12 = c[c1 + j + 2], s13 = c[c1 + j + 3];
+                        double s20 = c[c2 + j], s21 = c[c2 + j + 1], s22 = c[c2 + j + 2], s23 = c[c2 + j + 3];
+                        double s30 = c[c3 + j], s31 = c[c3 + j + 1], s32 = c[c3 + j + 2], s33 = c[c3 + j + 3];
+                        for (int p = p0; p < p1; p++) {
+                            int lb = p * n + j;
+                            double b0 = b[lb], b1 = b[lb + 1], b2 = b[lb + 2], b3 = b[lb + 3];
+                            double x0 = a[a0 + p], x1 = a[a1 + p], x2 = a[a2 + p], x3 = a[a3 + p];
+                            s00 += x0 * b0; s01 += x0 * b1; s02 += x0 * b2; s03 += x0 * b3;
+                            s10 += x1 * b0; s11 += x1 * b1; s12 += x1 * b2; s13 += x1 * b3;
+                            s20 += x2 * b0; s21 += x2 * b1; s22 += x2 * b2; s23 += x2 * b3;
+                            s30 += x3 * b0; s31 += x3 * b1; s32 += x3 * b2; s33 += x3 * b3;
+                        }
+                        c[c0 + j] = s00; c[c0 + j + 1] = s01; c[c0 + j + 2] = s02; c[c0 + j + 3] = s03;
+                        c[c1 + j] = s10; c[c1 + j + 1] = s11; c[c1 + j + 2] = s12; c[c1 + j + 3] = s13;
+                        c[c2 + j] = s20; c[c2 + j + 1] = s21; c[c2 + j + 2] = s22; c[c2 + j + 3] = s23;
+                        c[c3 + j] = s30; c[c3 + j + 1] = s31; c[c3 + j + 2] = s32; c[c3 + j + 3] = s33;
+                    }
+                    // Colonnes restantes
+                    for (; j < j1; j++) {
+                        double s0 = c[c0 + j], s1 = c[c1 + j], s2 = c[c2 + j], s3 = c[c3 + j];
+                        for (int p = p0; p < p1; p++) {
+                            double bp = b[p * n + j];
+                            s0 += a[a0 + p] * bp;
+                            s1 += a[a1 + p] * bp;
+                            s2 += a[a2 + p] * bp;
+                            s3 += a[a3 + p] * bp;
+                        }
+                        c[c0 + j] = s0; c[c1 + j] = s1; c[c2 + j] = s2; c[c3 + j] = s3;
+                    }
+                }
+                // Lignes restantes
+                for (; i < m; i++) {
+                    int ai = i * k;
+                    int ci = i * n;
+                    for (int p = p0; p < p1; p++) {
+                        double x = a[ai + p];
+                        int lb = p * n;
+                        for (int j = j0; j < j1; j++) {
+                            c[ci + j] += x * b[lb + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Ajoute A·Bᵀ à C, B étant fournie sans transposition préalable.
+     * @author Paul
+     * @param a Matrice A (m × k, ligne par ligne).
+     * @param m Nombre de lignes de A et de C.
+     * @param k Nombre de colonnes de A et de B.
+     * @param b Matrice B (n × k, ligne par ligne).
+     * @param n Nombre de lignes de B et de colonnes de C.
+     * @param c Matrice C (m × n, ligne par ligne), mise à jour en place.
+     */
+    public static void multiplierTransposee(double[] a, int m, int k, double[] b, int n, double[] c) {
+        for (int j0 = 0; j0 < n; j0 += LIGNES_TUILE) {
+            int j1 = Math.min(n, j0 + LIGNES_TUILE);
+            int i = 0;
+            for (; i + 3 < m; i += 4) {
+                int a0 = i * k, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+                int c0 = i * n, c1 = c0 + n, c2 = c1 + n, c3 = c2 + n;
+                int j = j0;
+                // Bloc de registres : 4 lignes de A × 4 lignes de B, produits scalaires sur des lignes contiguës
+                for (; j + 3 < j1; j += 4) {
+                    int b0 = j * k, b1 = b0 + k, b2 = b1 + k, b3 = b2 + k;
+                    double s00 = c[c0 + j], s01 = c[c0 + j + 1], s02 = c[c0 + j + 2], s03 = c[c0 + j + 3];
+                    double s10 = c[c1 + j], s11 = c[c1 + j + 1], s12 = c[c1 + j + 2], s13 = c[c1 + j + 3];
+                    double s20 = c[c2 + j], s21 = c[c2 + j + 1], s22 = c[c2 + j + 2], s23 = c[c2 + j + 3];
+                    double s30 = c[c3 + j], s31 = c[c3 + j + 1], s32 = c[c3 + j + 2], s33 = c[c3 + j + 3];
+                    for (int p = 0; p < k; p++) {
+                        double y0 = b[b0 + p], y1 = b[b1 + p], y2 = b[b2 + p], y3 = b[b3 + p];
+                        double x0 = a[a0 + p], x1 = a[a1 + p], x2 = a[a2 + p], x3 = a[a3 + p];
+                        s00 += x0 * y0; s01 += x0 * y1; s02 += x0 * y2; s03 += x0 * y3;
+                        s10 += x1 * y0; s11 += x1 * y1; s12 += x1 * y2; s13 += x1 * y3;
+                        s20 += x2 * y0; s21 += x2 * y1; s22 += x2 * y2; s23 += x2 * y3;
+                        s30 += x3 * y0; s31 += x3 * y1; s32 += x3 * y2; s33 += x3 * y3;
+                    }
+                    c[c0 + j] = s00; c[c0 + j + 1] = s01; c[c0 + j + 2] = s02; c[c0 + j + 3] = s03;
+                    c[c1 + j] = s10; c[c1 + j + 1] = s11; c[c1 + j + 2] = s12; c[c1 + j + 3] = s13;
+                    c[c2 + j] = s20; c[c2 + j + 1] = s21; c[c2 + j + 2] = s22; c[c2 + j + 3] = s23;
+                    c[c3 + j] = s30; c[c3 + j + 1] = s31; c[c3 + j + 2] = s32; c[c3 + j + 3] = s33;
+                }
+                // Lignes de B restantes
+                for (; j < j1; j++) {
+                    int bj = j * k;
+                    double s0 = c[c0 + j], s1 = c[c1 + j], s2 = c[c2 + j], s3 = c[c3 + j];
+                    for (int p = 0; p < k; p++) {
+                        double y = b[bj + p];
+                        s0 += a[a0 + p] * y;
+                        s1 += a[a1 + p] * y;
+                        s2 += a[a2 + p] * y;
+                        s3 += a[a3 + p] * y;
+                    }
+                    c[c0 + j] = s0; c[c1 + j] = s1; c[c2 + j] = s2; c[c3 + j] = s3;
+                }
+            }
+            // Lignes de A restantes
+            for (; i < m; i++) {
+                int ai = i * k;
+                int ci = i * n;
+                for (int j = j0; j < j1; j++) {
+                    int bj = j * k;
+                    double s = c[ci + j];
+                    for (int p = 0; p < k; p++) {
+                        s += a[ai + p] * b[bj + p];
+                    }
+                    c[ci + j] = s;
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Ajoute A·B à C en simple précision (même ordre de sommation que la version double, avec deux fois
+     * moins d'octets lus par élément).
+     * @author Paul
+     * @param a Matrice A (m × k, ligne par ligne).
+     * @param m Nombre de lignes de A et de C.
+     * @param k Nombre de colonnes de A et de lignes de B.
+     * @param b Matrice B (k × n, ligne par ligne).
+     * @param n Nombre de colonnes de B et de C.
+     * @param c Matrice C (m × n, ligne par ligne), mise à jour en place.
+     */
+    public static void multiplier(float[] a, int m, int k, float[] b, int n, float[] c) {
+        for (int j0 = 0; j0 < n; j0 += COLONNES_TUILE) {
+            int j1 = Math.min(n, j0 + COLONNES_TUILE);
+            for (int p0 = 0; p0 < k; p0 += PROFONDEUR_TUILE) {
+                int p1 = Math.min(k, p0 + PROFONDEUR_TUILE);
+                int i = 0;
+                for (; i + 3 < m; i += 4) {
+                    int a0 = i * k, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+                    int c0 = i * n, c1 = c0 + n, c2 = c1 + n, c3 = c2 + n;
+                    int j = j0;
+                    // Bloc de registres : 4 lignes de A × 4 colonnes de B
+                    for (; j + 3 < j1; j += 4) {
+                        float s00 = c[c0 + j], s01 = c[c0 + j + 1], s02 = c[c0 + j + 2], s03 = c[c0 + j + 3];
+                        float s10 = c[c1 + j], s11 = c[c1 + j + 1], s12 = c[c1 + j + 2], s13 = c[c1 + j + 3];
+                        float s20 = c[c2 + j], s21 = c[c2 + j + 1], s22 = c[c2 + j + 2], s23 = c[c2 + j + 3];
+                        float s30 = c[c3 + j], s31 = c[c3 + j + 1], s32 = c[c3 + j + 2], s33 = c[c3 + j + 3];
+                        for (int p = p0; p < p1; p++) {
+                            int lb = p * n + j;
+                            float b0 = b[lb], b1 = b[lb + 1], b2 = b[lb + 2], b3 = b[lb + 3];
+                            float x0 = a[a0 + p], x1 = a[a1 + p], x2 = a[a2 + p], x3 = a[a3 + p];
+                            s00 += x0 * b0; s01 += x0 * b1; s02 += x0 * b2; s03 += x0 * b3;
+                            s10 += x1 * b0; s11 += x1 * b1; s12 += x1 * b2; s13 += x1 * b3;
+                            s20 += x2 * b0; s21 += x2 * b1; s22 += x2 * b2; s23 += x2 * b3;
+                            s30 += x3 * b0; s31 += x3 * b1; s32 += x3 * b2; s33 += x3 * b3;
+                        }
+                        c[c0 + j] = s00; c[c0 + j + 1] = s01; c[c0 + j + 2] = s02; c[c0 + j + 3] = s03;
+                        c[c1 + j] = s10; c[c1 + j + 1] = s11; c[c1 + j + 2] = s12; c[c1 + j + 3] = s13;
+                        c[c2 + j] = s20; c[c2 + j + 1] = s21; c[c2 + j + 2] = s22; c[c2 + j + 3] = s23;
+                        c[c3 + j] = s30; c[c3 + j + 1] = s31; c[c3 + j + 2] = s32; c[c3 + j + 3] = s33;
+                    }
+                    // Colonnes restantes
+                    for (; j < j1; j++) {
+                        float s0 = c[c0 + j], s1 = c[c1 + j], s2 = c[c2 + j], s3 = c[c3 + j];
+                        for (int p = p0; p < p1; p++) {
+                            float bp = b[p * n + j];
+                            s0 += a[a0 + p] * bp;
+                            s1 += a[a1 + p] * bp;
+                            s2 += a[a2 + p] * bp;
+                            s3 += a[a3 + p] * bp;
+                        }
+                        c[c0 + j] = s0; c[c1 + j] = s1; c[c2 + j] = s2; c[c3 + j] = s3;
+                    }
+                }
+                // Lignes restantes
+                for (; i < m; i++) {
+                    int ai = i * k;
+                    int ci = i * n;
+                    for (int p = p0; p < p1; p++) {
+                        float x = a[ai + p];
+                        int lb = p * n;
+                        for (int j = j0; j < j1; j++) {
+                            c[ci + j] += x * b[lb + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Ajoute A·Bᵀ à C en simple précision, B étant fournie sans transposition préalable.
+     * @author Paul
+     * @param a Matrice A (m × k, ligne par ligne).
+     * @param m Nombre de lignes de A et de C.
+     * @param k Nombre de colonnes de A et de B.
+     * @param b Matrice B (n × k, ligne par ligne).
+     * @param n Nombre de lignes de B et de colonnes de C.
+     * @param c Matrice C (m × n, ligne par ligne), mise à jour en place.
+     */
+    public static void multiplierTransposee(float[] a, int m, int k, float[] b, int n, float[] c) {
+        for (int j0 = 0; j0 < n; j0 += LIGNES_TUILE) {
+            int j1 = Math.min(n, j0 + LIGNES_TUILE);
+            int i = 0;
+            for (; i + 3 < m; i += 4) {
+                int a0 = i * k, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+                int c0 = i * n, c1 = c0 + n, c2 = c1 + n, c3 = c2 + n;
+                int j = j0;
+                // Bloc de registres : 4 lignes de A × 4 lignes de B, produits scalaires sur des lignes contiguës
+                for (; j + 3 < j1; j += 4) {
+                    int b0 = j * k, b1 = b0 + k, b2 = b1 + k, b3 = b2 + k;
+                    float s00 = c[c0 + j], s01 = c[c0 + j + 1], s02 = c[c0 + j + 2], s03 = c[c0 + j + 3];
+                    float s10 = c[c1 + j], s11 = c[c1 + j + 1], s12 = c[c1 + j + 2], s13 = c[c1 + j + 3];
+                    float s20 = c[c2 + j], s21 = c[c2 + j + 1], s22 = c[c2 + j + 2], s23 = c[c2 + j + 3];
+                    float s30 = c[c3 + j], s31 = c[c3 + j + 1], s32 = c[c3 + j + 2], s33 = c[c3 + j + 3];
+                    for (int p = 0; p < k; p++) {
+                        float y0 = b[b0 + p], y1 = b[b1 + p], y2 = b[b2 + p], y3 = b[b3 + p];
+                        float x0 = a[a0 + p], x1 = a[a1 + p], x2 = a[a2 + p], x3 = a[a3 + p];
+                        s00 += x0 * y0; s01 += x0 * y1; s02 += x0 * y2; s03 += x0 * y3;
+                        s10 += x1 * y0; s11 += x1 * y1; s12 += x1 * y2; s13 += x1 * y3;
+                        s20 += x2 * y0; s21 += x2 * y1; s22 += x2 * y2; s23 += x2 * y3;
+                        s30 += x3 * y0; s31 += x3 * y1; s32 += x3 * y2; s33 += x3 * y3;
+                    }
+                    c[c0 + j] = s00; c[c0 + j + 1] = s01; c[c0 + j + 2] = s02; c[c0 + j + 3] = s03;
+                    c[c1 + j] = s10; c[c1 + j + 1] = s11; c[c1 + j + 2] = s12; c[c1 + j + 3] = s13;
+                    c[c2 + j] = s20; c[c2 + j + 1] = s21; c[c2 + j + 2] = s22; c[c2 + j + 3] = s23;
+                    c[c3 + j] = s30; c[c3 + j + 1] = s31; c[c3 + j + 2] = s32; c[c3 + j + 3] = s33;
+                }
+                // Lignes de B restantes
+                for (; j < j1; j++) {
+                    int bj = j * k;
+                    float s0 = c[c0 + j], s1 = c[c1 + j], s2 = c[c2 + j], s3 = c[c3 + j];
+                    for (int p = 0; p < k; p++) {
+                        float y = b[bj + p];
+                        s0 += a[a0 + p] * y;
+                        s1 += a[a1 + p] * y;
+                        s2 += a[a2 + p] * y;
+                        s3 += a[a3 + p] * y;
+                    }
+                    c[c0 + j] = s0; c[c1 + j] = s1; c[c2 + j] = s2; c[c3 + j] = s3;
+                }
+            }
+            // Lignes de A restantes
+            for (; i < m; i++) {
+                int ai = i * k;
+                int ci = i * n;
+                for (int j = j0; j < j1; j++) {
+                    int bj = j * k;
+                    float s = c[ci + j];
+                    for (int p = 0; p < k; p++) {
+                        s += a[ai + p] * b[bj + p];
+                    }
+                    c[ci + j] = s;
+                }
+            }
+        }
+    }
+}
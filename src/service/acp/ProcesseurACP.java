@@ -5,7 +5,10 @@
 
 package service.acp;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.EigenDecomposition;
 import org.apache.commons.math3.linear.RealMatrix;
@@ -14,6 +17,7 @@ import model.acp.ResultatMoyCov;
 import model.base.Matrice;
 import model.base.Position;
 import model.base.Vecteur;
+import model.patch.MatricePatchs;
 import model.patch.ResultatVecteur;
 
 /**
@@ -23,6 +27,28 @@ import model.patch.ResultatVecteur;
  */
 public class ProcesseurACP {
 
+    //Nombre de vecteurs projetés ou reconstruits ensemble par le noyau de produit matriciel
+    private static final int BLOC_PATCHS = 64;
+    //Pool utilisé pour l'accumulation parallèle des statistiques
+    private ForkJoinPool pool;
+
+    /**
+     * @brief Constructeur utilisant le pool commun de la JVM.
+     * @author Paul
+     */
+    public ProcesseurACP() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @brief Constructeur avec un pool de threads imposé.
+     * @author Paul
+     * @param pool Pool utilisé pour l'accumulation parallèle des statistiques.
+     */
+    public ProcesseurACP(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
     /**
      * @brief Calcule le vecteur moyen, la matrice de covariance et les vecteurs centrés.
      * @author Lucas 
@@ -33,55 +59,207 @@ public class ProcesseurACP {
         int s2 = v.getVecteurs().get(0).taille(); // Dimension des vecteurs
         int M = v.taille(); // Nombre de vecteurs
 
-        // Conversion vers format Apache Commons Math pour calcul optimisé
-        double[][] dataArray = new double[M][s2];
+        // Accumulation en flux de la moyenne et de la covariance (aucune matrice M×s² n'est construite)
+        AccumulateurMoyCov acc = new AccumulateurMoyCov(s2);
         for (int i = 0; i < M; i++) {
-            Vecteur vect = v.getVecteurs().get(i);
-            for (int j = 0; j < s2; j++) {
-                dataArray[i][j] = vect.getValeur(j);
-            }
-        }
-        RealMatrix data = new Array2DRowRealMatrix(dataArray);
-        
-        // Calcul du vecteur moyen
-        Vecteur mV = new Vecteur(s2);
-        for (int j = 0; j < s2; j++) {
-            double meanValue = 0;
-            for (int i = 0; i < M; i++) {
-                meanValue += data.getEntry(i, j);
-            }
-            mV.setValeur(j, meanValue / M);
+            acc.ajouter(v.getVecteurs().get(i).getValeurs());
         }
+        ResultatMoyCov stats = acc.versResultat();
+        Vecteur mV = stats.getVecteurMoyen();
+        Matrice gamma = stats.getMatriceCovariance();
 
-        // Création des vecteurs centrés et calcul optimisé de la covariance
+        // Création des vecteurs centrés
         ResultatVecteur vc = new ResultatVecteur();
-        RealMatrix centeredData = new Array2DRowRealMatrix(M, s2);
-        
         for (int i = 0; i < M; i++) {
             Vecteur V_k = v.getVecteurs().get(i);
             Vecteur centre = V_k.soustraire(mV);
             Position coordonne = new Position(i, i);
             vc.ajouterVecteur(centre, coordonne);
-            
-            // Remplir la matrice centrée pour le calcul de covariance
+        }
+
+        return new ResultatMoyCov(mV, gamma, vc);
+    }
+
+    /**
+     * @brief Calcule le vecteur moyen et la matrice de covariance directement sur la matrice des patchs, en flux.
+     * @author Paul
+     * @param patchs Vue sur les patchs de l'image (aucune copie globale n'est effectuée).
+     * @return Un objet ResultatMoyCov contenant le vecteur moyen et la matrice de covariance (sans vecteurs centrés).
+     */
+    public ResultatMoyCov moyCov(MatricePatchs patchs) {
+        return accumuler(patchs).versResultat();
+    }
+
+    /**
+     * @brief Estime le vecteur moyen et la matrice de covariance sur un échantillon des patchs.
+     * @author Paul
+     * @param patchs          Vue sur les patchs de l'image.
+     * @param echantillonnage Critère d'échantillonnage, ou null pour utiliser tous les patchs.
+     * @return Un objet ResultatMoyCov contenant le vecteur moyen et la matrice de covariance estimés.
+     */
+    public ResultatMoyCov moyCov(MatricePatchs patchs, Echantillonnage echantillonnage) {
+        if (echantillonnage == null) {
+            return moyCov(patchs);
+        }
+        return moyCov(echantillonnage.tirer(patchs));
+    }
+
+    /**
+     * @brief Calcule le vecteur moyen et la matrice de covariance d'un échantillon, pondéré ou non.
+     * @author Paul
+     * @param echantillon Patchs tirés et poids éventuels.
+     * @return Un objet ResultatMoyCov contenant le vecteur moyen et la matrice de covariance.
+     */
+    private ResultatMoyCov moyCov(Echantillonnage.Echantillon echantillon) {
+        return echantillon.poids == null ? moyCov(echantillon.patchs)
+                : moyCovPondere(echantillon.patchs, echantillon.poids);
+    }
+
+    /**
+     * @brief Calcule la moyenne et la covariance pondérées de patchs, en deux passes par blocs : moyenne
+     * pondérée, puis produits des patchs centrés multipliés par la racine de leur poids.
+     * @author Paul
+     * @param patchs Vue sur les patchs.
+     * @param poids  Poids de chaque patch (positifs).
+     * @return Un objet ResultatMoyCov contenant le vecteur moyen et la matrice de covariance pondérés.
+     */
+    private ResultatMoyCov moyCovPondere(MatricePatchs patchs, double[] poids) {
+        int s2 = patchs.getDimension();
+        int M = patchs.getNbPatchs();
+        double[] tampon = new double[TacheMoyCov.TAILLE_BLOC * s2];
+
+        double[] moyenne = new double[s2];
+        double total = 0;
+        for (int k = 0; k < M; k++) {
+            patchs.copierPatch(k, tampon, 0);
             for (int j = 0; j < s2; j++) {
-                centeredData.setEntry(i, j, centre.getValeur(j));
+                moyenne[j] += poids[k] * tampon[j];
             }
+            total += poids[k];
         }
-        
-        // Calcul optimisé de la covariance avec Apache Commons Math
-        RealMatrix covMatrix = centeredData.transpose().multiply(centeredData);
-        covMatrix = covMatrix.scalarMultiply(1.0 / M);
-        
-        // Conversion du résultat vers Matrice
-        Matrice gamma = new Matrice(s2, s2);
-        for (int i = 0; i < s2; i++) {
-            for (int j = 0; j < s2; j++) {
-                gamma.setValeur(i, j, covMatrix.getEntry(i, j));
+        for (int j = 0; j < s2; j++) {
+            moyenne[j] /= total;
+        }
+
+        double[] m2 = new double[NoyauCovariance.tailleCompacte(s2)];
+        for (int debut = 0; debut < M; debut += TacheMoyCov.TAILLE_BLOC) {
+            int nb = Math.min(TacheMoyCov.TAILLE_BLOC, M - debut);
+            for (int b = 0; b < nb; b++) {
+                int ligne = b * s2;
+                double racine = Math.sqrt(poids[debut + b]);
+                patchs.copierPatch(debut + b, tampon, ligne);
+                for (int j = 0; j < s2; j++) {
+                    tampon[ligne + j] = (tampon[ligne + j] - moyenne[j]) * racine;
+                }
             }
+            NoyauCovariance.ajouterProduitSymetrique(tampon, nb, s2, m2);
         }
+        return new ResultatMoyCov(new Vecteur(moyenne), new Matrice(NoyauCovariance.deplier(m2, s2, 1.0 / total)));
+    }
 
-        return new ResultatMoyCov(mV, gamma, vc);
+    /**
+     * @brief Estime l'erreur de la base calculée sur un échantillon, par rapport à la base de tous les patchs. Deux
+     * demi-échantillons indépendants sont tirés avec le même critère (moitié de la fraction, graines distinctes) ; une
+     * ACP est calculée sur chacun, et l'écart entre leurs bases est mesuré par ecartBases. La variance d'une estimation
+     * sur h patchs tirés parmi N sans remise décroît comme 1/h − 1/N : les deux demi-échantillons s'écartent entre eux
+     * comme √(1/h₁ + 1/h₂ − 2/N), l'échantillon complet de n patchs s'écarte de la base exacte comme √(1/n − 1/N), et
+     * l'écart mesuré est ramené à cette échelle (N infini pour le tirage par variance, qui est avec remise).
+     * @author Paul
+     * @param patchs          Vue sur les patchs de l'image.
+     * @param echantillonnage Critère d'échantillonnage.
+     * @param sigma           Écart-type du bruit.
+     * @return Erreur relative estimée de la base (0 : base exacte ; 0,1 : écart de 10 %).
+     */
+    public double erreurBase(MatricePatchs patchs, Echantillonnage echantillonnage, double sigma) {
+        int nbPatchs = patchs.getNbPatchs();
+        int taille = echantillonnage.taille(nbPatchs, patchs.getDimension());
+        boolean avecRemise = echantillonnage.getType() == Echantillonnage.Type.VARIANCE;
+        double inverseTotal = avecRemise ? 0 : 1.0 / nbPatchs;
+        if (!avecRemise && taille == nbPatchs) {
+            return 0;
+        }
+        Echantillonnage moitie = echantillonnage.avecFraction(echantillonnage.getFraction() / 2);
+        Random graines = new Random(echantillonnage.getGraine());
+        Echantillonnage.Echantillon premier = moitie.tirer(patchs, new Random(graines.nextLong()));
+        Echantillonnage.Echantillon second = moitie.tirer(patchs, new Random(graines.nextLong()));
+        int h1 = premier.patchs.getNbPatchs();
+        int h2 = second.patchs.getNbPatchs();
+        if (h1 < 2 || h2 < 2) {
+            return 0;
+        }
+        double ecart = ecartBases(acp(moyCov(premier)), acp(moyCov(second)), sigma);
+        return ecart * Math.sqrt((1.0 / taille - inverseTotal) / (1.0 / h1 + 1.0 / h2 - 2 * inverseTotal));
+    }
+
+    /**
+     * @brief Mesure l'écart relatif entre deux bases d'ACP, pondéré par l'énergie du signal : chaque base définit
+     * la covariance du signal S = U · diag(max(λ − σ², 0)) · Uᵀ (la part de chaque composante qui dépasse le bruit),
+     * et l'écart vaut ‖S_A − S_B‖ / √(‖S_A‖ · ‖S_B‖) (normes de Frobenius). Les composantes noyées dans le bruit ne
+     * comptent pas, et deux composantes de valeurs propres voisines peuvent s'échanger sans pénalité.
+     * @author Paul
+     * @param a     Première base.
+     * @param b     Seconde base, de même dimension.
+     * @param sigma Écart-type du bruit.
+     * @return Écart relatif (0 : mêmes bases), ou 0 si aucune composante ne dépasse le bruit.
+     */
+    public static double ecartBases(ResultatACP a, ResultatACP b, double sigma) {
+        double[][] signalA = covarianceSignal(a, sigma);
+        double[][] signalB = covarianceSignal(b, sigma);
+        double normeA = 0;
+        double normeB = 0;
+        double ecart = 0;
+        for (int i = 0; i < signalA.length; i++) {
+            for (int j = 0; j < signalA.length; j++) {
+                normeA += signalA[i][j] * signalA[i][j];
+                normeB += signalB[i][j] * signalB[i][j];
+                double difference = signalA[i][j] - signalB[i][j];
+                ecart += difference * difference;
+            }
+        }
+        double produit = Math.sqrt(normeA) * Math.sqrt(normeB);
+        return produit > 0 ? Math.sqrt(ecart / produit) : 0;
+    }
+
+    /**
+     * @brief Calcule la covariance du signal d'une base : U · diag(max(λ − σ², 0)) · Uᵀ.
+     * @author Paul
+     * @param base  Base d'ACP (vecteurs propres en colonnes).
+     * @param sigma Écart-type du bruit.
+     * @return Matrice s² × s².
+     */
+    private static double[][] covarianceSignal(ResultatACP base, double sigma) {
+        Matrice u = base.getVecteursPropres();
+        double[] valeurs = base.getValeursPropres();
+        int s2 = u.getNbLignes();
+        double[][] signal = new double[s2][s2];
+        for (int c = 0; c < u.getNbColonnes(); c++) {
+            double poids = valeurs[c] - sigma * sigma;
+            if (poids <= 0) {
+                continue;
+            }
+            double[] colonne = new double[s2];
+            for (int i = 0; i < s2; i++) {
+                colonne[i] = u.getValeur(i, c);
+            }
+            for (int i = 0; i < s2; i++) {
+                double facteur = poids * colonne[i];
+                for (int j = 0; j < s2; j++) {
+                    signal[i][j] += facteur * colonne[j];
+                }
+            }
+        }
+        return signal;
+    }
+
+    /**
+     * @brief Accumule les statistiques des patchs sans les normaliser, pour les combiner avec d'autres images.
+     * @author Paul
+     * @param patchs Vue sur les patchs de l'image.
+     * @return Accumulateur contenant le nombre de patchs, leur moyenne et la somme des produits centrés.
+     */
+    public AccumulateurMoyCov accumuler(MatricePatchs patchs) {
+        // Accumulation par blocs en parallèle, combinée par réduction deux à deux (mémoire en O(s²))
+        return pool.invoke(new TacheMoyCov(patchs));
     }
 
     /**
@@ -91,7 +269,16 @@ public class ProcesseurACP {
      * @return Un objet ResultatACP contenant les valeurs propres, les vecteurs propres et le vecteur moyen.
      */
     public ResultatACP acp(ResultatVecteur v) {
-    	ResultatMoyCov res = moyCov(v);
+        return acp(moyCov(v));
+    }
+
+    /**
+     * @brief Effectue l'Analyse en Composantes Principales à partir de statistiques déjà calculées.
+     * @author Lucas & Paul
+     * @param res Vecteur moyen et matrice de covariance des patchs.
+     * @return Un objet ResultatACP contenant les valeurs propres, les vecteurs propres et le vecteur moyen.
+     */
+    public ResultatACP acp(ResultatMoyCov res) {
         Vecteur mV = res.getVecteurMoyen();
         Matrice gamma = res.getMatriceCovariance();
 
@@ -112,23 +299,14 @@ public class ProcesseurACP {
         double[] valeursPropres = eig.getRealEigenvalues();
         RealMatrix vecteursPropresMatrix = eig.getV();
         
-        // Tri des valeurs propres et réorganisation des vecteurs propres
+        // Tri des valeurs propres par ordre décroissant et réorganisation des vecteurs propres
         double[][] vecteursPropresData = new double[s2][s2];
-        // Créer des paires (valeur propre, indice) pour le tri
-        ArrayList<Pair> pairs = new ArrayList<>();
-        for (int i = 0; i < s2; i++) {
-            pairs.add(new Pair(valeursPropres[i], i));
-        }
-        
-        // Tri par ordre décroissant des valeurs propres
-        pairs.sort((a, b) -> -Double.compare((double)a.premier, (double)b.premier));
-        // Réorganisation des données
+        int[] ordre = SolveurPropreTronque.ordreDecroissant(valeursPropres);
         double[] sortedEigenValues = new double[s2];
         for (int i = 0; i < s2; i++) {
-            Pair pair = pairs.get(i);
-            int originalIndex = (int)pair.deuxieme;
-            sortedEigenValues[i] = (double)pair.premier;
-            
+            int originalIndex = ordre[i];
+            sortedEigenValues[i] = valeursPropres[originalIndex];
+
             // Copie du vecteur propre dans l'ordre trié
             for (int j = 0; j < s2; j++) {
                 vecteursPropresData[j][i] = vecteursPropresMatrix.getEntry(j, originalIndex);
@@ -139,6 +317,89 @@ public class ProcesseurACP {
         return new ResultatACP(sortedEigenValues, vecteursPropres, mV);
     }
 
+    /**
+     * @brief Effectue une ACP tronquée : seuls les couples propres dominants retenus par le critère sont calculés,
+     * par la méthode de Lanczos.
+     * @author Paul
+     * @param res        Vecteur moyen et matrice de covariance des patchs.
+     * @param troncature Critère de sélection des composantes (null pour l'ACP complète).
+     * @return Un objet ResultatACP ne contenant que les composantes retenues (vecteurs propres en colonnes).
+     */
+    public ResultatACP acp(ResultatMoyCov res, Troncature troncature) {
+        if (troncature == null) {
+            return acp(res);
+        }
+        Vecteur mV = res.getVecteurMoyen();
+        Matrice gamma = res.getMatriceCovariance();
+        int s2 = mV.taille();
+
+        double[][] gammaData = new double[s2][s2];
+        double trace = 0;
+        for (int i = 0; i < s2; i++) {
+            for (int j = 0; j < s2; j++) {
+                gammaData[i][j] = gamma.getValeur(i, j);
+            }
+            trace += gammaData[i][i];
+        }
+
+        SolveurPropreTronque solveur = new SolveurPropreTronque(gammaData);
+        int retenues = solveur.calculer(troncature, trace);
+        return construireResultat(solveur.getValeurs(), solveur.getVecteurs(), retenues, mV);
+    }
+
+    /**
+     * @brief Tronque une base d'ACP déjà calculée (par exemple chargée depuis une bibliothèque) selon un critère.
+     * @author Paul
+     * @param base       Base complète, valeurs propres par ordre décroissant.
+     * @param troncature Critère de sélection des composantes (null : base inchangée).
+     * @return Base ne contenant que les composantes retenues.
+     */
+    public ResultatACP tronquer(ResultatACP base, Troncature troncature) {
+        if (troncature == null) {
+            return base;
+        }
+        double[] valeurs = base.getValeursPropres();
+        double trace = 0;
+        for (double v : valeurs) {
+            trace += v;
+        }
+        int retenues = troncature.nombreRetenu(valeurs, trace);
+        if (retenues <= 0 || retenues >= valeurs.length) {
+            return base;
+        }
+        Matrice u = base.getVecteursPropres();
+        double[][] vecteurs = new double[retenues][];
+        for (int c = 0; c < retenues; c++) {
+            vecteurs[c] = new double[u.getNbLignes()];
+            for (int j = 0; j < u.getNbLignes(); j++) {
+                vecteurs[c][j] = u.getValeur(j, c);
+            }
+        }
+        return construireResultat(valeurs, vecteurs, retenues, base.getVecteurMoyen());
+    }
+
+    /**
+     * @brief Construit un ResultatACP à partir des premiers couples propres.
+     * @author Paul
+     * @param valeurs  Valeurs propres par ordre décroissant.
+     * @param vecteurs Vecteurs propres correspondants.
+     * @param nombre   Nombre de composantes conservées.
+     * @param mV       Vecteur moyen.
+     * @return Résultat de l'ACP tronquée.
+     */
+    private ResultatACP construireResultat(double[] valeurs, double[][] vecteurs, int nombre, Vecteur mV) {
+        int s2 = mV.taille();
+        double[] valeursRetenues = new double[nombre];
+        double[][] u = new double[s2][nombre];
+        for (int c = 0; c < nombre; c++) {
+            valeursRetenues[c] = valeurs[c];
+            for (int j = 0; j < s2; j++) {
+                u[j][c] = vecteurs[c][j];
+            }
+        }
+        return new ResultatACP(valeursRetenues, new Matrice(u), mV);
+    }
+
 	/**
 	* @brief Projette les vecteurs centrés sur les vecteurs propres pour obtenir les coefficients projetés.
 	* @author Lucas
@@ -148,57 +409,73 @@ public class ProcesseurACP {
 	*/
 	public ResultatVecteur proj(ResultatVecteur U, ResultatVecteur Vc) {
 		int s2 = Vc.getVecteurs().get(0).taille();
-	    int M = Vc.taille();
-	    
-	    double[][] uData = new double[s2][s2];
-	    double[][] vcData = new double[M][s2];
-	    
-	    for (int i = 0; i < s2; i++) {
-	        Vecteur ui = U.getVecteurs().get(i);
-	        for (int j = 0; j < s2; j++) {
-	            uData[j][i] = ui.getValeur(j);
-	        }
-	    }
-	    
-	    for (int i = 0; i < M; i++) {
-	        Vecteur vci = Vc.getVecteurs().get(i);
-	        for (int j = 0; j < s2; j++) {
-	            vcData[i][j] = vci.getValeur(j);
-	        }
-	    }
-	    
-	    RealMatrix uMatrix = new Array2DRowRealMatrix(uData);
-	    RealMatrix vcMatrix = new Array2DRowRealMatrix(vcData);
-	    
-	    RealMatrix projections = vcMatrix.multiply(uMatrix);
-	    
-	    ResultatVecteur alpha = new ResultatVecteur();
-	    for (int k = 0; k < M; k++) {
-	        Vecteur alpha_k = new Vecteur(s2);
-	        for (int i = 0; i < s2; i++) {
-	            alpha_k.setValeur(i, projections.getEntry(k, i));
-	        }
-	        alpha.ajouterVecteur(alpha_k, Vc.getPositions().get(k));
-	    }
-	    
-	    return alpha;
+		int nbAxes = U.taille();
+		int M = Vc.taille();
+
+		// Uᵀ : un vecteur propre par ligne, soit la matrice B d'un produit A·Bᵀ
+		double[] uT = new double[nbAxes * s2];
+		for (int i = 0; i < nbAxes; i++) {
+			System.arraycopy(U.getVecteurs().get(i).getValeurs(), 0, uT, i * s2, s2);
+		}
+
+		ResultatVecteur alpha = new ResultatVecteur();
+		double[] bloc = new double[BLOC_PATCHS * s2];
+		double[] coefficients = new double[BLOC_PATCHS * nbAxes];
+		for (int debut = 0; debut < M; debut += BLOC_PATCHS) {
+			int nb = Math.min(BLOC_PATCHS, M - debut);
+			for (int b = 0; b < nb; b++) {
+				System.arraycopy(Vc.getVecteurs().get(debut + b).getValeurs(), 0, bloc, b * s2, s2);
+			}
+			Arrays.fill(coefficients, 0, nb * nbAxes, 0.0);
+			NoyauGEMM.multiplierTransposee(bloc, nb, s2, uT, nbAxes, coefficients);
+			for (int b = 0; b < nb; b++) {
+				alpha.ajouterVecteur(new Vecteur(Arrays.copyOfRange(coefficients, b * nbAxes, (b + 1) * nbAxes)),
+						Vc.getPositions().get(debut + b));
+			}
+		}
+
+		return alpha;
 	}
 	
-    /**
-     * @class Pair
-     * @brief Classe utilitaire pour le tri des valeurs propres
-     * @author Lucas 
-     */
-    private class Pair {
-        private Object premier;
-        private Object deuxieme;
-        
-        public Pair(Object premier, Object deuxieme) {
-            this.premier = premier;
-            this.deuxieme = deuxieme;
-        }
-    }
-    
+	/**
+	* @brief Projette les patchs centrés sur les vecteurs propres, en lisant chaque patch directement dans l'image.
+	* @author Paul
+	* @param U Matrice des vecteurs propres (colonnes).
+	* @param patchs Vue sur les patchs de l'image.
+	* @param mV Vecteur moyen calculé lors de l'ACP.
+	* @return Liste des vecteurs alpha correspondant aux coefficients projetés, avec la position de chaque patch.
+	*/
+	public ResultatVecteur proj(Matrice U, MatricePatchs patchs, Vecteur mV) {
+		int s2 = patchs.getDimension();
+		int nbAxes = U.getNbColonnes();
+		int M = patchs.getNbPatchs();
+		double[] u = U.versTableau();
+		double[] moyenne = mV.getValeurs();
+
+		ResultatVecteur alpha = new ResultatVecteur();
+		double[] centres = new double[BLOC_PATCHS * s2];
+		double[] coefficients = new double[BLOC_PATCHS * nbAxes];
+		for (int debut = 0; debut < M; debut += BLOC_PATCHS) {
+			int nb = Math.min(BLOC_PATCHS, M - debut);
+			for (int b = 0; b < nb; b++) {
+				int ligne = b * s2;
+				patchs.copierPatch(debut + b, centres, ligne);
+				for (int j = 0; j < s2; j++) {
+					centres[ligne + j] -= moyenne[j];
+				}
+			}
+			Arrays.fill(coefficients, 0, nb * nbAxes, 0.0);
+			NoyauGEMM.multiplier(centres, nb, s2, u, nbAxes, coefficients);
+			for (int b = 0; b < nb; b++) {
+				int k = debut + b;
+				alpha.ajouterVecteur(new Vecteur(Arrays.copyOfRange(coefficients, b * nbAxes, (b + 1) * nbAxes)),
+						new Position(patchs.getLigne(k), patchs.getColonne(k)));
+			}
+		}
+
+		return alpha;
+	}
+
     /**
      * @brief Reconstruit les vecteurs débruités dans l'espace original à partir des coefficients seuillés.
      * @author Emma
@@ -209,19 +486,31 @@ public class ProcesseurACP {
      */
     public ResultatVecteur reconstructionDepuisCoefficients(ResultatVecteur alphaSeuil, Matrice U, Vecteur mV) {
         ResultatVecteur resultatReconstruit = new ResultatVecteur();
-        int s2 = U.getNbColonnes();
-        for (int k = 0; k < alphaSeuil.taille(); k++) {
-            double[] alpha_k = alphaSeuil.getVecteurs().get(k).getValeurs();
-            double[] reconstruit = new double[s2];
+        int s2 = U.getNbLignes();
+        int nbAxes = U.getNbColonnes();
+        int M = alphaSeuil.taille();
+        double[] u = U.versTableau();
+        double[] moyenne = mV.getValeurs();
 
-            for (int i = 0; i < s2; i++) {
-                double somme = 0;
-                for (int j = 0; j < s2; j++) {
-                    somme += U.getValeur(i, j) * alpha_k[j];
+        double[] coefficients = new double[BLOC_PATCHS * nbAxes];
+        double[] reconstruits = new double[BLOC_PATCHS * s2];
+        for (int debut = 0; debut < M; debut += BLOC_PATCHS) {
+            int nb = Math.min(BLOC_PATCHS, M - debut);
+            for (int b = 0; b < nb; b++) {
+                System.arraycopy(alphaSeuil.getVecteurs().get(debut + b).getValeurs(), 0, coefficients, b * nbAxes,
+                        nbAxes);
+            }
+            // reconstruits = coefficients · Uᵀ, U étant lue ligne par ligne sans transposition
+            Arrays.fill(reconstruits, 0, nb * s2, 0.0);
+            NoyauGEMM.multiplierTransposee(coefficients, nb, nbAxes, u, s2, reconstruits);
+            for (int b = 0; b < nb; b++) {
+                double[] reconstruit = new double[s2];
+                int ligne = b * s2;
+                for (int i = 0; i < s2; i++) {
+                    reconstruit[i] = reconstruits[ligne + i] + moyenne[i];
                 }
-                reconstruit[i] = somme + mV.getValeur(i);
+                resultatReconstruit.ajouterVecteur(new Vecteur(reconstruit), alphaSeuil.getPositions().get(debut + b));
             }
-            resultatReconstruit.ajouterVecteur(new Vecteur(reconstruit), alphaSeuil.getPositions().get(k));
         }
 
         return resultatReconstruit;
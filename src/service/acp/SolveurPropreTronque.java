@@ -0,0 +1,278 @@
+/**
+ * @file SolveurPropreTronque.java
+ * @brief Calcul des couples propres dominants d'une matrice symétrique par la méthode de Lanczos.
+ */
+
+package service.acp;
+
+import java.util.Random;
+
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * @class SolveurPropreTronque
+ * @brief Méthode de Lanczos avec réorthogonalisation complète : la base de Krylov est étendue jusqu'à ce que les
+ * couples propres dominants demandés par le critère de troncature aient convergé. Chaque pas coûte un produit
+ * matrice-vecteur en O(n²), au lieu de la décomposition complète en O(n³).
+ * @author Paul
+ */
+public class SolveurPropreTronque {
+
+    //Tolérance relative sur les résidus ‖Aq − λq‖ / λ₁
+    static final double TOLERANCE = 1e-10;
+    //Nombre de pas de Lanczos entre deux tests de convergence
+    static final int PAS_TEST = 8;
+    //Graine du générateur du vecteur de départ (résultat reproductible)
+    static final long GRAINE = 42L;
+
+    //Matrice symétrique n×n
+    private final double[][] a;
+    //Dimension
+    private final int n;
+    //Valeurs propres retenues lors du dernier calcul, par ordre décroissant
+    private double[] valeurs;
+    //Vecteurs propres correspondants (un vecteur de dimension n par case)
+    private double[][] vecteurs;
+    //Nombre de produits matrice-vecteur effectués lors du dernier calcul
+    private int iterations;
+
+    /**
+     * @brief Constructeur du solveur pour une matrice symétrique donnée.
+     * @author Paul
+     * @param a Matrice symétrique n×n (non copiée, non modifiée).
+     */
+    public SolveurPropreTronque(double[][] a) {
+        this.a = a;
+        this.n = a.length;
+    }
+
+    /**
+     * @brief Calcule les couples propres dominants retenus par un critère de troncature.
+     * @author Paul
+     * @param troncature Critère de sélection des composantes.
+     * @param trace      Trace de la matrice (énergie totale, utilisée par le critère d'énergie).
+     * @return Nombre de couples propres retenus.
+     */
+    public int calculer(Troncature troncature, double trace) {
+        Random alea = new Random(GRAINE);
+        double[][] q = new double[n][];
+        double[] alpha = new double[n];
+        double[] beta = new double[n];
+
+        q[0] = vecteurAleatoire(alea);
+        normaliser(q[0]);
+        double[] w = new double[n];
+        iterations = 0;
+
+        for (int m = 1; m <= n; m++) {
+            int j = m - 1;
+            multiplier(q[j], w);
+            iterations++;
+            alpha[j] = produitScalaire(q[j], w);
+
+            // Réorthogonalisation complète (deux passes de Gram-Schmidt)
+            for (int passe = 0; passe < 2; passe++) {
+                for (int i = 0; i <= j; i++) {
+                    double s = produitScalaire(q[i], w);
+                    for (int l = 0; l < n; l++) {
+                        w[l] -= s * q[i][l];
+                    }
+                }
+            }
+            beta[j] = Math.sqrt(produitScalaire(w, w));
+
+            boolean dernier = m == n;
+            if (dernier || m % PAS_TEST == 0 || beta[j] <= TOLERANCE * Math.abs(alpha[0])) {
+                int retenues = extraire(q, alpha, beta, m, troncature, trace, dernier);
+                if (retenues > 0) {
+                    return retenues;
+                }
+            }
+            if (dernier) {
+                break;
+            }
+
+            if (beta[j] <= TOLERANCE * Math.abs(alpha[0])) {
+                // Sous-espace invariant atteint : redémarrage sur une direction orthogonale
+                beta[j] = 0;
+                w = vecteurAleatoire(alea);
+                for (int passe = 0; passe < 2; passe++) {
+                    for (int i = 0; i <= j; i++) {
+                        double s = produitScalaire(q[i], w);
+                        for (int l = 0; l < n; l++) {
+                            w[l] -= s * q[i][l];
+                        }
+                    }
+                }
+                q[m] = w;
+                normaliser(q[m]);
+            } else {
+                q[m] = new double[n];
+                for (int l = 0; l < n; l++) {
+                    q[m][l] = w[l] / beta[j];
+                }
+            }
+            w = new double[n];
+        }
+        return valeurs.length;
+    }
+
+    /**
+     * @brief Calcule les couples de Ritz de la base courante et retient ceux demandés s'ils ont convergé.
+     * @author Paul
+     * @param q          Base de Lanczos.
+     * @param alpha      Diagonale de la matrice tridiagonale.
+     * @param beta       Sous-diagonale de la matrice tridiagonale.
+     * @param m          Taille de la base.
+     * @param troncature Critère de sélection.
+     * @param trace      Trace de la matrice.
+     * @param complet    Vrai si la base couvre tout l'espace (résultat exact).
+     * @return Nombre de couples retenus, ou -1 s'il faut étendre la base.
+     */
+    private int extraire(double[][] q, double[] alpha, double[] beta, int m, Troncature troncature, double trace,
+            boolean complet) {
+        double[] diagonale = new double[m];
+        double[] sousDiagonale = new double[m - 1];
+        System.arraycopy(alpha, 0, diagonale, 0, m);
+        System.arraycopy(beta, 0, sousDiagonale, 0, m - 1);
+        EigenDecomposition eig = new EigenDecomposition(diagonale, sousDiagonale);
+        double[] theta = eig.getRealEigenvalues();
+        RealMatrix s = eig.getV();
+        int[] ordre = ordreDecroissant(theta);
+
+        // Préfixe des valeurs de Ritz dominantes ayant convergé (résidu β_m·|s_m,i|)
+        double echelle = Math.max(Math.abs(theta[ordre[0]]), Double.MIN_NORMAL);
+        int convergees = 0;
+        while (convergees < m && (complet
+                || Math.abs(beta[m - 1] * s.getEntry(m - 1, ordre[convergees])) <= TOLERANCE * echelle)) {
+            convergees++;
+        }
+        double[] connues = new double[convergees];
+        for (int c = 0; c < convergees; c++) {
+            connues[c] = theta[ordre[c]];
+        }
+        int retenues = troncature.nombreRetenu(connues, trace);
+        if (retenues <= 0) {
+            if (!complet) {
+                return -1;
+            }
+            retenues = m;
+        }
+
+        // Vecteurs de Ritz : y_c = Q·s_c
+        valeurs = new double[retenues];
+        vecteurs = new double[retenues][n];
+        for (int c = 0; c < retenues; c++) {
+            valeurs[c] = connues[c];
+            for (int i = 0; i < m; i++) {
+                double coef = s.getEntry(i, ordre[c]);
+                for (int l = 0; l < n; l++) {
+                    vecteurs[c][l] += coef * q[i][l];
+                }
+            }
+        }
+        return retenues;
+    }
+
+    /**
+     * @brief Retourne les valeurs propres retenues lors du dernier calcul.
+     * @author Paul
+     * @return Valeurs propres par ordre décroissant.
+     */
+    public double[] getValeurs() {
+        return valeurs;
+    }
+
+    /**
+     * @brief Retourne les vecteurs propres retenus lors du dernier calcul.
+     * @author Paul
+     * @return Vecteurs propres (un vecteur de dimension n par case).
+     */
+    public double[][] getVecteurs() {
+        return vecteurs;
+    }
+
+    /**
+     * @brief Retourne le nombre de produits matrice-vecteur effectués lors du dernier calcul.
+     * @author Paul
+     * @return Nombre d'itérations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @brief Calcule y = A·x.
+     * @author Paul
+     * @param x Vecteur d'entrée.
+     * @param y Vecteur de sortie.
+     */
+    private void multiplier(double[] x, double[] y) {
+        for (int i = 0; i < n; i++) {
+            y[i] = produitScalaire(a[i], x);
+        }
+    }
+
+    /**
+     * @brief Produit scalaire de deux vecteurs de dimension n.
+     * @author Paul
+     * @param x Premier vecteur.
+     * @param y Second vecteur.
+     * @return Produit scalaire.
+     */
+    private double produitScalaire(double[] x, double[] y) {
+        double s = 0;
+        for (int i = 0; i < n; i++) {
+            s += x[i] * y[i];
+        }
+        return s;
+    }
+
+    /**
+     * @brief Normalise un vecteur en place.
+     * @author Paul
+     * @param x Vecteur à normaliser.
+     */
+    private void normaliser(double[] x) {
+        double norme = Math.sqrt(produitScalaire(x, x));
+        for (int i = 0; i < n; i++) {
+            x[i] /= norme;
+        }
+    }
+
+    /**
+     * @brief Tire un vecteur gaussien de dimension n.
+     * @author Paul
+     * @param alea Générateur.
+     * @return Vecteur aléatoire.
+     */
+    private double[] vecteurAleatoire(Random alea) {
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = alea.nextGaussian();
+        }
+        return x;
+    }
+
+    /**
+     * @brief Calcule la permutation triant des valeurs par ordre décroissant (tri stable par insertion, sans
+     * conversion en objets).
+     * @author Paul
+     * @param valeurs Valeurs à trier (non modifiées).
+     * @return Indices des valeurs, de la plus grande à la plus petite.
+     */
+    static int[] ordreDecroissant(double[] valeurs) {
+        int[] ordre = new int[valeurs.length];
+        for (int i = 0; i < ordre.length; i++) {
+            int indice = i;
+            int j = i - 1;
+            while (j >= 0 && Double.compare(valeurs[ordre[j]], valeurs[indice]) < 0) {
+                ordre[j + 1] = ordre[j];
+                j--;
+            }
+            ordre[j + 1] = indice;
+        }
+        return ordre;
+    }
+}
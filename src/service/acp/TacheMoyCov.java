@@ -0,0 +1,86 @@
+/**
+ * @file TacheMoyCov.java
+ * @brief Tâche fork/join accumulant moyenne et covariance sur une plage de blocs de patchs.
+ */
+
+package service.acp;
+
+import java.util.concurrent.RecursiveTask;
+
+import model.patch.MatricePatchs;
+
+/**
+ * @class TacheMoyCov
+ * @brief Découpe la plage de blocs en deux moitiés jusqu'au grain fixé, accumule chaque feuille séquentiellement
+ * puis combine les résultats par réduction deux à deux. Le découpage ne dépend que du nombre de patchs, le
+ * résultat est donc identique quel que soit le nombre de threads.
+ * @author Paul
+ */
+class TacheMoyCov extends RecursiveTask<AccumulateurMoyCov> {
+
+    private static final long serialVersionUID = 1L;
+
+    //Nombre de patchs par bloc (le tampon d'un bloc tient en cache pour les petites tailles de patchs)
+    static final int TAILLE_BLOC = 1024;
+    //Nombre maximal de feuilles de l'arbre de réduction
+    static final int NB_FEUILLES_MAX = 64;
+
+    //Vue sur les patchs
+    private final MatricePatchs patchs;
+    //Premier bloc traité (inclus)
+    private final int debut;
+    //Dernier bloc traité (exclu)
+    private final int fin;
+    //Nombre de blocs par feuille
+    private final int grain;
+
+    /**
+     * @brief Constructeur de la tâche racine couvrant tous les patchs.
+     * @author Paul
+     * @param patchs Vue sur les patchs.
+     */
+    TacheMoyCov(MatricePatchs patchs) {
+        this(patchs, 0, nbBlocs(patchs), Math.max(1, (nbBlocs(patchs) + NB_FEUILLES_MAX - 1) / NB_FEUILLES_MAX));
+    }
+
+    private TacheMoyCov(MatricePatchs patchs, int debut, int fin, int grain) {
+        this.patchs = patchs;
+        this.debut = debut;
+        this.fin = fin;
+        this.grain = grain;
+    }
+
+    /**
+     * @brief Calcule le nombre de blocs couvrant les patchs.
+     * @author Paul
+     * @param patchs Vue sur les patchs.
+     * @return Nombre de blocs.
+     */
+    private static int nbBlocs(MatricePatchs patchs) {
+        return (patchs.getNbPatchs() + TAILLE_BLOC - 1) / TAILLE_BLOC;
+    }
+
+    @Override
+    protected AccumulateurMoyCov compute() {
+        if (fin - debut <= grain) {
+            int s2 = patchs.getDimension();
+            AccumulateurMoyCov acc = new AccumulateurMoyCov(s2);
+            double[] tampon = new double[TAILLE_BLOC * s2];
+            for (int b = debut; b < fin; b++) {
+                int premier = b * TAILLE_BLOC;
+                int dernier = Math.min(patchs.getNbPatchs(), premier + TAILLE_BLOC);
+                acc.ajouterBloc(patchs, premier, dernier, tampon);
+            }
+            return acc;
+        }
+
+        int milieu = (debut + fin) >>> 1;
+        TacheMoyCov gauche = new TacheMoyCov(patchs, debut, milieu, grain);
+        TacheMoyCov droite = new TacheMoyCov(patchs, milieu, fin, grain);
+        gauche.fork();
+        AccumulateurMoyCov resDroite = droite.compute();
+        AccumulateurMoyCov resGauche = gauche.join();
+        resGauche.fusionner(resDroite);
+        return resGauche;
+    }
+}
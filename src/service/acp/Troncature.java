@@ -0,0 +1,132 @@
+/**
+ * @file Troncature.java
+ * @brief Critère de sélection des composantes principales conservées par l'ACP.
+ */
+
+package service.acp;
+
+/**
+ * @class Troncature
+ * @brief Indique combien de couples propres dominants calculer : un nombre fixe, la part d'énergie (variance)
+ * expliquée à atteindre, ou toutes les composantes dont la valeur propre dépasse la variance du bruit σ².
+ * @author Paul
+ */
+public class Troncature {
+
+    /**
+     * @enum Type
+     * @brief Nature du critère de troncature.
+     */
+    public enum Type {
+        NOMBRE, ENERGIE, BRUIT
+    }
+
+    //Nature du critère
+    private final Type type;
+    //Valeur du critère : nombre de composantes, fraction d'énergie ou variance du bruit
+    private final double valeur;
+
+    private Troncature(Type type, double valeur) {
+        this.type = type;
+        this.valeur = valeur;
+    }
+
+    /**
+     * @brief Conserve un nombre fixe de composantes.
+     * @author Paul
+     * @param k Nombre de composantes (au moins 1).
+     * @return Critère de troncature.
+     * @throws IllegalArgumentException Si k est inférieur à 1.
+     */
+    public static Troncature nombre(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Le nombre de composantes doit être au moins 1");
+        }
+        return new Troncature(Type.NOMBRE, k);
+    }
+
+    /**
+     * @brief Conserve les composantes dominantes jusqu'à expliquer une fraction de l'énergie totale.
+     * @author Paul
+     * @param fraction Fraction de la variance totale, dans ]0, 1].
+     * @return Critère de troncature.
+     * @throws IllegalArgumentException Si la fraction n'est pas dans ]0, 1].
+     */
+    public static Troncature energie(double fraction) {
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("La fraction d'énergie doit être dans ]0, 1]");
+        }
+        return new Troncature(Type.ENERGIE, fraction);
+    }
+
+    /**
+     * @brief Conserve les composantes dont la variance dépasse celle du bruit (λ > σ²).
+     * @author Paul
+     * @param sigma Écart-type du bruit.
+     * @return Critère de troncature.
+     */
+    public static Troncature bruit(double sigma) {
+        return new Troncature(Type.BRUIT, sigma * sigma);
+    }
+
+    /**
+     * @brief Retourne la nature du critère.
+     * @author Paul
+     * @return Type du critère.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @brief Retourne la valeur du critère.
+     * @author Paul
+     * @return Nombre de composantes, fraction d'énergie ou variance du bruit selon le type.
+     */
+    public double getValeur() {
+        return valeur;
+    }
+
+    /**
+     * @brief Détermine le nombre de composantes à conserver parmi des valeurs propres triées par ordre décroissant.
+     * @author Paul
+     * @param valeursPropres Valeurs propres dominantes connues, par ordre décroissant.
+     * @param trace          Trace de la matrice de covariance (énergie totale).
+     * @return Nombre de composantes retenues, ou -1 si les valeurs connues ne suffisent pas à conclure.
+     */
+    int nombreRetenu(double[] valeursPropres, double trace) {
+        int connues = valeursPropres.length;
+        switch (type) {
+            case NOMBRE:
+                return connues >= (int) valeur ? (int) valeur : -1;
+            case ENERGIE:
+                double cumul = 0;
+                for (int i = 0; i < connues; i++) {
+                    cumul += valeursPropres[i];
+                    if (cumul >= valeur * trace) {
+                        return i + 1;
+                    }
+                }
+                return -1;
+            default:
+                for (int i = 0; i < connues; i++) {
+                    if (valeursPropres[i] <= valeur) {
+                        return Math.max(1, i);
+                    }
+                }
+                return -1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case NOMBRE:
+                return (int) valeur + " composantes";
+            case ENERGIE:
+                return (valeur * 100) + " % de l'énergie";
+            default:
+                return "λ > σ² = " + valeur;
+        }
+    }
+}
@@ -7,7 +7,6 @@ package service.bruit;
 
 import java.util.Random;
 import model.base.Img;
-import model.base.Pixel;
 
 /**
  * @class BruiteurImage
@@ -25,33 +24,18 @@ public class BruiteurImage {
      */
     public static Img noising(Img x0, double sigma) {
         Random rand = new Random();
-        Pixel[][] xB_pixels = new Pixel[x0.getHauteur()][x0.getLargeur()];
-        
-        if(x0.isEstRGB()) {
-        	for (int i = 0; i < x0.getHauteur(); i++) {
-                for (int j = 0; j < x0.getLargeur(); j++) {
-                    double[] rgb = x0.getPixel(i, j).getValeurs();
-                    double[] valeurBruitees = new double[3];
-                    for(int k = 0; k < 3 ; k++) {
-                        double bruit = rand.nextGaussian() * sigma;
-                        valeurBruitees[k]= rgb[k] + bruit;
-                    }
-
-                    xB_pixels[i][j] = new Pixel(valeurBruitees[0],valeurBruitees[1],valeurBruitees[2]);
-                }
-            }	
-        }else {
-        	for (int i = 0; i < x0.getHauteur(); i++) {
-                for (int j = 0; j < x0.getLargeur(); j++) {
-                    double valeurOriginale = x0.getPixel(i, j).getValeur();
-                    double bruit = rand.nextGaussian() * sigma;
-                    double valeurBruitee = valeurOriginale + bruit;
+        int nbCanaux = x0.getNbCanaux();
+        int nbPixels = x0.getHauteur() * x0.getLargeur();
+        double[][] xB_canaux = new double[nbCanaux][nbPixels];
 
-                    xB_pixels[i][j] = new Pixel(valeurBruitee);
-                }
-            }	
+        // Parcours pixel par pixel : en RGB, les trois composantes d'un pixel reçoivent des tirages consécutifs
+        for (int index = 0; index < nbPixels; index++) {
+            for (int k = 0; k < nbCanaux; k++) {
+                double bruit = rand.nextGaussian() * sigma;
+                xB_canaux[k][index] = x0.getCanal(k)[index] + bruit;
+            }
         }
         
-        return new Img(xB_pixels,x0.isEstRGB());
+        return new Img(xB_canaux, x0.getHauteur(), x0.getLargeur());
     }
 }
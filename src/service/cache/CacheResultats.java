@@ -0,0 +1,467 @@
+/**
+ * @file CacheResultats.java
+ * @brief Cache disque des résultats de débruitage, adressé par le contenu des images et les paramètres, limité en
+ * taille avec éviction des entrées les moins récemment utilisées.
+ */
+
+package service.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import mesure.Journal;
+import model.base.Img;
+import model.qualite.ResultatQualite;
+
+/**
+ * @class CacheResultats
+ * @brief Conserve, pour une clé calculée à partir des pixels d'entrée et de l'ensemble des paramètres, les images
+ * produites (image bruitée, image débruitée) et leurs métriques. Chaque entrée est un dossier nommé par sa clé,
+ * publié par renommage atomique : le cache peut être partagé par la ligne de commande et l'interface graphique.
+ * Au-delà de la taille maximale, les entrées dont le dernier accès est le plus ancien sont supprimées.
+ * @author Paul
+ */
+public final class CacheResultats {
+
+    //Dossier du cache par défaut
+    public static final String DOSSIER_DEFAUT = "data/cache";
+    //Taille maximale par défaut du cache (512 Mo)
+    public static final long TAILLE_MAX_DEFAUT = 512L * 1024 * 1024;
+
+    //Version du format des entrées et des algorithmes : la changer invalide toutes les clés existantes
+    private static final String VERSION = "1";
+    //Fichier des métriques d'une entrée, dont la date de modification sert de date de dernier accès
+    private static final String FICHIER_METRIQUES = "metriques.properties";
+    //Nombre de pixels hachés par paquet
+    private static final int PAQUET_PIXELS = 8192;
+    //Extension des images enregistrées depuis la mémoire (pixels bruts compressés, relus sans perte)
+    private static final String EXTENSION_BRUTE = ".img.gz";
+
+    //Dossier racine du cache
+    private final Path dossier;
+    //Taille maximale du cache, en octets
+    private final long tailleMax;
+
+    /**
+     * @brief Constructeur du cache par défaut (data/cache, 512 Mo).
+     * @author Paul
+     */
+    public CacheResultats() {
+        this(Path.of(DOSSIER_DEFAUT), TAILLE_MAX_DEFAUT);
+    }
+
+    /**
+     * @brief Constructeur du cache.
+     * @author Paul
+     * @param dossier   Dossier racine du cache (créé au premier enregistrement).
+     * @param tailleMax Taille maximale du cache, en octets.
+     * @throws IllegalArgumentException Si la taille maximale est négative.
+     */
+    public CacheResultats(Path dossier, long tailleMax) {
+        if (tailleMax < 0) {
+            throw new IllegalArgumentException("La taille maximale du cache doit être positive");
+        }
+        this.dossier = dossier;
+        this.tailleMax = tailleMax;
+    }
+
+    /**
+     * @class Entree
+     * @brief Entrée trouvée dans le cache : métriques et fichiers des images produites.
+     */
+    public static final class Entree {
+
+        //Dossier de l'entrée
+        private final Path dossier;
+        //Métriques de l'image débruitée
+        private final ResultatQualite qualite;
+
+        private Entree(Path dossier, ResultatQualite qualite) {
+            this.dossier = dossier;
+            this.qualite = qualite;
+        }
+
+        /**
+         * @brief Retourne les métriques de l'image débruitée.
+         * @author Paul
+         * @return MSE et PSNR enregistrés.
+         */
+        public ResultatQualite getQualite() {
+            return qualite;
+        }
+
+        /**
+         * @brief Retourne le fichier d'une image de l'entrée.
+         * @author Paul
+         * @param role Rôle de l'image ("xB", "xR").
+         * @return Chemin du fichier, ou null si l'entrée ne contient pas cette image.
+         * @throws IOException Si le dossier de l'entrée ne peut pas être lu.
+         */
+        public Path getFichier(String role) throws IOException {
+            try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier, role + ".*")) {
+                for (Path fichier : fichiers) {
+                    return fichier;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @brief Charge une image de l'entrée ; une image enregistrée depuis la mémoire est relue au bit près.
+         * @author Paul
+         * @param role Rôle de l'image ("xB", "xR").
+         * @return Image chargée, ou null si l'entrée ne contient pas cette image.
+         * @throws IOException Si l'image ne peut pas être lue.
+         */
+        public Img lireImage(String role) throws IOException {
+            Path fichier = getFichier(role);
+            if (fichier == null) {
+                return null;
+            }
+            return fichier.toString().endsWith(EXTENSION_BRUTE) ? lireBrute(fichier) : new Img(fichier.toString());
+        }
+    }
+
+    /**
+     * @brief Calcule la clé d'un résultat : empreinte SHA-256 des dimensions et des pixels des images d'entrée,
+     * puis des paramètres, dans l'ordre donné.
+     * @author Paul
+     * @param images     Images d'entrée.
+     * @param parametres Paramètres sous la forme "nom=valeur" (mode, taille de patch, taille de fenêtre, sigma,
+     *                   type et fonction de seuillage...).
+     * @return Clé hexadécimale de 64 caractères.
+     */
+    public static String cle(Img[] images, String... parametres) {
+        MessageDigest empreinte = sha256();
+        ByteBuffer tampon = ByteBuffer.allocate(PAQUET_PIXELS * Double.BYTES);
+
+        empreinte.update(("denoize-" + VERSION + "\n").getBytes(StandardCharsets.UTF_8));
+        for (Img image : images) {
+            tampon.clear();
+            tampon.putInt(image.getHauteur()).putInt(image.getLargeur()).putInt(image.getNbCanaux());
+            tampon.put((byte) (image.isEstRGB() ? 1 : 0));
+            empreinte.update(tampon.array(), 0, tampon.position());
+            for (int k = 0; k < image.getNbCanaux(); k++) {
+                double[] canal = image.getCanal(k);
+                for (int debut = 0; debut < canal.length; debut += PAQUET_PIXELS) {
+                    int fin = Math.min(canal.length, debut + PAQUET_PIXELS);
+                    tampon.clear();
+                    for (int i = debut; i < fin; i++) {
+                        tampon.putDouble(canal[i]);
+                    }
+                    empreinte.update(tampon.array(), 0, tampon.position());
+                }
+            }
+        }
+        for (String parametre : parametres) {
+            empreinte.update((parametre + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(empreinte.digest());
+    }
+
+    /**
+     * @brief Calcule l'empreinte SHA-256 du contenu d'un fichier, à utiliser comme valeur de paramètre (bases
+     * pré-calculées par exemple).
+     * @author Paul
+     * @param fichier Fichier à hacher.
+     * @return Empreinte hexadécimale.
+     * @throws IOException Si le fichier ne peut pas être lu.
+     */
+    public static String empreinteFichier(Path fichier) throws IOException {
+        MessageDigest empreinte = sha256();
+        byte[] tampon = new byte[1 << 16];
+        try (InputStream entree = Files.newInputStream(fichier)) {
+            int lus;
+            while ((lus = entree.read(tampon)) > 0) {
+                empreinte.update(tampon, 0, lus);
+            }
+        }
+        return HexFormat.of().formatHex(empreinte.digest());
+    }
+
+    /**
+     * @brief Recherche une entrée et la marque comme utilisée.
+     * @author Paul
+     * @param cle Clé du résultat.
+     * @return Entrée trouvée, ou null si la clé est absente ou l'entrée illisible.
+     */
+    public Entree trouver(String cle) {
+        Path entree = dossier.resolve(cle);
+        Path metriques = entree.resolve(FICHIER_METRIQUES);
+        Properties proprietes = new Properties();
+        try (InputStream lecture = Files.newInputStream(metriques)) {
+            proprietes.load(lecture);
+            ResultatQualite qualite = new ResultatQualite(Double.parseDouble(proprietes.getProperty("mse")),
+                    Double.parseDouble(proprietes.getProperty("psnr")));
+            Files.setLastModifiedTime(metriques, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Entree(entree, qualite);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            Journal.info("⚠️  Entrée du cache illisible, ignorée : " + cle);
+            return null;
+        }
+    }
+
+    /**
+     * @brief Enregistre un résultat à partir de fichiers déjà écrits, copiés dans l'entrée avec leur extension.
+     * @author Paul
+     * @param cle      Clé du résultat.
+     * @param qualite  Métriques de l'image débruitée.
+     * @param fichiers Fichiers à conserver, par rôle ("xB", "xR").
+     * @throws IOException Si l'entrée ne peut pas être écrite.
+     */
+    public void enregistrerFichiers(String cle, ResultatQualite qualite, Map<String, Path> fichiers)
+            throws IOException {
+        Path temporaire = preparerEntree(cle);
+        try {
+            for (Map.Entry<String, Path> fichier : fichiers.entrySet()) {
+                Files.copy(fichier.getValue(), temporaire.resolve(fichier.getKey() + extension(fichier.getValue())));
+            }
+            publier(cle, qualite, temporaire);
+        } finally {
+            supprimer(temporaire);
+        }
+    }
+
+    /**
+     * @brief Enregistre un résultat à partir d'images en mémoire, dont les pixels sont conservés sans perte.
+     * @author Paul
+     * @param cle     Clé du résultat.
+     * @param qualite Métriques de l'image débruitée.
+     * @param images  Images à conserver, par rôle ("xB", "xR").
+     * @throws IOException Si l'entrée ne peut pas être écrite.
+     */
+    public void enregistrerImages(String cle, ResultatQualite qualite, Map<String, Img> images) throws IOException {
+        Path temporaire = preparerEntree(cle);
+        try {
+            for (Map.Entry<String, Img> image : images.entrySet()) {
+                ecrireBrute(image.getValue(), temporaire.resolve(image.getKey() + EXTENSION_BRUTE));
+            }
+            publier(cle, qualite, temporaire);
+        } finally {
+            supprimer(temporaire);
+        }
+    }
+
+    /**
+     * @brief Écrit les pixels d'une image dans un fichier compressé (dimensions, nombre de canaux, puis pixels).
+     * @author Paul
+     * @param image   Image à écrire.
+     * @param fichier Fichier de destination.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    private static void ecrireBrute(Img image, Path fichier) throws IOException {
+        try (DataOutputStream sortie = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(fichier))))) {
+            sortie.writeInt(image.getHauteur());
+            sortie.writeInt(image.getLargeur());
+            sortie.writeInt(image.getNbCanaux());
+            for (int k = 0; k < image.getNbCanaux(); k++) {
+                for (double valeur : image.getCanal(k)) {
+                    sortie.writeDouble(valeur);
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Relit une image écrite par ecrireBrute.
+     * @author Paul
+     * @param fichier Fichier à lire.
+     * @return Image relue.
+     * @throws IOException Si le fichier ne peut pas être lu.
+     */
+    private static Img lireBrute(Path fichier) throws IOException {
+        try (DataInputStream entree = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(fichier))))) {
+            int hauteur = entree.readInt();
+            int largeur = entree.readInt();
+            double[][] canaux = new double[entree.readInt()][hauteur * largeur];
+            for (double[] canal : canaux) {
+                for (int i = 0; i < canal.length; i++) {
+                    canal[i] = entree.readDouble();
+                }
+            }
+            return new Img(canaux, hauteur, largeur);
+        }
+    }
+
+    /**
+     * @brief Crée le dossier temporaire d'une entrée en cours d'écriture.
+     * @author Paul
+     * @param cle Clé du résultat.
+     * @return Dossier temporaire, dans le dossier du cache.
+     * @throws IOException Si le dossier ne peut pas être créé.
+     */
+    private Path preparerEntree(String cle) throws IOException {
+        Files.createDirectories(dossier);
+        return Files.createTempDirectory(dossier, "." + cle + "-");
+    }
+
+    /**
+     * @brief Écrit les métriques puis publie l'entrée par renommage atomique et applique la limite de taille. Si
+     * une autre instance a publié la même clé entre-temps, son entrée est conservée.
+     * @author Paul
+     * @param cle        Clé du résultat.
+     * @param qualite    Métriques de l'image débruitée.
+     * @param temporaire Dossier temporaire contenant les images de l'entrée.
+     * @throws IOException Si l'entrée ne peut pas être écrite.
+     */
+    private void publier(String cle, ResultatQualite qualite, Path temporaire) throws IOException {
+        Properties proprietes = new Properties();
+        proprietes.setProperty("mse", String.format(Locale.ROOT, "%.17g", qualite.getMSE()));
+        proprietes.setProperty("psnr", String.format(Locale.ROOT, "%.17g", qualite.getPSNR()));
+        try (OutputStream ecriture = Files.newOutputStream(temporaire.resolve(FICHIER_METRIQUES))) {
+            proprietes.store(ecriture, "denoize " + VERSION);
+        }
+
+        try {
+            Files.move(temporaire, dossier.resolve(cle), StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+            return;
+        } catch (IOException e) {
+            // Dossier cible non vide : entrée déjà publiée par une autre instance
+            if (Files.isDirectory(dossier.resolve(cle))) {
+                return;
+            }
+            throw e;
+        }
+        evincer(cle);
+    }
+
+    /**
+     * @brief Supprime les entrées les moins récemment utilisées tant que le cache dépasse sa taille maximale,
+     * sans jamais supprimer l'entrée qui vient d'être publiée.
+     * @author Paul
+     * @param conservee Clé de l'entrée à conserver.
+     * @throws IOException Si le dossier du cache ne peut pas être parcouru.
+     */
+    private void evincer(String conservee) throws IOException {
+        List<Path> entrees = new ArrayList<>();
+        List<Long> tailles = new ArrayList<>();
+        List<Long> acces = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> contenu = Files.newDirectoryStream(dossier)) {
+            for (Path entree : contenu) {
+                if (!Files.isDirectory(entree) || entree.getFileName().toString().startsWith(".")) {
+                    continue;
+                }
+                long taille = taille(entree);
+                Path metriques = entree.resolve(FICHIER_METRIQUES);
+                entrees.add(entree);
+                tailles.add(taille);
+                acces.add(Files.exists(metriques) ? Files.getLastModifiedTime(metriques).toMillis() : 0L);
+                total += taille;
+            }
+        }
+        if (total <= tailleMax) {
+            return;
+        }
+
+        List<Integer> ordre = new ArrayList<>();
+        for (int i = 0; i < entrees.size(); i++) {
+            ordre.add(i);
+        }
+        ordre.sort(Comparator.comparingLong(acces::get));
+        for (int i : ordre) {
+            if (total <= tailleMax) {
+                break;
+            }
+            if (entrees.get(i).getFileName().toString().equals(conservee)) {
+                continue;
+            }
+            supprimer(entrees.get(i));
+            total -= tailles.get(i);
+            if (Journal.isDebug()) {
+                Journal.debug("entrée du cache évincée : " + entrees.get(i).getFileName());
+            }
+        }
+    }
+
+    /**
+     * @brief Calcule la taille totale des fichiers d'un dossier.
+     * @author Paul
+     * @param dossier Dossier à mesurer.
+     * @return Taille en octets.
+     * @throws IOException Si le dossier ne peut pas être parcouru.
+     */
+    private static long taille(Path dossier) throws IOException {
+        long total = 0;
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier)) {
+            for (Path fichier : fichiers) {
+                total += Files.size(fichier);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @brief Supprime un dossier et son contenu, s'il existe encore.
+     * @author Paul
+     * @param cible Dossier à supprimer.
+     * @throws IOException Si un fichier ne peut pas être supprimé.
+     */
+    private static void supprimer(Path cible) throws IOException {
+        if (!Files.exists(cible)) {
+            return;
+        }
+        try (Stream<Path> chemins = Files.walk(cible)) {
+            for (Path chemin : chemins.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(chemin);
+            }
+        }
+    }
+
+    /**
+     * @brief Retourne l'extension d'un fichier, point compris.
+     * @author Paul
+     * @param fichier Fichier.
+     * @return Extension (".png" si le nom n'en a pas).
+     */
+    private static String extension(Path fichier) {
+        String nom = fichier.getFileName().toString();
+        int point = nom.lastIndexOf('.');
+        return point != -1 ? nom.substring(point) : ".png";
+    }
+
+    /**
+     * @brief Fournit l'algorithme SHA-256.
+     * @author Paul
+     * @return Instance de MessageDigest.
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
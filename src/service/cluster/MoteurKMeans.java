@@ -0,0 +1,457 @@
+/**
+ * @file MoteurKMeans.java
+ * @brief Moteur de k-means sur une matrice de points contiguë : initialisation k-means++, bornes de Hamerly,
+ * affectation parallèle et arrêt à la stabilité des étiquettes.
+ */
+package service.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import model.cluster.ResultatKMeans;
+import model.patch.MatricePatchs;
+
+/**
+ * @class MoteurKMeans
+ * @brief Partitionne nbPoints points de dimension d, stockés ligne par ligne dans un tableau de double.
+ * @details Chaque point garde une borne supérieure de la distance à son centre et une borne inférieure de la
+ * distance au deuxième centre le plus proche (algorithme de Hamerly) : tant que la borne supérieure reste sous la
+ * borne inférieure et sous la demi-distance entre son centre et le centre voisin, le point ne peut pas changer de
+ * cluster et aucune distance n'est calculée. Les comparaisons portent sur les distances au carré ; la racine n'est
+ * prise que pour mettre à jour les bornes.
+ *
+ * Les points sont répartis en feuilles de taille fixe, affectées en parallèle ; chaque feuille accumule les sommes
+ * et les effectifs de ses clusters, fusionnés ensuite dans l'ordre des feuilles. Le découpage ne dépend que du
+ * nombre de points : à graine égale, le résultat est identique quel que soit le nombre de threads.
+ * @author Paul
+ */
+public class MoteurKMeans {
+
+	//Nombre maximal d'itérations par défaut
+	public static final int ITERATIONS_MAX_DEFAUT = 100;
+	//Nombre minimal de points par feuille
+	static final int TAILLE_BLOC = 1024;
+	//Nombre maximal de feuilles
+	static final int NB_FEUILLES_MAX = 64;
+
+	//Pool exécutant les feuilles
+	private final ForkJoinPool pool;
+	//Graine du générateur aléatoire (null : graine tirée au hasard à chaque partitionnement)
+	private Long graine;
+	//Nombre maximal d'itérations
+	private int iterationsMax = ITERATIONS_MAX_DEFAUT;
+
+	/**
+	 * @brief Constructeur utilisant le pool commun de la JVM.
+	 * @author Paul
+	 */
+	public MoteurKMeans() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @brief Constructeur avec un pool imposé.
+	 * @author Paul
+	 * @param pool Pool de threads utilisé pour l'initialisation et l'affectation.
+	 */
+	public MoteurKMeans(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @brief Fixe la graine du générateur aléatoire, pour des partitionnements reproductibles.
+	 * @author Paul
+	 * @param graine Graine de l'initialisation k-means++.
+	 */
+	public void setGraine(long graine) {
+		this.graine = graine;
+	}
+
+	/**
+	 * @brief Fixe le nombre maximal d'itérations.
+	 * @author Paul
+	 * @param iterationsMax Nombre maximal d'itérations (au moins 1).
+	 * @throws IllegalArgumentException Si iterationsMax est inférieur à 1.
+	 */
+	public void setIterationsMax(int iterationsMax) {
+		if (iterationsMax < 1) {
+			throw new IllegalArgumentException("Le nombre d'itérations doit être au moins 1");
+		}
+		this.iterationsMax = iterationsMax;
+	}
+
+	/**
+	 * @brief Partitionne les patchs d'une image (matérialisés une fois en matrice contiguë).
+	 * La copie occupe M·s² doubles : au-delà de DebruiteurImage.SEUIL_OCTETS_MINI_LOTS, le débruiteur passe au
+	 * k-means par mini-lots, qui lit les patchs sans les recopier.
+	 * @author Paul
+	 * @param patchs     Vue sur les patchs.
+	 * @param nbClusters Nombre de clusters.
+	 * @return Résultat du k-means.
+	 * @throws IllegalArgumentException Si nbClusters est inférieur à 1 ou supérieur au nombre de patchs.
+	 */
+	public ResultatKMeans partitionner(MatricePatchs patchs, int nbClusters) {
+		return partitionner(patchs.versTableau(), patchs.getNbPatchs(), patchs.getDimension(), nbClusters);
+	}
+
+	/**
+	 * @brief Partitionne des points en nbClusters clusters.
+	 * @author Paul
+	 * @param points     Points (nbPoints × dimension, ligne par ligne).
+	 * @param nbPoints   Nombre de points.
+	 * @param dimension  Dimension des points.
+	 * @param nbClusters Nombre de clusters.
+	 * @return Étiquettes, centres et statistiques du partitionnement.
+	 * @throws IllegalArgumentException Si nbClusters est inférieur à 1 ou supérieur au nombre de points, ou si le
+	 *                                  tableau est trop court.
+	 */
+	public ResultatKMeans partitionner(double[] points, int nbPoints, int dimension, int nbClusters) {
+		if (nbClusters < 1 || nbClusters > nbPoints) {
+			throw new IllegalArgumentException("Le nombre de clusters doit être compris entre 1 et " + nbPoints);
+		}
+		if (points.length < (long) nbPoints * dimension) {
+			throw new IllegalArgumentException("Le tableau ne contient pas " + nbPoints + " points de dimension "
+					+ dimension);
+		}
+		Random aleatoire = graine != null ? new Random(graine) : new Random();
+		return new Execution(points, nbPoints, dimension, nbClusters).lancer(aleatoire, iterationsMax);
+	}
+
+	/**
+	 * @brief Calcule le carré de la distance euclidienne entre deux lignes de tableaux.
+	 * @author Paul
+	 * @param a         Premier tableau.
+	 * @param debutA    Position de la première ligne.
+	 * @param b         Second tableau.
+	 * @param debutB    Position de la seconde ligne.
+	 * @param dimension Longueur des lignes.
+	 * @return Somme des carrés des écarts.
+	 */
+	static double distance2(double[] a, int debutA, double[] b, int debutB, int dimension) {
+		double somme = 0.0;
+		for (int j = 0; j < dimension; j++) {
+			double ecart = a[debutA + j] - b[debutB + j];
+			somme += ecart * ecart;
+		}
+		return somme;
+	}
+
+	/**
+	 * @class Execution
+	 * @brief État d'un partitionnement : centres, étiquettes, bornes de chaque point et feuilles de points.
+	 */
+	private final class Execution {
+
+		private final double[] points;
+		private final int nbPoints;
+		private final int dimension;
+		private final int nbClusters;
+
+		//Centres courants (nbClusters × dimension)
+		private final double[] centres;
+		//Étiquette de chaque point (-1 avant la première affectation)
+		private final int[] etiquettes;
+		//Borne supérieure de la distance de chaque point à son centre
+		private final double[] bornesSup;
+		//Borne inférieure de la distance de chaque point au deuxième centre le plus proche
+		private final double[] bornesInf;
+		//Demi-distance de chaque centre au centre le plus proche
+		private final double[] demiEcarts;
+		//Déplacement de chaque centre lors de la dernière mise à jour
+		private final double[] deplacements;
+		//Centre ayant le plus bougé, plus grand et deuxième plus grand déplacements
+		private int centreMax;
+		private double deplacementMax;
+		private double deplacementSecond;
+		//Feuilles de points, dans l'ordre des points
+		private final List<Feuille> feuilles = new ArrayList<>();
+
+		Execution(double[] points, int nbPoints, int dimension, int nbClusters) {
+			this.points = points;
+			this.nbPoints = nbPoints;
+			this.dimension = dimension;
+			this.nbClusters = nbClusters;
+			this.centres = new double[nbClusters * dimension];
+			this.etiquettes = new int[nbPoints];
+			this.bornesSup = new double[nbPoints];
+			this.bornesInf = new double[nbPoints];
+			this.demiEcarts = new double[nbClusters];
+			this.deplacements = new double[nbClusters];
+			Arrays.fill(etiquettes, -1);
+
+			int nbFeuilles = Math.max(1, Math.min(NB_FEUILLES_MAX, nbPoints / TAILLE_BLOC));
+			for (int f = 0; f < nbFeuilles; f++) {
+				feuilles.add(new Feuille((int) ((long) nbPoints * f / nbFeuilles),
+						(int) ((long) nbPoints * (f + 1) / nbFeuilles)));
+			}
+		}
+
+		/**
+		 * @brief Initialise les centres puis alterne affectation et mise à jour jusqu'à la stabilité des
+		 * étiquettes.
+		 * @author Paul
+		 * @param aleatoire     Générateur de l'initialisation.
+		 * @param iterationsMax Nombre maximal d'itérations.
+		 * @return Résultat du partitionnement.
+		 */
+		ResultatKMeans lancer(Random aleatoire, int iterationsMax) {
+			initialiser(aleatoire);
+
+			double[] sommes = new double[nbClusters * dimension];
+			int[] effectifs = new int[nbClusters];
+			long nbDistances = 0;
+			int iteration = 0;
+			boolean converge = false;
+			while (iteration < iterationsMax && !converge) {
+				calculerDemiEcarts();
+				boolean premiere = iteration == 0;
+				executer(feuille -> feuille.affecter(premiere));
+				iteration++;
+
+				// Fusion des sommes partielles dans l'ordre des feuilles
+				Arrays.fill(sommes, 0.0);
+				Arrays.fill(effectifs, 0);
+				long changements = 0;
+				for (Feuille feuille : feuilles) {
+					for (int i = 0; i < sommes.length; i++) {
+						sommes[i] += feuille.sommes[i];
+					}
+					for (int c = 0; c < nbClusters; c++) {
+						effectifs[c] += feuille.effectifs[c];
+					}
+					changements += feuille.changements;
+					nbDistances += feuille.nbDistances;
+				}
+				// Étiquettes inchangées : les centres recalculés seraient identiques
+				converge = !premiere && changements == 0;
+				if (!converge) {
+					mettreAJourCentres(sommes, effectifs);
+				}
+			}
+			return new ResultatKMeans(etiquettes, centres, effectifs, dimension, iteration, converge, nbDistances);
+		}
+
+		/**
+		 * @brief Choisit les centres initiaux par k-means++ : le premier au hasard, chacun des suivants avec une
+		 * probabilité proportionnelle au carré de sa distance au centre déjà choisi le plus proche.
+		 * @author Paul
+		 * @param aleatoire Générateur aléatoire.
+		 */
+		private void initialiser(Random aleatoire) {
+			// La borne supérieure sert provisoirement de distance au carré au centre le plus proche
+			double[] plusProches = bornesSup;
+			Arrays.fill(plusProches, Double.POSITIVE_INFINITY);
+			int choisi = aleatoire.nextInt(nbPoints);
+			for (int c = 0; c < nbClusters; c++) {
+				System.arraycopy(points, choisi * dimension, centres, c * dimension, dimension);
+				if (c == nbClusters - 1) {
+					break;
+				}
+				int centre = c;
+				executer(feuille -> feuille.rapprocher(centre, plusProches));
+
+				double total = 0.0;
+				for (int i = 0; i < nbPoints; i++) {
+					total += plusProches[i];
+				}
+				if (total > 0) {
+					double cible = aleatoire.nextDouble() * total;
+					double cumul = 0.0;
+					choisi = -1;
+					for (int i = 0; i < nbPoints && choisi < 0; i++) {
+						cumul += plusProches[i];
+						if (cumul > cible && plusProches[i] > 0) {
+							choisi = i;
+						}
+					}
+					if (choisi < 0) {
+						// Arrondi du cumul : dernier point encore éloigné de tous les centres
+						for (int i = nbPoints - 1; choisi < 0; i--) {
+							if (plusProches[i] > 0) {
+								choisi = i;
+							}
+						}
+					}
+				} else {
+					// Tous les points coïncident avec un centre : tirage uniforme
+					choisi = aleatoire.nextInt(nbPoints);
+				}
+			}
+		}
+
+		/**
+		 * @brief Calcule, pour chaque centre, la moitié de la distance au centre le plus proche.
+		 * @author Paul
+		 */
+		private void calculerDemiEcarts() {
+			Arrays.fill(demiEcarts, Double.POSITIVE_INFINITY);
+			for (int a = 0; a < nbClusters; a++) {
+				for (int b = a + 1; b < nbClusters; b++) {
+					double demi = 0.5 * Math.sqrt(distance2(centres, a * dimension, centres, b * dimension, dimension));
+					demiEcarts[a] = Math.min(demiEcarts[a], demi);
+					demiEcarts[b] = Math.min(demiEcarts[b], demi);
+				}
+			}
+		}
+
+		/**
+		 * @brief Remplace chaque centre par la moyenne de ses points (un cluster vide garde son centre) et
+		 * enregistre les déplacements utilisés pour relâcher les bornes.
+		 * @author Paul
+		 * @param sommes    Somme des points de chaque cluster.
+		 * @param effectifs Nombre de points de chaque cluster.
+		 */
+		private void mettreAJourCentres(double[] sommes, int[] effectifs) {
+			centreMax = -1;
+			deplacementMax = 0.0;
+			deplacementSecond = 0.0;
+			for (int c = 0; c < nbClusters; c++) {
+				double deplacement2 = 0.0;
+				if (effectifs[c] > 0) {
+					int debut = c * dimension;
+					for (int j = 0; j < dimension; j++) {
+						double nouveau = sommes[debut + j] / effectifs[c];
+						double ecart = nouveau - centres[debut + j];
+						deplacement2 += ecart * ecart;
+						centres[debut + j] = nouveau;
+					}
+				}
+				deplacements[c] = Math.sqrt(deplacement2);
+				if (deplacements[c] > deplacementMax) {
+					deplacementSecond = deplacementMax;
+					deplacementMax = deplacements[c];
+					centreMax = c;
+				} else if (deplacements[c] > deplacementSecond) {
+					deplacementSecond = deplacements[c];
+				}
+			}
+		}
+
+		/**
+		 * @brief Exécute une opération sur toutes les feuilles en parallèle.
+		 * @author Paul
+		 * @param operation Opération appliquée à chaque feuille.
+		 */
+		private void executer(Consumer<Feuille> operation) {
+			if (feuilles.size() == 1) {
+				operation.accept(feuilles.get(0));
+				return;
+			}
+			List<ForkJoinTask<?>> taches = new ArrayList<>(feuilles.size());
+			for (Feuille feuille : feuilles) {
+				taches.add(ForkJoinTask.adapt(() -> operation.accept(feuille)));
+			}
+			if (ForkJoinTask.inForkJoinPool()) {
+				ForkJoinTask.invokeAll(taches);
+			} else {
+				pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(taches)));
+			}
+		}
+
+		/**
+		 * @class Feuille
+		 * @brief Plage contiguë de points, avec ses propres sommes et effectifs par cluster.
+		 */
+		private final class Feuille {
+
+			//Premier point (inclus) et dernier point (exclu)
+			private final int debut;
+			private final int fin;
+			//Somme des points de la feuille dans chaque cluster
+			private final double[] sommes;
+			//Nombre de points de la feuille dans chaque cluster
+			private final int[] effectifs;
+			//Nombre de points ayant changé de cluster lors de la dernière affectation
+			private long changements;
+			//Nombre de distances calculées lors de la dernière affectation
+			private long nbDistances;
+
+			Feuille(int debut, int fin) {
+				this.debut = debut;
+				this.fin = fin;
+				this.sommes = new double[nbClusters * dimension];
+				this.effectifs = new int[nbClusters];
+			}
+
+			/**
+			 * @brief Met à jour, pour chaque point, la distance au carré au centre choisi le plus proche.
+			 * @author Paul
+			 * @param centre      Indice du dernier centre choisi.
+			 * @param plusProches Distance au carré de chaque point au centre le plus proche, mise à jour en place.
+			 */
+			void rapprocher(int centre, double[] plusProches) {
+				for (int i = debut; i < fin; i++) {
+					double d2 = distance2(points, i * dimension, centres, centre * dimension, dimension);
+					if (d2 < plusProches[i]) {
+						plusProches[i] = d2;
+					}
+				}
+			}
+
+			/**
+			 * @brief Affecte chaque point de la feuille au centre le plus proche, en évitant les calculs de
+			 * distance que les bornes rendent inutiles, puis accumule les sommes par cluster.
+			 * @author Paul
+			 * @param premiere Vrai lors de la première affectation (recherche complète pour tous les points).
+			 */
+			void affecter(boolean premiere) {
+				Arrays.fill(sommes, 0.0);
+				Arrays.fill(effectifs, 0);
+				changements = 0;
+				nbDistances = 0;
+				for (int i = debut; i < fin; i++) {
+					int ligne = i * dimension;
+					int etiquette = etiquettes[i];
+					boolean rechercher = premiere;
+					if (!premiere) {
+						// Relâchement des bornes après le déplacement des centres
+						bornesSup[i] += deplacements[etiquette];
+						bornesInf[i] -= etiquette == centreMax ? deplacementSecond : deplacementMax;
+						double seuil = Math.max(demiEcarts[etiquette], bornesInf[i]);
+						if (bornesSup[i] > seuil) {
+							// Resserrement de la borne supérieure avant la recherche complète
+							bornesSup[i] = Math.sqrt(distance2(points, ligne, centres, etiquette * dimension, dimension));
+							nbDistances++;
+							rechercher = bornesSup[i] > seuil;
+						}
+					}
+
+					if (rechercher) {
+						double meilleure = Double.POSITIVE_INFINITY;
+						double deuxieme = Double.POSITIVE_INFINITY;
+						int plusProche = 0;
+						for (int c = 0; c < nbClusters; c++) {
+							double d2 = distance2(points, ligne, centres, c * dimension, dimension);
+							if (d2 < meilleure) {
+								deuxieme = meilleure;
+								meilleure = d2;
+								plusProche = c;
+							} else if (d2 < deuxieme) {
+								deuxieme = d2;
+							}
+						}
+						nbDistances += nbClusters;
+						bornesSup[i] = Math.sqrt(meilleure);
+						bornesInf[i] = Math.sqrt(deuxieme);
+						if (plusProche != etiquette) {
+							etiquettes[i] = plusProche;
+							etiquette = plusProche;
+							changements++;
+						}
+					}
+
+					int cible = etiquette * dimension;
+					for (int j = 0; j < dimension; j++) {
+						sommes[cible + j] += points[ligne + j];
+					}
+					effectifs[etiquette]++;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,342 @@
+/**
+ * @file MoteurKMeansMiniBatch.java
+ * @brief Moteur de k-means par mini-lots pour les très grands ensembles de patchs : centres appris sur des lots
+ * tirés au hasard, puis une passe d'affectation complète et parallèle.
+ */
+package service.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import model.cluster.ResultatKMeans;
+import model.patch.MatricePatchs;
+
+/**
+ * @class MoteurKMeansMiniBatch
+ * @brief Partitionne nbPoints points de dimension d sans parcourir tous les points à chaque itération.
+ * @details Les centres initiaux sont ceux d'un k-means complet (MoteurKMeans) sur un échantillon de quelques
+ * mini-lots ; chaque centre compte alors comme la moyenne des points de l'échantillon qui lui sont affectés, si
+ * bien que le taux par centre (1 / nombre de points absorbés) part de l'effectif du cluster dans l'échantillon et
+ * n'écrase pas l'initialisation au premier point. Chaque itération tire ensuite un mini-lot de points au hasard
+ * (avec remise), affecte chacun au centre le plus proche, puis déplace ce centre vers le point avec le poids donné
+ * par le taux d'apprentissage.
+ * Les itérations s'arrêtent après le nombre maximal de mini-lots, ou dès qu'aucun centre ne bouge plus que la
+ * tolérance au cours d'un mini-lot. Une dernière passe affecte tous les points, en parallèle par feuilles de
+ * taille fixe (comme MoteurKMeans) : les étiquettes couvrent tous les points et, à graine égale, ne dépendent
+ * pas du nombre de threads.
+ *
+ * Les patchs d'une image sont lus directement dans l'image (MatricePatchs.copierPatch) : la matrice des patchs,
+ * qui peut dépasser la mémoire pour des millions de patchs, n'est jamais matérialisée.
+ * @author Paul
+ */
+public class MoteurKMeansMiniBatch {
+
+	//Nombre maximal de mini-lots par défaut
+	public static final int ITERATIONS_MAX_DEFAUT = 200;
+	//Nombre de points par mini-lot par défaut
+	public static final int TAILLE_LOT_DEFAUT = 1024;
+	//Déplacement maximal d'un centre (distance euclidienne) en dessous duquel les itérations s'arrêtent
+	public static final double TOLERANCE_DEFAUT = 0.05;
+	//Taille de l'échantillon d'initialisation, en nombre de mini-lots
+	static final int LOTS_INITIALISATION = 3;
+
+	//Pool exécutant la passe d'affectation finale
+	private final ForkJoinPool pool;
+	//Graine du générateur aléatoire (null : graine tirée au hasard à chaque partitionnement)
+	private Long graine;
+	//Nombre maximal de mini-lots
+	private int iterationsMax = ITERATIONS_MAX_DEFAUT;
+	//Nombre de points par mini-lot
+	private int tailleLot = TAILLE_LOT_DEFAUT;
+	//Calendrier du taux d'apprentissage
+	private TauxApprentissage taux = TauxApprentissage.parCentre();
+	//Tolérance d'arrêt sur le déplacement des centres
+	private double tolerance = TOLERANCE_DEFAUT;
+
+	/**
+	 * @interface SourcePoints
+	 * @brief Copie un point dans un tampon, quelle que soit la façon dont les points sont stockés.
+	 */
+	@FunctionalInterface
+	private interface SourcePoints {
+		void copier(int point, double[] tampon, int position);
+	}
+
+	/**
+	 * @brief Constructeur utilisant le pool commun de la JVM.
+	 * @author Paul
+	 */
+	public MoteurKMeansMiniBatch() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @brief Constructeur avec un pool imposé.
+	 * @author Paul
+	 * @param pool Pool de threads utilisé pour l'initialisation et l'affectation finale.
+	 */
+	public MoteurKMeansMiniBatch(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @brief Fixe la graine du générateur aléatoire, pour des partitionnements reproductibles.
+	 * @author Paul
+	 * @param graine Graine de l'échantillonnage et de l'initialisation.
+	 */
+	public void setGraine(long graine) {
+		this.graine = graine;
+	}
+
+	/**
+	 * @brief Fixe le nombre maximal de mini-lots.
+	 * @author Paul
+	 * @param iterationsMax Nombre maximal de mini-lots (au moins 1).
+	 * @throws IllegalArgumentException Si iterationsMax est inférieur à 1.
+	 */
+	public void setIterationsMax(int iterationsMax) {
+		if (iterationsMax < 1) {
+			throw new IllegalArgumentException("Le nombre d'itérations doit être au moins 1");
+		}
+		this.iterationsMax = iterationsMax;
+	}
+
+	/**
+	 * @brief Fixe le nombre de points tirés à chaque mini-lot.
+	 * @author Paul
+	 * @param tailleLot Taille des mini-lots (au moins 1).
+	 * @throws IllegalArgumentException Si tailleLot est inférieur à 1.
+	 */
+	public void setTailleLot(int tailleLot) {
+		if (tailleLot < 1) {
+			throw new IllegalArgumentException("La taille des mini-lots doit être au moins 1");
+		}
+		this.tailleLot = tailleLot;
+	}
+
+	/**
+	 * @brief Fixe le calendrier du taux d'apprentissage.
+	 * @author Paul
+	 * @param taux Calendrier du taux (par défaut : 1 / nombre de points absorbés par le centre).
+	 */
+	public void setTaux(TauxApprentissage taux) {
+		this.taux = taux == null ? TauxApprentissage.parCentre() : taux;
+	}
+
+	/**
+	 * @brief Fixe la tolérance d'arrêt : les itérations s'arrêtent dès qu'aucun centre ne s'est déplacé de plus
+	 * de cette distance au cours d'un mini-lot.
+	 * @author Paul
+	 * @param tolerance Déplacement maximal (positif ; 0 pour toujours effectuer iterationsMax mini-lots).
+	 * @throws IllegalArgumentException Si la tolérance est négative.
+	 */
+	public void setTolerance(double tolerance) {
+		if (tolerance < 0) {
+			throw new IllegalArgumentException("La tolérance doit être positive");
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @brief Partitionne les patchs d'une image, lus directement dans l'image.
+	 * @author Paul
+	 * @param patchs     Vue sur les patchs.
+	 * @param nbClusters Nombre de clusters.
+	 * @return Résultat du k-means.
+	 * @throws IllegalArgumentException Si nbClusters est inférieur à 1 ou supérieur au nombre de patchs.
+	 */
+	public ResultatKMeans partitionner(MatricePatchs patchs, int nbClusters) {
+		return partitionner(patchs::copierPatch, patchs.getNbPatchs(), patchs.getDimension(), nbClusters);
+	}
+
+	/**
+	 * @brief Partitionne des points en nbClusters clusters.
+	 * @author Paul
+	 * @param points     Points (nbPoints × dimension, ligne par ligne).
+	 * @param nbPoints   Nombre de points.
+	 * @param dimension  Dimension des points.
+	 * @param nbClusters Nombre de clusters.
+	 * @return Étiquettes de tous les points, centres appris et statistiques du partitionnement.
+	 * @throws IllegalArgumentException Si nbClusters est inférieur à 1 ou supérieur au nombre de points, ou si le
+	 *                                  tableau est trop court.
+	 */
+	public ResultatKMeans partitionner(double[] points, int nbPoints, int dimension, int nbClusters) {
+		if (points.length < (long) nbPoints * dimension) {
+			throw new IllegalArgumentException("Le tableau ne contient pas " + nbPoints + " points de dimension "
+					+ dimension);
+		}
+		return partitionner((point, tampon, position) -> System.arraycopy(points, point * dimension, tampon,
+				position, dimension), nbPoints, dimension, nbClusters);
+	}
+
+	/**
+	 * @brief Initialise les centres, les affine par mini-lots, puis affecte tous les points.
+	 * @author Paul
+	 * @param source     Accès aux points.
+	 * @param nbPoints   Nombre de points.
+	 * @param dimension  Dimension des points.
+	 * @param nbClusters Nombre de clusters.
+	 * @return Résultat du k-means.
+	 * @throws IllegalArgumentException Si nbClusters est inférieur à 1 ou supérieur au nombre de points.
+	 */
+	private ResultatKMeans partitionner(SourcePoints source, int nbPoints, int dimension, int nbClusters) {
+		if (nbClusters < 1 || nbClusters > nbPoints) {
+			throw new IllegalArgumentException("Le nombre de clusters doit être compris entre 1 et " + nbPoints);
+		}
+		Random aleatoire = graine != null ? new Random(graine) : new Random();
+
+		// Initialisation : k-means complet sur un échantillon de quelques mini-lots
+		ResultatKMeans initial = initialiser(source, nbPoints, dimension, nbClusters, aleatoire);
+		double[] centres = initial.getCentres();
+		long nbDistances = 0;
+
+		// Points déjà absorbés par chaque centre : ceux de l'échantillon d'initialisation qui lui sont affectés
+		long[] vus = new long[nbClusters];
+		int[] effectifsInitiaux = initial.getEffectifs();
+		for (int c = 0; c < nbClusters; c++) {
+			vus[c] = effectifsInitiaux[c];
+		}
+
+		// Mini-lots : affectation aux centres courants, puis déplacement de chaque centre vers ses points
+		double[] lot = new double[tailleLot * dimension];
+		int[] etiquettesLot = new int[tailleLot];
+		double[] precedents = new double[centres.length];
+		int iteration = 0;
+		boolean converge = false;
+		while (iteration < iterationsMax && !converge) {
+			for (int b = 0; b < tailleLot; b++) {
+				source.copier(aleatoire.nextInt(nbPoints), lot, b * dimension);
+				etiquettesLot[b] = plusProche(lot, b * dimension, centres, nbClusters, dimension);
+			}
+			nbDistances += (long) tailleLot * nbClusters;
+
+			System.arraycopy(centres, 0, precedents, 0, centres.length);
+			for (int b = 0; b < tailleLot; b++) {
+				int c = etiquettesLot[b];
+				double eta = taux.taux(iteration, ++vus[c]);
+				int debut = c * dimension;
+				int ligne = b * dimension;
+				for (int j = 0; j < dimension; j++) {
+					centres[debut + j] += eta * (lot[ligne + j] - centres[debut + j]);
+				}
+			}
+			iteration++;
+
+			double deplacementMax2 = 0.0;
+			for (int c = 0; c < nbClusters; c++) {
+				deplacementMax2 = Math.max(deplacementMax2,
+						MoteurKMeans.distance2(centres, c * dimension, precedents, c * dimension, dimension));
+			}
+			converge = deplacementMax2 <= tolerance * tolerance;
+		}
+
+		// Affectation complète et parallèle de tous les points aux centres appris
+		int[] etiquettes = new int[nbPoints];
+		int[] effectifs = affecterTout(source, nbPoints, dimension, centres, nbClusters, etiquettes);
+		nbDistances += (long) nbPoints * nbClusters;
+
+		return new ResultatKMeans(etiquettes, centres, effectifs, dimension, iteration, converge, nbDistances);
+	}
+
+	/**
+	 * @brief Calcule les centres initiaux par un k-means complet (k-means++ puis Lloyd) sur un échantillon tiré
+	 * au hasard.
+	 * @author Paul
+	 * @param source     Accès aux points.
+	 * @param nbPoints   Nombre de points.
+	 * @param dimension  Dimension des points.
+	 * @param nbClusters Nombre de clusters.
+	 * @param aleatoire  Générateur aléatoire.
+	 * @return Résultat du k-means sur l'échantillon (centres initiaux et effectif de chaque cluster).
+	 */
+	private ResultatKMeans initialiser(SourcePoints source, int nbPoints, int dimension, int nbClusters,
+			Random aleatoire) {
+		int taille = (int) Math.min(nbPoints,
+				Math.max((long) LOTS_INITIALISATION * tailleLot, (long) LOTS_INITIALISATION * nbClusters));
+		double[] echantillon = new double[taille * dimension];
+		if (taille == nbPoints) {
+			for (int i = 0; i < nbPoints; i++) {
+				source.copier(i, echantillon, i * dimension);
+			}
+		} else {
+			for (int i = 0; i < taille; i++) {
+				source.copier(aleatoire.nextInt(nbPoints), echantillon, i * dimension);
+			}
+		}
+		MoteurKMeans moteur = new MoteurKMeans(pool);
+		moteur.setGraine(aleatoire.nextLong());
+		return moteur.partitionner(echantillon, taille, dimension, nbClusters);
+	}
+
+	/**
+	 * @brief Affecte chaque point au centre le plus proche, en parallèle par feuilles de taille fixe.
+	 * @author Paul
+	 * @param source     Accès aux points.
+	 * @param nbPoints   Nombre de points.
+	 * @param dimension  Dimension des points.
+	 * @param centres    Centres (nbClusters × dimension).
+	 * @param nbClusters Nombre de clusters.
+	 * @param etiquettes Étiquette de chaque point, complétée en place.
+	 * @return Nombre de points de chaque cluster.
+	 */
+	private int[] affecterTout(SourcePoints source, int nbPoints, int dimension, double[] centres, int nbClusters,
+			int[] etiquettes) {
+		int nbFeuilles = Math.max(1, Math.min(MoteurKMeans.NB_FEUILLES_MAX, nbPoints / MoteurKMeans.TAILLE_BLOC));
+		int[][] effectifsFeuilles = new int[nbFeuilles][nbClusters];
+		List<ForkJoinTask<?>> taches = new ArrayList<>(nbFeuilles);
+		for (int f = 0; f < nbFeuilles; f++) {
+			int debut = (int) ((long) nbPoints * f / nbFeuilles);
+			int fin = (int) ((long) nbPoints * (f + 1) / nbFeuilles);
+			int[] effectifs = effectifsFeuilles[f];
+			taches.add(ForkJoinTask.adapt(() -> {
+				double[] point = new double[dimension];
+				for (int i = debut; i < fin; i++) {
+					source.copier(i, point, 0);
+					etiquettes[i] = plusProche(point, 0, centres, nbClusters, dimension);
+					effectifs[etiquettes[i]]++;
+				}
+			}));
+		}
+		if (nbFeuilles == 1) {
+			taches.get(0).invoke();
+		} else if (ForkJoinTask.inForkJoinPool()) {
+			ForkJoinTask.invokeAll(taches);
+		} else {
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(taches)));
+		}
+
+		int[] effectifs = new int[nbClusters];
+		for (int[] effectifsFeuille : effectifsFeuilles) {
+			for (int c = 0; c < nbClusters; c++) {
+				effectifs[c] += effectifsFeuille[c];
+			}
+		}
+		return effectifs;
+	}
+
+	/**
+	 * @brief Cherche le centre le plus proche d'un point.
+	 * @author Paul
+	 * @param points     Tableau contenant le point.
+	 * @param debut      Position du point.
+	 * @param centres    Centres (nbClusters × dimension).
+	 * @param nbClusters Nombre de clusters.
+	 * @param dimension  Dimension des points.
+	 * @return Indice du centre le plus proche (le plus petit en cas d'égalité).
+	 */
+	private static int plusProche(double[] points, int debut, double[] centres, int nbClusters, int dimension) {
+		double meilleure = Double.POSITIVE_INFINITY;
+		int plusProche = 0;
+		for (int c = 0; c < nbClusters; c++) {
+			double d2 = MoteurKMeans.distance2(points, debut, centres, c * dimension, dimension);
+			if (d2 < meilleure) {
+				meilleure = d2;
+				plusProche = c;
+			}
+		}
+		return plusProche;
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * @file TauxApprentissage.java
+ * @brief Calendrier du taux d'apprentissage du k-means par mini-lots.
+ */
+package service.cluster;
+
+/**
+ * @class TauxApprentissage
+ * @brief Donne le poids η avec lequel un point tiré d'un mini-lot attire son centre : c ← (1 − η)·c + η·x. Le
+ * taux peut être propre à chaque centre (1 / nombre de points absorbés, qui fait de chaque centre la moyenne
+ * exacte des points qu'il a vus), décroître avec le numéro du mini-lot, ou rester constant.
+ * @author Paul
+ */
+public class TauxApprentissage {
+
+	/**
+	 * @enum Type
+	 * @brief Nature du calendrier.
+	 */
+	public enum Type {
+		PAR_CENTRE, DECROISSANT, CONSTANT
+	}
+
+	//Nature du calendrier
+	private final Type type;
+	//Taux initial (DECROISSANT) ou constant (CONSTANT)
+	private final double taux;
+	//Nombre de mini-lots au bout duquel le taux décroissant est divisé par deux
+	private final double demiVie;
+
+	private TauxApprentissage(Type type, double taux, double demiVie) {
+		this.type = type;
+		this.taux = taux;
+		this.demiVie = demiVie;
+	}
+
+	/**
+	 * @brief Taux propre à chaque centre, égal à l'inverse du nombre de points qu'il a absorbés.
+	 * @author Paul
+	 * @return Calendrier du taux.
+	 */
+	public static TauxApprentissage parCentre() {
+		return new TauxApprentissage(Type.PAR_CENTRE, 0, 0);
+	}
+
+	/**
+	 * @brief Taux commun à tous les centres, décroissant avec le numéro t du mini-lot : η = η₀ / (1 + t / demiVie).
+	 * @author Paul
+	 * @param tauxInitial Taux du premier mini-lot, dans ]0, 1].
+	 * @param demiVie     Nombre de mini-lots au bout duquel le taux est divisé par deux (strictement positif).
+	 * @return Calendrier du taux.
+	 * @throws IllegalArgumentException Si le taux n'est pas dans ]0, 1] ou si la demi-vie n'est pas positive.
+	 */
+	public static TauxApprentissage decroissant(double tauxInitial, double demiVie) {
+		verifierTaux(tauxInitial);
+		if (demiVie <= 0) {
+			throw new IllegalArgumentException("La demi-vie du taux d'apprentissage doit être strictement positive");
+		}
+		return new TauxApprentissage(Type.DECROISSANT, tauxInitial, demiVie);
+	}
+
+	/**
+	 * @brief Taux constant, commun à tous les centres.
+	 * @author Paul
+	 * @param taux Taux, dans ]0, 1].
+	 * @return Calendrier du taux.
+	 * @throws IllegalArgumentException Si le taux n'est pas dans ]0, 1].
+	 */
+	public static TauxApprentissage constant(double taux) {
+		verifierTaux(taux);
+		return new TauxApprentissage(Type.CONSTANT, taux, 0);
+	}
+
+	/**
+	 * @brief Vérifie qu'un taux est dans ]0, 1].
+	 * @author Paul
+	 * @param taux Taux à vérifier.
+	 * @throws IllegalArgumentException Si le taux n'est pas dans ]0, 1].
+	 */
+	private static void verifierTaux(double taux) {
+		if (taux <= 0 || taux > 1) {
+			throw new IllegalArgumentException("Le taux d'apprentissage doit être dans ]0, 1]");
+		}
+	}
+
+	/**
+	 * @brief Calcule le taux appliqué à un point.
+	 * @author Paul
+	 * @param lot  Numéro du mini-lot, à partir de 0.
+	 * @param vus  Nombre de points absorbés par le centre, point courant compris (au moins 1).
+	 * @return Taux η, dans ]0, 1].
+	 */
+	public double taux(int lot, long vus) {
+		return switch (type) {
+		case PAR_CENTRE -> 1.0 / vus;
+		case DECROISSANT -> taux / (1.0 + lot / demiVie);
+		case CONSTANT -> taux;
+		};
+	}
+
+	/**
+	 * @brief Retourne la nature du calendrier.
+	 * @author Paul
+	 * @return Type du calendrier.
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	@Override
+	public String toString() {
+		return switch (type) {
+		case PAR_CENTRE -> "1/n par centre";
+		case DECROISSANT -> taux + "/(1+t/" + demiVie + ")";
+		case CONSTANT -> String.valueOf(taux);
+		};
+	}
+}
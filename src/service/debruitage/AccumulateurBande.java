@@ -0,0 +1,108 @@
+/**
+ * @file AccumulateurBande.java
+ * @brief Accumulateur des sorties des fenêtres d'une même rangée du mode local.
+ */
+package service.debruitage;
+
+import model.base.Img;
+
+/**
+ * @class AccumulateurBande
+ * @brief Somme de chaque variante et nombre de recouvrements par pixel sur la bande de lignes couverte par une
+ * rangée de fenêtres. Les fenêtres de la rangée y sont ajoutées en place, par le thread qui les a débruitées ; la
+ * bande est versée dans l'image résultat quand sa dernière fenêtre est terminée, puis libérée. Seules les rangées
+ * en cours de traitement occupent donc de la mémoire. Les sorties de fenêtres étant des entiers, l'accumulation est
+ * exacte : le résultat ne dépend ni de l'ordre des ajouts ni du nombre de threads.
+ * @author Paul
+ */
+class AccumulateurBande {
+
+	//Première ligne de la bande dans l'image résultat
+	private final int ligneDebut;
+	//Dimensions de la bande
+	private final int nbLignes;
+	private final int largeur;
+	//Somme des valeurs reconstruites de chaque variante (stockage ligne par ligne)
+	private final int[][] sommes;
+	//Nombre de fenêtres ayant contribué à chaque pixel
+	private final int[] chevauchements;
+	//Nombre de fenêtres de la rangée pas encore terminées
+	private int restantes;
+
+	/**
+	 * @brief Constructeur d'une bande vide.
+	 * @author Paul
+	 * @param nbVariantes Nombre de variantes de seuillage.
+	 * @param ligneDebut  Première ligne de la bande dans l'image résultat.
+	 * @param nbLignes    Hauteur de la bande (hauteur des fenêtres de la rangée).
+	 * @param largeur     Largeur de l'image résultat.
+	 * @param nbFenetres  Nombre de fenêtres de la rangée.
+	 */
+	AccumulateurBande(int nbVariantes, int ligneDebut, int nbLignes, int largeur, int nbFenetres) {
+		this.ligneDebut = ligneDebut;
+		this.nbLignes = nbLignes;
+		this.largeur = largeur;
+		this.sommes = new int[nbVariantes][nbLignes * largeur];
+		this.chevauchements = new int[nbLignes * largeur];
+		this.restantes = nbFenetres;
+	}
+
+	/**
+	 * @brief Ajoute en place les sorties d'une fenêtre débruitée de la rangée, une par variante.
+	 * @author Paul
+	 * @param nfImgs Fenêtre débruitée pour chaque variante.
+	 * @param posJ   Colonne de la fenêtre dans l'image résultat.
+	 */
+	synchronized void ajouterFenetre(Img[] nfImgs, int posJ) {
+		int nfLargeur = nfImgs[0].getLargeur();
+		int lignes = Math.min(nfImgs[0].getHauteur(), nbLignes);
+		int nbColonnes = Math.max(0, Math.min(nfLargeur, largeur - posJ));
+		for (int v = 0; v < nfImgs.length; v++) {
+			double[] nfPlan = nfImgs[v].getCanal(0);
+			int[] somme = sommes[v];
+			for (int i = 0; i < lignes; i++) {
+				int ligne = i * largeur + posJ;
+				for (int j = 0; j < nbColonnes; j++) {
+					somme[ligne + j] += (int) nfPlan[i * nfLargeur + j];
+				}
+			}
+		}
+		for (int i = 0; i < lignes; i++) {
+			int ligne = i * largeur + posJ;
+			for (int j = 0; j < nbColonnes; j++) {
+				chevauchements[ligne + j]++;
+			}
+		}
+	}
+
+	/**
+	 * @brief Signale qu'une fenêtre de la rangée est terminée, qu'elle ait été ajoutée ou que son traitement ait
+	 * échoué.
+	 * @author Paul
+	 * @return Vrai si c'était la dernière fenêtre de la rangée : la bande est alors complète.
+	 */
+	synchronized boolean terminerFenetre() {
+		return --restantes == 0;
+	}
+
+	/**
+	 * @brief Ajoute la bande aux sommes de l'image résultat. Deux bandes voisines pouvant se recouvrir, l'appelant
+	 * synchronise les versements.
+	 * @author Paul
+	 * @param plansSomme          Somme de chaque variante sur l'image résultat (hauteur × largeur).
+	 * @param chevauchementsImage Nombre de recouvrements de chaque pixel de l'image résultat.
+	 */
+	void verser(double[][] plansSomme, int[] chevauchementsImage) {
+		int decalage = ligneDebut * largeur;
+		for (int v = 0; v < sommes.length; v++) {
+			double[] plan = plansSomme[v];
+			int[] somme = sommes[v];
+			for (int index = 0; index < somme.length; index++) {
+				plan[decalage + index] += somme[index];
+			}
+		}
+		for (int index = 0; index < chevauchements.length; index++) {
+			chevauchementsImage[decalage + index] += chevauchements[index];
+		}
+	}
+}
@@ -5,19 +5,30 @@
 package service.debruitage;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+
+import mesure.Journal;
+import mesure.Mesures;
 import model.acp.ResultatACP;
-import model.acp.ResultatMoyCov;
 import model.base.Img;
-import model.base.Pixel;
-import model.base.Position;
+import model.cluster.ResultatKMeans;
 import model.patch.Fenetre;
+import model.patch.MatricePatchs;
 import model.patch.ParametresFenetre;
-import model.patch.ResultatPatch;
-import model.patch.ResultatPatch.PairePatchPosition;
-import model.patch.ResultatVecteur;
+import service.acp.BibliothequeBases;
+import service.acp.Echantillonnage;
 import service.acp.ProcesseurACP;
+import service.acp.Troncature;
+import service.cluster.MoteurKMeans;
+import service.cluster.MoteurKMeansMiniBatch;
+import service.cluster.TauxApprentissage;
 import service.patch.GestionnairePatchs;
 import service.seuillage.ProcesseurSeuillage;
 
@@ -28,337 +39,420 @@ import service.seuillage.ProcesseurSeuillage;
  */
 public class DebruiteurImage {
 
+	//Graine du k-means du mode par clusters, fixe pour que deux exécutions donnent la même image
+	public static final long GRAINE_CLUSTERS = 42L;
+	//Taille (en octets) de la copie M·s² des patchs au-delà de laquelle le mode par clusters utilise le k-means
+	//par mini-lots, qui lit les patchs sans les recopier (64 Mio : 170 000 patchs 7×7, 13 000 patchs 25×25)
+	public static final long SEUIL_OCTETS_MINI_LOTS = 64L << 20;
+
 	//Gestionnaire des patchs utilisés pour le traitement de l'image.
 	private GestionnairePatchs gestionnairePatchs;
 	//Processeur chargé d'appliquer l'Analyse en Composantes Principales (ACP)
 	private ProcesseurACP processeurACP;
 	//Processeur appliquant le seuillage aux composantes issues de l'ACP.
 	private ProcesseurSeuillage processeurSeuillage;
+	//Moteur enchaînant projection, seuillage, reconstruction et agrégation patch par patch.
+	private MoteurFusionne moteurFusionne;
+	//Moteur de k-means partitionnant les patchs en mode par clusters.
+	private MoteurKMeans moteurKMeans;
+	//Moteur de k-means par mini-lots, pour les matrices de patchs dépassant SEUIL_OCTETS_MINI_LOTS.
+	private MoteurKMeansMiniBatch moteurKMeansMiniBatch;
+	//Pool à vol de tâches utilisé pour le traitement parallèle des fenêtres.
+	private ForkJoinPool pool;
+	//Mesures des étapes du débruitage (inactives par défaut)
+	private Mesures mesures = Mesures.INACTIVES;
+	//Recouvrement minimal de deux fenêtres voisines (négatif : découpage par défaut)
+	private double recouvrementFenetres = -1;
 
 	/**
-	 * @brief Constructeur initialisant les composants nécessaires au débruitage.
+	 * @brief Constructeur initialisant les composants nécessaires au débruitage (pool commun de la JVM).
 	 * @author Paul
 	 */
 	public DebruiteurImage() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @brief Constructeur initialisant les composants nécessaires au débruitage.
+	 * @author Paul
+	 * @param pool Pool de threads utilisé pour le traitement parallèle.
+	 */
+	public DebruiteurImage(ForkJoinPool pool) {
 		this.gestionnairePatchs = new GestionnairePatchs();
-		this.processeurACP = new ProcesseurACP();
+		this.processeurACP = new ProcesseurACP(pool);
 		this.processeurSeuillage = new ProcesseurSeuillage();
+		this.moteurFusionne = new MoteurFusionne(gestionnairePatchs, processeurACP, processeurSeuillage);
+		this.moteurKMeans = new MoteurKMeans(pool);
+		this.moteurKMeans.setGraine(GRAINE_CLUSTERS);
+		this.moteurKMeansMiniBatch = new MoteurKMeansMiniBatch(pool);
+		this.moteurKMeansMiniBatch.setGraine(GRAINE_CLUSTERS);
+		this.pool = pool;
 	}
 
 	/**
-	 * @brief Effectue le débruitage global sur l'image entière.
-	 * @author Paul & Emma
-	 * @param xB                Image bruitée d'entrée.
-	 * @param typeSeuil         Type de seuillage ("VisuShrink" ou "BayesShrink").
-	 * @param fonctionSeuillage Fonction de seuillage ("Dur" ou "Doux").
-	 * @param sigma             Écart-type estimé du bruit.
-	 * @param taillePatch       Taille des patchs pour l'analyse.
-	 * @return Image débruitée après traitement global.
+	 * @brief Active l'ACP tronquée : seules les composantes dominantes retenues par le critère sont calculées.
+	 * @author Paul
+	 * @param troncature Critère de sélection des composantes, ou null pour l'ACP complète (par défaut).
+	 */
+	public void setTroncature(Troncature troncature) {
+		moteurFusionne.setTroncature(troncature);
+	}
+
+	/**
+	 * @brief Utilise des bases d'ACP pré-calculées : pour une taille de patch (et un niveau de bruit) présents dans
+	 * la bibliothèque, l'image est directement projetée et seuillée, sans calcul de covariance ni décomposition.
+	 * @author Paul
+	 * @param bibliotheque Bibliothèque de bases, ou null pour calculer l'ACP sur chaque image (par défaut).
 	 */
-	private Img debruiterGlobal(Img xB, String typeSeuil, String fonctionSeuillage, double sigma, int taillePatch) {
+	public void setBibliotheque(BibliothequeBases bibliotheque) {
+		moteurFusionne.setBibliotheque(bibliotheque);
+	}
 
-		System.out.println("📊 MODE GLOBAL - Traitement de l'image entière");
+	/**
+	 * @brief Calcule la projection, le seuillage et la reconstruction en simple précision (float), la covariance,
+	 * la décomposition et l'agrégation restant en double. Les images produites peuvent différer de quelques
+	 * niveaux de gris sur de rares pixels, à cause des arrondis.
+	 * @author Paul
+	 * @param simplePrecision Vrai pour la simple précision, faux pour le double (par défaut).
+	 */
+	public void setSimplePrecision(boolean simplePrecision) {
+		moteurFusionne.setSimplePrecision(simplePrecision);
+	}
 
-		// Extraction des patchs et leur transformation en vecteurs
-		System.out.println("⏳ Étape 1/8 : Extraction des patchs...");
-		ResultatPatch resPatchs = gestionnairePatchs.extractPatchs(xB, taillePatch);
-		System.out.println("✅ Extraction de " + resPatchs.taille() + " patchs réussie");
+	/**
+	 * @brief Estime la moyenne et la covariance de chaque ACP (image, fenêtre ou cluster) sur une fraction des
+	 * patchs ; tous les patchs sont ensuite projetés, seuillés et reconstruits sur la base obtenue.
+	 * @author Paul
+	 * @param echantillonnage Critère d'échantillonnage, ou null pour utiliser tous les patchs (par défaut).
+	 */
+	public void setEchantillonnage(Echantillonnage echantillonnage) {
+		moteurFusionne.setEchantillonnage(echantillonnage);
+	}
 
-		List<Position> positionsOriginales = new ArrayList<>();
-		for (PairePatchPosition p : resPatchs) {
-			positionsOriginales.add(p.getPosition());
+	/**
+	 * @brief Définit le pas entre deux patchs voisins : un pas plus grand réduit le nombre de patchs analysés et
+	 * reconstruits, un pas plus petit augmente le recouvrement (et la qualité).
+	 * @author Paul
+	 * @param pas Pas en pixels, borné par la taille des patchs, ou 0 pour la moitié de la taille des patchs (par
+	 *            défaut).
+	 * @throws IllegalArgumentException Si le pas est négatif.
+	 */
+	public void setPas(int pas) {
+		moteurFusionne.setPas(pas);
+	}
+
+	/**
+	 * @brief Définit le recouvrement minimal de deux fenêtres voisines du mode local.
+	 * @author Paul
+	 * @param recouvrementFenetres Fraction de la fenêtre dans [0, 1[, ou une valeur négative pour le découpage par
+	 *                             défaut.
+	 * @throws IllegalArgumentException Si le recouvrement est supérieur ou égal à 1.
+	 */
+	public void setRecouvrementFenetres(double recouvrementFenetres) {
+		if (recouvrementFenetres >= 1) {
+			throw new IllegalArgumentException("Le recouvrement des fenêtres doit être dans [0, 1[");
 		}
+		this.recouvrementFenetres = recouvrementFenetres;
+	}
+
+	/**
+	 * @brief Définit le nombre de patchs tirés à chaque mini-lot du k-means par mini-lots (mode par clusters, au-delà
+	 * de SEUIL_OCTETS_MINI_LOTS).
+	 * @author Paul
+	 * @param tailleLot Taille des mini-lots (par défaut : MoteurKMeansMiniBatch.TAILLE_LOT_DEFAUT).
+	 * @throws IllegalArgumentException Si tailleLot est inférieur à 1.
+	 */
+	public void setTailleLotMiniLots(int tailleLot) {
+		moteurKMeansMiniBatch.setTailleLot(tailleLot);
+	}
 
-		System.out.println("⏳ Étape 2/8 : Vectorisation des patchs...");
-		ResultatVecteur resVecteurs = gestionnairePatchs.vectorPatchs(resPatchs);
-		System.out.println("✅ Vectorisation réussie");
+	/**
+	 * @brief Définit le calendrier du taux d'apprentissage du k-means par mini-lots.
+	 * @author Paul
+	 * @param taux Calendrier du taux, ou null pour 1 / nombre de patchs absorbés par centre (par défaut).
+	 */
+	public void setTauxMiniLots(TauxApprentissage taux) {
+		moteurKMeansMiniBatch.setTaux(taux);
+	}
 
-		try {
-			// Étape 1: Calcul de l'ACP
-			System.out.println("⏳ Étape 3/8 : Calcul de l'ACP...");
-			ResultatACP resACP = processeurACP.acp(resVecteurs);
-			System.out.println("✅ Analyse en composantes principales réussie");
-
-			// Étape 2: Récupération des résultats MoyCov
-			System.out.println("⏳ Étape 4/8 : Calcul des statistiques...");
-			ResultatMoyCov resMoyCov = processeurACP.moyCov(resVecteurs);
-			System.out.println("✅ Calcul des statistiques réussi");
-
-			// Étape 3: Projection des vecteurs
-			System.out.println("⏳ Étape 5/8 : Projection des vecteurs...");
-			ResultatVecteur vecteursPropresRV = gestionnairePatchs
-					.matriceToResultatVecteur(resACP.getVecteursPropres());
-
-			ResultatVecteur vecteursProj = processeurACP.proj(vecteursPropresRV, resMoyCov.getVecteursCenters());
-			System.out.println("✅ Projection réussie");
-
-			// Étape 4: Récupération des positions
-			ResultatVecteur vecteursProjRV = new ResultatVecteur();
-			for (int i = 0; i < vecteursProj.taille(); i++) {
-				// Utiliser les positions originales au lieu des positions de resMoyCov
-				Position position = i < positionsOriginales.size() ? positionsOriginales.get(i) : new Position(0, 0);
-				vecteursProjRV.ajouterVecteur(vecteursProj.getVecteurs().get(i), position);
-			}
+	/**
+	 * @brief Définit la tolérance d'arrêt du k-means par mini-lots : les itérations s'arrêtent dès qu'aucun centre
+	 * ne s'est déplacé de plus de cette distance au cours d'un mini-lot.
+	 * @author Paul
+	 * @param tolerance Déplacement maximal (par défaut : MoteurKMeansMiniBatch.TOLERANCE_DEFAUT).
+	 * @throws IllegalArgumentException Si la tolérance est négative.
+	 */
+	public void setToleranceMiniLots(double tolerance) {
+		moteurKMeansMiniBatch.setTolerance(tolerance);
+	}
+
+	/**
+	 * @brief Applique un profil de débruitage : pas des patchs, recouvrement des fenêtres et troncature de l'ACP.
+	 * @author Paul
+	 * @param profil      Profil à appliquer.
+	 * @param taillePatch Taille des patchs du débruitage.
+	 * @param sigma       Écart-type du bruit.
+	 */
+	public void setProfil(ProfilDebruitage profil, int taillePatch, double sigma) {
+		setPas(profil.pas(taillePatch));
+		setRecouvrementFenetres(profil.getRecouvrementFenetres());
+		setTroncature(profil.troncature(sigma));
+	}
 
-			// Étape 5: Seuillage des coefficients
-			System.out.println("⏳ Étape 6/8 : Seuillage des coefficients...");
-			ResultatVecteur vecteursSeuil = processeurSeuillage.seuillage(vecteursProjRV, typeSeuil, fonctionSeuillage,
-					sigma, xB, resMoyCov.getMatriceCovariance());
-			System.out.println("✅ Seuillage réussi");
-
-			// Étape 6: Reconstruction
-			System.out.println("⏳ Étape 7/8 : Reconstruction des vecteurs...");
-			ResultatVecteur vecteursReconstruits = processeurACP.reconstructionDepuisCoefficients(vecteursSeuil,
-					resACP.getVecteursPropres(), resACP.getVecteurMoyen());
-			System.out.println("✅ Reconstruction des vecteurs réussie");
-
-			// Étape 7: Conversion en patchs
-			System.out.println("⏳ Étape 8/8 : Reconstruction de l'image...");
-			ResultatPatch patchsReconstruits = gestionnairePatchs
-					.transformerVecteursEnResultatPatch(vecteursReconstruits);
-
-			// Étape 8: Reconstruction finale
-			Img imgReconstruite = gestionnairePatchs.reconstructionPatchs(patchsReconstruits, xB.getHauteur(),
-					xB.getLargeur(), xB);
-			System.out.println("\n🎉 DÉBRUITAGE GLOBAL TERMINÉ AVEC SUCCÈS 🎉");
-
-			return imgReconstruite;
+	/**
+	 * @brief Enregistre le temps écoulé, le temps CPU, la mémoire allouée et le nombre d'éléments traités de
+	 * chaque étape et de chaque fenêtre du débruitage.
+	 * @author Paul
+	 * @param mesures Mesures destinataires, ou Mesures.INACTIVES pour ne rien enregistrer (par défaut).
+	 */
+	public void setMesures(Mesures mesures) {
+		this.mesures = mesures == null ? Mesures.INACTIVES : mesures;
+	}
+
+	/**
+	 * @brief Effectue le débruitage global sur l'image entière : l'ACP et la projection sont calculées une fois,
+	 * puis partagées par toutes les variantes de seuillage.
+	 * @author Paul & Emma
+	 * @param xB                 Image bruitée d'entrée.
+	 * @param typesSeuil         Type de seuillage de chaque variante ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionsSeuillage Fonction de seuillage de chaque variante ("Dur" ou "Doux").
+	 * @param sigma              Écart-type estimé du bruit.
+	 * @param taillePatch        Taille des patchs pour l'analyse.
+	 * @param plansSortie        Plan recevant le résultat de chaque variante (hauteur × largeur).
+	 * @return Images débruitées après traitement global, une par variante, reposant sur plansSortie.
+	 */
+	private Img[] debruiterGlobal(Img xB, String[] typesSeuil, String[] fonctionsSeuillage, double sigma,
+			int taillePatch, double[][] plansSortie) {
+
+		Journal.info("📊 MODE GLOBAL - Traitement de l'image entière");
+
+		try {
+			// Statistiques calculées une fois, puis projection, seuillage, reconstruction et agrégation patch par patch
+			Journal.info("⏳ Débruitage en une passe (statistiques, ACP, projection, seuillage, reconstruction)...");
+			Mesures.Chrono chrono = mesures.demarrer("acp");
+			ResultatACP resACP = moteurFusionne.analyser(xB, taillePatch, sigma);
+			chrono.arreter(resACP.getVecteursPropres().getNbColonnes());
+
+			chrono = mesures.demarrer("projection_seuillage_reconstruction");
+			Img[] imgsReconstruites = moteurFusionne.debruiter(xB, resACP, typesSeuil, fonctionsSeuillage, sigma,
+					taillePatch, plansSortie);
+			chrono.arreter((long) plansSortie.length * xB.getHauteur() * xB.getLargeur());
+			Journal.info("\n🎉 DÉBRUITAGE GLOBAL TERMINÉ AVEC SUCCÈS 🎉");
+
+			return imgsReconstruites;
 		} catch (Exception e) {
 			System.err.println("ERREUR lors du débruitage: " + e.getMessage());
 			e.printStackTrace();
-			return xB; // En cas d'erreur, retourne l'image bruitée
+			// En cas d'erreur, retourne l'image bruitée pour chaque variante
+			Img[] imgsBruitees = new Img[plansSortie.length];
+			for (int v = 0; v < plansSortie.length; v++) {
+				System.arraycopy(xB.getCanal(0), 0, plansSortie[v], 0, plansSortie[v].length);
+				imgsBruitees[v] = new Img(new double[][] { plansSortie[v] }, xB.getHauteur(), xB.getLargeur());
+			}
+			return imgsBruitees;
 		}
 	}
 
 	/**
-	 * @brief Effectue le débruitage local en traitant l'image par fenêtres.
+	 * @brief Effectue le débruitage local en traitant l'image par fenêtres ; l'ACP et la projection de chaque
+	 * fenêtre sont partagées par toutes les variantes de seuillage.
 	 * @author Emma & Paul
-	 * @param xB                Image bruitée d'entrée.
-	 * @param typeSeuil         Type de seuillage ("VisuShrink" ou "BayesShrink").
-	 * @param fonctionSeuillage Fonction de seuillage ("Dur" ou "Doux").
-	 * @param sigma             Écart-type estimé du bruit.
-	 * @param taillePatch       Taille des patchs pour l'analyse.
-	 * @return Image débruitée après traitement local par fenêtres.
+	 * @param xB                 Image bruitée d'entrée.
+	 * @param typesSeuil         Type de seuillage de chaque variante ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionsSeuillage Fonction de seuillage de chaque variante ("Dur" ou "Doux").
+	 * @param sigma              Écart-type estimé du bruit.
+	 * @param taillePatch        Taille des patchs pour l'analyse.
+	 * @param tailleFenetre      Taille des fenêtres.
+	 * @param plansSortie        Plan recevant le résultat de chaque variante (hauteur × largeur).
+	 * @return Images débruitées après traitement local par fenêtres, une par variante, reposant sur plansSortie.
 	 */
-	private Img debruiterLocal(Img xB, String typeSeuil, String fonctionSeuillage, double sigma, int taillePatch,
-			int tailleFenetre) {
+	private Img[] debruiterLocal(Img xB, String[] typesSeuil, String[] fonctionsSeuillage, double sigma,
+			int taillePatch, int tailleFenetre, double[][] plansSortie) {
 
-		System.out.println("🧩 MODE LOCAL - Traitement par fenêtres");
-		System.out.println("⏳ Étape 1/5 : Calcul des paramètres de fenêtrage...");
+		Journal.info("🧩 MODE LOCAL - Traitement par fenêtres");
+		Journal.info("⏳ Étape 1/5 : Calcul des paramètres de fenêtrage...");
 		// Calcul des paramètres de fenêtrage
-		ParametresFenetre pF = ParametresFenetre.calculerParametresFenetre(xB.getLargeur(), xB.getHauteur(),
-				tailleFenetre);
-
-		System.out.println("\n ⚙️  Paramètres de fenêtrage: ⚙️ ");
-		System.out.println("  Dimensions de l'image: " + xB.getLargeur() + "×" + xB.getHauteur());
-		System.out.println("  Taille de fenêtre: " + pF.getTailleFenetreCalculee());
-		System.out.println("  Grille: " + pF.getNombreFenetresX() + "×" + pF.getNombreFenetresY() + " fenêtres");
-		System.out.println(
-				"  Chevauchement: X=" + pF.getChevauchementCombineX() + ", Y=" + pF.getChevauchementCombineY());
+		ParametresFenetre pF = recouvrementFenetres < 0
+				? ParametresFenetre.calculerParametresFenetre(xB.getLargeur(), xB.getHauteur(), tailleFenetre)
+				: ParametresFenetre.calculerParametresFenetre(xB.getLargeur(), xB.getHauteur(), tailleFenetre,
+						recouvrementFenetres);
+
+		if (Journal.isInfo()) {
+			Journal.info("\n ⚙️  Paramètres de fenêtrage: ⚙️ ");
+			Journal.info("  Dimensions de l'image: " + xB.getLargeur() + "×" + xB.getHauteur());
+			Journal.info("  Taille de fenêtre: " + pF.getTailleFenetreCalculee());
+			Journal.info("  Grille: " + pF.getNombreFenetresX() + "×" + pF.getNombreFenetresY() + " fenêtres");
+			Journal.info(
+					"  Chevauchement: X=" + pF.getChevauchementCombineX() + ", Y=" + pF.getChevauchementCombineY());
+			Journal.info("  Pas des patchs: " + moteurFusionne.getPas(taillePatch));
+		}
 
-		System.out.println("⏳ Étape 2/5 : Découpage de l'image en fenêtres...");
+		Journal.info("⏳ Étape 2/5 : Découpage de l'image en fenêtres...");
 		// Découpage de l'image en fenêtres
+		Mesures.Chrono chrono = mesures.demarrer("decoupage");
 		List<Fenetre> imagettesList = gestionnairePatchs.decoupageImage(xB, pF);
-		System.out.println("✅ Découpage en " + imagettesList.size() + " fenêtres réussi");
+		chrono.arreter(imagettesList.size());
+		if (Journal.isInfo()) {
+			Journal.info("✅ Découpage en " + imagettesList.size() + " fenêtres réussi");
+		}
 
-		System.out.println("⏳ Étape 3/5 : Initialisation de l'image résultat...");
-		// Initialisation de l'image résultat
-		Pixel[][] xRPixels = new Pixel[xB.getHauteur()][xB.getLargeur()];
-		for (int i = 0; i < xB.getHauteur(); i++) {
-			for (int j = 0; j < xB.getLargeur(); j++) {
-				xRPixels[i][j] = new Pixel(0.0);
+		int hauteur = xB.getHauteur();
+		int largeur = xB.getLargeur();
 
-			}
+		if (Journal.isInfo()) {
+			Journal.info("⏳ Étape 3/5 : Répartition des fenêtres sur " + pool.getParallelism() + " threads...");
 		}
-		System.out.println("✅ Initialisation réussie");
-
-		// Compteur de progression
-		int fenetreTraitee = 0;
-		System.out.println("⏳ Étape 4/5 : Traitement de chaque fenêtre...");
-		// Traitement de chaque fenêtre
+		// Les fenêtres d'une rangée sont accumulées dans une bande, versée dans les plans de sortie une fois complète
+		Map<Integer, Integer> fenetresParRangee = new HashMap<>();
 		for (Fenetre f : imagettesList) {
-			fenetreTraitee++;
-
-			// Extraction des patchs et conversion en vecteurs
-			ResultatPatch resPatchs = gestionnairePatchs.extractPatchs(f.getImage(), taillePatch);
-
-			List<Position> positionsOriginales = new ArrayList<>();
-			for (PairePatchPosition p : resPatchs) {
-				positionsOriginales.add(p.getPosition());
-			}
-
-			ResultatVecteur resVecteurs = gestionnairePatchs.vectorPatchs(resPatchs);
-
-			try {
-				// Analyse ACP sur la fenêtre
-				ResultatACP resACP = processeurACP.acp(resVecteurs);
-				ResultatMoyCov resMoyCov = processeurACP.moyCov(resVecteurs);
-
-				// Conversion des vecteurs propres
-				ResultatVecteur vecteursPropresRV = gestionnairePatchs
-						.matriceToResultatVecteur(resACP.getVecteursPropres());
-
-				// Projection, seuillage et reconstruction
-				ResultatVecteur vecteursProj = processeurACP.proj(vecteursPropresRV, resMoyCov.getVecteursCenters());
-
-				ResultatVecteur vecteursProjRV = new ResultatVecteur();
-				for (int i = 0; i < vecteursProj.taille(); i++) {
-					Position position = i < positionsOriginales.size() ? positionsOriginales.get(i)
-							: new Position(0, 0);
-					vecteursProjRV.ajouterVecteur(vecteursProj.getVecteurs().get(i), position);
-				}
-
-				ResultatVecteur vecteursSeuil = processeurSeuillage.seuillage(vecteursProjRV, typeSeuil,
-						fonctionSeuillage, sigma, f.getImage(), resMoyCov.getMatriceCovariance());
-
-				ResultatVecteur vecteursReconstruits = processeurACP.reconstructionDepuisCoefficients(vecteursSeuil,
-						resACP.getVecteursPropres(), resACP.getVecteurMoyen());
-
-				ResultatPatch patchsReconstruits = gestionnairePatchs
-						.transformerVecteursEnResultatPatch(vecteursReconstruits);
-
-				// Reconstruction de l'image pour cette fenêtre
-				Img nfImg = gestionnairePatchs.reconstructionPatchs(patchsReconstruits, f.getImage().getHauteur(),
-						f.getImage().getLargeur(), xB);
-
-				// Fusion des résultats dans l'image globale
-				Pixel[][] nfPixels = nfImg.getPixels();
-
-				for (int i = 0; i < nfPixels.length; i++) {
-					for (int j = 0; j < nfPixels[0].length; j++) {
-						int posY = i + f.getPosition().getI();
-						int posX = j + f.getPosition().getJ();
-
-						if (posY < xB.getHauteur() && posX < xB.getLargeur()) {
-							Pixel pixelGlobal = xRPixels[posY][posX];
-							pixelGlobal.setValeur(pixelGlobal.getValeur() + nfPixels[i][j].getValeur());
-							pixelGlobal.setNbChevauchement(pixelGlobal.getNbChevauchement() + 1);
-						}
-					}
-				}
-
-			} catch (Exception e) {
-				System.err
-						.println("  ERREUR lors du traitement de la fenêtre " + fenetreTraitee + ": " + e.getMessage());
-				e.printStackTrace();
-			}
+			fenetresParRangee.merge(f.getPosition().getI(), 1, Integer::sum);
 		}
-
-		System.out.println("\n✅ Traitement de toutes les fenêtres réussi");
-
-		System.out.println("⏳ Étape 5/5 : Normalisation et finalisation...");
-
-		for (int i = 0; i < xRPixels.length; i++) {
-			for (int j = 0; j < xRPixels[0].length; j++) {
-				if (xRPixels[i][j].getNbChevauchement() > 0) {
-					double valeurNormalisee = xRPixels[i][j].getValeur() / (double) xRPixels[i][j].getNbChevauchement();
-					int valeurFinale = (int) Math.min(255, Math.max(0, Math.round(valeurNormalisee)));
-					xRPixels[i][j].setValeur(valeurFinale);
+		for (double[] planSortie : plansSortie) {
+			Arrays.fill(planSortie, 0.0);
+		}
+		int[] chevauchements = new int[hauteur * largeur];
+		TacheFenetres tache = new TacheFenetres(moteurFusionne, mesures, imagettesList, 0, imagettesList.size(),
+				hauteur, largeur, typesSeuil, fonctionsSeuillage, sigma, taillePatch, fenetresParRangee,
+				new ConcurrentHashMap<>(), plansSortie, chevauchements);
+		Journal.info("✅ Répartition réussie");
+
+		Journal.info("⏳ Étape 4/5 : Traitement parallèle des fenêtres...");
+		chrono = mesures.demarrer("fenetres");
+		pool.invoke(tache);
+		chrono.arreter(imagettesList.size());
+		Journal.info("\n✅ Traitement de toutes les fenêtres réussi");
+
+		Journal.info("⏳ Étape 5/5 : Normalisation et finalisation...");
+		chrono = mesures.demarrer("normalisation");
+
+		double[] xBPlan = xB.getCanal(0);
+		Img[] xRs = new Img[plansSortie.length];
+		for (int v = 0; v < plansSortie.length; v++) {
+			double[] xRPlan = plansSortie[v];
+			for (int index = 0; index < xRPlan.length; index++) {
+				if (chevauchements[index] > 0) {
+					double valeurNormalisee = xRPlan[index] / chevauchements[index];
+					xRPlan[index] = (int) Math.min(255, Math.max(0, Math.round(valeurNormalisee)));
 				} else {
-					xRPixels[i][j].setValeur(xB.getPixel(i, j).getValeur());
+					xRPlan[index] = xBPlan[index];
 				}
 			}
+			xRs[v] = new Img(new double[][] { xRPlan }, hauteur, largeur);
 		}
 
-		System.out.println("✅ Normalisation réussie");
-		System.out.println("\n🎉 DÉBRUITAGE LOCAL TERMINÉ AVEC SUCCÈS 🎉");
+		chrono.arreter((long) plansSortie.length * hauteur * largeur);
 
-		return new Img(xRPixels, xB.isEstRGB());
+		Journal.info("✅ Normalisation réussie");
+		Journal.info("\n🎉 DÉBRUITAGE LOCAL TERMINÉ AVEC SUCCÈS 🎉");
+
+		return xRs;
 	}
 
 	/**
-	 * @brief Effectue le débruitage d'une image RGB en traitant chaque canal séparément.
+	 * @brief Effectue le débruitage par clusters : les patchs de l'image entière sont partitionnés par k-means (par
+	 * mini-lots pour les très grandes images), puis chaque cluster est débruité sur sa propre base d'ACP, apprise
+	 * sur ses seuls patchs.
 	 * @author Paul
-	 * @param xB                Image RGB bruitée
-	 * @param typeSeuil         Type de seuillage
-	 * @param fonctionSeuillage Fonction de seuillage
-	 * @param sigma             Écart-type du bruit
-	 * @param taillePatch       Taille des patchs
-	 * @param modeLocal         Mode de traitement (local ou global)
-	 * @return Image RGB débruitée
+	 * @param xB                 Image bruitée d'entrée.
+	 * @param typesSeuil         Type de seuillage de chaque variante ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionsSeuillage Fonction de seuillage de chaque variante ("Dur" ou "Doux").
+	 * @param sigma              Écart-type estimé du bruit.
+	 * @param taillePatch        Taille des patchs pour l'analyse.
+	 * @param nbClusters         Nombre de clusters du k-means.
+	 * @param plansSortie        Plan recevant le résultat de chaque variante (hauteur × largeur).
+	 * @return Images débruitées par clusters, une par variante, reposant sur plansSortie.
 	 */
-	private Img debruiterRGB(Img xB, String typeSeuil, String fonctionSeuillage, double sigma, int taillePatch,
-			int tailleFenetre, boolean modeLocal) {
-		System.out.println("🌈 DÉBRUITAGE RGB - Traitement par canaux séparés");
-
-		// Séparer les canaux RGB
-		System.out.println("⏳ Séparation des canaux RGB...");
-		Img canalR = extraireCanal(xB, 0); // Canal Rouge
-		Img canalG = extraireCanal(xB, 1); // Canal Vert
-		Img canalB = extraireCanal(xB, 2); // Canal Bleu
-		System.out.println("✅ Séparation réussie");
-
-		// Débruiter chaque canal indépendamment
-		System.out.println("🔴 Débruitage du canal Rouge...");
-		Img canalR_debruite = modeLocal
-				? debruiterLocal(canalR, typeSeuil, fonctionSeuillage, sigma, taillePatch, tailleFenetre)
-				: debruiterGlobal(canalR, typeSeuil, fonctionSeuillage, sigma, taillePatch);
-
-		System.out.println("🟢 Débruitage du canal Vert...");
-		Img canalG_debruite = modeLocal
-				? debruiterLocal(canalG, typeSeuil, fonctionSeuillage, sigma, taillePatch, tailleFenetre)
-				: debruiterGlobal(canalG, typeSeuil, fonctionSeuillage, sigma, taillePatch);
-
-		System.out.println("🔵 Débruitage du canal Bleu...");
-		Img canalB_debruite = modeLocal
-				? debruiterLocal(canalB, typeSeuil, fonctionSeuillage, sigma, taillePatch, tailleFenetre)
-				: debruiterGlobal(canalB, typeSeuil, fonctionSeuillage, sigma, taillePatch);
-
-		// Recombiner les canaux
-		System.out.println("⏳ Recombinaison des canaux RGB...");
-		Img imageRecombinee = combinerCanaux(canalR_debruite, canalG_debruite, canalB_debruite);
-		System.out.println("✅ Recombinaison réussie");
-
-		System.out.println("🎉 DÉBRUITAGE RGB TERMINÉ AVEC SUCCÈS 🎉");
-		return imageRecombinee;
+	private Img[] debruiterClusters(Img xB, String[] typesSeuil, String[] fonctionsSeuillage, double sigma,
+			int taillePatch, int nbClusters, double[][] plansSortie) {
+
+		Journal.info("🧬 MODE CLUSTERS - ACP par groupe de patchs similaires");
+
+		Journal.info("⏳ Étape 1/3 : Extraction des patchs...");
+		Mesures.Chrono chrono = mesures.demarrer("extraction");
+		MatricePatchs patchs = moteurFusionne.extrairePatchs(xB, taillePatch);
+		chrono.arreter(patchs.getNbPatchs());
+
+		Journal.info("⏳ Étape 2/3 : Partitionnement des patchs par k-means...");
+		// Le k-means complet recopie les M×s² valeurs des patchs : au-delà de SEUIL_OCTETS_MINI_LOTS, les centres sont
+		// appris sur des mini-lots tirés au hasard, lus directement dans la matrice
+		chrono = mesures.demarrer("kmeans");
+		int k = Math.min(nbClusters, patchs.getNbPatchs());
+		long octetsCopie = (long) patchs.getNbPatchs() * patchs.getDimension() * Double.BYTES;
+		ResultatKMeans partition = octetsCopie > SEUIL_OCTETS_MINI_LOTS
+				? moteurKMeansMiniBatch.partitionner(patchs, k)
+				: moteurKMeans.partitionner(patchs, k);
+		chrono.arreter(patchs.getNbPatchs());
+		if (Journal.isInfo()) {
+			Journal.info("✅ " + partition.getNbClusters() + " clusters en " + partition.getNbIterations()
+					+ " itérations" + (partition.isConverge() ? "" : " (sans convergence)"));
+		}
+
+		Journal.info("⏳ Étape 3/3 : ACP, seuillage et reconstruction de chaque cluster...");
+		chrono = mesures.demarrer("clusters");
+		Img[] xRs = pool.invoke(ForkJoinTask.adapt(() -> moteurFusionne.debruiterParClusters(xB, patchs, partition,
+				typesSeuil, fonctionsSeuillage, sigma, plansSortie)));
+		chrono.arreter((long) plansSortie.length * xB.getHauteur() * xB.getLargeur());
+		Journal.info("\n🎉 DÉBRUITAGE PAR CLUSTERS TERMINÉ AVEC SUCCÈS 🎉");
+
+		return xRs;
 	}
 
 	/**
-	 * @brief Extrait un canal spécifique d'une image RGB et le convertit en imageniveaux de gris.
+	 * @brief Effectue le débruitage d'une image RGB en traitant les trois canaux en parallèle.
 	 * @author Paul
-	 * @param imageRGB Image RGB source
-	 * @param canal    Index du canal (0=Rouge, 1=Vert, 2=Bleu)
-	 * @return Image en niveaux de gris correspondant au canal
+	 * @param xB                 Image RGB bruitée
+	 * @param typesSeuil         Type de seuillage de chaque variante
+	 * @param debruiterCanal     Débruitage d'un canal : reçoit la vue du canal et son plan de sortie par variante
+	 * @return Images RGB débruitées, une par variante
 	 */
-	private Img extraireCanal(Img imageRGB, int canal) {
-		int hauteur = imageRGB.getHauteur();
-		int largeur = imageRGB.getLargeur();
-		Pixel[][] pixelsCanal = new Pixel[hauteur][largeur];
-
-		for (int i = 0; i < hauteur; i++) {
-			for (int j = 0; j < largeur; j++) {
-				double valeurCanal = imageRGB.getPixel(i, j).getValeur(canal);
-				pixelsCanal[i][j] = new Pixel(valeurCanal);
+	private Img[] debruiterRGB(Img xB, String[] typesSeuil, BiConsumer<Img, double[][]> debruiterCanal) {
+		Journal.info("🌈 DÉBRUITAGE RGB - Traitement parallèle des canaux");
+
+		int hauteur = xB.getHauteur();
+		int largeur = xB.getLargeur();
+		// Chaque canal est lu à travers une vue et écrit directement dans son plan de sortie
+		int nbVariantes = typesSeuil.length;
+		double[][][] plansSortie = new double[nbVariantes][3][hauteur * largeur];
+		String[] nomsCanaux = { "🔴 Rouge", "🟢 Vert", "🔵 Bleu" };
+		String[] detailsCanaux = { "rouge", "vert", "bleu" };
+
+		List<ForkJoinTask<?>> taches = new ArrayList<>();
+		for (int k = 0; k < 3; k++) {
+			Img vue = vueCanal(xB, k);
+			double[][] plansCanal = new double[nbVariantes][];
+			for (int v = 0; v < nbVariantes; v++) {
+				plansCanal[v] = plansSortie[v][k];
 			}
+			String nom = nomsCanaux[k];
+			String detail = detailsCanaux[k];
+			taches.add(ForkJoinTask.adapt(() -> {
+				if (Journal.isInfo()) {
+					Journal.info(nom + " : débruitage du canal...");
+				}
+				Mesures.Chrono chrono = mesures.demarrer("canal", detail);
+				debruiterCanal.accept(vue, plansCanal);
+				chrono.arreter((long) nbVariantes * hauteur * largeur);
+			}));
 		}
+		pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(taches)));
 
-		return new Img(pixelsCanal, false); // false = niveaux de gris
+		Journal.info("🎉 DÉBRUITAGE RGB TERMINÉ AVEC SUCCÈS 🎉");
+		Img[] xRs = new Img[nbVariantes];
+		for (int v = 0; v < nbVariantes; v++) {
+			xRs[v] = new Img(plansSortie[v], hauteur, largeur); // 3 canaux = RGB
+		}
+		return xRs;
 	}
 
 	/**
-	 * @brief Combine trois canaux en niveaux de gris en une image RGB.
+	 * @brief Construit une vue en niveaux de gris sur un canal d'une image RGB (aucune copie).
 	 * @author Paul
-	 * @param canalR Canal rouge (image niveaux de gris)
-	 * @param canalG Canal vert (image niveaux de gris)
-	 * @param canalB Canal bleu (image niveaux de gris)
-	 * @return Image RGB combinée
+	 * @param imageRGB Image RGB source
+	 * @param canal    Index du canal (0=Rouge, 1=Vert, 2=Bleu)
+	 * @return Image en niveaux de gris partageant le plan du canal
 	 */
-	private Img combinerCanaux(Img canalR, Img canalG, Img canalB) {
-		int hauteur = canalR.getHauteur();
-		int largeur = canalR.getLargeur();
-		Pixel[][] pixelsRGB = new Pixel[hauteur][largeur];
-
-		for (int i = 0; i < hauteur; i++) {
-			for (int j = 0; j < largeur; j++) {
-				double r = canalR.getPixel(i, j).getValeur();
-				double g = canalG.getPixel(i, j).getValeur();
-				double b = canalB.getPixel(i, j).getValeur();
-
-				pixelsRGB[i][j] = new Pixel(r, g, b);
-			}
-		}
-
-		return new Img(pixelsRGB, true); // true = RGB
+	private Img vueCanal(Img imageRGB, int canal) {
+		return new Img(new double[][] { imageRGB.getCanal(canal) }, imageRGB.getHauteur(), imageRGB.getLargeur()); // 1 canal = niveaux de gris
 	}
 
 	/**
@@ -375,29 +469,138 @@ public class DebruiteurImage {
 	 */
 	public Img imageDen(Img xB, String typeSeuil, String fonctionSeuillage, double sigma, int taillePatch, int tailleFenetre,
 			boolean modeLocal) {
-		
+		return imageDen(xB, new String[] { typeSeuil }, new String[] { fonctionSeuillage }, sigma, taillePatch,
+				tailleFenetre, modeLocal)[0];
+	}
+
+	/**
+	 * @brief Débruite une image pour plusieurs variantes de seuillage en une seule passe : le découpage, les
+	 * patchs, la covariance, la décomposition et la projection ne dépendent que de l'image, du mode et de la
+	 * taille de patch, et sont calculés une seule fois ; seuls le seuillage et la reconstruction sont répétés
+	 * pour chaque variante. Le résultat de chaque variante est identique à celui d'un appel séparé.
+	 * @author Paul
+	 * @param xB                 Image bruitée à débruiter.
+	 * @param typesSeuil         Type de seuillage de chaque variante ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionsSeuillage Fonction de seuillage de chaque variante ("Dur" ou "Doux"), de même longueur.
+	 * @param sigma              Écart-type estimé du bruit.
+	 * @param taillePatch        Taille des patchs pour le traitement.
+	 * @param tailleFenetre      Taille des fenêtres (mode local).
+	 * @param modeLocal          Si vrai, applique un traitement local par fenêtres, sinon global.
+	 * @return Images débruitées, dans l'ordre des variantes.
+	 * @throws IllegalArgumentException Si la taille de fenêtre dépasse l'image, si les tableaux de variantes
+	 *                                  sont vides ou de longueurs différentes.
+	 */
+	public Img[] imageDen(Img xB, String[] typesSeuil, String[] fonctionsSeuillage, double sigma, int taillePatch,
+			int tailleFenetre, boolean modeLocal) {
+
+		if (typesSeuil.length == 0 || typesSeuil.length != fonctionsSeuillage.length) {
+			throw new IllegalArgumentException("Chaque variante doit avoir un type de seuil et une fonction de seuillage");
+		}
+
 		if (modeLocal && (tailleFenetre > xB.getHauteur() || tailleFenetre > xB.getLargeur())) {
 		    throw new IllegalArgumentException("La taille de fenêtre doit être inférieur à " + 
 		        xB.getLargeur() + " et " + xB.getHauteur() + " pixels");
 		}
 		
-		System.out.println("\n🔍 DÉMARRAGE DU DÉBRUITAGE D'IMAGE 🔍");
-		System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-		System.out.println("🛠️  Mode: " + (modeLocal ? "LOCAL" : "GLOBAL"));
-		System.out.println("🛠️  Type de seuil: " + typeSeuil);
-		System.out.println("🛠️  Fonction: " + fonctionSeuillage);
-		System.out.println("🛠️  Sigma: " + sigma);
-		System.out.println("🛠️  Taille des patchs: " + taillePatch + "×" + taillePatch);
-		System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n");
+		if (Journal.isInfo()) {
+			Journal.info("\n🔍 DÉMARRAGE DU DÉBRUITAGE D'IMAGE 🔍");
+			Journal.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+			Journal.info("🛠️  Mode: " + (modeLocal ? "LOCAL" : "GLOBAL"));
+			Journal.info("🛠️  Type de seuil: " + String.join(", ", typesSeuil));
+			Journal.info("🛠️  Fonction: " + String.join(", ", fonctionsSeuillage));
+			Journal.info("🛠️  Sigma: " + sigma);
+			Journal.info("🛠️  Taille des patchs: " + taillePatch + "×" + taillePatch);
+			Journal.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n");
+		}
 
+		Mesures.Chrono chrono = mesures.demarrer("debruitage", modeLocal ? "local" : "global");
+		Img[] xRs;
 		if (xB.isEstRGB()) {
-			System.out.println("DEBUG RGB CHOSI");
-			return debruiterRGB(xB, typeSeuil, fonctionSeuillage, sigma, taillePatch, tailleFenetre, modeLocal);
+			Journal.debug("image RGB, canaux traités séparément");
+			xRs = debruiterRGB(xB, typesSeuil, (vue, plansCanal) -> {
+				if (modeLocal) {
+					debruiterLocal(vue, typesSeuil, fonctionsSeuillage, sigma, taillePatch, tailleFenetre, plansCanal);
+				} else {
+					debruiterGlobal(vue, typesSeuil, fonctionsSeuillage, sigma, taillePatch, plansCanal);
+				}
+			});
 		} else {
-			return modeLocal ? debruiterLocal(xB, typeSeuil, fonctionSeuillage, sigma, taillePatch, tailleFenetre)
-			        : debruiterGlobal(xB, typeSeuil, fonctionSeuillage, sigma, taillePatch);
+			double[][] plansSortie = new double[typesSeuil.length][xB.getHauteur() * xB.getLargeur()];
+			xRs = modeLocal
+					? debruiterLocal(xB, typesSeuil, fonctionsSeuillage, sigma, taillePatch, tailleFenetre, plansSortie)
+					: debruiterGlobal(xB, typesSeuil, fonctionsSeuillage, sigma, taillePatch, plansSortie);
+		}
+		chrono.arreter((long) typesSeuil.length * xB.getHauteur() * xB.getLargeur() * xB.getNbCanaux());
+		return xRs;
+
+	}
+
+	/**
+	 * @brief Débruite une image par ACP par cluster : les patchs sont regroupés par k-means et chaque groupe est
+	 * projeté, seuillé et reconstruit sur sa propre base d'ACP, mieux adaptée à son contenu qu'une base unique.
+	 * @author Paul
+	 * @param xB                Image bruitée à débruiter.
+	 * @param typeSeuil         Type de seuillage ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionSeuillage Fonction de seuillage ("Dur" ou "Doux").
+	 * @param sigma             Écart-type estimé du bruit.
+	 * @param taillePatch       Taille des patchs pour le traitement.
+	 * @param nbClusters        Nombre de clusters du k-means.
+	 * @return Image débruitée.
+	 */
+	public Img imageDenClusters(Img xB, String typeSeuil, String fonctionSeuillage, double sigma, int taillePatch,
+			int nbClusters) {
+		return imageDenClusters(xB, new String[] { typeSeuil }, new String[] { fonctionSeuillage }, sigma,
+				taillePatch, nbClusters)[0];
+	}
+
+	/**
+	 * @brief Débruite une image par ACP par cluster pour plusieurs variantes de seuillage : l'extraction des
+	 * patchs, le k-means et les ACP des clusters sont calculés une seule fois. Le calcul se fait toujours en double
+	 * précision, et une bibliothèque de bases éventuelle est ignorée (les bases dépendent des clusters).
+	 * @author Paul
+	 * @param xB                 Image bruitée à débruiter.
+	 * @param typesSeuil         Type de seuillage de chaque variante ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionsSeuillage Fonction de seuillage de chaque variante ("Dur" ou "Doux"), de même longueur.
+	 * @param sigma              Écart-type estimé du bruit.
+	 * @param taillePatch        Taille des patchs pour le traitement.
+	 * @param nbClusters         Nombre de clusters du k-means (au moins 1).
+	 * @return Images débruitées, dans l'ordre des variantes.
+	 * @throws IllegalArgumentException Si le nombre de clusters est inférieur à 1, si les tableaux de variantes
+	 *                                  sont vides ou de longueurs différentes.
+	 */
+	public Img[] imageDenClusters(Img xB, String[] typesSeuil, String[] fonctionsSeuillage, double sigma,
+			int taillePatch, int nbClusters) {
+
+		if (typesSeuil.length == 0 || typesSeuil.length != fonctionsSeuillage.length) {
+			throw new IllegalArgumentException("Chaque variante doit avoir un type de seuil et une fonction de seuillage");
+		}
+		if (nbClusters < 1) {
+			throw new IllegalArgumentException("Le nombre de clusters doit être au moins 1");
 		}
 
+		if (Journal.isInfo()) {
+			Journal.info("\n🔍 DÉMARRAGE DU DÉBRUITAGE D'IMAGE 🔍");
+			Journal.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+			Journal.info("🛠️  Mode: CLUSTERS (" + nbClusters + ")");
+			Journal.info("🛠️  Type de seuil: " + String.join(", ", typesSeuil));
+			Journal.info("🛠️  Fonction: " + String.join(", ", fonctionsSeuillage));
+			Journal.info("🛠️  Sigma: " + sigma);
+			Journal.info("🛠️  Taille des patchs: " + taillePatch + "×" + taillePatch);
+			Journal.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n");
+		}
+
+		Mesures.Chrono chrono = mesures.demarrer("debruitage", "clusters");
+		Img[] xRs;
+		if (xB.isEstRGB()) {
+			Journal.debug("image RGB, canaux traités séparément");
+			xRs = debruiterRGB(xB, typesSeuil, (vue, plansCanal) -> debruiterClusters(vue, typesSeuil,
+					fonctionsSeuillage, sigma, taillePatch, nbClusters, plansCanal));
+		} else {
+			double[][] plansSortie = new double[typesSeuil.length][xB.getHauteur() * xB.getLargeur()];
+			xRs = debruiterClusters(xB, typesSeuil, fonctionsSeuillage, sigma, taillePatch, nbClusters, plansSortie);
+		}
+		chrono.arreter((long) typesSeuil.length * xB.getHauteur() * xB.getLargeur() * xB.getNbCanaux());
+		return xRs;
 	}
 
 }
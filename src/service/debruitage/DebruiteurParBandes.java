@@ -0,0 +1,395 @@
+/**
+ * @file DebruiteurParBandes.java
+ * @brief Débruitage local d'images trop grandes pour la mémoire : lecture par bandes de fenêtres et écriture
+ * progressive des lignes terminées.
+ */
+package service.debruitage;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import mesure.Journal;
+import model.base.EcrivainPNG;
+import model.base.Img;
+import model.patch.ParametresFenetre;
+import service.acp.BibliothequeBases;
+import service.acp.Echantillonnage;
+import service.acp.ProcesseurACP;
+import service.acp.Troncature;
+import service.patch.GestionnairePatchs;
+import service.seuillage.ProcesseurSeuillage;
+
+/**
+ * @class DebruiteurParBandes
+ * @brief Mode local tuilé : l'image n'est jamais chargée entièrement. Les fenêtres sont traitées rangée par rangée ;
+ * seules les lignes nécessaires à la rangée courante sont lues (ImageReadParam.setSourceRegion), et les lignes
+ * qu'aucune fenêtre restante ne recouvre sont normalisées puis écrites aussitôt dans le PNG de sortie. La mémoire
+ * reste bornée par quelques hauteurs de fenêtre, quelle que soit la hauteur de l'image. Le découpage, l'accumulation
+ * et la normalisation sont ceux du mode local en mémoire : le résultat est identique.
+ * @author Paul
+ */
+public class DebruiteurParBandes {
+
+	//Moteur de débruitage appliqué à chaque fenêtre
+	private final MoteurFusionne moteur;
+	//Pool à vol de tâches utilisé pour traiter en parallèle les fenêtres d'une rangée
+	private final ForkJoinPool pool;
+	//Recouvrement minimal de deux fenêtres voisines (négatif : découpage par défaut)
+	private double recouvrementFenetres = -1;
+
+	//Dimensions et type de l'image en cours
+	private int largeur;
+	private int hauteur;
+	private int nbCanaux;
+	//Première ligne non écrite et première ligne non lue : la bande couvre les lignes [debut, fin)
+	private int debut;
+	private int fin;
+	//Pixels bruités de la bande, par canal
+	private double[][] bruite;
+	//Somme des sorties de fenêtres et nombre de recouvrements de chaque pixel de la bande, par canal
+	private int[][] somme;
+	private int[][] chevauchements;
+
+	/**
+	 * @brief Constructeur du débruiteur par bandes.
+	 * @author Paul
+	 * @param pool Pool de threads utilisé pour le traitement parallèle des fenêtres.
+	 */
+	public DebruiteurParBandes(ForkJoinPool pool) {
+		this.moteur = new MoteurFusionne(new GestionnairePatchs(), new ProcesseurACP(pool), new ProcesseurSeuillage());
+		this.pool = pool;
+	}
+
+	/**
+	 * @brief Utilise des bases d'ACP pré-calculées à la place de l'ACP de chaque fenêtre.
+	 * @author Paul
+	 * @param bibliotheque Bibliothèque de bases, ou null pour calculer l'ACP sur chaque fenêtre (par défaut).
+	 */
+	public void setBibliotheque(BibliothequeBases bibliotheque) {
+		moteur.setBibliotheque(bibliotheque);
+	}
+
+	/**
+	 * @brief Active l'ACP tronquée.
+	 * @author Paul
+	 * @param troncature Critère de sélection des composantes, ou null pour l'ACP complète (par défaut).
+	 */
+	public void setTroncature(Troncature troncature) {
+		moteur.setTroncature(troncature);
+	}
+
+	/**
+	 * @brief Calcule la projection, le seuillage et la reconstruction de chaque fenêtre en float.
+	 * @author Paul
+	 * @param simplePrecision Vrai pour la simple précision, faux pour le double (par défaut).
+	 */
+	public void setSimplePrecision(boolean simplePrecision) {
+		moteur.setSimplePrecision(simplePrecision);
+	}
+
+	/**
+	 * @brief Estime la moyenne et la covariance de chaque fenêtre sur une fraction de ses patchs.
+	 * @author Paul
+	 * @param echantillonnage Critère d'échantillonnage, ou null pour utiliser tous les patchs (par défaut).
+	 */
+	public void setEchantillonnage(Echantillonnage echantillonnage) {
+		moteur.setEchantillonnage(echantillonnage);
+	}
+
+	/**
+	 * @brief Définit le pas entre deux patchs voisins.
+	 * @author Paul
+	 * @param pas Pas en pixels, borné par la taille des patchs, ou 0 pour la moitié de la taille des patchs (par
+	 *            défaut).
+	 * @throws IllegalArgumentException Si le pas est négatif.
+	 */
+	public void setPas(int pas) {
+		moteur.setPas(pas);
+	}
+
+	/**
+	 * @brief Définit le recouvrement minimal de deux fenêtres voisines.
+	 * @author Paul
+	 * @param recouvrementFenetres Fraction de la fenêtre dans [0, 1[, ou une valeur négative pour le découpage par
+	 *                             défaut.
+	 * @throws IllegalArgumentException Si le recouvrement est supérieur ou égal à 1.
+	 */
+	public void setRecouvrementFenetres(double recouvrementFenetres) {
+		if (recouvrementFenetres >= 1) {
+			throw new IllegalArgumentException("Le recouvrement des fenêtres doit être dans [0, 1[");
+		}
+		this.recouvrementFenetres = recouvrementFenetres;
+	}
+
+	/**
+	 * @brief Applique un profil de débruitage : pas des patchs, recouvrement des fenêtres et troncature de l'ACP.
+	 * @author Paul
+	 * @param profil      Profil à appliquer.
+	 * @param taillePatch Taille des patchs du débruitage.
+	 * @param sigma       Écart-type du bruit.
+	 */
+	public void setProfil(ProfilDebruitage profil, int taillePatch, double sigma) {
+		setPas(profil.pas(taillePatch));
+		setRecouvrementFenetres(profil.getRecouvrementFenetres());
+		setTroncature(profil.troncature(sigma));
+	}
+
+	/**
+	 * @brief Débruite une image bruitée en mode local, de fichier à fichier.
+	 * @author Paul
+	 * @param entree            Image bruitée (tout format lisible par ImageIO).
+	 * @param sortie            Fichier PNG de sortie.
+	 * @param typeSeuil         Type de seuillage ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionSeuillage Fonction de seuillage ("Dur" ou "Doux").
+	 * @param sigma             Écart-type estimé du bruit.
+	 * @param taillePatch       Taille des patchs.
+	 * @param tailleFenetre     Taille des fenêtres.
+	 * @throws IOException Si l'image ne peut pas être lue ou le résultat écrit.
+	 * @throws IllegalArgumentException Si la sortie n'est pas un PNG ou si la fenêtre dépasse l'image.
+	 */
+	public void debruiter(Path entree, Path sortie, String typeSeuil, String fonctionSeuillage, double sigma,
+			int taillePatch, int tailleFenetre) throws IOException {
+		if (!sortie.getFileName().toString().toLowerCase().endsWith(".png")) {
+			throw new IllegalArgumentException("Le mode tuilé écrit uniquement des fichiers PNG : " + sortie);
+		}
+		if (!Files.isRegularFile(entree)) {
+			throw new IOException("Le fichier n'existe pas : " + entree.toAbsolutePath());
+		}
+
+		try (ImageInputStream flux = ImageIO.createImageInputStream(entree.toFile())) {
+			Iterator<ImageReader> lecteurs = flux == null ? null : ImageIO.getImageReaders(flux);
+			if (lecteurs == null || !lecteurs.hasNext()) {
+				throw new IOException("Impossible de lire l'image. Format non pris en charge : " + entree);
+			}
+			ImageReader lecteur = lecteurs.next();
+			try {
+				lecteur.setInput(flux, false, true);
+				debruiter(lecteur, sortie, typeSeuil, fonctionSeuillage, sigma, taillePatch, tailleFenetre);
+			} finally {
+				lecteur.dispose();
+				bruite = null;
+				somme = null;
+				chevauchements = null;
+			}
+		}
+	}
+
+	/**
+	 * @brief Parcourt les rangées de fenêtres dans l'ordre du découpage et écrit les lignes au fur et à mesure.
+	 * @author Paul
+	 * @param lecteur           Lecteur positionné sur l'image bruitée.
+	 * @param sortie            Fichier PNG de sortie.
+	 * @param typeSeuil         Type de seuillage.
+	 * @param fonctionSeuillage Fonction de seuillage.
+	 * @param sigma             Écart-type du bruit.
+	 * @param taillePatch       Taille des patchs.
+	 * @param tailleFenetre     Taille des fenêtres.
+	 * @throws IOException Si la lecture ou l'écriture échoue.
+	 */
+	private void debruiter(ImageReader lecteur, Path sortie, String typeSeuil, String fonctionSeuillage,
+			double sigma, int taillePatch, int tailleFenetre) throws IOException {
+		largeur = lecteur.getWidth(0);
+		hauteur = lecteur.getHeight(0);
+		if (tailleFenetre > hauteur || tailleFenetre > largeur) {
+			throw new IllegalArgumentException("La taille de fenêtre doit être inférieur à " + largeur + " et "
+					+ hauteur + " pixels");
+		}
+
+		ParametresFenetre pF = recouvrementFenetres < 0
+				? ParametresFenetre.calculerParametresFenetre(largeur, hauteur, tailleFenetre)
+				: ParametresFenetre.calculerParametresFenetre(largeur, hauteur, tailleFenetre, recouvrementFenetres);
+		int[] positionsX = pF.positionsX(largeur);
+		int[] positionsY = pF.positionsY(hauteur);
+		if (Journal.isInfo()) {
+			Journal.info("🧩 MODE LOCAL TUILÉ - " + largeur + "×" + hauteur + ", " + positionsX.length + "×"
+					+ positionsY.length + " fenêtres de " + tailleFenetre + " pixels");
+		}
+
+		debut = 0;
+		fin = 0;
+		nbCanaux = 0;
+		EcrivainPNG ecrivain = null;
+		try {
+			for (int r = 0; r < positionsY.length; r++) {
+				int posY = positionsY[r];
+				lire(lecteur, posY + tailleFenetre);
+				if (ecrivain == null) {
+					ecrivain = new EcrivainPNG(sortie, largeur, hauteur, nbCanaux == 3);
+				}
+
+				traiterRangee(posY, positionsX, tailleFenetre, typeSeuil, fonctionSeuillage, sigma, taillePatch);
+
+				// Lignes qu'aucune rangée restante ne recouvre
+				int limite = fin;
+				for (int suivante = r + 1; suivante < positionsY.length; suivante++) {
+					limite = Math.min(limite, positionsY[suivante]);
+				}
+				ecrire(ecrivain, limite);
+				if (Journal.isInfo()) {
+					Journal.info("  Rangée " + (r + 1) + "/" + positionsY.length + " : " + debut + " lignes écrites");
+				}
+			}
+
+			// Lignes restantes (non recouvertes par une fenêtre)
+			lire(lecteur, hauteur);
+			if (ecrivain == null) {
+				ecrivain = new EcrivainPNG(sortie, largeur, hauteur, nbCanaux == 3);
+			}
+			ecrire(ecrivain, hauteur);
+		} finally {
+			if (ecrivain != null) {
+				ecrivain.close();
+			}
+		}
+		Journal.info("🎉 DÉBRUITAGE LOCAL TUILÉ TERMINÉ AVEC SUCCÈS 🎉");
+	}
+
+	/**
+	 * @brief Étend la bande jusqu'à une ligne donnée en lisant seulement les lignes qui ne l'ont pas encore été.
+	 * @author Paul
+	 * @param lecteur     Lecteur positionné sur l'image bruitée.
+	 * @param nouvelleFin Ligne (exclue) jusqu'à laquelle la bande doit s'étendre.
+	 * @throws IOException Si la lecture échoue.
+	 */
+	private void lire(ImageReader lecteur, int nouvelleFin) throws IOException {
+		if (nouvelleFin <= fin) {
+			return;
+		}
+		ImageReadParam parametres = lecteur.getDefaultReadParam();
+		parametres.setSourceRegion(new Rectangle(0, fin, largeur, nouvelleFin - fin));
+		Img lue = new Img(lecteur.read(0, parametres));
+		if (nbCanaux == 0) {
+			nbCanaux = lue.getNbCanaux();
+			bruite = new double[nbCanaux][0];
+			somme = new int[nbCanaux][0];
+			chevauchements = new int[nbCanaux][0];
+		}
+
+		int taille = (nouvelleFin - debut) * largeur;
+		int existant = (fin - debut) * largeur;
+		for (int k = 0; k < nbCanaux; k++) {
+			bruite[k] = Arrays.copyOf(bruite[k], taille);
+			System.arraycopy(lue.getCanal(k), 0, bruite[k], existant, taille - existant);
+			somme[k] = Arrays.copyOf(somme[k], taille);
+			chevauchements[k] = Arrays.copyOf(chevauchements[k], taille);
+		}
+		fin = nouvelleFin;
+	}
+
+	/**
+	 * @brief Débruite en parallèle les fenêtres d'une rangée (chaque canal séparément) et les accumule dans la bande.
+	 * @author Paul
+	 * @param posY              Ligne des fenêtres de la rangée.
+	 * @param positionsX        Colonnes des fenêtres.
+	 * @param tailleFenetre     Taille des fenêtres.
+	 * @param typeSeuil         Type de seuillage.
+	 * @param fonctionSeuillage Fonction de seuillage.
+	 * @param sigma             Écart-type du bruit.
+	 * @param taillePatch       Taille des patchs.
+	 */
+	private void traiterRangee(int posY, int[] positionsX, int tailleFenetre, String typeSeuil,
+			String fonctionSeuillage, double sigma, int taillePatch) {
+		Img[][] sorties = new Img[positionsX.length][nbCanaux];
+
+		List<ForkJoinTask<?>> taches = new ArrayList<>();
+		for (int c = 0; c < positionsX.length; c++) {
+			for (int k = 0; k < nbCanaux; k++) {
+				int colonne = c;
+				int canal = k;
+				Img fenetre = extraireFenetre(canal, posY, positionsX[colonne], tailleFenetre);
+				taches.add(ForkJoinTask.adapt(() -> {
+					try {
+						sorties[colonne][canal] = moteur.debruiter(fenetre, typeSeuil, fonctionSeuillage, sigma,
+								taillePatch, new double[tailleFenetre * tailleFenetre]);
+					} catch (Exception e) {
+						System.err.println("  ERREUR lors du traitement de la fenêtre (" + posY + ", "
+								+ positionsX[colonne] + ") : " + e.getMessage());
+					}
+				}));
+			}
+		}
+		pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(taches)));
+
+		// Accumulation exacte (valeurs entières) des sorties de la rangée
+		for (int c = 0; c < positionsX.length; c++) {
+			for (int k = 0; k < nbCanaux; k++) {
+				if (sorties[c][k] == null) {
+					continue;
+				}
+				double[] plan = sorties[c][k].getCanal(0);
+				for (int i = 0; i < tailleFenetre; i++) {
+					int ligne = (posY + i - debut) * largeur + positionsX[c];
+					for (int j = 0; j < tailleFenetre; j++) {
+						somme[k][ligne + j] += (int) plan[i * tailleFenetre + j];
+						chevauchements[k][ligne + j]++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @brief Copie une fenêtre d'un canal de la bande.
+	 * @author Paul
+	 * @param canal         Canal à copier.
+	 * @param posY          Ligne de la fenêtre dans l'image.
+	 * @param posX          Colonne de la fenêtre dans l'image.
+	 * @param tailleFenetre Taille de la fenêtre.
+	 * @return Fenêtre mono-canal.
+	 */
+	private Img extraireFenetre(int canal, int posY, int posX, int tailleFenetre) {
+		double[] plan = new double[tailleFenetre * tailleFenetre];
+		for (int i = 0; i < tailleFenetre; i++) {
+			System.arraycopy(bruite[canal], (posY + i - debut) * largeur + posX, plan, i * tailleFenetre,
+					tailleFenetre);
+		}
+		return new Img(new double[][] { plan }, tailleFenetre, tailleFenetre);
+	}
+
+	/**
+	 * @brief Normalise et écrit les lignes de la bande jusqu'à une ligne donnée, puis les retire de la bande.
+	 * @author Paul
+	 * @param ecrivain Écrivain du PNG de sortie.
+	 * @param limite   Ligne (exclue) jusqu'à laquelle écrire.
+	 * @throws IOException Si l'écriture échoue.
+	 */
+	private void ecrire(EcrivainPNG ecrivain, int limite) throws IOException {
+		if (limite <= debut) {
+			return;
+		}
+		double[][] ligne = new double[nbCanaux][largeur];
+		for (int i = 0; i < limite - debut; i++) {
+			for (int k = 0; k < nbCanaux; k++) {
+				int origine = i * largeur;
+				for (int j = 0; j < largeur; j++) {
+					int n = chevauchements[k][origine + j];
+					ligne[k][j] = n > 0 ? (int) Math.min(255, Math.max(0, Math.round(somme[k][origine + j] / (double) n)))
+							: bruite[k][origine + j];
+				}
+			}
+			ecrivain.ecrireLigne(ligne, 0);
+		}
+
+		int retirees = (limite - debut) * largeur;
+		int taille = (fin - debut) * largeur;
+		for (int k = 0; k < nbCanaux; k++) {
+			bruite[k] = Arrays.copyOfRange(bruite[k], retirees, taille);
+			somme[k] = Arrays.copyOfRange(somme[k], retirees, taille);
+			chevauchements[k] = Arrays.copyOfRange(chevauchements[k], retirees, taille);
+		}
+		debut = limite;
+	}
+}
@@ -0,0 +1,635 @@
+/**
+ * @file MoteurFusionne.java
+ * @brief Moteur de débruitage en une passe : statistiques calculées une seule fois, puis chaque patch est projeté,
+ * seuillé, reconstruit et agrégé sans matérialiser d'intermédiaire à l'échelle de l'image.
+ */
+package service.debruitage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+
+import model.acp.ResultatACP;
+import model.base.Img;
+import model.cluster.ResultatKMeans;
+import model.patch.MatricePatchs;
+import service.acp.BibliothequeBases;
+import service.acp.Echantillonnage;
+import service.acp.NoyauGEMM;
+import service.acp.ProcesseurACP;
+import service.acp.Troncature;
+import service.patch.GestionnairePatchs;
+import service.seuillage.MoteurSeuillage;
+import service.seuillage.ProcesseurSeuillage;
+
+/**
+ * @class MoteurFusionne
+ * @brief Enchaîne projection → seuillage → reconstruction → agrégation par recouvrement, patch par patch.
+ * @author Paul
+ */
+public class MoteurFusionne {
+
+	//Nombre de patchs projetés et reconstruits ensemble par le noyau de produit matriciel
+	private static final int BLOC_PATCHS = 64;
+
+	//Gestionnaire fournissant la vue sur les patchs de l'image.
+	private GestionnairePatchs gestionnairePatchs;
+	//Processeur calculant les statistiques et la base de l'ACP.
+	private ProcesseurACP processeurACP;
+	//Processeur fournissant les seuils et les fonctions de seuillage.
+	private ProcesseurSeuillage processeurSeuillage;
+	//Critère de troncature de l'ACP (null : décomposition complète)
+	private Troncature troncature;
+	//Bases pré-calculées utilisées à la place de l'ACP de l'image (null : ACP calculée sur l'image)
+	private BibliothequeBases bibliotheque;
+	//Projection, seuillage et reconstruction en simple précision
+	private boolean simplePrecision;
+	//Échantillon de patchs servant à estimer moyenne et covariance (null : tous les patchs)
+	private Echantillonnage echantillonnage;
+	//Pas entre deux patchs voisins (0 : moitié de la taille des patchs)
+	private int pas;
+
+	/**
+	 * @brief Constructeur du moteur à partir des composants du débruitage.
+	 * @author Paul
+	 * @param gestionnairePatchs  Gestionnaire des patchs.
+	 * @param processeurACP       Processeur d'ACP.
+	 * @param processeurSeuillage Processeur de seuillage.
+	 */
+	public MoteurFusionne(GestionnairePatchs gestionnairePatchs, ProcesseurACP processeurACP,
+			ProcesseurSeuillage processeurSeuillage) {
+		this.gestionnairePatchs = gestionnairePatchs;
+		this.processeurACP = processeurACP;
+		this.processeurSeuillage = processeurSeuillage;
+	}
+
+	/**
+	 * @brief Définit le critère de troncature de l'ACP.
+	 * @author Paul
+	 * @param troncature Critère de sélection des composantes, ou null pour l'ACP complète.
+	 */
+	public void setTroncature(Troncature troncature) {
+		this.troncature = troncature;
+	}
+
+	/**
+	 * @brief Définit le pas entre deux patchs voisins, pour l'ACP comme pour la reconstruction.
+	 * @author Paul
+	 * @param pas Pas en pixels, borné par la taille des patchs, ou 0 pour la moitié de la taille des patchs.
+	 * @throws IllegalArgumentException Si le pas est négatif.
+	 */
+	public void setPas(int pas) {
+		if (pas < 0) {
+			throw new IllegalArgumentException("Le pas entre deux patchs ne peut pas être négatif");
+		}
+		this.pas = pas;
+	}
+
+	/**
+	 * @brief Calcule le pas effectivement utilisé pour une taille de patch.
+	 * @author Paul
+	 * @param taillePatch Taille des patchs.
+	 * @return Pas entre deux patchs voisins, entre 1 et taillePatch.
+	 */
+	public int getPas(int taillePatch) {
+		return pas > 0 ? Math.min(pas, taillePatch) : GestionnairePatchs.pasParDefaut(taillePatch);
+	}
+
+	/**
+	 * @brief Construit la vue sur les patchs d'une image avec le pas défini.
+	 * @author Paul
+	 * @param xB          Image (seul le canal 0 est lu).
+	 * @param taillePatch Taille des patchs.
+	 * @return MatricePatchs des patchs de l'image.
+	 */
+	public MatricePatchs extrairePatchs(Img xB, int taillePatch) {
+		return pas > 0 ? gestionnairePatchs.extraireMatricePatchsParPas(xB, taillePatch, getPas(taillePatch))
+				: gestionnairePatchs.extraireMatricePatchs(xB, taillePatch);
+	}
+
+	/**
+	 * @brief Débruite le premier canal d'une image en une seule passe sur les patchs.
+	 * @author Paul
+	 * @param xB                Image bruitée (seul le canal 0 est traité).
+	 * @param typeSeuil         Type de seuillage ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionSeuillage Fonction de seuillage ("Dur" ou "Doux").
+	 * @param sigma             Écart-type estimé du bruit.
+	 * @param taillePatch       Taille des patchs.
+	 * @return Image mono-canal débruitée, de mêmes dimensions que xB.
+	 * @throws IllegalArgumentException Si le type de seuil ou la fonction de seuillage est invalide.
+	 */
+	public Img debruiter(Img xB, String typeSeuil, String fonctionSeuillage, double sigma, int taillePatch) {
+		return debruiter(xB, typeSeuil, fonctionSeuillage, sigma, taillePatch,
+				new double[xB.getHauteur() * xB.getLargeur()]);
+	}
+
+	/**
+	 * @brief Débruite le premier canal d'une image en écrivant le résultat dans un plan fourni.
+	 * @author Paul
+	 * @param xB                Image bruitée (seul le canal 0 est traité).
+	 * @param typeSeuil         Type de seuillage ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionSeuillage Fonction de seuillage ("Dur" ou "Doux").
+	 * @param sigma             Écart-type estimé du bruit.
+	 * @param taillePatch       Taille des patchs.
+	 * @param planSortie        Plan de sortie (hauteur × largeur), utilisé aussi comme plan d'accumulation.
+	 * @return Image mono-canal débruitée reposant sur planSortie.
+	 * @throws IllegalArgumentException Si le type de seuil, la fonction de seuillage ou la taille du plan est invalide.
+	 */
+	public Img debruiter(Img xB, String typeSeuil, String fonctionSeuillage, double sigma, int taillePatch,
+			double[] planSortie) {
+		return debruiter(xB, analyser(xB, taillePatch, sigma), typeSeuil, fonctionSeuillage, sigma,
+				taillePatch, planSortie);
+	}
+
+	/**
+	 * @brief Fournit la base de l'ACP d'une image : base pré-calculée de la bibliothèque si elle en contient une
+	 * pour cette taille de patch et ce niveau de bruit, sinon ACP calculée sur les patchs de l'image.
+	 * @author Paul
+	 * @param xB          Image bruitée (seul le canal 0 est traité).
+	 * @param taillePatch Taille des patchs.
+	 * @param sigma       Écart-type estimé du bruit.
+	 * @return Résultat de l'ACP (complète, ou tronquée si un critère de troncature est défini).
+	 */
+	public ResultatACP analyser(Img xB, int taillePatch, double sigma) {
+		if (bibliotheque != null) {
+			ResultatACP base = bibliotheque.trouver(taillePatch, sigma);
+			if (base != null) {
+				return processeurACP.tronquer(base, troncature);
+			}
+		}
+		MatricePatchs patchs = extrairePatchs(xB, taillePatch);
+		return processeurACP.acp(processeurACP.moyCov(patchs, echantillonnage), troncature);
+	}
+
+	/**
+	 * @brief Définit la bibliothèque de bases pré-calculées.
+	 * @author Paul
+	 * @param bibliotheque Bibliothèque de bases, ou null pour calculer l'ACP sur chaque image.
+	 */
+	public void setBibliotheque(BibliothequeBases bibliotheque) {
+		this.bibliotheque = bibliotheque;
+	}
+
+	/**
+	 * @brief Choisit la précision de la projection, du seuillage et de la reconstruction.
+	 * @author Paul
+	 * @param simplePrecision Vrai pour calculer ces étapes en float, faux pour le double (par défaut).
+	 */
+	public void setSimplePrecision(boolean simplePrecision) {
+		this.simplePrecision = simplePrecision;
+	}
+
+	/**
+	 * @brief Indique si la projection, le seuillage et la reconstruction sont calculés en float.
+	 * @author Paul
+	 * @return Vrai en simple précision.
+	 */
+	public boolean isSimplePrecision() {
+		return simplePrecision;
+	}
+
+	/**
+	 * @brief Définit l'échantillon de patchs sur lequel la moyenne et la covariance sont estimées ; la base
+	 * obtenue projette et reconstruit toujours tous les patchs.
+	 * @author Paul
+	 * @param echantillonnage Critère d'échantillonnage, ou null pour utiliser tous les patchs (par défaut).
+	 */
+	public void setEchantillonnage(Echantillonnage echantillonnage) {
+		this.echantillonnage = echantillonnage;
+	}
+
+	/**
+	 * @brief Débruite le premier canal d'une image à partir d'une base d'ACP déjà calculée.
+	 * @author Paul
+	 * @param xB                Image bruitée (seul le canal 0 est traité).
+	 * @param resACP            Base de l'ACP calculée sur les patchs de xB.
+	 * @param typeSeuil         Type de seuillage ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionSeuillage Fonction de seuillage ("Dur" ou "Doux").
+	 * @param sigma             Écart-type estimé du bruit.
+	 * @param taillePatch       Taille des patchs.
+	 * @param planSortie        Plan de sortie (hauteur × largeur), utilisé aussi comme plan d'accumulation.
+	 * @return Image mono-canal débruitée reposant sur planSortie.
+	 * @throws IllegalArgumentException Si le type de seuil, la fonction de seuillage ou la taille du plan est invalide.
+	 */
+	public Img debruiter(Img xB, ResultatACP resACP, String typeSeuil, String fonctionSeuillage, double sigma,
+			int taillePatch, double[] planSortie) {
+		return debruiter(xB, resACP, new String[] { typeSeuil }, new String[] { fonctionSeuillage }, sigma,
+				taillePatch, new double[][] { planSortie })[0];
+	}
+
+	/**
+	 * @brief Débruite le premier canal d'une image pour plusieurs variantes de seuillage à partir d'une même base
+	 * d'ACP : chaque bloc de patchs est centré et projeté une seule fois, seuls le seuillage, la reconstruction et
+	 * l'agrégation sont répétés pour chaque variante.
+	 * @author Paul
+	 * @param xB                 Image bruitée (seul le canal 0 est traité).
+	 * @param resACP             Base de l'ACP calculée sur les patchs de xB.
+	 * @param typesSeuil         Type de seuillage de chaque variante ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionsSeuillage Fonction de seuillage de chaque variante ("Dur" ou "Doux").
+	 * @param sigma              Écart-type estimé du bruit.
+	 * @param taillePatch        Taille des patchs.
+	 * @param plansSortie        Plan de sortie de chaque variante (hauteur × largeur), utilisé aussi comme plan
+	 *                           d'accumulation.
+	 * @return Images mono-canal débruitées, une par variante, reposant sur plansSortie.
+	 * @throws IllegalArgumentException Si un type de seuil, une fonction de seuillage ou la taille d'un plan est
+	 *                                  invalide, ou si les tableaux de variantes n'ont pas la même longueur.
+	 */
+	public Img[] debruiter(Img xB, ResultatACP resACP, String[] typesSeuil, String[] fonctionsSeuillage,
+			double sigma, int taillePatch, double[][] plansSortie) {
+
+		int nbVariantes = typesSeuil.length;
+		if (fonctionsSeuillage.length != nbVariantes || plansSortie.length != nbVariantes) {
+			throw new IllegalArgumentException("Chaque variante doit avoir un type de seuil, une fonction et un plan");
+		}
+
+		// Résolution des options de seuillage une seule fois par variante
+		MoteurSeuillage[] seuillages = new MoteurSeuillage[nbVariantes];
+		for (int v = 0; v < nbVariantes; v++) {
+			seuillages[v] = processeurSeuillage.moteur(typesSeuil[v], fonctionsSeuillage[v], sigma, xB);
+		}
+
+		MatricePatchs patchs = extrairePatchs(xB, taillePatch);
+
+		int hauteur = xB.getHauteur();
+		int largeur = xB.getLargeur();
+		for (double[] planSortie : plansSortie) {
+			if (planSortie.length != hauteur * largeur) {
+				throw new IllegalArgumentException("Le plan de sortie ne correspond pas aux dimensions de l'image");
+			}
+			Arrays.fill(planSortie, 0.0);
+		}
+		// Le recouvrement ne dépend que de la géométrie des patchs : un seul compteur pour toutes les variantes
+		int[] compteur = new int[hauteur * largeur];
+
+		if (simplePrecision) {
+			agregerSimple(patchs, resACP, seuillages, largeur, plansSortie, compteur);
+		} else {
+			agreger(patchs, resACP, seuillages, largeur, plansSortie, compteur);
+		}
+
+		return normaliser(xB, plansSortie, compteur);
+	}
+
+	/**
+	 * @brief Débruite le premier canal d'une image par ACP par cluster : les patchs sont partitionnés selon les
+	 * étiquettes d'un k-means, une base d'ACP est apprise sur chaque cluster, puis chaque cluster est projeté,
+	 * seuillé et reconstruit sur sa propre base. Les clusters sont traités en parallèle (tâches du pool courant) ;
+	 * chaque patch reconstruit et arrondi est aussitôt ajouté aux sommes du thread qui l'a calculé, additionnées une
+	 * seule fois à la fin. Les valeurs arrondies étant entières, le résultat ne dépend pas du nombre de threads.
+	 * @author Paul
+	 * @param xB                 Image bruitée (seul le canal 0 est traité).
+	 * @param patchs             Vue sur les patchs de xB, dans l'ordre des étiquettes.
+	 * @param partition          Résultat du k-means sur ces patchs.
+	 * @param typesSeuil         Type de seuillage de chaque variante ("VisuShrink" ou "BayesShrink").
+	 * @param fonctionsSeuillage Fonction de seuillage de chaque variante ("Dur" ou "Doux").
+	 * @param sigma              Écart-type estimé du bruit.
+	 * @param plansSortie        Plan de sortie de chaque variante (hauteur × largeur), utilisé aussi comme plan
+	 *                           d'accumulation.
+	 * @return Images mono-canal débruitées, une par variante, reposant sur plansSortie.
+	 * @throws IllegalArgumentException Si un type de seuil, une fonction de seuillage ou la taille d'un plan est
+	 *                                  invalide, ou si les tableaux de variantes n'ont pas la même longueur.
+	 */
+	public Img[] debruiterParClusters(Img xB, MatricePatchs patchs, ResultatKMeans partition, String[] typesSeuil,
+			String[] fonctionsSeuillage, double sigma, double[][] plansSortie) {
+
+		int nbVariantes = typesSeuil.length;
+		if (fonctionsSeuillage.length != nbVariantes || plansSortie.length != nbVariantes) {
+			throw new IllegalArgumentException("Chaque variante doit avoir un type de seuil, une fonction et un plan");
+		}
+		MoteurSeuillage[] seuillages = new MoteurSeuillage[nbVariantes];
+		for (int v = 0; v < nbVariantes; v++) {
+			seuillages[v] = processeurSeuillage.moteur(typesSeuil[v], fonctionsSeuillage[v], sigma, xB);
+		}
+
+		int hauteur = xB.getHauteur();
+		int largeur = xB.getLargeur();
+		for (double[] planSortie : plansSortie) {
+			if (planSortie.length != hauteur * largeur) {
+				throw new IllegalArgumentException("Le plan de sortie ne correspond pas aux dimensions de l'image");
+			}
+			Arrays.fill(planSortie, 0.0);
+		}
+
+		// Positions des patchs de chaque cluster
+		int[] etiquettes = partition.getEtiquettes();
+		int[] effectifs = partition.getEffectifs();
+		int[][] membres = new int[effectifs.length][];
+		for (int c = 0; c < membres.length; c++) {
+			membres[c] = new int[effectifs[c]];
+		}
+		int[] remplis = new int[effectifs.length];
+		for (int k = 0; k < etiquettes.length; k++) {
+			membres[etiquettes[k]][remplis[etiquettes[k]]++] = k;
+		}
+
+		// Une tâche par cluster : ACP sur ses patchs, puis projection, seuillage, reconstruction sur sa base et
+		// agrégation dans les sommes du thread courant (un jeu de plans par thread, jamais partagé)
+		Map<Thread, int[][]> sommesParThread = new ConcurrentHashMap<>();
+		List<ForkJoinTask<?>> taches = new ArrayList<>();
+		for (int[] indices : membres) {
+			if (indices.length > 0) {
+				taches.add(ForkJoinTask.adapt(() -> reconstruireCluster(patchs, indices, seuillages, largeur,
+						hauteur * largeur, sommesParThread)));
+			}
+		}
+		ForkJoinTask.invokeAll(taches);
+
+		// Addition unique des sommes des threads
+		for (int[][] sommes : sommesParThread.values()) {
+			for (int v = 0; v < nbVariantes; v++) {
+				double[] planSortie = plansSortie[v];
+				int[] somme = sommes[v];
+				for (int index = 0; index < somme.length; index++) {
+					planSortie[index] += somme[index];
+				}
+			}
+		}
+
+		// Le recouvrement ne dépend que de la géométrie des patchs, pas des clusters
+		int[] compteur = new int[hauteur * largeur];
+		int taille = patchs.getTaille();
+		for (int k = 0; k < patchs.getNbPatchs(); k++) {
+			int origine = patchs.getLigne(k) * largeur + patchs.getColonne(k);
+			for (int x = 0; x < taille; x++) {
+				for (int y = 0; y < taille; y++) {
+					compteur[origine + x * largeur + y]++;
+				}
+			}
+		}
+
+		return normaliser(xB, plansSortie, compteur);
+	}
+
+	/**
+	 * @brief Apprend la base d'ACP d'un cluster, puis projette, seuille, reconstruit et agrège ses patchs bloc par
+	 * bloc.
+	 * @author Paul
+	 * @param patchs          Vue sur tous les patchs de l'image.
+	 * @param indices         Indices des patchs du cluster.
+	 * @param seuillages      Moteur de seuillage de chaque variante.
+	 * @param largeur         Largeur de l'image.
+	 * @param nbPixels        Nombre de pixels de l'image.
+	 * @param sommesParThread Sommes de chaque variante par thread, complétées par celles du thread courant.
+	 */
+	private void reconstruireCluster(MatricePatchs patchs, int[] indices, MoteurSeuillage[] seuillages, int largeur,
+			int nbPixels, Map<Thread, int[][]> sommesParThread) {
+		int[] lignes = new int[indices.length];
+		int[] colonnes = new int[indices.length];
+		for (int b = 0; b < indices.length; b++) {
+			lignes[b] = patchs.getLigne(indices[b]);
+			colonnes[b] = patchs.getColonne(indices[b]);
+		}
+		MatricePatchs cluster = new MatricePatchs(patchs.getSource(), patchs.getLargeurSource(), patchs.getTaille(),
+				lignes, colonnes);
+		ResultatACP resACP = processeurACP.acp(processeurACP.moyCov(cluster, echantillonnage), troncature);
+
+		int s2 = cluster.getDimension();
+		int nbAxes = resACP.getVecteursPropres().getNbColonnes();
+		double[] u = resACP.getVecteursPropres().versTableau();
+		double[] moyenne = resACP.getVecteurMoyen().getValeurs();
+		int nbVariantes = seuillages.length;
+
+		double[] centres = new double[BLOC_PATCHS * s2];
+		double[] coefficients = new double[BLOC_PATCHS * nbAxes];
+		double[] seuilles = nbVariantes > 1 ? new double[BLOC_PATCHS * nbAxes] : coefficients;
+		double[] blocReconstruit = new double[BLOC_PATCHS * s2];
+		int taille = cluster.getTaille();
+		// Le bloc suivant ne rejoint aucune tâche : le thread courant est le seul à écrire dans ces sommes
+		int[][] sommes = sommesParThread.computeIfAbsent(Thread.currentThread(), t -> new int[nbVariantes][nbPixels]);
+
+		for (int debut = 0; debut < indices.length; debut += BLOC_PATCHS) {
+			int nb = Math.min(BLOC_PATCHS, indices.length - debut);
+
+			// Centrage du bloc puis projection sur la base du cluster
+			for (int b = 0; b < nb; b++) {
+				int ligne = b * s2;
+				cluster.copierPatch(debut + b, centres, ligne);
+				for (int j = 0; j < s2; j++) {
+					centres[ligne + j] -= moyenne[j];
+				}
+			}
+			Arrays.fill(coefficients, 0, nb * nbAxes, 0.0);
+			NoyauGEMM.multiplier(centres, nb, s2, u, nbAxes, coefficients);
+
+			for (int v = 0; v < nbVariantes; v++) {
+				if (seuilles != coefficients) {
+					System.arraycopy(coefficients, 0, seuilles, 0, nb * nbAxes);
+				}
+				seuillages[v].seuiller(seuilles, nb, nbAxes);
+
+				Arrays.fill(blocReconstruit, 0, nb * s2, 0.0);
+				NoyauGEMM.multiplierTransposee(seuilles, nb, nbAxes, u, s2, blocReconstruit);
+
+				// Arrondi et agrégation directe dans les sommes du thread
+				int[] somme = sommes[v];
+				for (int b = 0; b < nb; b++) {
+					int ligne = b * s2;
+					int origine = cluster.getLigne(debut + b) * largeur + cluster.getColonne(debut + b);
+					for (int x = 0; x < taille; x++) {
+						for (int y = 0; y < taille; y++) {
+							int i = x * taille + y;
+							somme[origine + x * largeur + y] += (int) Math.min(255,
+									Math.max(0, Math.round(blocReconstruit[ligne + i] + moyenne[i])));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @brief Divise chaque somme par le nombre de patchs couvrant le pixel, les pixels non couverts gardant la
+	 * valeur de l'image bruitée.
+	 * @author Paul
+	 * @param xB          Image bruitée.
+	 * @param plansSortie Plan d'accumulation de chaque variante, normalisé en place.
+	 * @param compteur    Nombre de patchs couvrant chaque pixel.
+	 * @return Images mono-canal débruitées, une par variante, reposant sur plansSortie.
+	 */
+	private static Img[] normaliser(Img xB, double[][] plansSortie, int[] compteur) {
+		// Moyenne des recouvrements, écrite en place dans le plan d'accumulation de chaque variante
+		double[] planBruite = xB.getCanal(0);
+		Img[] resultats = new Img[plansSortie.length];
+		for (int v = 0; v < plansSortie.length; v++) {
+			double[] somme = plansSortie[v];
+			for (int index = 0; index < somme.length; index++) {
+				if (compteur[index] > 0) {
+					somme[index] = Math.min(255, Math.max(0, Math.round(somme[index] / compteur[index])));
+				} else {
+					// Pixels non couverts : valeur de l'image bruitée
+					somme[index] = planBruite[index];
+				}
+			}
+			resultats[v] = new Img(new double[][] { somme }, xB.getHauteur(), xB.getLargeur());
+		}
+		return resultats;
+	}
+
+	/**
+	 * @brief Projette, seuille, reconstruit et agrège tous les patchs, bloc par bloc, en double précision.
+	 * @author Paul
+	 * @param patchs      Vue sur les patchs de l'image.
+	 * @param resACP      Base de l'ACP.
+	 * @param seuillages  Moteur de seuillage de chaque variante.
+	 * @param largeur     Largeur de l'image.
+	 * @param plansSortie Plan d'accumulation de chaque variante (mis à zéro).
+	 * @param compteur    Nombre de patchs couvrant chaque pixel (mis à zéro), complété en place.
+	 */
+	private void agreger(MatricePatchs patchs, ResultatACP resACP, MoteurSeuillage[] seuillages, int largeur,
+			double[][] plansSortie, int[] compteur) {
+		int s2 = patchs.getDimension();
+		int nbAxes = resACP.getVecteursPropres().getNbColonnes();
+		double[] u = resACP.getVecteursPropres().versTableau();
+		double[] moyenne = resACP.getVecteurMoyen().getValeurs();
+		int nbVariantes = seuillages.length;
+
+		// Tampons d'un bloc de patchs, réutilisés d'un bloc à l'autre
+		double[] centres = new double[BLOC_PATCHS * s2];
+		double[] coefficients = new double[BLOC_PATCHS * nbAxes];
+		// Copie seuillée des coefficients, nécessaire seulement si plusieurs variantes partagent la projection
+		double[] seuilles = nbVariantes > 1 ? new double[BLOC_PATCHS * nbAxes] : coefficients;
+		double[] reconstruits = new double[BLOC_PATCHS * s2];
+		int taille = patchs.getTaille();
+
+		for (int debut = 0; debut < patchs.getNbPatchs(); debut += BLOC_PATCHS) {
+			int nb = Math.min(BLOC_PATCHS, patchs.getNbPatchs() - debut);
+
+			// Centrage du bloc puis projection sur la base (coefficients = centres · U)
+			for (int b = 0; b < nb; b++) {
+				int ligne = b * s2;
+				patchs.copierPatch(debut + b, centres, ligne);
+				for (int j = 0; j < s2; j++) {
+					centres[ligne + j] -= moyenne[j];
+				}
+			}
+			Arrays.fill(coefficients, 0, nb * nbAxes, 0.0);
+			NoyauGEMM.multiplier(centres, nb, s2, u, nbAxes, coefficients);
+
+			for (int v = 0; v < nbVariantes; v++) {
+				// Seuillage en place des coefficients du bloc
+				if (seuilles != coefficients) {
+					System.arraycopy(coefficients, 0, seuilles, 0, nb * nbAxes);
+				}
+				seuillages[v].seuiller(seuilles, nb, nbAxes);
+
+				// Reconstruction du bloc (reconstruits = coefficients · Uᵀ)
+				Arrays.fill(reconstruits, 0, nb * s2, 0.0);
+				NoyauGEMM.multiplierTransposee(seuilles, nb, nbAxes, u, s2, reconstruits);
+
+				// Arrondi et agrégation directe dans l'image
+				double[] somme = plansSortie[v];
+				for (int b = 0; b < nb; b++) {
+					int ligne = b * s2;
+					int origine = patchs.getLigne(debut + b) * largeur + patchs.getColonne(debut + b);
+					for (int x = 0; x < taille; x++) {
+						for (int y = 0; y < taille; y++) {
+							int i = x * taille + y;
+							double valeur = reconstruits[ligne + i] + moyenne[i];
+
+							int index = origine + x * largeur + y;
+							somme[index] += Math.min(255, Math.max(0, Math.round(valeur)));
+							if (v == 0) {
+								compteur[index]++;
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @brief Projette, seuille, reconstruit et agrège tous les patchs, bloc par bloc, en simple précision : base,
+	 * moyenne et tampons des blocs (patchs centrés, coefficients, reconstructions) sont des tableaux de float, les
+	 * patchs étant convertis en les copiant depuis l'image. Les valeurs arrondies sont ajoutées directement aux plans
+	 * de sortie, comme en double : aucune image supplémentaire n'est allouée. Seules la covariance et la
+	 * décomposition (en amont) restent en double ; sur data/x0, le temps total reste celui du mode double, qu'elles
+	 * dominent.
+	 * @author Paul
+	 * @param patchs      Vue sur les patchs de l'image.
+	 * @param resACP      Base de l'ACP.
+	 * @param seuillages  Moteur de seuillage de chaque variante.
+	 * @param largeur     Largeur de l'image.
+	 * @param plansSortie Plan d'accumulation de chaque variante (mis à zéro).
+	 * @param compteur    Nombre de patchs couvrant chaque pixel (mis à zéro), complété en place.
+	 */
+	private void agregerSimple(MatricePatchs patchs, ResultatACP resACP, MoteurSeuillage[] seuillages, int largeur,
+			double[][] plansSortie, int[] compteur) {
+		int s2 = patchs.getDimension();
+		int nbAxes = resACP.getVecteursPropres().getNbColonnes();
+		float[] u = versSimple(resACP.getVecteursPropres().versTableau());
+		float[] moyenne = versSimple(resACP.getVecteurMoyen().getValeurs());
+		int nbVariantes = seuillages.length;
+
+		// Tampons d'un bloc de patchs en simple précision, réutilisés d'un bloc à l'autre
+		float[] centres = new float[BLOC_PATCHS * s2];
+		float[] coefficients = new float[BLOC_PATCHS * nbAxes];
+		// Copie seuillée des coefficients, nécessaire seulement si plusieurs variantes partagent la projection
+		float[] seuilles = nbVariantes > 1 ? new float[BLOC_PATCHS * nbAxes] : coefficients;
+		float[] reconstruits = new float[BLOC_PATCHS * s2];
+		int taille = patchs.getTaille();
+
+		for (int debut = 0; debut < patchs.getNbPatchs(); debut += BLOC_PATCHS) {
+			int nb = Math.min(BLOC_PATCHS, patchs.getNbPatchs() - debut);
+
+			// Centrage du bloc puis projection sur la base (coefficients = centres · U)
+			for (int b = 0; b < nb; b++) {
+				int ligne = b * s2;
+				patchs.copierPatch(debut + b, centres, ligne);
+				for (int j = 0; j < s2; j++) {
+					centres[ligne + j] -= moyenne[j];
+				}
+			}
+			Arrays.fill(coefficients, 0, nb * nbAxes, 0f);
+			NoyauGEMM.multiplier(centres, nb, s2, u, nbAxes, coefficients);
+
+			for (int v = 0; v < nbVariantes; v++) {
+				// Seuillage en place des coefficients du bloc
+				if (seuilles != coefficients) {
+					System.arraycopy(coefficients, 0, seuilles, 0, nb * nbAxes);
+				}
+				seuillages[v].seuiller(seuilles, nb, nbAxes);
+
+				// Reconstruction du bloc (reconstruits = coefficients · Uᵀ)
+				Arrays.fill(reconstruits, 0, nb * s2, 0f);
+				NoyauGEMM.multiplierTransposee(seuilles, nb, nbAxes, u, s2, reconstruits);
+
+				// Arrondi et agrégation directe dans l'image
+				double[] somme = plansSortie[v];
+				for (int b = 0; b < nb; b++) {
+					int ligne = b * s2;
+					int origine = patchs.getLigne(debut + b) * largeur + patchs.getColonne(debut + b);
+					for (int x = 0; x < taille; x++) {
+						for (int y = 0; y < taille; y++) {
+							int i = x * taille + y;
+							float valeur = reconstruits[ligne + i] + moyenne[i];
+
+							int index = origine + x * largeur + y;
+							somme[index] += Math.min(255, Math.max(0, Math.round(valeur)));
+							if (v == 0) {
+								compteur[index]++;
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @brief Convertit un tableau en simple précision.
+	 * @author Paul
+	 * @param valeurs Valeurs en double.
+	 * @return Copie arrondie au float le plus proche.
+	 */
+	private static float[] versSimple(double[] valeurs) {
+		float[] resultat = new float[valeurs.length];
+		for (int i = 0; i < valeurs.length; i++) {
+			resultat[i] = (float) valeurs[i];
+		}
+		return resultat;
+	}
+}
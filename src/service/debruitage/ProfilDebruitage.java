@@ -0,0 +1,103 @@
+/**
+ * @file ProfilDebruitage.java
+ * @brief Préréglages du débruitage, du plus rapide au plus fidèle.
+ */
+package service.debruitage;
+
+import service.acp.Troncature;
+
+/**
+ * @enum ProfilDebruitage
+ * @brief Regroupe les réglages qui échangent de la qualité contre du débit : pas entre deux patchs voisins,
+ * recouvrement des fenêtres du mode local et troncature de l'ACP. Le profil équilibré reproduit le débruitage par
+ * défaut.
+ * @author Paul
+ */
+public enum ProfilDebruitage {
+	//Patchs espacés des trois quarts de leur taille, fenêtres sans recouvrement imposé, ACP tronquée
+	RAPIDE("fast", 3, 4, 0, true),
+	//Réglages par défaut : patchs espacés de la moitié de leur taille, découpage par défaut des fenêtres
+	EQUILIBRE("balanced", 1, 2, -1, false),
+	//Patchs espacés du tiers de leur taille, fenêtres recouvertes de moitié
+	QUALITE("quality", 1, 3, 0.5, false);
+
+	//Facteur appliqué à σ par la troncature du profil rapide : les composantes de variance inférieure à (1,5 σ)²
+	//sont dominées par le bruit, dont les valeurs propres se dispersent au-dessus de σ²
+	public static final double FACTEUR_TRONCATURE = 1.5;
+
+	//Nom anglais du profil, accepté par la ligne de commande
+	private final String nomAnglais;
+	//Numérateur de la fraction de la taille des patchs donnant le pas
+	private final int numerateurPas;
+	//Dénominateur de la fraction de la taille des patchs donnant le pas
+	private final int denominateurPas;
+	//Recouvrement minimal de deux fenêtres voisines (négatif : découpage par défaut)
+	private final double recouvrementFenetres;
+	//ACP tronquée aux composantes dont la variance dépasse nettement celle du bruit
+	private final boolean troncatureBruit;
+
+	private ProfilDebruitage(String nomAnglais, int numerateurPas, int denominateurPas, double recouvrementFenetres,
+			boolean troncatureBruit) {
+		this.nomAnglais = nomAnglais;
+		this.numerateurPas = numerateurPas;
+		this.denominateurPas = denominateurPas;
+		this.recouvrementFenetres = recouvrementFenetres;
+		this.troncatureBruit = troncatureBruit;
+	}
+
+	/**
+	 * @brief Retrouve un profil à partir de son nom français ou anglais (sans tenir compte de la casse ni des
+	 * accents : "rapide"/"fast", "equilibre"/"balanced", "qualite"/"quality").
+	 * @author Paul
+	 * @param nom Nom du profil.
+	 * @return Profil correspondant.
+	 * @throws IllegalArgumentException Si le nom n'est pas reconnu.
+	 */
+	public static ProfilDebruitage depuisNom(String nom) {
+		String normalise = nom.toLowerCase().replace('é', 'e');
+		for (ProfilDebruitage profil : values()) {
+			if (profil.name().equalsIgnoreCase(normalise) || profil.nomAnglais.equals(normalise)) {
+				return profil;
+			}
+		}
+		throw new IllegalArgumentException("Profil de débruitage non reconnu (fast, balanced ou quality) : " + nom);
+	}
+
+	/**
+	 * @brief Calcule le pas entre deux patchs voisins pour une taille de patch.
+	 * @author Paul
+	 * @param taillePatch Taille des patchs.
+	 * @return Pas en pixels, au moins 1.
+	 */
+	public int pas(int taillePatch) {
+		return Math.max(1, taillePatch * numerateurPas / denominateurPas);
+	}
+
+	/**
+	 * @brief Retourne le recouvrement minimal de deux fenêtres voisines du mode local.
+	 * @author Paul
+	 * @return Fraction de la fenêtre dans [0, 1[, ou une valeur négative pour le découpage par défaut.
+	 */
+	public double getRecouvrementFenetres() {
+		return recouvrementFenetres;
+	}
+
+	/**
+	 * @brief Construit le critère de troncature de l'ACP du profil.
+	 * @author Paul
+	 * @param sigma Écart-type du bruit.
+	 * @return Critère de troncature, ou null pour l'ACP complète.
+	 */
+	public Troncature troncature(double sigma) {
+		return troncatureBruit ? Troncature.bruit(FACTEUR_TRONCATURE * sigma) : null;
+	}
+
+	/**
+	 * @brief Retourne le nom anglais du profil, utilisé par la ligne de commande et les rapports.
+	 * @author Paul
+	 * @return "fast", "balanced" ou "quality".
+	 */
+	public String getNomAnglais() {
+		return nomAnglais;
+	}
+}
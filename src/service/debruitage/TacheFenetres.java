@@ -0,0 +1,142 @@
+/**
+ * @file TacheFenetres.java
+ * @brief Tâche fork/join débruitant une plage de fenêtres du mode local.
+ */
+package service.debruitage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+import mesure.Mesures;
+import model.base.Img;
+import model.patch.Fenetre;
+
+/**
+ * @class TacheFenetres
+ * @brief Découpe récursivement la liste des fenêtres en deux moitiés jusqu'à une fenêtre par tâche. Chaque fenêtre
+ * est projetée une fois pour toutes les variantes de seuillage, puis ajoutée en place dans la bande de sa rangée ;
+ * la dernière fenêtre terminée d'une rangée verse la bande dans les sommes de l'image.
+ * @author Paul
+ */
+class TacheFenetres extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	//Moteur de débruitage appliqué à chaque fenêtre
+	private final MoteurFusionne moteur;
+	//Mesures recevant une étape par fenêtre
+	private final Mesures mesures;
+	//Fenêtres de l'image
+	private final List<Fenetre> fenetres;
+	//Indice de la première fenêtre traitée (inclus)
+	private final int debut;
+	//Indice de la dernière fenêtre traitée (exclu)
+	private final int fin;
+	//Dimensions de l'image résultat
+	private final int hauteur;
+	private final int largeur;
+	//Paramètres du débruitage
+	private final String[] typesSeuil;
+	private final String[] fonctionsSeuillage;
+	private final double sigma;
+	private final int taillePatch;
+	//Nombre de fenêtres de chaque rangée, indexé par la ligne des fenêtres
+	private final Map<Integer, Integer> fenetresParRangee;
+	//Bandes des rangées en cours, indexées par la ligne des fenêtres
+	private final Map<Integer, AccumulateurBande> bandes;
+	//Somme de chaque variante et nombre de recouvrements sur l'image résultat
+	private final double[][] plansSomme;
+	private final int[] chevauchements;
+
+	/**
+	 * @brief Constructeur de la tâche.
+	 * @author Paul
+	 * @param moteur             Moteur de débruitage.
+	 * @param mesures            Mesures recevant une étape par fenêtre.
+	 * @param fenetres           Fenêtres de l'image.
+	 * @param debut              Première fenêtre (incluse).
+	 * @param fin                Dernière fenêtre (exclue).
+	 * @param hauteur            Hauteur de l'image résultat.
+	 * @param largeur            Largeur de l'image résultat.
+	 * @param typesSeuil         Type de seuillage de chaque variante.
+	 * @param fonctionsSeuillage Fonction de seuillage de chaque variante.
+	 * @param sigma              Écart-type du bruit.
+	 * @param taillePatch        Taille des patchs.
+	 * @param fenetresParRangee  Nombre de fenêtres de chaque rangée, indexé par la ligne des fenêtres.
+	 * @param bandes             Bandes des rangées en cours (table concurrente, complétée au besoin).
+	 * @param plansSomme         Somme de chaque variante sur l'image résultat, complétée rangée par rangée.
+	 * @param chevauchements     Nombre de recouvrements de chaque pixel de l'image résultat.
+	 */
+	TacheFenetres(MoteurFusionne moteur, Mesures mesures, List<Fenetre> fenetres, int debut, int fin,
+			int hauteur, int largeur, String[] typesSeuil, String[] fonctionsSeuillage, double sigma, int taillePatch,
+			Map<Integer, Integer> fenetresParRangee, Map<Integer, AccumulateurBande> bandes, double[][] plansSomme,
+			int[] chevauchements) {
+		this.moteur = moteur;
+		this.mesures = mesures;
+		this.fenetres = fenetres;
+		this.debut = debut;
+		this.fin = fin;
+		this.hauteur = hauteur;
+		this.largeur = largeur;
+		this.typesSeuil = typesSeuil;
+		this.fonctionsSeuillage = fonctionsSeuillage;
+		this.sigma = sigma;
+		this.taillePatch = taillePatch;
+		this.fenetresParRangee = fenetresParRangee;
+		this.bandes = bandes;
+		this.plansSomme = plansSomme;
+		this.chevauchements = chevauchements;
+	}
+
+	@Override
+	protected void compute() {
+		if (fin - debut == 0) {
+			return;
+		}
+		if (fin - debut == 1) {
+			traiterFenetre(debut);
+			return;
+		}
+
+		int milieu = (debut + fin) >>> 1;
+		invokeAll(new TacheFenetres(moteur, mesures, fenetres, debut, milieu, hauteur, largeur, typesSeuil,
+				fonctionsSeuillage, sigma, taillePatch, fenetresParRangee, bandes, plansSomme, chevauchements),
+				new TacheFenetres(moteur, mesures, fenetres, milieu, fin, hauteur, largeur, typesSeuil,
+						fonctionsSeuillage, sigma, taillePatch, fenetresParRangee, bandes, plansSomme,
+						chevauchements));
+	}
+
+	/**
+	 * @brief Débruite une fenêtre et l'ajoute à la bande de sa rangée ; une fenêtre dont le traitement échoue n'est
+	 * pas accumulée. La dernière fenêtre terminée de la rangée verse la bande dans les sommes de l'image.
+	 * @author Paul
+	 * @param index Indice de la fenêtre.
+	 */
+	private void traiterFenetre(int index) {
+		Fenetre f = fenetres.get(index);
+		int posI = f.getPosition().getI();
+		AccumulateurBande bande = bandes.computeIfAbsent(posI, i -> new AccumulateurBande(typesSeuil.length, i,
+				Math.min(f.getImage().getHauteur(), hauteur - i), largeur, fenetresParRangee.get(i)));
+		try {
+			Mesures.Chrono chrono = mesures.isActif()
+					? mesures.demarrer("fenetre", posI + "," + f.getPosition().getJ())
+					: mesures.demarrer("fenetre");
+			int nbPixels = f.getImage().getHauteur() * f.getImage().getLargeur();
+			Img[] nfImgs = moteur.debruiter(f.getImage(), moteur.analyser(f.getImage(), taillePatch, sigma),
+					typesSeuil, fonctionsSeuillage, sigma, taillePatch, new double[typesSeuil.length][nbPixels]);
+			bande.ajouterFenetre(nfImgs, f.getPosition().getJ());
+			chrono.arreter(nbPixels);
+		} catch (Exception e) {
+			System.err.println("  ERREUR lors du traitement de la fenêtre " + (index + 1) + ": " + e.getMessage());
+			e.printStackTrace();
+		}
+		if (bande.terminerFenetre()) {
+			bandes.remove(posI);
+			// Les bandes de deux rangées voisines se recouvrent : un seul versement à la fois
+			synchronized (chevauchements) {
+				bande.verser(plansSomme, chevauchements);
+			}
+		}
+	}
+}
@@ -24,13 +24,13 @@ public class EvaluationQualite {
     public double mse(Img X0, Img Xr) {
         int nbLigne = X0.getHauteur();
         int nbColonne = X0.getLargeur();
+        double[] plan0 = X0.getCanal(0);
+        double[] planR = Xr.getCanal(0);
         double mse = 0;
         
-        for (int i = 0; i < nbLigne; i++) {
-            for (int j = 0; j < nbColonne; j++) {
-                double diff = (X0.getPixel(i, j).getValeur() - Xr.getPixel(i, j).getValeur());
-                mse += (diff * diff);
-            }
+        for (int index = 0; index < nbLigne * nbColonne; index++) {
+            double diff = plan0[index] - planR[index];
+            mse += (diff * diff);
         }
         mse = mse / (double) (nbLigne * nbColonne);
         return mse;
@@ -4,10 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 import model.base.Img;
 import model.base.Matrice;
-import model.base.Pixel;
 import model.base.Position;
 import model.base.Vecteur;
 import model.patch.Fenetre;
+import model.patch.MatricePatchs;
 import model.patch.ParametresFenetre;
 import model.patch.Patch;
 import model.patch.ResultatPatch;
@@ -31,78 +31,157 @@ public class GestionnairePatchs {
      */
     public ResultatPatch extractPatchsAvecRecouvrement(Img Xs, int s, int recouvrement) {
 
-        Pixel[][] imgPixels = Xs.getPixels();
+        double[] plan = Xs.getCanal(0);
         ResultatPatch resPatch = new ResultatPatch();
 
-        int h = imgPixels.length;
-        int w = imgPixels[0].length;
+        int w = Xs.getLargeur();
+        int[][] positions = calculerPositionsPatchs(Xs.getHauteur(), w, s, recouvrement);
 
+        // Créer et ajouter chaque patch à sa position
+        for (int k = 0; k < positions[0].length; k++) {
+            Patch patch = extrairePatch(plan, w, positions[0][k], positions[1][k], s);
+            resPatch.ajouterPatch(patch, new Position(positions[0][k], positions[1][k]));
+        }
+
+        return resPatch;
+    }
+
+    /**
+     * @brief Construit la matrice des patchs de l'image sous forme de vue, sans copier les pixels.
+     * @author Paul
+     * @param Xs Image source (seul le premier canal est utilisé).
+     * @param s Taille des patchs.
+     * @param recouvrement Niveau de recouvrement.
+     * @return MatricePatchs dont les lignes sont lues directement dans le plan de l'image.
+     */
+    public MatricePatchs extraireMatricePatchs(Img Xs, int s, int recouvrement) {
+        int[][] positions = calculerPositionsPatchs(Xs.getHauteur(), Xs.getLargeur(), s, recouvrement);
+        return new MatricePatchs(Xs.getCanal(0), Xs.getLargeur(), s, positions[0], positions[1]);
+    }
+
+    /**
+     * @brief Construit la matrice des patchs avec un recouvrement par défaut de 50%.
+     * @author Paul
+     * @param Xs Image source.
+     * @param s Taille des patchs.
+     * @return MatricePatchs des patchs de l'image.
+     */
+    public MatricePatchs extraireMatricePatchs(Img Xs, int s) {
+        return extraireMatricePatchs(Xs, s, 2);
+    }
+
+    /**
+     * @brief Construit la matrice des patchs avec un pas imposé entre deux patchs voisins : un pas plus grand
+     * réduit le nombre de patchs (et le calcul), un pas plus petit augmente le recouvrement.
+     * @author Paul
+     * @param Xs Image source (seul le premier canal est utilisé).
+     * @param s Taille des patchs.
+     * @param pas Pas entre deux patchs voisins, en pixels (au moins 1).
+     * @return MatricePatchs des patchs de l'image, bordures comprises.
+     * @throws IllegalArgumentException Si le pas est inférieur à 1.
+     */
+    public MatricePatchs extraireMatricePatchsParPas(Img Xs, int s, int pas) {
+        if (pas < 1) {
+            throw new IllegalArgumentException("Le pas entre deux patchs doit être au moins 1");
+        }
+        int[][] positions = calculerPositionsParPas(Xs.getHauteur(), Xs.getLargeur(), s, pas);
+        return new MatricePatchs(Xs.getCanal(0), Xs.getLargeur(), s, positions[0], positions[1]);
+    }
+
+    /**
+     * @brief Calcule le pas par défaut entre deux patchs, correspondant à un recouvrement de 50%.
+     * @author Paul
+     * @param s Taille des patchs.
+     * @return Pas par défaut (moitié de la taille des patchs, au moins 1).
+     */
+    public static int pasParDefaut(int s) {
+        return Math.max(1, s / 2);
+    }
+
+    /**
+     * @brief Calcule les positions des patchs selon le pas déduit du recouvrement, bordures comprises.
+     * @author Emma & Paul
+     * @param h Hauteur de l'image.
+     * @param w Largeur de l'image.
+     * @param s Taille des patchs.
+     * @param recouvrement Niveau de recouvrement.
+     * @return Tableau {lignes, colonnes} des coins supérieurs gauches, dans l'ordre d'extraction.
+     */
+    private int[][] calculerPositionsPatchs(int h, int w, int s, int recouvrement) {
         // Calculer le pas entre deux patchs adjacents
-        int pas = Math.max(1, s / recouvrement);
+        return calculerPositionsParPas(h, w, s, Math.max(1, s / recouvrement));
+    }
 
-        // Créer une matrice pour suivre les positions extraites
-        boolean[][] positionsExtraites = new boolean[h][w];
+    /**
+     * @brief Calcule les positions des patchs pour un pas donné, bordures comprises.
+     * @author Emma & Paul
+     * @param h Hauteur de l'image.
+     * @param w Largeur de l'image.
+     * @param s Taille des patchs.
+     * @param pas Pas entre deux patchs voisins.
+     * @return Tableau {lignes, colonnes} des coins supérieurs gauches, dans l'ordre d'extraction.
+     */
+    private int[][] calculerPositionsParPas(int h, int w, int s, int pas) {
+
+        int nbI = (h - s) / pas + 1;
+        int nbJ = (w - s) / pas + 1;
+        boolean bordureBas = (h - s) % pas != 0;
+        boolean bordureDroite = (w - s) % pas != 0;
+        int nbPatchs = nbI * nbJ + (bordureBas ? nbJ : 0) + (bordureDroite ? nbI : 0)
+                + (bordureBas && bordureDroite ? 1 : 0);
+
+        int[] lignes = new int[nbPatchs];
+        int[] colonnes = new int[nbPatchs];
+        int k = 0;
 
         // Pour chaque position possible de patch selon le pas
         for (int i = 0; i <= h - s; i += pas) {
             for (int j = 0; j <= w - s; j += pas) {
-                // Marquer cette position
-                positionsExtraites[i][j] = true;
-
-                // Créer et ajouter le patch
-                Patch patch = extrairePatch(imgPixels, i, j, s);
-
-                resPatch.ajouterPatch(patch, new Position(i, j));
-
+                lignes[k] = i;
+                colonnes[k++] = j;
             }
         }
 
         // Couvrir les bordures si nécessaire
-        if ((h - s) % pas != 0) {
-            int i = h - s;
+        if (bordureBas) {
             for (int j = 0; j <= w - s; j += pas) {
-                positionsExtraites[i][j] = true;
-                Patch patch = extrairePatch(imgPixels, i, j, s);
-                resPatch.ajouterPatch(patch, new Position(i, j));
+                lignes[k] = h - s;
+                colonnes[k++] = j;
             }
         }
 
-        if ((w - s) % pas != 0) {
-            int j = w - s;
+        if (bordureDroite) {
             for (int i = 0; i <= h - s; i += pas) {
-                positionsExtraites[i][j] = true;
-                Patch patch = extrairePatch(imgPixels, i, j, s);
-                resPatch.ajouterPatch(patch, new Position(i, j));
+                lignes[k] = i;
+                colonnes[k++] = w - s;
             }
         }
 
         // Coin inférieur droit
-        if ((h - s) % pas != 0 && (w - s) % pas != 0) {
-            positionsExtraites[h - s][w - s] = true;
-            Patch patch = extrairePatch(imgPixels, h - s, w - s, s);
-            resPatch.ajouterPatch(patch, new Position(h - s, w - s));
+        if (bordureBas && bordureDroite) {
+            lignes[k] = h - s;
+            colonnes[k] = w - s;
         }
 
-        return resPatch;
+        return new int[][] { lignes, colonnes };
     }
 
     /**
      * @brief Méthode auxiliaire privée pour extraire un patch de taille s à partir d'une position.
      * @author Paul & Alexis
-     * @param imgPixels Matrice de pixels de l'image.
+     * @param plan Plan du canal de l'image (stockage ligne par ligne).
+     * @param largeur Largeur de l'image.
      * @param i Coordonnée verticale du patch.
      * @param j Coordonnée horizontale du patch.
      * @param s Taille du patch.
      * @return Patch extrait.
      */
-    private Patch extrairePatch(Pixel[][] imgPixels, int i, int j, int s) {
-        Pixel[][] patchPixels = new Pixel[s][s];
+    private Patch extrairePatch(double[] plan, int largeur, int i, int j, int s) {
+        double[] valeurs = new double[s * s];
         for (int x = 0; x < s; x++) {
-            for (int y = 0; y < s; y++) {
-                patchPixels[x][y] = imgPixels[i + x][j + y];
-            }
+            System.arraycopy(plan, (i + x) * largeur + j, valeurs, x * s, s);
         }
-        return new Patch(patchPixels);
+        return new Patch(valeurs, s);
     }
 
     /**
@@ -129,118 +208,62 @@ public class GestionnairePatchs {
      */
     public Img reconstructionPatchs(ResultatPatch yPatchs, int l, int c, Img xB) {
 
-        // Dimension des matrices pour l'image reconstruite
-        Pixel[][] imgReconstitueePixels = new Pixel[l][c];
-        double[][][] sommePixels = new double[l][c][3];
-        int[][] compteur = new int[l][c];
+        // Plans d'accumulation pour l'image reconstruite
+        double[] sommePixels = new double[l * c];
+        int[] compteur = new int[l * c];
 
-        // Obtenir la taille des patchs
-        int taillePatch = -1;
-        for (PairePatchPosition p : yPatchs) {
-            taillePatch = p.getPatch().getTaille();
-            break;
-        }
-
-        if (taillePatch == -1) {
+        if (yPatchs.taille() == 0) {
             System.err.println("Erreur: impossible de déterminer la taille des patchs");
             return xB;
         }
 
-        // Matrice pour vérifier la couverture
-        boolean[][] pixelsCovered = new boolean[l][c];
-
-        if (xB.isEstRGB()) {
-
-            // Pour chaque patch
-            for (PairePatchPosition p : yPatchs) {
-                Position pPosition = p.getPosition();
-                Patch pPatch = p.getPatch();
-
-                // Pour chaque pixel du patch
-                for (int i = 0; i < pPatch.getTaille(); i++) {
-                    for (int j = 0; j < pPatch.getTaille(); j++) {
-                        int posY = pPosition.getI() + i;
-                        int posX = pPosition.getJ() + j;
-
-                        // Vérifier que le pixel est dans les limites de l'image
-                        if (posY < l && posX < c) {
-                            // Récupérer et cliper la valeur
-                            double[] valeurs = pPatch.getPixels()[i][j].getValeurs();
-                            for (int k = 0; k < 3; k++) {
-                                double valeur = Math.min(255, Math.max(0, valeurs[k]));
-                                sommePixels[posY][posX][k] += valeur;
-                            }
-
-                            // Accumuler la valeur et incrémenter le compteur
-                            compteur[posY][posX]++;
-                            pixelsCovered[posY][posX] = true;
-                        }
-                    }
-                }
-            }
-            // Créer l'image finale en moyennant les valeurs
-            for (int i = 0; i < l; i++) {
-                for (int j = 0; j < c; j++) {
-                    if (compteur[i][j] > 0) {
-                        int[] valeursFinales = new int[3];
-                        // Calculer la moyenne et limiter aux valeurs valides
-                        for (int k = 0; k < 3; k++) {
-                            double valeur = sommePixels[i][j][k] / compteur[i][j];
-                            valeur = Math.min(255, Math.max(0, Math.round(valeur)));
-                            valeursFinales[k] = (int) valeur;
-                        }
-
-                    } else {
-                        // Pour les pixels non couverts, utiliser l'image originale
-                        imgReconstitueePixels[i][j] = new Pixel(xB.getPixel(i, j).getValeurs());
-                    }
+        // Pour chaque patch
+        for (PairePatchPosition p : yPatchs) {
+            Position pPosition = p.getPosition();
+            Patch pPatch = p.getPatch();
+            double[] valeurs = pPatch.getValeurs();
+            int taille = pPatch.getTaille();
+
+            // Pour chaque pixel du patch
+            for (int i = 0; i < taille; i++) {
+                int posY = pPosition.getI() + i;
+                if (posY >= l) {
+                    break;
                 }
-            }
+                for (int j = 0; j < taille; j++) {
+                    int posX = pPosition.getJ() + j;
+
+                    // Vérifier que le pixel est dans les limites de l'image
+                    if (posX < c) {
+                        // Récupérer et cliper la valeur
+                        double valeur = Math.min(255, Math.max(0, valeurs[i * taille + j]));
 
-        } else {
-            // Pour chaque patch
-            for (PairePatchPosition p : yPatchs) {
-                Position pPosition = p.getPosition();
-                Patch pPatch = p.getPatch();
-
-                // Pour chaque pixel du patch
-                for (int i = 0; i < pPatch.getTaille(); i++) {
-                    for (int j = 0; j < pPatch.getTaille(); j++) {
-                        int posY = pPosition.getI() + i;
-                        int posX = pPosition.getJ() + j;
-
-                        // Vérifier que le pixel est dans les limites de l'image
-                        if (posY < l && posX < c) {
-                            // Récupérer et cliper la valeur
-                            double valeur = pPatch.getPixels()[i][j].getValeur();
-                            valeur = Math.min(255, Math.max(0, valeur));
-
-                            // Accumuler la valeur et incrémenter le compteur
-                            sommePixels[posY][posX][0] += valeur;
-                            compteur[posY][posX]++;
-                            pixelsCovered[posY][posX] = true;
-                        }
+                        // Accumuler la valeur et incrémenter le compteur
+                        sommePixels[posY * c + posX] += valeur;
+                        compteur[posY * c + posX]++;
                     }
                 }
             }
-            // Créer l'image finale en moyennant les valeurs
-            for (int i = 0; i < l; i++) {
-                for (int j = 0; j < c; j++) {
-                    if (compteur[i][j] > 0) {
-                        // Calculer la moyenne et limiter aux valeurs valides
-                        double valeur = sommePixels[i][j][0] / compteur[i][j];
-                        valeur = Math.min(255, Math.max(0, Math.round(valeur)));
-                        imgReconstitueePixels[i][j] = new Pixel(valeur);
-                    } else {
-                        // Pour les pixels non couverts, utiliser l'image originale
-                        imgReconstitueePixels[i][j] = new Pixel(xB.getPixel(i, j).getValeur());
-                    }
+        }
+
+        // Créer l'image finale en moyennant les valeurs
+        double[] plan = new double[l * c];
+        double[] planBruite = xB.getCanal(0);
+        for (int i = 0; i < l; i++) {
+            for (int j = 0; j < c; j++) {
+                int index = i * c + j;
+                if (compteur[index] > 0) {
+                    // Calculer la moyenne et limiter aux valeurs valides
+                    double valeur = sommePixels[index] / compteur[index];
+                    plan[index] = Math.min(255, Math.max(0, Math.round(valeur)));
+                } else {
+                    // Pour les pixels non couverts, utiliser l'image originale
+                    plan[index] = planBruite[i * xB.getLargeur() + j];
                 }
             }
-
         }
 
-        return new Img(imgReconstitueePixels, xB.isEstRGB());
+        return new Img(new double[][] { plan }, l, c);
     }
 
     /**
@@ -256,15 +279,8 @@ public class GestionnairePatchs {
             Position pPosition = p.getPosition();
             Patch pPatch = p.getPatch();
             if (pPosition != null) {
-                double[] valeurs = new double[pPatch.getTaille() * pPatch.getTaille()];
-                int pos = 0;
-
-                for (int x = 0; x < pPatch.getTaille(); x++) {
-                    for (int y = 0; y < pPatch.getTaille(); y++) {
-                        valeurs[pos++] = pPatch.getPixels()[x][y].getValeur();
-                    }
-                }
-                resVect.ajouterVecteur(new Vecteur(valeurs), pPosition);
+                // Les valeurs du patch sont déjà contiguës : le vecteur les partage sans copie
+                resVect.ajouterVecteur(new Vecteur(pPatch.getValeurs()), pPosition);
             }
         }
 
@@ -285,56 +301,18 @@ public class GestionnairePatchs {
         int imgLargeur = x.getLargeur();
         int imgHauteur = x.getHauteur();
 
-        int chevauchementX = (int) Math.ceil((double) pF.getChevauchementCombineX() / (pF.getNombreFenetresX() - 1));
-        int chevauchementY = (int) Math.ceil((double) pF.getChevauchementCombineY() / (pF.getNombreFenetresY() - 1));
-
-        int dernierePositionX = imgLargeur - tailleFenetre;
-        int dernierePositionY = imgHauteur - tailleFenetre;
-
-        for (int indexFenetreX = 0, chevauchementXAcc = 0; indexFenetreX < pF
-                .getNombreFenetresX(); indexFenetreX++, chevauchementXAcc += chevauchementX) {
-            int posX = (indexFenetreX + 1 == pF.getNombreFenetresX()) ? dernierePositionX
-                    : (tailleFenetre * indexFenetreX + 1) - chevauchementXAcc;
-
-            // Sécurité sur les bornes
-            if (posX < 0) {
-                posX = 0;
-            }
-            if (posX + tailleFenetre > imgLargeur) {
-                continue;
-            }
-
-            for (int indexFenetreY = 0, chevauchementYAcc = 0; indexFenetreY < pF
-                    .getNombreFenetresY(); indexFenetreY++, chevauchementYAcc += chevauchementY) {
-                int posY = (indexFenetreY + 1 == pF.getNombreFenetresY()) ? dernierePositionY
-                        : (tailleFenetre * indexFenetreY + 1) - chevauchementYAcc;
-
-                // Sécurité sur les bornes
-                if (posY < 0) {
-                    posY = 0;
-                }
-                if (posY + tailleFenetre > imgHauteur) {
-                    continue;
-                }
-
-                Pixel[][] fPixels = new Pixel[tailleFenetre][tailleFenetre];
-                for (int i = 0; i < tailleFenetre; i++) {
-                    for (int j = 0; j < tailleFenetre; j++) {
-                        Pixel px = x.getPixel(posY + i, posX + j);
-
-                        if (x.isEstRGB()) {
-                            // Pour les pixels RGB
-                            fPixels[i][j] = new Pixel(px.getValeur(0), px.getValeur(1), px.getValeur(2));
-                        } else {
-                            // Pour les pixels en niveaux de gris
-                            fPixels[i][j] = new Pixel(px.getValeur(0));
-                        }
-
-                        fPixels[i][j].setNbChevauchement(px.getNbChevauchement() + 1);
+        for (int posX : pF.positionsX(imgLargeur)) {
+            for (int posY : pF.positionsY(imgHauteur)) {
+                double[][] fCanaux = new double[x.getNbCanaux()][tailleFenetre * tailleFenetre];
+                for (int k = 0; k < fCanaux.length; k++) {
+                    double[] plan = x.getCanal(k);
+                    for (int i = 0; i < tailleFenetre; i++) {
+                        System.arraycopy(plan, (posY + i) * imgLargeur + posX, fCanaux[k], i * tailleFenetre,
+                                tailleFenetre);
                     }
                 }
 
-                Img fImage = new Img(fPixels, x.isEstRGB());
+                Img fImage = new Img(fCanaux, tailleFenetre, tailleFenetre);
                 Fenetre f = new Fenetre(fImage, new Position(posY, posX));
                 fenetresList.add(f);
             }
@@ -360,17 +338,13 @@ public class GestionnairePatchs {
                 double[] valeurs = vecteursReconstruits.getVecteurs().get(k).getValeurs();
                 Position position = vecteursReconstruits.getPositions().get(k);
 
-                Pixel[][] patchPixels = new Pixel[taillePatch][taillePatch];
+                double[] patchValeurs = new double[taillePatch * taillePatch];
 
-                for (int i = 0; i < taillePatch; i++) {
-                    for (int j = 0; j < taillePatch; j++) {
-                        int index = i * taillePatch + j;
-                        int valeur = (int) Math.min(255, Math.max(0, Math.round(valeurs[index])));
-                        patchPixels[i][j] = new Pixel(valeur);
-                    }
+                for (int index = 0; index < patchValeurs.length; index++) {
+                    patchValeurs[index] = (int) Math.min(255, Math.max(0, Math.round(valeurs[index])));
                 }
 
-                Patch patch = new Patch(patchPixels);
+                Patch patch = new Patch(patchValeurs, taillePatch);
                 resultatPatch.ajouterPatch(patch, position);
 
             }
@@ -0,0 +1,276 @@
+/**
+ * @file MoteurSeuillage.java
+ * @brief Moteur de seuillage en place d'une matrice de coefficients, dont la stratégie est résolue une seule fois.
+ */
+
+package service.seuillage;
+
+/**
+ * @class MoteurSeuillage
+ * @brief Applique un seuillage (dur ou doux) avec un seuil VisuShrink ou BayesShrink à toutes les lignes d'une
+ * matrice de coefficients stockée de façon contiguë, sans allocation.
+ * @author Paul
+ */
+public final class MoteurSeuillage {
+
+    /**
+     * @enum TypeSeuil
+     * @brief Règle de calcul du seuil.
+     */
+    public enum TypeSeuil {
+        //Seuil global, identique pour tous les patchs
+        VISU_SHRINK("VisuShrink"),
+        //Seuil adapté à la variance des coefficients de chaque patch
+        BAYES_SHRINK("BayesShrink");
+
+        //Nom utilisé par l'interface et la ligne de commande
+        private final String nom;
+
+        TypeSeuil(String nom) {
+            this.nom = nom;
+        }
+
+        /**
+         * @brief Retrouve un type de seuil à partir de son nom (sans tenir compte de la casse).
+         * @author Paul
+         * @param nom "VisuShrink" ou "BayesShrink".
+         * @return Type de seuil correspondant.
+         * @throws IllegalArgumentException Si le nom n'est pas reconnu.
+         */
+        public static TypeSeuil depuisNom(String nom) {
+            for (TypeSeuil type : values()) {
+                if (type.nom.equalsIgnoreCase(nom)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Type de seuil non reconnu : " + nom);
+        }
+
+        @Override
+        public String toString() {
+            return nom;
+        }
+    }
+
+    /**
+     * @enum Fonction
+     * @brief Fonction de seuillage appliquée aux coefficients.
+     */
+    public enum Fonction {
+        //Seuillage dur : les coefficients sous le seuil sont annulés, les autres conservés
+        DUR("Dur"),
+        //Seuillage doux : les coefficients sous le seuil sont annulés, les autres rapprochés de zéro
+        DOUX("Doux");
+
+        //Nom utilisé par l'interface et la ligne de commande
+        private final String nom;
+
+        Fonction(String nom) {
+            this.nom = nom;
+        }
+
+        /**
+         * @brief Retrouve une fonction de seuillage à partir de son nom (sans tenir compte de la casse).
+         * @author Paul
+         * @param nom "Dur" ou "Doux".
+         * @return Fonction de seuillage correspondante.
+         * @throws IllegalArgumentException Si le nom n'est pas reconnu.
+         */
+        public static Fonction depuisNom(String nom) {
+            for (Fonction fonction : values()) {
+                if (fonction.nom.equalsIgnoreCase(nom)) {
+                    return fonction;
+                }
+            }
+            throw new IllegalArgumentException("Fonction de seuillage non reconnue : " + nom);
+        }
+
+        @Override
+        public String toString() {
+            return nom;
+        }
+    }
+
+    //Règle de calcul du seuil
+    private final TypeSeuil type;
+    //Fonction de seuillage
+    private final Fonction fonction;
+    //Écart-type du bruit
+    private final double sigma;
+    //Seuil global (utilisé seulement en VisuShrink)
+    private final double lambdaGlobal;
+
+    /**
+     * @brief Constructeur du moteur de seuillage.
+     * @author Paul
+     * @param type         Règle de calcul du seuil.
+     * @param fonction     Fonction de seuillage.
+     * @param sigma        Écart-type du bruit.
+     * @param lambdaGlobal Seuil global, utilisé seulement en VisuShrink.
+     */
+    public MoteurSeuillage(TypeSeuil type, Fonction fonction, double sigma, double lambdaGlobal) {
+        this.type = type;
+        this.fonction = fonction;
+        this.sigma = sigma;
+        this.lambdaGlobal = lambdaGlobal;
+    }
+
+    /**
+     * @brief Seuille en place chaque ligne d'une matrice de coefficients.
+     * @author Paul
+     * @param coefficients Matrice des coefficients (nbLignes × dimension, ligne par ligne), modifiée en place.
+     * @param nbLignes     Nombre de lignes (patchs) à seuiller.
+     * @param dimension    Nombre de coefficients par ligne.
+     */
+    public void seuiller(double[] coefficients, int nbLignes, int dimension) {
+        for (int ligne = 0; ligne < nbLignes; ligne++) {
+            seuillerLigne(coefficients, ligne * dimension, dimension);
+        }
+    }
+
+    /**
+     * @brief Seuille en place une ligne de coefficients ; en BayesShrink, le seuil est calculé sur cette ligne
+     * pendant le même parcours, tant qu'elle est en cache.
+     * @author Paul
+     * @param coefficients Tableau des coefficients, modifié en place.
+     * @param debut        Position du premier coefficient de la ligne.
+     * @param dimension    Nombre de coefficients de la ligne.
+     */
+    public void seuillerLigne(double[] coefficients, int debut, int dimension) {
+        double lambda = type == TypeSeuil.BAYES_SHRINK ? seuilBayes(coefficients, debut, dimension, sigma)
+                : lambdaGlobal;
+        int fin = debut + dimension;
+        if (fonction == Fonction.DUR) {
+            for (int i = debut; i < fin; i++) {
+                if (Math.abs(coefficients[i]) <= lambda) {
+                    coefficients[i] = 0;
+                }
+            }
+        } else {
+            for (int i = debut; i < fin; i++) {
+                double v = coefficients[i];
+                coefficients[i] = v > lambda ? v - lambda : v < -lambda ? v + lambda : 0;
+            }
+        }
+    }
+
+    /**
+     * @brief Calcule le seuil BayesShrink d'une ligne de coefficients.
+     * @author Paul
+     * @param coefficients Tableau des coefficients.
+     * @param debut        Position du premier coefficient de la ligne.
+     * @param dimension    Nombre de coefficients de la ligne.
+     * @param sigma        Écart-type du bruit.
+     * @return σ² / σ_signal, la variance du signal étant estimée par max(Var(α) − σ², 1e-6).
+     */
+    static double seuilBayes(double[] coefficients, int debut, int dimension, double sigma) {
+        double varianceBruit = sigma * sigma;
+        int fin = debut + dimension;
+
+        double moyenne = 0.0;
+        for (int i = debut; i < fin; i++) {
+            moyenne += coefficients[i];
+        }
+        moyenne /= dimension;
+
+        double varY = 0.0;
+        for (int i = debut; i < fin; i++) {
+            double ecart = coefficients[i] - moyenne;
+            varY += ecart * ecart;
+        }
+        varY /= dimension;
+
+        double varianceSignal = Math.max(varY - varianceBruit, 1e-6);
+
+        return varianceBruit / Math.sqrt(varianceSignal);
+    }
+
+    /**
+     * @brief Seuille en place chaque ligne d'une matrice de coefficients en simple précision.
+     * @author Paul
+     * @param coefficients Matrice des coefficients (nbLignes × dimension, ligne par ligne), modifiée en place.
+     * @param nbLignes     Nombre de lignes (patchs) à seuiller.
+     * @param dimension    Nombre de coefficients par ligne.
+     */
+    public void seuiller(float[] coefficients, int nbLignes, int dimension) {
+        for (int ligne = 0; ligne < nbLignes; ligne++) {
+            seuillerLigne(coefficients, ligne * dimension, dimension);
+        }
+    }
+
+    /**
+     * @brief Seuille en place une ligne de coefficients en simple précision ; le seuil lui-même est calculé en
+     * double.
+     * @author Paul
+     * @param coefficients Tableau des coefficients, modifié en place.
+     * @param debut        Position du premier coefficient de la ligne.
+     * @param dimension    Nombre de coefficients de la ligne.
+     */
+    public void seuillerLigne(float[] coefficients, int debut, int dimension) {
+        float lambda = (float) (type == TypeSeuil.BAYES_SHRINK ? seuilBayes(coefficients, debut, dimension, sigma)
+                : lambdaGlobal);
+        int fin = debut + dimension;
+        if (fonction == Fonction.DUR) {
+            for (int i = debut; i < fin; i++) {
+                if (Math.abs(coefficients[i]) <= lambda) {
+                    coefficients[i] = 0;
+                }
+            }
+        } else {
+            for (int i = debut; i < fin; i++) {
+                float v = coefficients[i];
+                coefficients[i] = v > lambda ? v - lambda : v < -lambda ? v + lambda : 0;
+            }
+        }
+    }
+
+    /**
+     * @brief Calcule le seuil BayesShrink d'une ligne de coefficients en simple précision, les sommes étant
+     * accumulées en double.
+     * @author Paul
+     * @param coefficients Tableau des coefficients.
+     * @param debut        Position du premier coefficient de la ligne.
+     * @param dimension    Nombre de coefficients de la ligne.
+     * @param sigma        Écart-type du bruit.
+     * @return σ² / σ_signal, la variance du signal étant estimée par max(Var(α) − σ², 1e-6).
+     */
+    static double seuilBayes(float[] coefficients, int debut, int dimension, double sigma) {
+        double varianceBruit = sigma * sigma;
+        int fin = debut + dimension;
+
+        double moyenne = 0.0;
+        for (int i = debut; i < fin; i++) {
+            moyenne += coefficients[i];
+        }
+        moyenne /= dimension;
+
+        double varY = 0.0;
+        for (int i = debut; i < fin; i++) {
+            double ecart = coefficients[i] - moyenne;
+            varY += ecart * ecart;
+        }
+        varY /= dimension;
+
+        double varianceSignal = Math.max(varY - varianceBruit, 1e-6);
+
+        return varianceBruit / Math.sqrt(varianceSignal);
+    }
+
+    /**
+     * @brief Retourne la règle de calcul du seuil.
+     * @author Paul
+     * @return Type de seuil.
+     */
+    public TypeSeuil getType() {
+        return type;
+    }
+
+    /**
+     * @brief Retourne la fonction de seuillage.
+     * @author Paul
+     * @return Fonction de seuillage.
+     */
+    public Fonction getFonction() {
+        return fonction;
+    }
+}
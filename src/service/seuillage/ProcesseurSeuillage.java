@@ -39,19 +39,7 @@ public class ProcesseurSeuillage {
      * @return La valeur du seuil calculée.
      */
     public double seuilB(double[] alpha, double sigma) {
-        double varianceBruit = sigma * sigma;
-
-        double mean = 0.0;
-        for (double v : alpha) mean += v;
-        mean /= alpha.length;
-
-        double varY = 0.0;
-        for (double v : alpha) varY += (v - mean) * (v - mean);
-        varY /= alpha.length;
-
-        double varianceSignal = Math.max(varY - varianceBruit, 1e-6);
-
-        return varianceBruit / Math.sqrt(varianceSignal);
+        return MoteurSeuillage.seuilBayes(alpha, 0, alpha.length, sigma);
     }
 
     /**
@@ -96,6 +84,23 @@ public class ProcesseurSeuillage {
         return resultat;
     }
     
+    /**
+     * @brief Construit un moteur de seuillage en résolvant une seule fois le type de seuil et la fonction.
+     * @author Paul
+     * @param typeSeuil         Le type de seuil à utiliser : "VisuShrink" ou "BayesShrink".
+     * @param fonctionSeuillage La fonction de seuillage : "Dur" ou "Doux".
+     * @param sigma             L'écart-type du bruit estimé dans l'image.
+     * @param xB                L'image bruitée (sert au calcul du seuil VisuShrink).
+     * @return Moteur de seuillage prêt à traiter des matrices de coefficients.
+     * @throws IllegalArgumentException Si le type de seuil ou la fonction de seuillage est invalide.
+     */
+    public MoteurSeuillage moteur(String typeSeuil, String fonctionSeuillage, double sigma, Img xB) {
+        MoteurSeuillage.TypeSeuil type = MoteurSeuillage.TypeSeuil.depuisNom(typeSeuil);
+        MoteurSeuillage.Fonction fonction = MoteurSeuillage.Fonction.depuisNom(fonctionSeuillage);
+        double lambdaGlobal = type == MoteurSeuillage.TypeSeuil.VISU_SHRINK ? seuilV(xB, sigma) : 0.0;
+        return new MoteurSeuillage(type, fonction, sigma, lambdaGlobal);
+    }
+
     /**
      * @brief Applique un seuillage (dur ou doux) sur les coefficients projetés.
      * @author Emma
@@ -109,31 +114,13 @@ public class ProcesseurSeuillage {
      * @throws IllegalArgumentException Si le type de seuil ou la fonction de seuillage est invalide.
      */
     public ResultatVecteur seuillage(ResultatVecteur alphaProj, String typeSeuil, String fonctionSeuillage, double sigma, Img xB, Matrice gamma) {
-        double lambdaGlobal = 0.0;
-        boolean isBayes = false;
-
-        if (typeSeuil.equalsIgnoreCase("VisuShrink")) {
-            lambdaGlobal = seuilV(xB, sigma);
-        } else if (typeSeuil.equalsIgnoreCase("BayesShrink")) {
-            isBayes = true; // on utilisera seuilB(alpha_i, sigma) dans la boucle
-        } else {
-            throw new IllegalArgumentException("Type de seuil non reconnu : " + typeSeuil);
-        }
+        MoteurSeuillage moteur = moteur(typeSeuil, fonctionSeuillage, sigma, xB);
 
         ResultatVecteur resSeuil = new ResultatVecteur();
 
         for (int i = 0; i < alphaProj.taille(); i++) {
-            double[] alphaValues = alphaProj.getVecteurs().get(i).getValeurs();
-            double lambda = isBayes ? seuilB(alphaValues, sigma) : lambdaGlobal;
-
-            if (fonctionSeuillage.equalsIgnoreCase("Dur")) {
-                alphaValues = seuillageDur(lambda, alphaValues.clone());
-            } else if (fonctionSeuillage.equalsIgnoreCase("Doux")) {
-                alphaValues = seuillageDoux(lambda, alphaValues.clone());
-            } else {
-                throw new IllegalArgumentException("Fonction de seuillage non reconnue : " + fonctionSeuillage);
-            }
-
+            double[] alphaValues = alphaProj.getVecteurs().get(i).getValeurs().clone();
+            moteur.seuillerLigne(alphaValues, 0, alphaValues.length);
             resSeuil.ajouterVecteur(new Vecteur(alphaValues), alphaProj.getPositions().get(i));
         }
 
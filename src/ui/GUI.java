@@ -6,7 +6,10 @@
 package ui;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.Map;
+
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
@@ -44,9 +47,11 @@ import javafx.scene.transform.Scale;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import model.base.Img;
-import model.base.Pixel;
+import model.qualite.ResultatQualite;
 import service.bruit.BruiteurImage;
+import service.cache.CacheResultats;
 import service.debruitage.DebruiteurImage;
+import service.debruitage.ProfilDebruitage;
 import service.evaluation.EvaluationQualite;
 
 /**
@@ -79,6 +84,9 @@ public class GUI extends Application {
 	private Img imgBruitee;
 	private Img imgDebruitee;
 
+	// Cache des résultats, partagé avec la ligne de commande
+	private final CacheResultats cache = new CacheResultats();
+
 	// Paramètres
 	private ComboBox<String> choixMode;
 	private VBox widgetsBox;
@@ -88,6 +96,8 @@ public class GUI extends Application {
 	private ToggleGroup tgPatchLocal;
 	private ToggleGroup tgPatchGlobal;
 	private TextField textFieldFenetre;
+	private ComboBox<String> choixProfil;
+	private TextField textFieldPas;
 	private double sigmaActuel = 10.0;
 
 	// Barre de progression
@@ -414,9 +424,29 @@ public class GUI extends Application {
 		HBox fonctionSeuillageBox = new HBox(20, rbDur, rbDoux);
 		fonctionSeuillageBox.setAlignment(Pos.CENTER_LEFT);
 
+		// Profil : pas des patchs, recouvrement des fenêtres et troncature de l'ACP
+		Label labelProfil = new Label("Profil:");
+		labelProfil.setStyle("-fx-text-fill: white; -fx-font-size: 14px;");
+
+		choixProfil = new ComboBox<>();
+		choixProfil.getItems().addAll("Rapide", "Équilibré", "Qualité");
+		choixProfil.setValue("Équilibré");
+		choixProfil.setMaxWidth(Double.MAX_VALUE);
+		choixProfil.getStyleClass().add("combo-box-custom");
+
+		// Pas des patchs, vide pour celui du profil
+		Label labelPas = new Label("Pas des patchs:");
+		labelPas.setStyle("-fx-text-fill: white; -fx-font-size: 14px;");
+
+		textFieldPas = new TextField();
+		textFieldPas.setPromptText("Selon le profil");
+		textFieldPas.getStyleClass().add("text-field-custom");
+		textFieldPas.setPrefWidth(100);
+
 		// Assemblage
 		paramsBox.getChildren().addAll(modeLabel, choixMode, widgetsBox, sliderLabel, sigmaSlider, labelTypeSeuillage,
-				typeSeuillageBox, labelFonctionSeuillage, fonctionSeuillageBox);
+				typeSeuillageBox, labelFonctionSeuillage, fonctionSeuillageBox, labelProfil, choixProfil, labelPas,
+				textFieldPas);
 
 		return paramsBox;
 	}
@@ -676,10 +706,35 @@ public class GUI extends Application {
 							if (modeLocal) {
 								tailleFenetre = getFenetreSize(stage);
 							}
+							ProfilDebruitage profil = ProfilDebruitage.depuisNom(choixProfil.getValue());
+							int pas = getPas(stage, taillePatch);
+							int pasEffectif = pas > 0 ? pas : profil.pas(taillePatch);
 							
-							DebruiteurImage debruiteur = new DebruiteurImage();
-							imgDebruitee = debruiteur.imageDen(imgBruitee, typeSeuil, fonctionSeuillage, sigmaActuel,
-									taillePatch, tailleFenetre, modeLocal);
+							// Résultat déjà calculé pour cette image bruitée et ces paramètres
+							String cle = CacheResultats.cle(new Img[] { imgBruitee }, "entree=bruitee",
+									"mode=" + (modeLocal ? "local" : "global"), "patch_size=" + taillePatch,
+									"fenetre_size=" + (modeLocal ? tailleFenetre : 0), "sigma=" + sigmaActuel,
+									"shrink=" + typeSeuil, "threshold=" + fonctionSeuillage, "bases=",
+									"profil=" + profil.getNomAnglais(), "pas=" + pasEffectif);
+							CacheResultats.Entree entree = cache.trouver(cle);
+							Img imgCache = entree != null ? entree.lireImage("xR") : null;
+							if (imgCache != null) {
+								imgDebruitee = imgCache;
+							} else {
+								DebruiteurImage debruiteur = new DebruiteurImage();
+								debruiteur.setProfil(profil, taillePatch, sigmaActuel);
+								debruiteur.setPas(pasEffectif);
+								imgDebruitee = debruiteur.imageDen(imgBruitee, typeSeuil, fonctionSeuillage,
+										sigmaActuel, taillePatch, tailleFenetre, modeLocal);
+								try {
+									EvaluationQualite eval = new EvaluationQualite();
+									ResultatQualite qualite = new ResultatQualite(eval.mse(imgOriginale, imgDebruitee),
+											eval.psnr(imgOriginale, imgDebruitee));
+									cache.enregistrerImages(cle, qualite, Map.of("xR", imgDebruitee));
+								} catch (IOException ex) {
+									System.err.println("Résultat non enregistré dans le cache : " + ex.getMessage());
+								}
+							}
 						} catch (Exception ex) {
 							ex.printStackTrace();
 							Platform.runLater(
@@ -795,6 +850,30 @@ public class GUI extends Application {
 		return 250;
 	}
 
+	/**
+	 * @brief Récupère le pas entre deux patchs saisi par l'utilisateur.
+	 * @author Paul
+	 * @param stage       La fenêtre principale, pour les alertes.
+	 * @param taillePatch Taille des patchs sélectionnée.
+	 * @return Le pas saisi, ou 0 (pas du profil) si le champ est vide ou invalide.
+	 */
+	private int getPas(Stage stage, int taillePatch) {
+		String texte = textFieldPas.getText().trim();
+		if (texte.isEmpty()) {
+			return 0;
+		}
+		try {
+			int pas = Integer.parseInt(texte);
+			if (pas >= 1 && pas <= taillePatch) {
+				return pas;
+			}
+			afficherAlerte(stage, "Pas incorrect (entre 1 et la taille des patchs), utilisation du pas du profil");
+		} catch (NumberFormatException e) {
+			afficherAlerte(stage, "Pas invalide, utilisation du pas du profil");
+		}
+		return 0;
+	}
+
 	/**
 	 * @brief Récupère la taille du patch sélectionné selon le mode choisi.
 	 * @author Alexis
@@ -1033,7 +1112,7 @@ public class GUI extends Application {
 		// Détection automatique si l'image est en couleur ou niveaux de gris
 		boolean estRGB = detecterSiImageEstRGB(imageFx, lecteurPixels, largeur, hauteur);
 
-		Pixel[][] pixels = new Pixel[hauteur][largeur];
+		double[][] canaux = new double[estRGB ? 3 : 1][hauteur * largeur];
 
 		if (estRGB) {
 			// Traitement pour image RGB
@@ -1051,7 +1130,9 @@ public class GUI extends Application {
 					g = Math.max(0, Math.min(255, g));
 					b = Math.max(0, Math.min(255, b));
 
-					pixels[y][x] = new Pixel(r, g, b);
+					canaux[0][y * largeur + x] = r;
+					canaux[1][y * largeur + x] = g;
+					canaux[2][y * largeur + x] = b;
 				}
 			}
 		} else {
@@ -1068,12 +1149,12 @@ public class GUI extends Application {
 					niveauGris *= 255.0;
 					niveauGris = Math.max(0, Math.min(255, niveauGris));
 
-					pixels[y][x] = new Pixel(niveauGris);
+					canaux[0][y * largeur + x] = niveauGris;
 				}
 			}
 		}
 
-		return new Img(pixels, estRGB);
+		return new Img(canaux, hauteur, largeur);
 	}
 
 	/**
@@ -1130,12 +1211,12 @@ public class GUI extends Application {
 			// Traitement pour image RGB
 			for (int y = 0; y < hauteur; y++) {
 				for (int x = 0; x < largeur; x++) {
-					Pixel pixel = img.getPixel(y, x);
+					int index = y * largeur + x;
 
 					// Récupération des composantes RGB et normalisation entre 0 et 1
-					double r = pixel.getValeur(0) / 255.0;
-					double g = pixel.getValeur(1) / 255.0;
-					double b = pixel.getValeur(2) / 255.0;
+					double r = img.getCanal(0)[index] / 255.0;
+					double g = img.getCanal(1)[index] / 255.0;
+					double b = img.getCanal(2)[index] / 255.0;
 
 					// Limiter les valeurs entre 0 et 1
 					r = Math.max(0, Math.min(1, r));
@@ -1150,10 +1231,8 @@ public class GUI extends Application {
 			// Traitement pour image en niveaux de gris
 			for (int y = 0; y < hauteur; y++) {
 				for (int x = 0; x < largeur; x++) {
-					Pixel pixel = img.getPixel(y, x);
-
 					// Récupération de la valeur du pixel et normalisation entre 0 et 1
-					double valeur = pixel.getValeur() / 255.0;
+					double valeur = img.getCanal(0)[y * largeur + x] / 255.0;
 					valeur = Math.max(0, Math.min(1, valeur));
 
 					Color couleur = new Color(valeur, valeur, valeur, 1.0);